@@ -24,55 +24,129 @@
 package org.osiam.security.authentication;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.http.HttpStatus;
 import org.osiam.helper.HttpClientHelper;
 import org.osiam.helper.HttpClientRequestResult;
+import org.osiam.helper.InProcessEndpoint;
 import org.osiam.resources.UserSpring;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Mainly used for demonstration, it is used to validate the user login, before he grants or denies the client access to
  * a resource.
+ * <p>
+ * Users found by the resource server are cached for {@code osiam.user.cache.ttlSeconds}, so repeated logins of the
+ * same user within a short time load it only once. A changed password or active flag takes effect after this time. The
+ * JSON of a user is cached instead of the {@link UserSpring}, because Spring Security erases the credentials of the
+ * returned user.
+ * <p>
+ * If {@code osiam.colocated} is enabled and the resource server is deployed in the same JVM, the users are loaded in
+ * process instead, see {@link InProcessEndpoint}, and not cached.
  */
 @Named("userDetailsService")
 public class AuthenticationBean implements UserDetailsService {
 
+    /**
+     * The number of users cached at most, further users are not cached until the cached ones expire.
+     */
+    private static final int MAX_CACHED_USERS = 10000;
+
     @Value("${osiam.server.port}")
     private int serverPort;
     @Value("${osiam.server.host}")
     private String serverHost;
     @Value("${osiam.server.http.scheme}")
     private String httpScheme;
+    @Value("${osiam.user.cache.ttlSeconds:5}")
+    private long cacheTimeToLiveSeconds = 5;
+    @Value("${osiam.colocated:false}")
+    private boolean colocated;
     @Inject
     private HttpClientHelper httpClientHelper;
 
     private ObjectMapper mapper; // NOSONAR : need to mock the dependency therefor the final identifier was removed
 
+    private final ConcurrentMap<String, CachedUser> cachedUsers = new ConcurrentHashMap<>();
+
+    private final InProcessEndpoint resourceServer = new InProcessEndpoint(InProcessEndpoint.RESOURCE_SERVER);
+
     public AuthenticationBean() {
         mapper = new ObjectMapper();
     }
 
     @Override
     public UserDetails loadUserByUsername(final String username) {
+        if (colocated && resourceServer.isRegistered()) {
+            Map<String, Object> user = resourceServer.invoke("getUser", username);
+            if (user == null) {
+                throw new UsernameNotFoundException("User " + username + " not found");
+            }
+            return mapper.convertValue(user, UserSpring.class);
+        }
+
+        CachedUser cachedUser = cachedUsers.get(username);
+        if (cachedUser != null && cachedUser.expiresAt > System.currentTimeMillis()) {
+            return readUser(cachedUser.body);
+        }
+
         final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort
                 + "/osiam-resource-server/authentication/user";
 
         final HttpClientRequestResult result = httpClientHelper.executeHttpPost(serverUri, username, null, null);
+        final UserSpring userSpring = readUser(result.getBody());
 
-        final UserSpring userSpring;
+        if (result.getStatusCode() == HttpStatus.SC_OK) {
+            if (cachedUsers.size() >= MAX_CACHED_USERS) {
+                removeExpiredUsers();
+            }
+            if (cachedUsers.size() < MAX_CACHED_USERS) {
+                cachedUsers.put(username, new CachedUser(result.getBody(),
+                        System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(cacheTimeToLiveSeconds)));
+            }
+        }
+        return userSpring;
+    }
+
+    private void removeExpiredUsers() {
+        long now = System.currentTimeMillis();
+        Iterator<CachedUser> iterator = cachedUsers.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private UserSpring readUser(String body) {
         try {
-            userSpring = mapper.readValue(result.getBody(), UserSpring.class);
+            return mapper.readValue(body, UserSpring.class);
         } catch (IOException e) {
             throw new RuntimeException(e); // NOSONAR : Need only wrapping to a runtime exception
         }
+    }
 
-        return userSpring;
+    private static final class CachedUser {
+
+        private final String body;
+        private final long expiresAt;
+
+        private CachedUser(String body, long expiresAt) {
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
     }
-}
\ No newline at end of file
+}
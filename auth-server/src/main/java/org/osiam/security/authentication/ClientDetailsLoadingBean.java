@@ -24,19 +24,36 @@
 package org.osiam.security.authentication;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpStatus;
 import org.osiam.helper.HttpClientHelper;
 import org.osiam.helper.HttpClientRequestResult;
+import org.osiam.helper.InProcessEndpoint;
 import org.osiam.resources.ClientSpring;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is used by clientAuthenticationManager in Spring to authenticate a client when trading an auth_code to an
  * access_token.
+ * <p>
+ * One authorization flow loads the same client several times, so the clients found by the resource server are cached
+ * for {@code osiam.client.cache.ttlSeconds}. The JSON of a client is cached instead of the {@link ClientSpring},
+ * because the callers change the returned client. The resource server removes a client from the cache when it is
+ * updated or deleted, the expiry written by {@link #updateClient(ClientSpring, String)} removes it as well.
+ * <p>
+ * If {@code osiam.colocated} is enabled and the resource server is deployed in the same JVM, the clients are loaded
+ * and updated in process instead, see {@link InProcessEndpoint}, and not cached.
  */
 @Named("clientDetails")
 public class ClientDetailsLoadingBean implements ClientDetailsService {
@@ -47,32 +64,87 @@ public class ClientDetailsLoadingBean implements ClientDetailsService {
     private String serverHost;
     @Value("${osiam.server.http.scheme}")
     private String httpScheme;
+    @Value("${osiam.client.cache.ttlSeconds:60}")
+    private long cacheTimeToLiveSeconds = 60;
+    @Value("${osiam.colocated:false}")
+    private boolean colocated;
+
+    @Inject
+    private HttpClientHelper httpClientHelper;
 
     private ObjectMapper mapper; //NOSONAR : need to mock the dependency therefor the final identifier was removed
-    private HttpClientHelper httpClientHelper; //NOSONAR : need to mock the dependency therefor the final identifier was removed
+
+    private final ConcurrentMap<String, CachedClient> cachedClients = new ConcurrentHashMap<>();
+    private final AtomicLong removedClients = new AtomicLong();
+
+    private final InProcessEndpoint resourceServer = new InProcessEndpoint(InProcessEndpoint.RESOURCE_SERVER);
 
     public ClientDetailsLoadingBean() {
         mapper = new ObjectMapper();
-        httpClientHelper = new HttpClientHelper();
     }
 
     @Override
     public ClientDetails loadClientByClientId(final String clientId) {
-        final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-resource-server/authentication/client/";
+        if (colocated && resourceServer.isRegistered()) {
+            Map<String, Object> client = resourceServer.invoke("getClient", clientId);
+            if (client == null) {
+                throw new NoSuchClientException("No client with requested id: " + clientId);
+            }
+            return mapper.convertValue(client, ClientSpring.class);
+        }
+
+        CachedClient cachedClient = cachedClients.get(clientId);
+        if (cachedClient != null && cachedClient.expiresAt > System.currentTimeMillis()) {
+            return readClient(cachedClient.body);
+        }
 
+        long removals = removedClients.get();
+        final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-resource-server/authentication/client/";
         final HttpClientRequestResult response = httpClientHelper.executeHttpGet(serverUri + clientId, null, null);
-        ClientSpring clientSpring;
+        ClientSpring clientSpring = readClient(response.getBody());
+
+        // a client removed from the cache while it was loaded may have been read before it was changed
+        if (response.getStatusCode() == HttpStatus.SC_OK && removedClients.get() == removals) {
+            cachedClients.put(clientId, new CachedClient(response.getBody(),
+                    System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(cacheTimeToLiveSeconds)));
+        }
+        return clientSpring;
+    }
+
+    public void updateClient(ClientSpring client, String clientId) {
+        if (colocated && resourceServer.isRegistered()) {
+            resourceServer.invoke("updateClientExpiry", clientId, client.getExpiry().getTime());
+        } else {
+            final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-resource-server/authentication/client/";
+            httpClientHelper.executeHttpPut(serverUri + clientId, "expiry", client.getExpiry().toString(), null, null);
+        }
+        removeFromCache(clientId);
+    }
+
+    /**
+     * Removes the client from the cache, so it is loaded from the resource server the next time.
+     */
+    public void removeFromCache(String clientId) {
+        removedClients.incrementAndGet();
+        cachedClients.remove(clientId);
+    }
+
+    private ClientSpring readClient(String body) {
         try {
-            clientSpring = mapper.readValue(response.getBody(), ClientSpring.class);
+            return mapper.readValue(body, ClientSpring.class);
         } catch (IOException e) {
             throw new RuntimeException(e); //NOSONAR : Need only wrapping to a runtime exception
         }
-
-        return clientSpring;
     }
 
-    public void updateClient(ClientSpring client, String clientId) {
-        final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-resource-server/authentication/client/";
-        httpClientHelper.executeHttpPut(serverUri + clientId, "expiry", client.getExpiry().toString(), null, null);
+    private static final class CachedClient {
+
+        private final String body;
+        private final long expiresAt;
+
+        private CachedClient(String body, long expiresAt) {
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
     }
-}
\ No newline at end of file
+}
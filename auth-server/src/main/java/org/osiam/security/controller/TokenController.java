@@ -28,6 +28,7 @@ import org.osiam.security.AuthenticationSpring;
 import org.osiam.security.AuthorizationRequestSpring;
 import org.osiam.security.OAuth2AuthenticationSpring;
 import org.osiam.security.authentication.AuthenticationError;
+import org.osiam.security.helper.RevocationTrackingTokenStore;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
@@ -41,6 +42,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * This Controller is used to handle OAuth2 access tokens with Spring Security.
@@ -52,7 +54,10 @@ public class TokenController {
     @Inject
     private DefaultTokenServices tokenServices;
 
-    @RequestMapping(value = "/validate/{token}", method = RequestMethod.GET)
+    @Inject
+    private RevocationTrackingTokenStore tokenStore;
+
+    @RequestMapping(value = "/validate/{token:.+}", method = RequestMethod.GET)
     @ResponseBody
     public OAuth2AuthenticationSpring validateToken(@PathVariable final String token) {
         OAuth2Authentication oAuth2Authentication = tokenServices.loadAuthentication(token);
@@ -63,6 +68,11 @@ public class TokenController {
             oAuth2AuthenticationSpring.setAuthenticationSpring(mappingFrom(oAuth2Authentication.getUserAuthentication()));
         }
         oAuth2AuthenticationSpring.setAuthorizationRequestSpring(mappingFrom(oAuth2Authentication.getAuthorizationRequest()));
+        //The expiration allows the resource server to cache the validation until the token expires
+        OAuth2AccessToken accessToken = tokenServices.readAccessToken(token);
+        if (accessToken != null) {
+            oAuth2AuthenticationSpring.setExpiration(accessToken.getExpiration());
+        }
 
         return oAuth2AuthenticationSpring;
     }
@@ -94,12 +104,22 @@ public class TokenController {
         return authenticationSpring;
     }
 
-    @RequestMapping(value = "/{token}", method = RequestMethod.GET)
+    @RequestMapping(value = "/{token:.+}", method = RequestMethod.GET)
     @ResponseBody
     public OAuth2AccessToken getToken(@PathVariable final String token) {
         return tokenServices.readAccessToken(token);
     }
 
+    /**
+     * Returns the ids of the signed access tokens that were revoked before they expired. Resource servers verify
+     * signed tokens themselves and use this list to reject revoked ones.
+     */
+    @RequestMapping(value = "/revoked", method = RequestMethod.GET)
+    @ResponseBody
+    public List<String> getRevokedTokenIds() {
+        return tokenStore.getRevokedTokenIds();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     @ResponseBody
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.controller;
+
+import java.util.Map;
+
+/**
+ * The operations of the {@link TokenController} for a resource server deployed in the same JVM, see
+ * {@link org.osiam.helper.InProcessEndpoint}. The interface must not be named like a MBean, otherwise the
+ * annotation-driven exporter would register every implementation, even if the co-located mode is disabled.
+ */
+public interface TokenValidationEndpoint {
+
+    /**
+     * @return the authentication of the access token or null if the token is invalid
+     */
+    Map<String, Object> validateToken(String token);
+
+    /**
+     * @return the access token or null if the token is invalid
+     */
+    Map<String, Object> getToken(String token);
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.helper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+
+/**
+ * Keeps the tokens and the ids of revoked signed tokens in memory, so they are lost on a restart and can't be shared
+ * by several auth servers. Use the {@link JdbcRevocationTrackingTokenStore} for those.
+ * <p>
+ * All tokens are kept in concurrent maps and ordered by their expiration in a concurrent skip list, so storing and
+ * reading tokens never waits for a lock. {@link #removeExpiredTokens()} removes the expired tokens from the head of
+ * the list. The number of access and refresh tokens is bounded each: if a new token exceeds the bound, the token
+ * which expires next is evicted. An evicted signed access token is revoked, because the resource servers verify it
+ * themselves and would accept it until it expires, while an evicted opaque token stops working at once.
+ * <p>
+ * The ids of the revoked tokens are bounded as well, because a flood of signed tokens would otherwise move them from
+ * the access tokens to the revoked tokens until they expire. If a revocation exceeds this bound, the revocation which
+ * expires next is dropped and counted, so its token is accepted by the resource servers again for the short time
+ * until it expires.
+ */
+@ManagedResource(objectName = "org.osiam:type=TokenStore,name=authServer",
+        description = "Access and refresh tokens kept in memory by the auth server")
+public class InMemoryRevocationTrackingTokenStore implements RevocationTrackingTokenStore {
+
+    static final int DEFAULT_MAX_TOKENS = 100000;
+
+    private final ConcurrentMap<String, AccessTokenEntry> accessTokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> accessTokensByAuthentication = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> accessTokensByUserName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> accessTokensByClientId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> accessTokensByRefreshToken = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RefreshTokenEntry> refreshTokens = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListSet<Expiry> accessTokenExpiries = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<Expiry> refreshTokenExpiries = new ConcurrentSkipListSet<>();
+
+    private final ConcurrentMap<String, Expiry> revokedTokens = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Expiry> revokedTokenExpiries = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong expiredTokens = new AtomicLong();
+    private final AtomicLong evictedTokens = new AtomicLong();
+    private final AtomicLong droppedRevocations = new AtomicLong();
+    private volatile long lastSweepNanos;
+
+    private AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+    private int maxTokens = DEFAULT_MAX_TOKENS;
+    private int maxRevokedTokens = DEFAULT_MAX_TOKENS;
+
+    public void setAuthenticationKeyGenerator(AuthenticationKeyGenerator authenticationKeyGenerator) {
+        this.authenticationKeyGenerator = authenticationKeyGenerator;
+    }
+
+    /**
+     * @param maxTokens
+     *        the maximum number of access tokens and of refresh tokens
+     */
+    public void setMaxTokens(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * @param maxRevokedTokens
+     *        the maximum number of ids of revoked signed tokens that didn't expire yet
+     */
+    public void setMaxRevokedTokens(int maxRevokedTokens) {
+        this.maxRevokedTokens = maxRevokedTokens;
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        String authenticationKey = authenticationKeyGenerator.extractKey(authentication);
+        String tokenValue = accessTokensByAuthentication.get(authenticationKey);
+        AccessTokenEntry entry = tokenValue != null ? accessTokens.get(tokenValue) : null;
+        if (entry == null) {
+            return null;
+        }
+        if (!authenticationKey.equals(authenticationKeyGenerator.extractKey(entry.authentication))) {
+            // the authorities of the user may have changed
+            storeAccessToken(entry.accessToken, authentication);
+        }
+        return entry.accessToken;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        String tokenValue = token.getValue();
+        removeAccessTokenEntry(tokenValue, null);
+
+        AccessTokenEntry entry = new AccessTokenEntry(token, authentication,
+                authenticationKeyGenerator.extractKey(authentication), newExpiry(tokenValue, token.getExpiration()));
+        accessTokens.put(tokenValue, entry);
+        accessTokensByAuthentication.put(entry.authenticationKey, tokenValue);
+        if (!authentication.isClientOnly()) {
+            addToIndex(accessTokensByUserName, authentication.getName(), tokenValue);
+        }
+        addToIndex(accessTokensByClientId, authentication.getAuthorizationRequest().getClientId(), tokenValue);
+        if (token.getRefreshToken() != null) {
+            accessTokensByRefreshToken.put(token.getRefreshToken().getValue(), tokenValue);
+        }
+        accessTokenExpiries.add(entry.expiry);
+
+        while (accessTokens.size() > maxTokens) {
+            Expiry expiry = accessTokenExpiries.pollFirst();
+            if (expiry == null) {
+                break;
+            }
+            AccessTokenEntry evicted = removeAccessTokenEntry(expiry.tokenValue, expiry);
+            if (evicted != null) {
+                countRemoval(expiry);
+                revoke(evicted.accessToken);
+            }
+        }
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        AccessTokenEntry entry = accessTokens.get(tokenValue);
+        return entry != null ? entry.accessToken : null;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        AccessTokenEntry entry = accessTokens.get(token);
+        return entry != null ? entry.authentication : null;
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken accessToken) {
+        removeAccessToken(accessToken.getValue());
+    }
+
+    public void removeAccessToken(String tokenValue) {
+        AccessTokenEntry entry = removeAccessTokenEntry(tokenValue, null);
+        if (entry != null) {
+            revoke(entry.accessToken);
+        }
+    }
+
+    private void revoke(OAuth2AccessToken accessToken) {
+        String tokenId = SignedAccessTokenEnhancer.getRevocableTokenId(accessToken);
+        if (tokenId == null) {
+            return;
+        }
+
+        Expiry expiry = newExpiry(tokenId, accessToken.getExpiration());
+        Expiry previous = revokedTokens.put(tokenId, expiry);
+        if (previous != null) {
+            revokedTokenExpiries.remove(previous);
+        }
+        revokedTokenExpiries.add(expiry);
+
+        while (revokedTokens.size() > maxRevokedTokens) {
+            Expiry dropped = revokedTokenExpiries.pollFirst();
+            if (dropped == null) {
+                break;
+            }
+            if (revokedTokens.remove(dropped.tokenValue, dropped)
+                    && dropped.expiresAt > System.currentTimeMillis()) {
+                droppedRevocations.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        String tokenValue = refreshToken.getValue();
+        removeRefreshTokenEntry(tokenValue, null);
+
+        Date expiration = null;
+        if (refreshToken instanceof ExpiringOAuth2RefreshToken) {
+            expiration = ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration();
+        }
+        RefreshTokenEntry entry = new RefreshTokenEntry(refreshToken, authentication,
+                newExpiry(tokenValue, expiration));
+        refreshTokens.put(tokenValue, entry);
+        refreshTokenExpiries.add(entry.expiry);
+
+        while (refreshTokens.size() > maxTokens) {
+            Expiry expiry = refreshTokenExpiries.pollFirst();
+            if (expiry == null) {
+                break;
+            }
+            if (removeRefreshTokenEntry(expiry.tokenValue, expiry) != null) {
+                countRemoval(expiry);
+            }
+        }
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        RefreshTokenEntry entry = refreshTokens.get(tokenValue);
+        return entry != null ? entry.refreshToken : null;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        RefreshTokenEntry entry = refreshTokens.get(token.getValue());
+        return entry != null ? entry.authentication : null;
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        removeRefreshTokenEntry(token.getValue(), null);
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        String tokenValue = accessTokensByRefreshToken.remove(refreshToken.getValue());
+        if (tokenValue != null) {
+            removeAccessToken(tokenValue);
+        }
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return findTokens(accessTokensByClientId.get(clientId));
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByUserName(String userName) {
+        return findTokens(accessTokensByUserName.get(userName));
+    }
+
+    @Override
+    public List<String> getRevokedTokenIds() {
+        removeExpiredRevocations(System.currentTimeMillis());
+
+        List<String> tokenIds = new ArrayList<>();
+        for (Expiry expiry : revokedTokenExpiries) {
+            tokenIds.add(expiry.tokenValue);
+        }
+        return tokenIds;
+    }
+
+    /**
+     * Forgets the revoked tokens which expired, which are at the head of their expiry list.
+     */
+    private void removeExpiredRevocations(long now) {
+        for (Expiry expiry : revokedTokenExpiries) {
+            if (expiry.expiresAt > now) {
+                break;
+            }
+            revokedTokenExpiries.remove(expiry);
+            revokedTokens.remove(expiry.tokenValue, expiry);
+        }
+    }
+
+    /**
+     * Removes the expired access and refresh tokens, which are at the head of their expiry lists, and forgets the
+     * revoked tokens which expired.
+     *
+     * @return the number of removed tokens
+     */
+    public int removeExpiredTokens() {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        for (Expiry expiry : accessTokenExpiries) {
+            if (expiry.expiresAt > now) {
+                break;
+            }
+            accessTokenExpiries.remove(expiry);
+            if (removeAccessTokenEntry(expiry.tokenValue, expiry) != null) {
+                removed++;
+            }
+        }
+        for (Expiry expiry : refreshTokenExpiries) {
+            if (expiry.expiresAt > now) {
+                break;
+            }
+            refreshTokenExpiries.remove(expiry);
+            if (removeRefreshTokenEntry(expiry.tokenValue, expiry) != null) {
+                removed++;
+            }
+        }
+        removeExpiredRevocations(now);
+
+        expiredTokens.addAndGet(removed);
+        lastSweepNanos = System.nanoTime() - start;
+        return removed;
+    }
+
+    @ManagedAttribute(description = "Number of access tokens, including expired ones not yet removed")
+    public int getAccessTokenCount() {
+        return accessTokens.size();
+    }
+
+    @ManagedAttribute(description = "Number of refresh tokens, including expired ones not yet removed")
+    public int getRefreshTokenCount() {
+        return refreshTokens.size();
+    }
+
+    @ManagedAttribute(description = "Number of ids of revoked signed tokens, including expired ones not yet removed")
+    public int getRevokedTokenCount() {
+        return revokedTokens.size();
+    }
+
+    @ManagedAttribute(description = "Number of expired tokens removed since the start")
+    public long getExpiredTokens() {
+        return expiredTokens.get();
+    }
+
+    @ManagedAttribute(description = "Number of tokens removed before they expired to stay within the bound")
+    public long getEvictedTokens() {
+        return evictedTokens.get();
+    }
+
+    @ManagedAttribute(description = "Number of revocations dropped before their tokens expired to stay within the bound")
+    public long getDroppedRevocations() {
+        return droppedRevocations.get();
+    }
+
+    @ManagedAttribute(description = "Time in microseconds the last removal of expired tokens took")
+    public long getLastSweepMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(lastSweepNanos);
+    }
+
+    /**
+     * @param expected
+     *        the expiry of the entry to remove, or null to remove any entry with the given value
+     */
+    private AccessTokenEntry removeAccessTokenEntry(String tokenValue, Expiry expected) {
+        AccessTokenEntry entry = accessTokens.get(tokenValue);
+        if (entry == null || expected != null && entry.expiry != expected
+                || !accessTokens.remove(tokenValue, entry)) {
+            return null;
+        }
+
+        accessTokensByAuthentication.remove(entry.authenticationKey, tokenValue);
+        if (!entry.authentication.isClientOnly()) {
+            removeFromIndex(accessTokensByUserName, entry.authentication.getName(), tokenValue);
+        }
+        removeFromIndex(accessTokensByClientId, entry.authentication.getAuthorizationRequest().getClientId(),
+                tokenValue);
+        if (entry.accessToken.getRefreshToken() != null) {
+            accessTokensByRefreshToken.remove(entry.accessToken.getRefreshToken().getValue(), tokenValue);
+        }
+        accessTokenExpiries.remove(entry.expiry);
+        return entry;
+    }
+
+    /**
+     * @param expected
+     *        the expiry of the entry to remove, or null to remove any entry with the given value
+     */
+    private RefreshTokenEntry removeRefreshTokenEntry(String tokenValue, Expiry expected) {
+        RefreshTokenEntry entry = refreshTokens.get(tokenValue);
+        if (entry == null || expected != null && entry.expiry != expected
+                || !refreshTokens.remove(tokenValue, entry)) {
+            return null;
+        }
+
+        accessTokensByRefreshToken.remove(tokenValue);
+        refreshTokenExpiries.remove(entry.expiry);
+        return entry;
+    }
+
+    private void countRemoval(Expiry expiry) {
+        if (expiry.expiresAt <= System.currentTimeMillis()) {
+            expiredTokens.incrementAndGet();
+        } else {
+            evictedTokens.incrementAndGet();
+        }
+    }
+
+    /**
+     * Tokens without expiration are ordered after all others, so they are evicted last.
+     */
+    private Expiry newExpiry(String tokenValue, Date expiration) {
+        return new Expiry(tokenValue, expiration != null ? expiration.getTime() : Long.MAX_VALUE,
+                sequence.incrementAndGet());
+    }
+
+    private List<OAuth2AccessToken> findTokens(Set<String> tokenValues) {
+        if (tokenValues == null) {
+            return Collections.emptyList();
+        }
+        List<OAuth2AccessToken> tokens = new ArrayList<>();
+        for (String tokenValue : tokenValues) {
+            OAuth2AccessToken token = readAccessToken(tokenValue);
+            if (token != null) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds the value to the set of the key. An empty set may be removed by {@link #removeFromIndex} at the same time,
+     * so the value is added again if the set was replaced.
+     */
+    private static void addToIndex(ConcurrentMap<String, Set<String>> index, String key, String value) {
+        while (true) {
+            Set<String> values = index.get(key);
+            if (values == null) {
+                values = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                Set<String> existingValues = index.putIfAbsent(key, values);
+                if (existingValues != null) {
+                    values = existingValues;
+                }
+            }
+            values.add(value);
+            if (index.get(key) == values) {
+                return;
+            }
+        }
+    }
+
+    private static void removeFromIndex(ConcurrentMap<String, Set<String>> index, String key, String value) {
+        Set<String> values = index.get(key);
+        if (values != null && values.remove(value) && values.isEmpty()) {
+            index.remove(key, values);
+        }
+    }
+
+    private static final class AccessTokenEntry {
+
+        private final OAuth2AccessToken accessToken;
+        private final OAuth2Authentication authentication;
+        private final String authenticationKey;
+        private final Expiry expiry;
+
+        private AccessTokenEntry(OAuth2AccessToken accessToken, OAuth2Authentication authentication,
+                String authenticationKey, Expiry expiry) {
+            this.accessToken = accessToken;
+            this.authentication = authentication;
+            this.authenticationKey = authenticationKey;
+            this.expiry = expiry;
+        }
+    }
+
+    private static final class RefreshTokenEntry {
+
+        private final OAuth2RefreshToken refreshToken;
+        private final OAuth2Authentication authentication;
+        private final Expiry expiry;
+
+        private RefreshTokenEntry(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication,
+                Expiry expiry) {
+            this.refreshToken = refreshToken;
+            this.authentication = authentication;
+            this.expiry = expiry;
+        }
+    }
+
+    /**
+     * The position of a token, or of the id of a revoked token, in an expiry list. The sequence number orders tokens which expire at the same time.
+     */
+    private static final class Expiry implements Comparable<Expiry> {
+
+        private final String tokenValue;
+        private final long expiresAt;
+        private final long sequence;
+
+        private Expiry(String tokenValue, long expiresAt, long sequence) {
+            this.tokenValue = tokenValue;
+            this.expiresAt = expiresAt;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Expiry other) {
+            if (expiresAt != other.expiresAt) {
+                return expiresAt < other.expiresAt ? -1 : 1;
+            }
+            if (sequence != other.sequence) {
+                return sequence < other.sequence ? -1 : 1;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.JdbcTokenStore;
+
+/**
+ * Keeps the tokens and the ids of revoked signed tokens in the database, so several auth servers can share them and
+ * they survive a restart. The tokens are looked up by the MD5 hash of their value, by their authentication, client and
+ * user name, which are all indexed. Each token is stored with its expiration, so {@link #removeExpiredTokens()} can
+ * delete the expired ones in batches without reading them.
+ */
+public class JdbcRevocationTrackingTokenStore extends JdbcTokenStore implements RevocationTrackingTokenStore {
+
+    static final int DEFAULT_CLEANUP_BATCH_SIZE = 1000;
+
+    private static final String INSERT_ACCESS_TOKEN_SQL = "INSERT INTO osiam_access_token (token_id, token,"
+            + " authentication_id, user_name, client_id, authentication, refresh_token, expiration)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_ACCESS_TOKEN_TYPES = { Types.VARCHAR, Types.BINARY, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.BINARY, Types.VARCHAR, Types.TIMESTAMP };
+    private static final String SELECT_ACCESS_TOKEN_SQL = "SELECT token_id, token FROM osiam_access_token"
+            + " WHERE token_id = ?";
+    private static final String SELECT_ACCESS_TOKEN_AUTHENTICATION_SQL = "SELECT token_id, authentication"
+            + " FROM osiam_access_token WHERE token_id = ?";
+    private static final String SELECT_ACCESS_TOKENS_FROM_AUTHENTICATION_SQL = "SELECT token FROM osiam_access_token"
+            + " WHERE authentication_id = ?";
+    private static final String SELECT_ACCESS_TOKENS_FROM_USER_NAME_SQL = "SELECT token FROM osiam_access_token"
+            + " WHERE user_name = ?";
+    private static final String SELECT_ACCESS_TOKENS_FROM_CLIENT_ID_SQL = "SELECT token FROM osiam_access_token"
+            + " WHERE client_id = ?";
+    private static final String SELECT_ACCESS_TOKENS_FROM_REFRESH_TOKEN_SQL = "SELECT token FROM osiam_access_token"
+            + " WHERE refresh_token = ?";
+    private static final String DELETE_ACCESS_TOKEN_SQL = "DELETE FROM osiam_access_token WHERE token_id = ?";
+    private static final String DELETE_ACCESS_TOKEN_FROM_REFRESH_TOKEN_SQL = "DELETE FROM osiam_access_token"
+            + " WHERE refresh_token = ?";
+
+    private static final String INSERT_REFRESH_TOKEN_SQL = "INSERT INTO osiam_refresh_token (token_id, token,"
+            + " authentication, expiration) VALUES (?, ?, ?, ?)";
+    private static final int[] INSERT_REFRESH_TOKEN_TYPES = { Types.VARCHAR, Types.BINARY, Types.BINARY,
+            Types.TIMESTAMP };
+    private static final String SELECT_REFRESH_TOKEN_SQL = "SELECT token_id, token FROM osiam_refresh_token"
+            + " WHERE token_id = ?";
+    private static final String SELECT_REFRESH_TOKEN_AUTHENTICATION_SQL = "SELECT token_id, authentication"
+            + " FROM osiam_refresh_token WHERE token_id = ?";
+    private static final String DELETE_REFRESH_TOKEN_SQL = "DELETE FROM osiam_refresh_token WHERE token_id = ?";
+
+    private static final String INSERT_REVOKED_TOKEN_SQL = "INSERT INTO osiam_revoked_access_token (token_id,"
+            + " expiration) VALUES (?, ?)";
+    private static final String SELECT_REVOKED_TOKEN_IDS_SQL = "SELECT token_id FROM osiam_revoked_access_token"
+            + " WHERE expiration > ?";
+
+    private static final String[] TABLES_WITH_EXPIRATION = { "osiam_access_token", "osiam_refresh_token",
+            "osiam_revoked_access_token" };
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM %1$s WHERE token_id IN"
+            + " (SELECT token_id FROM %1$s WHERE expiration < ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RowMapper<OAuth2AccessToken> accessTokenMapper = new RowMapper<OAuth2AccessToken>() {
+        @Override
+        public OAuth2AccessToken mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return deserializeAccessToken(rs.getBytes(1));
+        }
+    };
+
+    private AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+    private int cleanupBatchSize = DEFAULT_CLEANUP_BATCH_SIZE;
+
+    public JdbcRevocationTrackingTokenStore(DataSource dataSource) {
+        super(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        setSelectAccessTokenSql(SELECT_ACCESS_TOKEN_SQL);
+        setSelectAccessTokenAuthenticationSql(SELECT_ACCESS_TOKEN_AUTHENTICATION_SQL);
+        setDeleteAccessTokenSql(DELETE_ACCESS_TOKEN_SQL);
+        setDeleteAccessTokenFromRefreshTokenSql(DELETE_ACCESS_TOKEN_FROM_REFRESH_TOKEN_SQL);
+        setSelectRefreshTokenSql(SELECT_REFRESH_TOKEN_SQL);
+        setSelectRefreshTokenAuthenticationSql(SELECT_REFRESH_TOKEN_AUTHENTICATION_SQL);
+        setDeleteRefreshTokenSql(DELETE_REFRESH_TOKEN_SQL);
+    }
+
+    @Override
+    public void setAuthenticationKeyGenerator(AuthenticationKeyGenerator authenticationKeyGenerator) {
+        super.setAuthenticationKeyGenerator(authenticationKeyGenerator);
+        this.authenticationKeyGenerator = authenticationKeyGenerator;
+    }
+
+    /**
+     * @param cleanupBatchSize
+     *        the maximum number of rows {@link #removeExpiredTokens()} deletes with one statement
+     */
+    public void setCleanupBatchSize(int cleanupBatchSize) {
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+
+    /**
+     * Like {@link JdbcTokenStore#getAccessToken(OAuth2Authentication)}, but if the authentication of the token has
+     * changed, the token is stored again without revoking it, because it is handed out to the client again.
+     */
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        String authenticationKey = authenticationKeyGenerator.extractKey(authentication);
+        List<OAuth2AccessToken> accessTokens;
+        try {
+            accessTokens = jdbcTemplate.query(SELECT_ACCESS_TOKENS_FROM_AUTHENTICATION_SQL, accessTokenMapper,
+                    authenticationKey);
+        } catch (IllegalArgumentException e) {
+            // like the JdbcTokenStore, a token which can't be deserialized is not found
+            return null;
+        }
+        if (accessTokens.isEmpty()) {
+            return null;
+        }
+
+        OAuth2AccessToken accessToken = accessTokens.get(0);
+        OAuth2Authentication storedAuthentication = readAuthentication(accessToken.getValue());
+        if (storedAuthentication == null
+                || !authenticationKey.equals(authenticationKeyGenerator.extractKey(storedAuthentication))) {
+            // the authorities of the user may have changed
+            super.removeAccessToken(accessToken.getValue());
+            storeAccessToken(accessToken, authentication);
+        }
+        return accessToken;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        String refreshToken = null;
+        if (token.getRefreshToken() != null) {
+            refreshToken = token.getRefreshToken().getValue();
+        }
+
+        jdbcTemplate.update(INSERT_ACCESS_TOKEN_SQL, new Object[] {
+                extractTokenKey(token.getValue()),
+                serializeAccessToken(token),
+                authenticationKeyGenerator.extractKey(authentication),
+                authentication.isClientOnly() ? null : authentication.getName(),
+                authentication.getAuthorizationRequest().getClientId(),
+                serializeAuthentication(authentication),
+                extractTokenKey(refreshToken),
+                toTimestamp(token.getExpiration())
+        }, INSERT_ACCESS_TOKEN_TYPES);
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        Date expiration = null;
+        if (refreshToken instanceof ExpiringOAuth2RefreshToken) {
+            expiration = ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration();
+        }
+
+        jdbcTemplate.update(INSERT_REFRESH_TOKEN_SQL, new Object[] {
+                extractTokenKey(refreshToken.getValue()),
+                serializeRefreshToken(refreshToken),
+                serializeAuthentication(authentication),
+                toTimestamp(expiration)
+        }, INSERT_REFRESH_TOKEN_TYPES);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByUserName(String userName) {
+        return jdbcTemplate.query(SELECT_ACCESS_TOKENS_FROM_USER_NAME_SQL, accessTokenMapper, userName);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return jdbcTemplate.query(SELECT_ACCESS_TOKENS_FROM_CLIENT_ID_SQL, accessTokenMapper, clientId);
+    }
+
+    @Override
+    public void removeAccessToken(String tokenValue) {
+        OAuth2AccessToken accessToken = readAccessToken(tokenValue);
+        super.removeAccessToken(tokenValue);
+        revoke(accessToken);
+    }
+
+    /**
+     * The access tokens of a refresh token are deleted with one statement, so they are read before to revoke them.
+     */
+    @Override
+    public void removeAccessTokenUsingRefreshToken(String refreshToken) {
+        List<OAuth2AccessToken> accessTokens = jdbcTemplate.query(SELECT_ACCESS_TOKENS_FROM_REFRESH_TOKEN_SQL,
+                accessTokenMapper, extractTokenKey(refreshToken));
+        super.removeAccessTokenUsingRefreshToken(refreshToken);
+        for (OAuth2AccessToken accessToken : accessTokens) {
+            revoke(accessToken);
+        }
+    }
+
+    @Override
+    public List<String> getRevokedTokenIds() {
+        return jdbcTemplate.query(SELECT_REVOKED_TOKEN_IDS_SQL, new SingleColumnRowMapper<String>(String.class),
+                new Timestamp(System.currentTimeMillis()));
+    }
+
+    /**
+     * Deletes the expired access tokens, refresh tokens and revoked token ids. Each statement deletes at most
+     * {@link #setCleanupBatchSize(int) cleanupBatchSize} rows, so it doesn't hold the locks for long, and is repeated
+     * until a table has no expired rows left.
+     *
+     * @return the number of deleted rows
+     */
+    public int removeExpiredTokens() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int removed = 0;
+        for (String table : TABLES_WITH_EXPIRATION) {
+            String sql = String.format(DELETE_EXPIRED_SQL, table);
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(sql, now, cleanupBatchSize);
+                removed += deleted;
+            } while (deleted == cleanupBatchSize);
+        }
+        return removed;
+    }
+
+    private void revoke(OAuth2AccessToken accessToken) {
+        String tokenId = SignedAccessTokenEnhancer.getRevocableTokenId(accessToken);
+        if (tokenId == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_REVOKED_TOKEN_SQL, tokenId, toTimestamp(accessToken.getExpiration()));
+        } catch (DuplicateKeyException e) {
+            // another auth server revoked the token at the same time
+        }
+    }
+
+    private static Timestamp toTimestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.helper;
+
+import java.util.List;
+
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+/**
+ * A token store which remembers the ids of signed access tokens that are removed before they expire, e.g. when they
+ * are refreshed. Signed tokens are verified by the resource servers without asking the auth server, so they have to
+ * fetch this list to reject revoked tokens. A token is forgotten as soon as it expires, so the list stays short.
+ */
+public interface RevocationTrackingTokenStore extends TokenStore {
+
+    /**
+     * @return the ids of the signed access tokens that were revoked and are not expired yet
+     */
+    List<String> getRevokedTokenIds();
+}
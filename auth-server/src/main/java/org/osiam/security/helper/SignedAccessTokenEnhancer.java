@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security.helper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.osiam.resources.UserSpring;
+import org.osiam.security.SignedAccessToken;
+import org.osiam.security.SignedAccessTokenCodec;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenEnhancer;
+
+/**
+ * Replaces the value of new access tokens with a {@link SignedAccessToken}, which the resource server can verify
+ * without asking the auth server. The original value becomes the id of the signed token, which is used to revoke it.
+ * Access tokens are issued unchanged if signing is disabled.
+ */
+public class SignedAccessTokenEnhancer implements TokenEnhancer {
+
+    /**
+     * The name of the additional information which contains the id of a signed token.
+     */
+    public static final String TOKEN_ID = "jti";
+
+    private final SignedAccessTokenCodec codec;
+
+    public SignedAccessTokenEnhancer(SignedAccessTokenCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        if (!codec.isEnabled() || accessToken.getExpiration() == null) {
+            return accessToken;
+        }
+
+        String userId = null;
+        String userName = null;
+        Authentication userAuthentication = authentication.getUserAuthentication();
+        //In case of OAuth2 client credentials grant there is no user authentication
+        if (userAuthentication != null && userAuthentication.getPrincipal() instanceof UserSpring) {
+            UserSpring user = (UserSpring) userAuthentication.getPrincipal();
+            userId = user.getId();
+            userName = user.getUsername();
+        }
+
+        SignedAccessToken signedAccessToken = new SignedAccessToken(accessToken.getValue(),
+                authentication.getAuthorizationRequest().getClientId(), accessToken.getScope(), userId, userName,
+                accessToken.getExpiration().getTime() / 1000);
+
+        Map<String, Object> additionalInformation = new LinkedHashMap<>(accessToken.getAdditionalInformation());
+        additionalInformation.put(TOKEN_ID, accessToken.getValue());
+
+        DefaultOAuth2AccessToken result = new DefaultOAuth2AccessToken(accessToken).setValue(
+                codec.sign(signedAccessToken));
+        result.setAdditionalInformation(additionalInformation);
+        return result;
+    }
+
+    /**
+     * @return the id of the given signed access token, if it has to be revoked when it is removed, or null if it is
+     *         no signed token or already expired
+     */
+    public static String getRevocableTokenId(OAuth2AccessToken accessToken) {
+        if (accessToken == null || accessToken.getExpiration() == null || accessToken.isExpired()) {
+            return null;
+        }
+        Object tokenId = accessToken.getAdditionalInformation().get(TOKEN_ID);
+        return tokenId != null ? tokenId.toString() : null;
+    }
+}
@@ -25,7 +25,9 @@ package org.osiam.security.authentication
 
 import org.osiam.helper.HttpClientHelper
 import org.osiam.helper.HttpClientRequestResult
+import org.osiam.helper.InProcessEndpoint
 import org.osiam.resources.UserSpring
+import org.springframework.security.core.userdetails.UsernameNotFoundException
 
 import spock.lang.Specification
 
@@ -53,4 +55,76 @@ class AuthenticationBeanTest extends Specification {
         result instanceof UserSpring
     }
 
-}
\ No newline at end of file
+    def "a user should be cached, so repeated logins load it from the resource server only once"() {
+        given:
+        def userUri = "http://localhost:8080/osiam-resource-server/authentication/user"
+        def response = new HttpClientRequestResult("the user as JSON", 200)
+
+        when:
+        authenticationBean.loadUserByUsername("UserName")
+        authenticationBean.loadUserByUsername("UserName")
+
+        then:
+        1 * httpClientHelperMock.executeHttpPost(userUri, "UserName", null, null) >> response
+        2 * jacksonMapperMock.readValue(response.body, UserSpring.class) >> new UserSpring()
+    }
+
+    def "a user should be loaded again after the cache time"() {
+        given:
+        def userUri = "http://localhost:8080/osiam-resource-server/authentication/user"
+        authenticationBean.cacheTimeToLiveSeconds = 0
+        jacksonMapperMock.readValue(_, UserSpring.class) >> new UserSpring()
+
+        when:
+        authenticationBean.loadUserByUsername("UserName")
+        authenticationBean.loadUserByUsername("UserName")
+
+        then:
+        2 * httpClientHelperMock.executeHttpPost(userUri, "UserName", null, null) >> new HttpClientRequestResult("user", 200)
+    }
+
+    def "a user should not be cached if the resource server did not find it"() {
+        given:
+        def userUri = "http://localhost:8080/osiam-resource-server/authentication/user"
+        jacksonMapperMock.readValue(_, UserSpring.class) >> new UserSpring()
+
+        when:
+        authenticationBean.loadUserByUsername("UserName")
+        authenticationBean.loadUserByUsername("UserName")
+
+        then:
+        2 * httpClientHelperMock.executeHttpPost(userUri, "UserName", null, null) >> new HttpClientRequestResult("error", 404)
+    }
+
+    def "a co-located resource server should be called in process instead of via HTTP"() {
+        given:
+        def user = [userName: "UserName", password: "password"]
+        def endpoint = new InProcessEndpoint(InProcessEndpoint.RESOURCE_SERVER)
+        endpoint.register([getUser: { String userName -> userName == "UserName" ? user : null }] as UserEndpoint,
+                UserEndpoint)
+        authenticationBean.colocated = true
+
+        when:
+        def result = authenticationBean.loadUserByUsername("UserName")
+
+        then:
+        0 * httpClientHelperMock._
+        1 * jacksonMapperMock.convertValue(user, UserSpring.class) >> new UserSpring(username: "UserName")
+        result.username == "UserName"
+
+        when:
+        authenticationBean.loadUserByUsername("unknown")
+
+        then:
+        0 * httpClientHelperMock._
+        thrown(UsernameNotFoundException)
+
+        cleanup:
+        endpoint.unregister()
+    }
+
+    static interface UserEndpoint {
+
+        Map<String, Object> getUser(String userName)
+    }
+}
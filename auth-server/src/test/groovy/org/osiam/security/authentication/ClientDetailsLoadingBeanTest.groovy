@@ -26,7 +26,9 @@ package org.osiam.security.authentication
 import com.fasterxml.jackson.databind.ObjectMapper
 import org.osiam.helper.HttpClientHelper
 import org.osiam.helper.HttpClientRequestResult
+import org.osiam.helper.InProcessEndpoint
 import org.osiam.resources.ClientSpring
+import org.springframework.security.oauth2.provider.NoSuchClientException
 import spock.lang.Specification
 
 class ClientDetailsLoadingBeanTest extends Specification {
@@ -77,4 +79,88 @@ class ClientDetailsLoadingBeanTest extends Specification {
         1 * clientSpringMock.getExpiry() >> oldClientExpiryDate
         1 * httpClientHelperMock.executeHttpPut("http://localhost:8080/osiam-resource-server/authentication/client/ClientId", "expiry", oldClientExpiryDate.toString(), null, null)
     }
-}
\ No newline at end of file
+
+    def "a client should be cached, so it is loaded from the resource server only once"() {
+        given:
+        def clientUri = "http://localhost:8080/osiam-resource-server/authentication/client/ClientId"
+        def requestResult = new HttpClientRequestResult("the client as JSON", 200)
+
+        when:
+        clientDetailsLoadingBean.loadClientByClientId("ClientId")
+        clientDetailsLoadingBean.loadClientByClientId("ClientId")
+
+        then:
+        1 * httpClientHelperMock.executeHttpGet(clientUri, null, null) >> requestResult
+        2 * jacksonMapperMock.readValue(requestResult.body, ClientSpring.class) >> Mock(ClientSpring)
+    }
+
+    def "a client should be loaded again after it was removed from the cache or its expiry was updated"() {
+        given:
+        def clientUri = "http://localhost:8080/osiam-resource-server/authentication/client/ClientId"
+        def clientSpringMock = Mock(ClientSpring)
+        clientSpringMock.getExpiry() >> new Date()
+        jacksonMapperMock.readValue(_, ClientSpring.class) >> clientSpringMock
+
+        when:
+        clientDetailsLoadingBean.loadClientByClientId("ClientId")
+        clientDetailsLoadingBean.removeFromCache("ClientId")
+        clientDetailsLoadingBean.loadClientByClientId("ClientId")
+        clientDetailsLoadingBean.updateClient(clientSpringMock, "ClientId")
+        clientDetailsLoadingBean.loadClientByClientId("ClientId")
+
+        then:
+        3 * httpClientHelperMock.executeHttpGet(clientUri, null, null) >> new HttpClientRequestResult("client", 200)
+    }
+
+    def "a client should not be cached if the resource server did not find it"() {
+        given:
+        def clientUri = "http://localhost:8080/osiam-resource-server/authentication/client/ClientId"
+        jacksonMapperMock.readValue(_, ClientSpring.class) >> Mock(ClientSpring)
+
+        when:
+        clientDetailsLoadingBean.loadClientByClientId("ClientId")
+        clientDetailsLoadingBean.loadClientByClientId("ClientId")
+
+        then:
+        2 * httpClientHelperMock.executeHttpGet(clientUri, null, null) >> new HttpClientRequestResult("error", 404)
+    }
+
+    def "a co-located resource server should be called in process instead of via HTTP"() {
+        given:
+        def client = [id: "ClientId"]
+        def expiry = new Date()
+        def updatedExpiry = null
+        def endpoint = new InProcessEndpoint(InProcessEndpoint.RESOURCE_SERVER)
+        endpoint.register([getClient: { String clientId -> clientId == "ClientId" ? client : null },
+                updateClientExpiry: { String clientId, Long time -> updatedExpiry = time }] as ClientEndpoint,
+                ClientEndpoint)
+        clientDetailsLoadingBean.colocated = true
+
+        when:
+        def result = clientDetailsLoadingBean.loadClientByClientId("ClientId")
+        clientDetailsLoadingBean.updateClient(new ClientSpring(expiry: expiry), "ClientId")
+
+        then:
+        0 * httpClientHelperMock._
+        1 * jacksonMapperMock.convertValue(client, ClientSpring.class) >> new ClientSpring(id: "ClientId")
+        result.clientId == "ClientId"
+        updatedExpiry == expiry.time
+
+        when:
+        clientDetailsLoadingBean.loadClientByClientId("unknown")
+
+        then:
+        0 * httpClientHelperMock._
+        thrown(NoSuchClientException)
+
+        cleanup:
+        endpoint.unregister()
+    }
+
+    static interface ClientEndpoint {
+
+        Map<String, Object> getClient(String clientId)
+
+        void updateClientExpiry(String clientId, Long expiry)
+    }
+}
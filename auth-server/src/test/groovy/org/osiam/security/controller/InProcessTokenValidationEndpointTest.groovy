@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.controller
+
+import org.osiam.helper.InProcessEndpoint
+import org.osiam.security.AuthorizationRequestSpring
+import org.osiam.security.OAuth2AuthenticationSpring
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException
+
+import spock.lang.Specification
+
+class InProcessTokenValidationEndpointTest extends Specification {
+
+    def tokenControllerMock = Mock(TokenController)
+    def tokenValidationEndpoint = new InProcessTokenValidationEndpoint(tokenController: tokenControllerMock)
+
+    def cleanup() {
+        tokenValidationEndpoint.unregister()
+    }
+
+    def "the authentication of a valid token is returned as map"() {
+        given:
+        def authorizationRequest = new AuthorizationRequestSpring(clientId: 'example-client', approved: true)
+        def authentication = new OAuth2AuthenticationSpring(authorizationRequestSpring: authorizationRequest)
+
+        when:
+        def result = tokenValidationEndpoint.validateToken('token')
+
+        then:
+        1 * tokenControllerMock.validateToken('token') >> authentication
+        result.authorizationRequestSpring.clientId == 'example-client'
+        result.authorizationRequestSpring.approved == true
+    }
+
+    def "an invalid token is returned as null"() {
+        when:
+        def authentication = tokenValidationEndpoint.validateToken('token')
+        def accessToken = tokenValidationEndpoint.getToken('token')
+
+        then:
+        1 * tokenControllerMock.validateToken('token') >> { throw new InvalidTokenException('invalid_token') }
+        1 * tokenControllerMock.getToken('token') >> null
+        authentication == null
+        accessToken == null
+    }
+
+    def "the access token is returned as map"() {
+        when:
+        def result = tokenValidationEndpoint.getToken('token')
+
+        then:
+        1 * tokenControllerMock.getToken('token') >> new DefaultOAuth2AccessToken('token')
+        result.access_token == 'token'
+    }
+
+    def "the endpoint is only registered in the co-located mode"() {
+        given:
+        def authServer = new InProcessEndpoint(InProcessEndpoint.AUTH_SERVER)
+
+        when:
+        tokenValidationEndpoint.register()
+
+        then:
+        !authServer.registered
+
+        when:
+        tokenValidationEndpoint.colocated = true
+        tokenValidationEndpoint.register()
+        def token = authServer.invoke('getToken', 'token')
+
+        then:
+        authServer.registered
+        token.access_token == 'token'
+        1 * tokenControllerMock.getToken('token') >> new DefaultOAuth2AccessToken('token')
+    }
+}
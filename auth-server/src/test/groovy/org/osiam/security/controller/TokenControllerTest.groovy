@@ -26,6 +26,7 @@ package org.osiam.security.controller
 import org.osiam.security.AuthenticationSpring
 import org.osiam.security.AuthorizationRequestSpring
 import org.osiam.security.OAuth2AuthenticationSpring
+import org.osiam.security.helper.RevocationTrackingTokenStore
 import org.springframework.security.oauth2.common.OAuth2AccessToken
 import org.springframework.security.oauth2.provider.OAuth2Authentication
 import org.springframework.security.oauth2.provider.token.DefaultTokenServices
@@ -40,7 +41,8 @@ import java.lang.reflect.Method
 class TokenControllerTest extends Specification {
 
     def defaultTokenServicesMock = Mock(DefaultTokenServices)
-    def tokenController = new TokenController(tokenServices: defaultTokenServicesMock)
+    def tokenStoreMock = Mock(RevocationTrackingTokenStore)
+    def tokenController = new TokenController(tokenServices: defaultTokenServicesMock, tokenStore: tokenStoreMock)
 
     def "The TokenController class should have the appropriate annotations and corresponding value configuration"() {
         when:
@@ -63,7 +65,7 @@ class TokenControllerTest extends Specification {
         ResponseBody body = method.getAnnotation(ResponseBody)
 
         then:
-        mapping.value() == ["/validate/{token}"]
+        mapping.value() == ["/validate/{token:.+}"]
         mapping.method() == [RequestMethod.GET]
         body
     }
@@ -77,7 +79,7 @@ class TokenControllerTest extends Specification {
         ResponseBody body = method.getAnnotation(ResponseBody)
 
         then:
-        mapping.value() == ["/{token}"]
+        mapping.value() == ["/{token:.+}"]
         mapping.method() == [RequestMethod.GET]
         body
     }
@@ -112,6 +114,23 @@ class TokenControllerTest extends Specification {
         result.getAuthorizationRequestSpring() != null
     }
 
+    def "The expiration of the validated token is returned"() {
+        given:
+        def oAuth2AuthenticationMock = Mock(OAuth2Authentication)
+        def accessTokenMock = Mock(OAuth2AccessToken)
+        def expiration = new Date()
+
+        when:
+        def result = tokenController.validateToken("theToken")
+
+        then:
+        1 * defaultTokenServicesMock.loadAuthentication("theToken") >> oAuth2AuthenticationMock
+        1 * oAuth2AuthenticationMock.getAuthorizationRequest() >> Mock(AuthorizationRequestSpring)
+        1 * defaultTokenServicesMock.readAccessToken("theToken") >> accessTokenMock
+        1 * accessTokenMock.getExpiration() >> expiration
+        result.getExpiration() == expiration
+    }
+
     def "The TokenController should implement springs token service and returning OAuth2AccessToken"() {
         when:
         def result = tokenController.getToken("theToken")
@@ -120,4 +139,13 @@ class TokenControllerTest extends Specification {
         1 * defaultTokenServicesMock.readAccessToken("theToken") >> Mock(OAuth2AccessToken)
         result instanceof OAuth2AccessToken
     }
-}
\ No newline at end of file
+
+    def "The TokenController should return the ids of the revoked signed tokens"() {
+        when:
+        def result = tokenController.getRevokedTokenIds()
+
+        then:
+        1 * tokenStoreMock.getRevokedTokenIds() >> ['token-id']
+        result == ['token-id']
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security.helper
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken
+import org.springframework.security.oauth2.provider.DefaultAuthorizationRequest
+import org.springframework.security.oauth2.provider.OAuth2Authentication
+
+import spock.lang.Specification
+
+class InMemoryRevocationTrackingTokenStoreTest extends Specification {
+
+    def tokenStore = new InMemoryRevocationTrackingTokenStore()
+    def authentication = new OAuth2Authentication(new DefaultAuthorizationRequest('example-client', ['GET']), null)
+    def userAuthentication = new OAuth2Authentication(new DefaultAuthorizationRequest('example-client', ['GET']),
+            new UsernamePasswordAuthenticationToken('marissa', null, []))
+
+    def "should remember the id of a removed signed token until it expires"() {
+        given:
+        def validToken = storeToken('signed-token', 'token-id', 60000)
+        def expiredToken = storeToken('expired-signed-token', 'expired-token-id', -1000)
+
+        when:
+        tokenStore.removeAccessToken(validToken)
+        tokenStore.removeAccessToken(expiredToken)
+
+        then:
+        tokenStore.readAccessToken('signed-token') == null
+        tokenStore.revokedTokenIds == ['token-id']
+    }
+
+    def "should not remember opaque tokens"() {
+        given:
+        def token = storeToken('opaque-token', null, 60000)
+
+        when:
+        tokenStore.removeAccessToken(token)
+
+        then:
+        tokenStore.revokedTokenIds.empty
+    }
+
+    def "should find a stored token by its authentication, user and client"() {
+        given:
+        def token = storeToken('user-token', null, 60000, userAuthentication)
+
+        expect:
+        tokenStore.getAccessToken(userAuthentication) == token
+        tokenStore.readAuthentication('user-token') == userAuthentication
+        tokenStore.findTokensByUserName('marissa') == [token]
+        tokenStore.findTokensByClientId('example-client') == [token]
+
+        when:
+        tokenStore.removeAccessToken(token)
+
+        then:
+        tokenStore.getAccessToken(userAuthentication) == null
+        tokenStore.findTokensByUserName('marissa').empty
+        tokenStore.findTokensByClientId('example-client').empty
+    }
+
+    def "should remove the access token of a refresh token"() {
+        given:
+        def refreshToken = new DefaultExpiringOAuth2RefreshToken('refresh-token',
+                new Date(System.currentTimeMillis() + 60000))
+        tokenStore.storeRefreshToken(refreshToken, userAuthentication)
+        def token = new DefaultOAuth2AccessToken('signed-token')
+        token.setExpiration(new Date(System.currentTimeMillis() + 60000))
+        token.setAdditionalInformation([(SignedAccessTokenEnhancer.TOKEN_ID): 'token-id'])
+        token.setRefreshToken(refreshToken)
+        tokenStore.storeAccessToken(token, userAuthentication)
+
+        when:
+        tokenStore.removeAccessTokenUsingRefreshToken(refreshToken)
+
+        then:
+        tokenStore.readAccessToken('signed-token') == null
+        tokenStore.readRefreshToken('refresh-token') == refreshToken
+        tokenStore.revokedTokenIds == ['token-id']
+    }
+
+    def "should remove the expired access and refresh tokens"() {
+        given:
+        storeToken('expired-token', null, -1000)
+        def validToken = storeToken('valid-token', null, 60000)
+        tokenStore.storeRefreshToken(new DefaultExpiringOAuth2RefreshToken('expired-refresh-token',
+                new Date(System.currentTimeMillis() - 1000)), authentication)
+
+        when:
+        def removed = tokenStore.removeExpiredTokens()
+
+        then:
+        removed == 2
+        tokenStore.findTokensByClientId('example-client') == [validToken]
+        tokenStore.readRefreshToken('expired-refresh-token') == null
+        tokenStore.accessTokenCount == 1
+        tokenStore.refreshTokenCount == 0
+        tokenStore.expiredTokens == 2
+        tokenStore.lastSweepMicros >= 0
+    }
+
+    def "should evict the token which expires next if there are too many tokens"() {
+        given:
+        tokenStore.maxTokens = 2
+        storeToken('token', null, 60000)
+        storeToken('token-expiring-next', null, 30000)
+        storeToken('token-without-expiration', null, null)
+
+        when:
+        storeToken('new-token', null, 90000)
+
+        then:
+        tokenStore.accessTokenCount == 2
+        tokenStore.readAccessToken('token-expiring-next') == null
+        tokenStore.readAccessToken('token') == null
+        tokenStore.readAccessToken('token-without-expiration') != null
+        tokenStore.readAccessToken('new-token') != null
+        tokenStore.evictedTokens == 2
+    }
+
+    def "should revoke an evicted signed token, so the resource servers don't accept it any longer"() {
+        given:
+        tokenStore.maxTokens = 2
+        storeToken('signed-token-expiring-next', 'token-id', 30000)
+        storeToken('opaque-token', null, 60000)
+
+        when:
+        storeToken('new-token', null, 90000)
+
+        then:
+        tokenStore.readAccessToken('signed-token-expiring-next') == null
+        tokenStore.evictedTokens == 1
+        tokenStore.revokedTokenIds == ['token-id']
+    }
+
+    def "should bound the evicted and revoked signed tokens together with the access tokens"() {
+        given:
+        tokenStore.maxTokens = 2
+        tokenStore.maxRevokedTokens = 3
+
+        when:
+        (1..10).each { storeToken("signed-token-$it", "token-id-$it", 10000 * it) }
+
+        then:
+        tokenStore.accessTokenCount == 2
+        tokenStore.readAccessToken('signed-token-10') != null
+        tokenStore.readAccessToken('signed-token-9') != null
+        tokenStore.evictedTokens == 8
+        tokenStore.revokedTokenCount == 3
+        tokenStore.revokedTokenIds == ['token-id-6', 'token-id-7', 'token-id-8']
+        tokenStore.droppedRevocations == 5
+    }
+
+    def "should not count expired revocations as dropped"() {
+        given:
+        tokenStore.maxRevokedTokens = 1
+        def expiredToken = storeToken('expired-signed-token', 'expired-token-id', -1000)
+        def token = storeToken('signed-token', 'token-id', 60000)
+
+        when:
+        tokenStore.removeAccessToken(expiredToken)
+        tokenStore.removeAccessToken(token)
+
+        then:
+        tokenStore.revokedTokenIds == ['token-id']
+        tokenStore.droppedRevocations == 0
+    }
+
+    def "should forget the expired revocations when removing the expired tokens"() {
+        given:
+        tokenStore.removeAccessToken(storeToken('expired-signed-token', 'expired-token-id', -1000))
+
+        when:
+        tokenStore.removeExpiredTokens()
+
+        then:
+        tokenStore.revokedTokenCount == 0
+    }
+
+    private DefaultOAuth2AccessToken storeToken(String value, String tokenId, Long expiresIn,
+            OAuth2Authentication authentication = this.authentication) {
+        def token = new DefaultOAuth2AccessToken(value)
+        if (expiresIn != null) {
+            token.setExpiration(new Date(System.currentTimeMillis() + expiresIn))
+        }
+        if (tokenId != null) {
+            token.setAdditionalInformation([(SignedAccessTokenEnhancer.TOKEN_ID): tokenId])
+        }
+        tokenStore.storeAccessToken(token, authentication)
+        token
+    }
+}
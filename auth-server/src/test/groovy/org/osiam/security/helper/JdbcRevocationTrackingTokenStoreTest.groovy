@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.helper
+
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken
+import org.springframework.security.oauth2.provider.DefaultAuthorizationRequest
+import org.springframework.security.oauth2.provider.OAuth2Authentication
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator
+
+import spock.lang.Specification
+
+class JdbcRevocationTrackingTokenStoreTest extends Specification {
+
+    EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+            .addScript('token-store-schema.sql').build()
+    def jdbcTemplate = new JdbcTemplate(database)
+    def tokenStore = new JdbcRevocationTrackingTokenStore(database)
+
+    def userAuthentication = new OAuth2Authentication(new DefaultAuthorizationRequest('example-client', ['GET']),
+            new UsernamePasswordAuthenticationToken('marissa', null, []))
+    def clientAuthentication = new OAuth2Authentication(new DefaultAuthorizationRequest('other-client', ['GET']), null)
+
+    def cleanup() {
+        database.shutdown()
+    }
+
+    def "should read a stored access token by its value, authentication, user and client"() {
+        given:
+        def token = storeToken('user-token', null, 60000, userAuthentication)
+        storeToken('client-token', null, 60000, clientAuthentication)
+
+        expect:
+        tokenStore.readAccessToken('user-token') == token
+        tokenStore.readAuthentication('user-token').name == 'marissa'
+        tokenStore.getAccessToken(userAuthentication) == token
+        tokenStore.findTokensByUserName('marissa')*.value == ['user-token']
+        tokenStore.findTokensByClientId('example-client')*.value == ['user-token']
+        tokenStore.findTokensByClientId('other-client')*.value == ['client-token']
+        tokenStore.readAccessToken('unknown-token') == null
+    }
+
+    def "should remember the id of a removed signed token until it expires"() {
+        given:
+        def validToken = storeToken('signed-token', 'token-id', 60000, userAuthentication)
+        def expiredToken = storeToken('expired-signed-token', 'expired-token-id', -1000, clientAuthentication)
+        storeToken('opaque-token', null, 60000, userAuthentication)
+
+        when:
+        tokenStore.removeAccessToken(validToken)
+        tokenStore.removeAccessToken(expiredToken)
+        tokenStore.removeAccessToken('opaque-token')
+
+        then:
+        tokenStore.readAccessToken('signed-token') == null
+        tokenStore.readAccessToken('opaque-token') == null
+        tokenStore.revokedTokenIds == ['token-id']
+    }
+
+    def "should not revoke a signed token which is stored again for a changed authentication"() {
+        given:
+        storeToken('signed-token', 'token-id', 60000, userAuthentication)
+        def changedAuthentication = new OAuth2Authentication(
+                new DefaultAuthorizationRequest('example-client', ['GET', 'POST']), userAuthentication.userAuthentication)
+        jdbcTemplate.update('UPDATE osiam_access_token SET authentication_id = ?',
+                new DefaultAuthenticationKeyGenerator().extractKey(changedAuthentication))
+
+        when:
+        def token = tokenStore.getAccessToken(changedAuthentication)
+
+        then:
+        token.value == 'signed-token'
+        tokenStore.readAccessToken('signed-token') == token
+        tokenStore.revokedTokenIds.empty
+    }
+
+    def "should revoke the signed tokens of a refresh token when they are removed"() {
+        given:
+        def refreshToken = new DefaultExpiringOAuth2RefreshToken('refresh-token',
+                new Date(System.currentTimeMillis() + 60000))
+        tokenStore.storeRefreshToken(refreshToken, userAuthentication)
+        def token = new DefaultOAuth2AccessToken('signed-token')
+        token.setExpiration(new Date(System.currentTimeMillis() + 60000))
+        token.setAdditionalInformation([(SignedAccessTokenEnhancer.TOKEN_ID): 'token-id'])
+        token.setRefreshToken(refreshToken)
+        tokenStore.storeAccessToken(token, userAuthentication)
+
+        when:
+        tokenStore.removeAccessTokenUsingRefreshToken(refreshToken)
+
+        then:
+        tokenStore.readAccessToken('signed-token') == null
+        tokenStore.readRefreshToken('refresh-token') != null
+        tokenStore.revokedTokenIds == ['token-id']
+    }
+
+    def "should remove the expired tokens in batches"() {
+        given:
+        tokenStore.cleanupBatchSize = 2
+        5.times { storeToken("expired-token-$it", null, -1000, userAuthentication) }
+        def validToken = storeToken('valid-token', null, 60000, userAuthentication)
+        tokenStore.storeRefreshToken(new DefaultExpiringOAuth2RefreshToken('expired-refresh-token',
+                new Date(System.currentTimeMillis() - 1000)), userAuthentication)
+        jdbcTemplate.update('INSERT INTO osiam_revoked_access_token VALUES (?, ?)', 'expired-token-id',
+                new Date(System.currentTimeMillis() - 1000))
+
+        when:
+        def removed = tokenStore.removeExpiredTokens()
+
+        then:
+        removed == 7
+        tokenStore.findTokensByUserName('marissa') == [validToken]
+        tokenStore.readRefreshToken('expired-refresh-token') == null
+        jdbcTemplate.queryForObject('SELECT COUNT(*) FROM osiam_revoked_access_token', Integer) == 0
+    }
+
+    private DefaultOAuth2AccessToken storeToken(String value, String tokenId, long expiresIn,
+            OAuth2Authentication authentication) {
+        def token = new DefaultOAuth2AccessToken(value)
+        token.setExpiration(new Date(System.currentTimeMillis() + expiresIn))
+        if (tokenId != null) {
+            token.setAdditionalInformation([(SignedAccessTokenEnhancer.TOKEN_ID): tokenId])
+        }
+        tokenStore.storeAccessToken(token, authentication)
+        token
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security.helper
+
+import org.osiam.resources.UserSpring
+import org.osiam.security.SignedAccessTokenCodec
+import org.springframework.security.core.Authentication
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken
+import org.springframework.security.oauth2.provider.AuthorizationRequest
+import org.springframework.security.oauth2.provider.OAuth2Authentication
+
+import spock.lang.Specification
+
+class SignedAccessTokenEnhancerTest extends Specification {
+
+    def codec = new SignedAccessTokenCodec('a secret with at least 32 characters')
+    def authorizationRequest = Mock(AuthorizationRequest)
+    def userAuthentication = Mock(Authentication)
+    def accessToken = new DefaultOAuth2AccessToken('opaque-token')
+
+    def setup() {
+        authorizationRequest.getClientId() >> 'example-client'
+        accessToken.setScope(['GET', 'POST'] as Set)
+        accessToken.setExpiration(new Date(System.currentTimeMillis() + 60000))
+    }
+
+    def "should replace the token value with a signed token of the user and the client"() {
+        given:
+        userAuthentication.getPrincipal() >> new UserSpring(id: 'user-id', username: 'marissa')
+        def authentication = new OAuth2Authentication(authorizationRequest, userAuthentication)
+
+        when:
+        def result = new SignedAccessTokenEnhancer(codec).enhance(accessToken, authentication)
+        def signedToken = codec.verify(result.value)
+
+        then:
+        signedToken.id == 'opaque-token'
+        signedToken.clientId == 'example-client'
+        signedToken.scopes == ['GET', 'POST'] as Set
+        signedToken.userId == 'user-id'
+        signedToken.userName == 'marissa'
+        signedToken.expiresAt == (accessToken.expiration.time / 1000).longValue()
+        result.additionalInformation[SignedAccessTokenEnhancer.TOKEN_ID] == 'opaque-token'
+        result.expiration == accessToken.expiration
+    }
+
+    def "should sign a token of the client credentials grant without a user"() {
+        given:
+        def authentication = new OAuth2Authentication(authorizationRequest, null)
+
+        when:
+        def signedToken = codec.verify(new SignedAccessTokenEnhancer(codec).enhance(accessToken, authentication).value)
+
+        then:
+        signedToken.clientId == 'example-client'
+        signedToken.userId == null
+    }
+
+    def "should return the token unchanged if signing is disabled"() {
+        given:
+        def authentication = new OAuth2Authentication(authorizationRequest, null)
+
+        when:
+        def result = new SignedAccessTokenEnhancer(new SignedAccessTokenCodec('')).enhance(accessToken, authentication)
+
+        then:
+        result.is(accessToken)
+    }
+}
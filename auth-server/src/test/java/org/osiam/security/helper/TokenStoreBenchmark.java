@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.helper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.provider.DefaultAuthorizationRequest;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+/**
+ * Compares the throughput of issuing and validating access tokens with the in-memory and the JDBC token store. The
+ * tokens are issued and validated by the {@link DefaultTokenServices} like on the token and validation endpoints, by
+ * several threads at once. The JDBC store uses an in-memory H2 database unless a PostgreSQL database with the tables of
+ * init_ddl.sql is given, whose tokens are deleted before:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.osiam.security.helper.TokenStoreBenchmark \
+ *     -Ddb.url=jdbc:postgresql://localhost:5432/osiam -Ddb.username=osiam -Ddb.password=osiam
+ * </pre>
+ */
+public final class TokenStoreBenchmark {
+
+    private static final int THREADS = Integer.getInteger("threads", 8);
+    private static final int TOKENS_PER_THREAD = 500;
+    private static final int VALIDATIONS_PER_TOKEN = 2;
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    private TokenStoreBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        DataSource dataSource = createDataSource();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            System.out.println(String.format(Locale.ENGLISH, "%-10s %18s %18s", "store", "issued (1/s)",
+                    "validated (1/s)"));
+            measure("in-memory", new InMemoryRevocationTrackingTokenStore(), executor, null);
+            measure("jdbc", new JdbcRevocationTrackingTokenStore(dataSource), executor, dataSource);
+        } finally {
+            executor.shutdown();
+            dataSource.close();
+        }
+    }
+
+    private static DataSource createDataSource() {
+        DataSource dataSource = new DataSource();
+        String url = System.getProperty("db.url");
+        if (url == null) {
+            dataSource.setDriverClassName("org.h2.Driver");
+            dataSource.setUrl("jdbc:h2:mem:tokens;DB_CLOSE_DELAY=-1");
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+            populator.addScript(new ClassPathResource("token-store-schema.sql"));
+            DatabasePopulatorUtils.execute(populator, dataSource);
+        } else {
+            dataSource.setDriverClassName("org.postgresql.Driver");
+            dataSource.setUrl(url);
+            dataSource.setUsername(System.getProperty("db.username"));
+            dataSource.setPassword(System.getProperty("db.password"));
+        }
+        dataSource.setInitialSize(THREADS);
+        dataSource.setMinIdle(THREADS);
+        dataSource.setMaxActive(THREADS);
+        dataSource.setMaxIdle(THREADS);
+        return dataSource;
+    }
+
+    private static void measure(String name, TokenStore tokenStore, ExecutorService executor,
+            DataSource dataSource) throws InterruptedException, ExecutionException {
+        DefaultTokenServices tokenServices = new DefaultTokenServices();
+        tokenServices.setTokenStore(tokenStore);
+        tokenServices.setSupportRefreshToken(true);
+
+        List<Double> issued = new ArrayList<>();
+        List<Double> validated = new ArrayList<>();
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            if (dataSource != null) {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+                jdbcTemplate.update("DELETE FROM osiam_access_token");
+                jdbcTemplate.update("DELETE FROM osiam_refresh_token");
+            }
+
+            List<List<String>> tokens = new ArrayList<>();
+            long start = System.nanoTime();
+            for (Future<List<String>> future : executor.invokeAll(issueTokens(tokenServices, run))) {
+                tokens.add(future.get());
+            }
+            double issueSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(validateTokens(tokenServices, tokens))) {
+                future.get();
+            }
+            double validateSeconds = (System.nanoTime() - start) / 1e9;
+
+            if (run >= WARMUP_RUNS) {
+                issued.add(THREADS * TOKENS_PER_THREAD / issueSeconds);
+                validated.add(THREADS * TOKENS_PER_THREAD * VALIDATIONS_PER_TOKEN / validateSeconds);
+            }
+        }
+
+        System.out.println(String.format(Locale.ENGLISH, "%-10s %18.0f %18.0f", name, median(issued),
+                median(validated)));
+    }
+
+    /**
+     * Every thread issues tokens for its own users, so each token has another authentication.
+     */
+    private static List<Callable<List<String>>> issueTokens(final DefaultTokenServices tokenServices, final int run) {
+        List<Callable<List<String>>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            tasks.add(new Callable<List<String>>() {
+                @Override
+                public List<String> call() {
+                    List<String> tokens = new ArrayList<>();
+                    for (int j = 0; j < TOKENS_PER_THREAD; j++) {
+                        OAuth2Authentication authentication = new OAuth2Authentication(
+                                new DefaultAuthorizationRequest("example-client", Collections.singleton("GET")),
+                                new UsernamePasswordAuthenticationToken("user-" + run + "-" + thread + "-" + j, null,
+                                        Collections.<GrantedAuthority> emptyList()));
+                        tokens.add(tokenServices.createAccessToken(authentication).getValue());
+                    }
+                    return tokens;
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private static List<Callable<Void>> validateTokens(final DefaultTokenServices tokenServices,
+            List<List<String>> tokens) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (final List<String> threadTokens : tokens) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = 0; i < VALIDATIONS_PER_TOKEN; i++) {
+                        for (String token : threadTokens) {
+                            tokenServices.loadAuthentication(token);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private static double median(List<Double> values) {
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+}
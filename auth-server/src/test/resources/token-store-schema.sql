@@ -0,0 +1,32 @@
+-- the token tables of init_ddl.sql of the resource server for H2
+
+CREATE TABLE osiam_access_token (
+    token_id varchar(32) NOT NULL PRIMARY KEY,
+    token bytea NOT NULL,
+    authentication_id varchar(32) NOT NULL,
+    user_name varchar(255),
+    client_id varchar(32) NOT NULL,
+    authentication bytea NOT NULL,
+    refresh_token varchar(32),
+    expiration timestamp
+);
+
+CREATE TABLE osiam_refresh_token (
+    token_id varchar(32) NOT NULL PRIMARY KEY,
+    token bytea NOT NULL,
+    authentication bytea NOT NULL,
+    expiration timestamp
+);
+
+CREATE TABLE osiam_revoked_access_token (
+    token_id varchar(255) NOT NULL PRIMARY KEY,
+    expiration timestamp NOT NULL
+);
+
+CREATE INDEX osiam_access_token_authentication_id_idx ON osiam_access_token (authentication_id);
+CREATE INDEX osiam_access_token_client_id_idx ON osiam_access_token (client_id);
+CREATE INDEX osiam_access_token_expiration_idx ON osiam_access_token (expiration);
+CREATE INDEX osiam_access_token_refresh_token_idx ON osiam_access_token (refresh_token);
+CREATE INDEX osiam_access_token_user_name_idx ON osiam_access_token (user_name);
+CREATE INDEX osiam_refresh_token_expiration_idx ON osiam_refresh_token (expiration);
+CREATE INDEX osiam_revoked_access_token_expiration_idx ON osiam_revoked_access_token (expiration);
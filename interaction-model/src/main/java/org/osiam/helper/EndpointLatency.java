@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.helper;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The measured requests to one endpoint. A request is measured from sending it until its response is read.
+ */
+public class EndpointLatency {
+
+    private final long requests;
+    private final long failures;
+    private final long averageMicros;
+    private final long maxMicros;
+
+    @ConstructorProperties({ "requests", "failures", "averageMicros", "maxMicros" })
+    public EndpointLatency(long requests, long failures, long averageMicros, long maxMicros) {
+        this.requests = requests;
+        this.failures = failures;
+        this.averageMicros = averageMicros;
+        this.maxMicros = maxMicros;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of requests that did not get a response, e.g. because of a timeout
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getAverageMicros() {
+        return averageMicros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+}
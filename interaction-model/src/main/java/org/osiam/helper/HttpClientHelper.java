@@ -23,60 +23,184 @@
 
 package org.osiam.helper;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Executes the requests of a web application to the other OSIAM servers. All requests share one pool of connections,
+ * which are kept alive for further requests and closed after they were unused for a while. The latencies of the
+ * requests are measured by {@link HttpClientMetrics}.
+ * <p>
+ * The asynchronous methods send the request and return at once, without holding a thread until the response arrives.
+ * They use a second pool of non-blocking connections with the same settings, which is created by the first
+ * asynchronous request. Their callbacks are called by the I/O threads of this pool and must not block.
+ */
 @Named("httpClientHelper")
 public class HttpClientHelper {
 
     private HttpClient client; //NOSONAR : need to mock therefore the final identifier was removed
 
     private static final String ENCODING = "UTF-8";
+    private static final long MIN_EVICTION_INTERVAL_MILLIS = 1000;
+
+    private final HttpClientSettings settings;
+    private final RequestConfig requestConfig;
+    private final ConnectionKeepAliveStrategy keepAliveStrategy;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ScheduledExecutorService idleConnectionEvictor;
+    private final HttpClientMetrics metrics = new HttpClientMetrics();
+
+    private volatile PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private volatile CloseableHttpAsyncClient asyncClient;
 
     public HttpClientHelper() {
-        PoolingClientConnectionManager poolingClientConnectionManager = new PoolingClientConnectionManager();
-        client = new DefaultHttpClient(poolingClientConnectionManager);
+        this(new HttpClientSettings());
+    }
+
+    @Inject
+    public HttpClientHelper(final HttpClientSettings settings) {
+        this.settings = settings;
+        requestConfig = RequestConfig.custom()
+                .setConnectTimeout(settings.getConnectTimeoutMillis())
+                .setSocketTimeout(settings.getReadTimeoutMillis())
+                .setConnectionRequestTimeout(settings.getConnectionRequestTimeoutMillis())
+                .build();
+        keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = super.getKeepAliveDuration(response, context);
+                return duration > 0 ? duration : settings.getKeepAliveMillis();
+            }
+        };
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(settings.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+        client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .build();
+
+        idleConnectionEvictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "osiam-idle-connection-evictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long evictionInterval = Math.max(settings.getIdleTimeoutMillis() / 2, MIN_EVICTION_INTERVAL_MILLIS);
+        idleConnectionEvictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(settings.getIdleTimeoutMillis(), TimeUnit.MILLISECONDS);
+
+                PoolingNHttpClientConnectionManager asyncManager = asyncConnectionManager;
+                if (asyncManager != null) {
+                    asyncManager.closeExpiredConnections();
+                    asyncManager.closeIdleConnections(settings.getIdleTimeoutMillis(), TimeUnit.MILLISECONDS);
+                }
+            }
+        }, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the latencies of the requests by endpoint, to be exported via JMX
+     */
+    public HttpClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        idleConnectionEvictor.shutdownNow();
+        if (client instanceof CloseableHttpClient) {
+            ((CloseableHttpClient) client).close();
+        }
+        synchronized (this) {
+            if (asyncClient != null) {
+                asyncClient.close();
+            }
+        }
     }
 
     public HttpClientRequestResult executeHttpGet(String url, String headerName, String headerValue) {
-        HttpClientRequestResult result;
         HttpGet request = new HttpGet(url);
 
         request = addHeaderToRequest(headerName, headerValue, request);
         request = addDefaultHeaderToRequest(request);
 
-        try {
-            HttpResponse response = client.execute(request);
-            String responseBody = getResponseBody(response);
-            int statusCode = response.getStatusLine().getStatusCode();
-            result = new HttpClientRequestResult(responseBody, statusCode);
-        } catch (IOException e) {
-            throw new RuntimeException(e); //NOSONAR : Wrapping to a non checked exception
-        }
-        return result;
+        return executeHttpRequestWithoutEntity(request);
+    }
+
+    /**
+     * Executes a GET request and reads a successful response as JSON while it is received, without building a string
+     * of the body first.
+     */
+    public <T> HttpClientJsonResult<T> executeHttpGet(String url, String headerName, String headerValue,
+            ObjectMapper mapper, Class<T> valueType) {
+        HttpGet request = new HttpGet(url);
+
+        request = addHeaderToRequest(headerName, headerValue, request);
+        request = addDefaultHeaderToRequest(request);
+
+        return executeHttpRequest(request, mapper, valueType);
+    }
+
+    public HttpClientRequestResult executeHttpDelete(String url, String headerName, String headerValue) {
+        HttpDelete request = new HttpDelete(url);
+
+        request = addHeaderToRequest(headerName, headerValue, request);
+        request = addDefaultHeaderToRequest(request);
+
+        return executeHttpRequestWithoutEntity(request);
     }
 
     public HttpClientRequestResult executeHttpPut(String url, String parameterName, String parameterValue, String headerName, String headerValue) {
@@ -114,6 +238,54 @@ public class HttpClientHelper {
         return executeHttpRequest(request, body, null);
     }
 
+    /**
+     * Sends a GET request without waiting for the response.
+     * 
+     * @param callback
+     *        called with the response by an I/O thread, may be null
+     * @return the future response
+     */
+    public Future<HttpClientRequestResult> executeHttpGetAsync(String url, String headerName, String headerValue,
+            FutureCallback<HttpClientRequestResult> callback) {
+        HttpGet request = new HttpGet(url);
+        request = addHeaderToRequest(headerName, headerValue, request);
+        request = addDefaultHeaderToRequest(request);
+
+        return executeAsync(request, callback);
+    }
+
+    /**
+     * Sends a POST request without waiting for the response.
+     * 
+     * @param callback
+     *        called with the response by an I/O thread, may be null
+     * @return the future response
+     */
+    public Future<HttpClientRequestResult> executeHttpPostAsync(String url, String body, String headerName,
+            String headerValue, FutureCallback<HttpClientRequestResult> callback) {
+        HttpPost request = new HttpPost(url);
+        request = addHeaderToRequest(headerName, headerValue, request);
+        request = addDefaultHeaderToRequest(request);
+
+        return executeAsync(addBodyToRequest(request, body), callback);
+    }
+
+    /**
+     * Sends a PATCH request without waiting for the response.
+     * 
+     * @param callback
+     *        called with the response by an I/O thread, may be null
+     * @return the future response
+     */
+    public Future<HttpClientRequestResult> executeHttpPatchAsync(String url, String body, String headerName,
+            String headerValue, FutureCallback<HttpClientRequestResult> callback) {
+        HttpPatch request = new HttpPatch(url);
+        request = addHeaderToRequest(headerName, headerValue, request);
+        request = addDefaultHeaderToRequest(request);
+
+        return executeAsync(addBodyToRequest(request, body), callback);
+    }
+
     private <T extends HttpRequestBase> T addHeaderToRequest(String headerName, String headerValue, T request) {
         if (headerName != null && headerValue != null) {
             request.addHeader(headerName, headerValue);
@@ -126,19 +298,133 @@ public class HttpClientHelper {
         return request;
     }
 
+    private HttpClientRequestResult executeHttpRequestWithoutEntity(HttpRequestBase request) {
+        return execute(request);
+    }
+
     private HttpClientRequestResult executeHttpRequest(HttpEntityEnclosingRequestBase request, String body, List<NameValuePair> formParams) {
         try {
-            HttpEntityEnclosingRequestBase requestWithEntity = addEntityToRequest(request, body, formParams);
-            HttpResponse response = client.execute(requestWithEntity);
+            return execute(addEntityToRequest(request, body, formParams));
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e); //NOSONAR : Wrapping to a non checked exception
+        }
+    }
+
+    private HttpClientRequestResult execute(HttpRequestBase request) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            HttpResponse response = client.execute(request);
             String responseBody = getResponseBody(response);
             int statusCode = response.getStatusLine().getStatusCode();
+            failed = false;
 
             return new HttpClientRequestResult(responseBody, statusCode);
         } catch (IOException e) {
             throw new RuntimeException(e); //NOSONAR : Wrapping to a non checked exception
+        } finally {
+            request.releaseConnection();
+            metrics.record(request, System.nanoTime() - start, failed);
+        }
+    }
+
+    private <T> HttpClientJsonResult<T> executeHttpRequest(HttpRequestBase request, ObjectMapper mapper,
+            Class<T> valueType) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            HttpResponse response = client.execute(request);
+            int statusCode = response.getStatusLine().getStatusCode();
+            HttpClientJsonResult<T> result;
+            if (statusCode >= 200 && statusCode < 300) {
+                result = new HttpClientJsonResult<>(readResponseValue(response, mapper, valueType), null, statusCode);
+            } else {
+                result = new HttpClientJsonResult<>(null, getResponseBody(response), statusCode);
+            }
+            failed = false;
+
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException(e); //NOSONAR : Wrapping to a non checked exception
+        } finally {
+            request.releaseConnection();
+            metrics.record(request, System.nanoTime() - start, failed);
+        }
+    }
+
+    private Future<HttpClientRequestResult> executeAsync(final HttpRequestBase request,
+            FutureCallback<HttpClientRequestResult> callback) {
+        final BasicFuture<HttpClientRequestResult> future = new BasicFuture<>(callback);
+        final long start = System.nanoTime();
+
+        getAsyncClient().execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                HttpClientRequestResult result;
+                try {
+                    result = new HttpClientRequestResult(getResponseBody(response),
+                            response.getStatusLine().getStatusCode());
+                } catch (IOException e) {
+                    failed(e);
+                    return;
+                }
+                metrics.record(request, System.nanoTime() - start, false);
+                future.completed(result);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                metrics.record(request, System.nanoTime() - start, true);
+                future.failed(e);
+            }
+
+            @Override
+            public void cancelled() {
+                metrics.record(request, System.nanoTime() - start, true);
+                future.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private CloseableHttpAsyncClient getAsyncClient() {
+        CloseableHttpAsyncClient result = asyncClient;
+        if (result != null) {
+            return result;
+        }
+
+        synchronized (this) {
+            if (asyncClient == null) {
+                PoolingNHttpClientConnectionManager manager;
+                try {
+                    manager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor());
+                } catch (IOReactorException e) {
+                    throw new RuntimeException(e); //NOSONAR : Wrapping to a non checked exception
+                }
+                manager.setMaxTotal(settings.getMaxConnections());
+                manager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+
+                CloseableHttpAsyncClient newClient = HttpAsyncClients.custom()
+                        .setConnectionManager(manager)
+                        .setDefaultRequestConfig(requestConfig)
+                        .setKeepAliveStrategy(keepAliveStrategy)
+                        .build();
+                newClient.start();
+
+                asyncConnectionManager = manager;
+                asyncClient = newClient;
+            }
+            return asyncClient;
         }
     }
 
+    private HttpEntityEnclosingRequestBase addBodyToRequest(HttpEntityEnclosingRequestBase request, String body) {
+        if (body != null) {
+            request.setEntity(new StringEntity(body, ENCODING));
+        }
+        return request;
+    }
+
     private HttpEntityEnclosingRequestBase addEntityToRequest(HttpEntityEnclosingRequestBase request, String body, List<NameValuePair> formParams) throws UnsupportedEncodingException {
         if (body == null && formParams != null) {
             UrlEncodedFormEntity formEntity = new UrlEncodedFormEntity(formParams, ENCODING);
@@ -151,19 +437,31 @@ public class HttpClientHelper {
     }
 
     private String getResponseBody(HttpResponse response) throws IOException {
-        BufferedReader rd = null;
-        final StringBuffer stringBuffer = new StringBuffer("");
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return "";
+        }
 
+        InputStream content = entity.getContent();
         try {
-            rd = new BufferedReader(new InputStreamReader(response.getEntity().getContent(), ENCODING));
-            String line;
-            while ((line = rd.readLine()) != null) {
-                stringBuffer.append(line);
-            }
+            return IOUtils.toString(content, ENCODING);
         } finally {
-            IOUtils.closeQuietly(rd);
+            IOUtils.closeQuietly(content);
+        }
+    }
+
+    private <T> T readResponseValue(HttpResponse response, ObjectMapper mapper, Class<T> valueType)
+            throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return null;
         }
 
-        return stringBuffer.toString();
+        InputStream content = entity.getContent();
+        try {
+            return mapper.readValue(content, valueType);
+        } finally {
+            IOUtils.closeQuietly(content);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.helper;
+
+/**
+ * The result of a request whose successful response was read as JSON while it was received.
+ * 
+ * @param <T>
+ *        the type of the successful response
+ */
+public class HttpClientJsonResult<T> {
+
+    private final T value;
+    private final String body;
+    private final int statusCode;
+
+    public HttpClientJsonResult(T value, String body, int statusCode) {
+        this.value = value;
+        this.body = body;
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return the response read as JSON, or null if the status code is not 2xx
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return the body of a response whose status code is not 2xx, or null
+     */
+    public String getBody() {
+        return body;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
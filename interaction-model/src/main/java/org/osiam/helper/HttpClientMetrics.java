@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.helper;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Measures the requests of a {@link HttpClientHelper} by endpoint. An endpoint is the method, the server and the first
+ * two segments of the path, i.e. the web application and its controller, so neither ids nor tokens of the path end up
+ * in the metrics.
+ */
+public class HttpClientMetrics implements HttpClientMetricsMXBean {
+
+    private final ConcurrentMap<String, Counters> endpoints = new ConcurrentHashMap<>();
+
+    void record(HttpRequestBase request, long nanos, boolean failed) {
+        String endpoint = getEndpoint(request);
+        Counters counters = endpoints.get(endpoint);
+        if (counters == null) {
+            Counters newCounters = new Counters();
+            counters = endpoints.putIfAbsent(endpoint, newCounters);
+            if (counters == null) {
+                counters = newCounters;
+            }
+        }
+        counters.record(nanos, failed);
+    }
+
+    @Override
+    public Map<String, EndpointLatency> getEndpoints() {
+        Map<String, EndpointLatency> latencies = new TreeMap<>();
+        for (Map.Entry<String, Counters> entry : endpoints.entrySet()) {
+            latencies.put(entry.getKey(), entry.getValue().toLatency());
+        }
+        return latencies;
+    }
+
+    @Override
+    public void reset() {
+        endpoints.clear();
+    }
+
+    static String getEndpoint(HttpRequestBase request) {
+        URI uri = request.getURI();
+        StringBuilder endpoint = new StringBuilder(request.getMethod()).append(' ').append(uri.getHost());
+        if (uri.getPort() != -1) {
+            endpoint.append(':').append(uri.getPort());
+        }
+
+        String path = uri.getPath() != null ? uri.getPath() : "";
+        int end = 0;
+        for (int segments = 0; segments < 2 && end != -1; segments++) {
+            end = path.indexOf('/', end + 1);
+        }
+        return endpoint.append(end == -1 ? path : path.substring(0, end)).toString();
+    }
+
+    private static final class Counters {
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos, boolean failed) {
+            requests.incrementAndGet();
+            if (failed) {
+                failures.incrementAndGet();
+            }
+            totalNanos.addAndGet(nanos);
+
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        private EndpointLatency toLatency() {
+            long count = requests.get();
+            long averageNanos = count != 0 ? totalNanos.get() / count : 0;
+            return new EndpointLatency(count, failures.get(), TimeUnit.NANOSECONDS.toMicros(averageNanos),
+                    TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+        }
+    }
+}
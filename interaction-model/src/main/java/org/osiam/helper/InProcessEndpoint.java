@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.helper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * An endpoint of the auth or the resource server for a server deployed in the same JVM, if {@code osiam.colocated} is
+ * enabled. The web applications have their own class loaders and can't share the classes of this module, so the
+ * endpoint is registered in the platform MBean server and exchanges only JDK types: the arguments are strings and
+ * numbers, the results are the maps the interaction model objects would be written to as JSON, or null if nothing
+ * was found. They are passed by reference, there is neither a network hop nor any JSON text in between.
+ * <p>
+ * Everyone with access to the platform MBean server can call the endpoints, so they are only registered in co-located
+ * deployments.
+ */
+public class InProcessEndpoint {
+
+    public static final String AUTH_SERVER = "org.osiam:type=InProcessEndpoint,name=authServer";
+    public static final String RESOURCE_SERVER = "org.osiam:type=InProcessEndpoint,name=resourceServer";
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final ObjectName name;
+
+    public InProcessEndpoint(String name) {
+        try {
+            this.name = new ObjectName(name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @return true if the endpoint is registered, i.e. the server is deployed in this JVM
+     */
+    public boolean isRegistered() {
+        return server.isRegistered(name);
+    }
+
+    /**
+     * Registers the implementation of the endpoint, replacing the one of a previous deployment.
+     */
+    public <T> void register(T implementation, Class<T> type) {
+        try {
+            unregister();
+            server.registerMBean(new StandardMBean(implementation, type), name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register the endpoint " + name, e);
+        }
+    }
+
+    public void unregister() {
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to unregister the endpoint " + name, e);
+        }
+    }
+
+    /**
+     * Calls an operation of the endpoint. The parameter types of the operation have to be the classes of the
+     * arguments.
+     *
+     * @return the result of the operation, null if nothing was found
+     * @throws IllegalStateException
+     *         if the endpoint is not registered
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> invoke(String operation, Object... arguments) {
+        String[] signature = new String[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            signature[i] = arguments[i].getClass().getName();
+        }
+
+        try {
+            return (Map<String, Object>) server.invoke(name, operation, arguments, signature);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to call " + operation + " of the endpoint " + name, e);
+        }
+    }
+}
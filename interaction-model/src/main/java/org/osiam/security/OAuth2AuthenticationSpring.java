@@ -23,6 +23,8 @@
 
 package org.osiam.security;
 
+import java.util.Date;
+
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 @JsonSerialize(include = JsonSerialize.Inclusion.NON_EMPTY)
@@ -32,6 +34,8 @@ public class OAuth2AuthenticationSpring {
 
     private AuthorizationRequestSpring authorizationRequestSpring;
 
+    private Date expiration;
+
     public AuthenticationSpring getAuthenticationSpring() {
         return authenticationSpring;
     }
@@ -47,4 +51,12 @@ public class OAuth2AuthenticationSpring {
     public void setAuthorizationRequestSpring(AuthorizationRequestSpring authorizationRequestSpring) {
         this.authorizationRequestSpring = authorizationRequestSpring;
     }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public void setExpiration(Date expiration) {
+        this.expiration = expiration;
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * The claims of an access token signed by the auth server. They are written as the payload of a JSON Web Token, so
+ * the short names of the registered JWT claims are used where they exist.
+ */
+@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+public class SignedAccessToken {
+
+    private final String id;
+    private final String clientId;
+    private final Set<String> scopes;
+    private final String userId;
+    private final String userName;
+    private final long expiresAt;
+
+    /**
+     * @param id
+     *        the value of the opaque token the signed token was created for, used to revoke it
+     * @param userId
+     *        the id of the user or null if the token was issued to a client only
+     * @param userName
+     *        the name of the user or null if the token was issued to a client only
+     * @param expiresAt
+     *        the expiration as seconds since the epoch
+     */
+    @JsonCreator
+    public SignedAccessToken(@JsonProperty("jti") String id, @JsonProperty("client_id") String clientId,
+            @JsonProperty("scope") Set<String> scopes, @JsonProperty("sub") String userId,
+            @JsonProperty("user_name") String userName, @JsonProperty("exp") long expiresAt) {
+        this.id = id;
+        this.clientId = clientId;
+        this.scopes = scopes != null ? Collections.unmodifiableSet(new LinkedHashSet<>(scopes))
+                : Collections.<String> emptySet();
+        this.userId = userId;
+        this.userName = userName;
+        this.expiresAt = expiresAt;
+    }
+
+    @JsonProperty("jti")
+    public String getId() {
+        return id;
+    }
+
+    @JsonProperty("client_id")
+    public String getClientId() {
+        return clientId;
+    }
+
+    @JsonProperty("scope")
+    public Set<String> getScopes() {
+        return scopes;
+    }
+
+    @JsonProperty("sub")
+    public String getUserId() {
+        return userId;
+    }
+
+    @JsonProperty("user_name")
+    public String getUserName() {
+        return userName;
+    }
+
+    @JsonProperty("exp")
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @JsonIgnore
+    public Date getExpiration() {
+        return new Date(expiresAt * 1000);
+    }
+
+    @JsonIgnore
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAt * 1000;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.bind.DatatypeConverter;
+
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes and verifies {@link SignedAccessToken}s as JSON Web Tokens signed with HMAC-SHA256. The auth server and the
+ * resource servers have to be configured with the same secret. Signing is disabled if the secret is empty.
+ */
+public class SignedAccessTokenCodec {
+
+    /**
+     * The minimum length of the secret, as HMAC-SHA256 keys should have at least 256 bits.
+     */
+    public static final int MIN_SECRET_LENGTH = 32;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(UTF_8));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SecretKeySpec key;
+
+    public SignedAccessTokenCodec(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            key = null;
+        } else if (secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalArgumentException("The secret to sign access tokens must have at least "
+                    + MIN_SECRET_LENGTH + " characters.");
+        } else {
+            key = new SecretKeySpec(secret.getBytes(UTF_8), ALGORITHM);
+        }
+    }
+
+    public boolean isEnabled() {
+        return key != null;
+    }
+
+    /**
+     * @return true if the given token has the format of a signed token, regardless of its signature
+     */
+    public static boolean isSigned(String token) {
+        int firstDot = token.indexOf('.');
+        return firstDot > 0 && token.indexOf('.', firstDot + 1) > firstDot + 1;
+    }
+
+    public String sign(SignedAccessToken token) {
+        String payload;
+        try {
+            payload = encode(mapper.writeValueAsBytes(token));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        String content = HEADER + "." + payload;
+        return content + "." + encode(createSignature(content));
+    }
+
+    /**
+     * Verifies the signature and the expiration of the given token.
+     *
+     * @throws InvalidTokenException
+     *         if the token is malformed, has an invalid signature or is expired
+     */
+    public SignedAccessToken verify(String token) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Signed access tokens are not enabled.");
+        }
+
+        String[] parts = token.split("\\.");
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            throw new InvalidTokenException("invalid_token");
+        }
+
+        SignedAccessToken signedAccessToken;
+        try {
+            byte[] signature = decode(parts[2]);
+            if (!MessageDigest.isEqual(signature, createSignature(parts[0] + "." + parts[1]))) {
+                throw new InvalidTokenException("invalid_token");
+            }
+            signedAccessToken = mapper.readValue(decode(parts[1]), SignedAccessToken.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidTokenException("invalid_token", e);
+        }
+
+        if (signedAccessToken.isExpired()) {
+            throw new InvalidTokenException("invalid_token");
+        }
+        return signedAccessToken;
+    }
+
+    private byte[] createSignature(String content) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        String base64 = DatatypeConverter.printBase64Binary(bytes);
+        int end = base64.length();
+        while (end > 0 && base64.charAt(end - 1) == '=') {
+            end--;
+        }
+        return base64.substring(0, end).replace('+', '-').replace('/', '_');
+    }
+
+    private static byte[] decode(String base64Url) {
+        StringBuilder base64 = new StringBuilder(base64Url.replace('-', '+').replace('_', '/'));
+        while (base64.length() % 4 != 0) {
+            base64.append('=');
+        }
+        return DatatypeConverter.parseBase64Binary(base64.toString());
+    }
+}
@@ -23,12 +23,23 @@
 
 package org.osiam.helper
 
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
 import org.apache.http.HttpEntity
 import org.apache.http.HttpResponse
 import org.apache.http.StatusLine
 import org.apache.http.client.HttpClient
+import org.apache.http.concurrent.FutureCallback
+
 import spock.lang.Specification
 
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import com.sun.net.httpserver.HttpServer
+
 /**
  *  Tests for HttpClientHelper.
  *
@@ -97,6 +108,22 @@ class HttpClientHelperTest extends Specification {
         thrown(RuntimeException)
     }
 
+    def "should be able to execute the http delete method without response entity"() {
+        given:
+        def statusLineMock = Mock(StatusLine)
+
+        when:
+        def result = httpClientHelper.executeHttpDelete("http://localhost:8080/test", null, null)
+
+        then:
+        1 * httpClientMock.execute({ it.method == 'DELETE' }) >> httpResponseMock
+        1 * httpResponseMock.getStatusLine() >> statusLineMock
+        1 * statusLineMock.getStatusCode() >> 200
+        1 * httpResponseMock.getEntity() >> null
+        result.body == ''
+        result.statusCode == 200
+    }
+
     def "should be able to execute the http put method for updating"() {
         given:
         def httpEntityMock = Mock(HttpEntity)
@@ -200,4 +227,151 @@ class HttpClientHelperTest extends Specification {
         result.body == content
         result.statusCode == 200
     }
-}
\ No newline at end of file
+
+    def "should read a successful response of the http get method as JSON"() {
+        given:
+        def httpEntityMock = Mock(HttpEntity)
+        def statusLineMock = Mock(StatusLine)
+
+        when:
+        def result = httpClientHelper.executeHttpGet("http://localhost:8080/test", null, null, new ObjectMapper(), Map)
+
+        then:
+        1 * httpClientMock.execute(_) >> httpResponseMock
+        1 * httpResponseMock.getStatusLine() >> statusLineMock
+        1 * statusLineMock.getStatusCode() >> 200
+        1 * httpResponseMock.getEntity() >> httpEntityMock
+        1 * httpEntityMock.getContent() >> new ByteArrayInputStream('{"id":"irrelevant"}'.getBytes("UTF-8"))
+        result.value == [id: 'irrelevant']
+        result.body == null
+        result.statusCode == 200
+    }
+
+    def "should return the body of an unsuccessful response of the http get method instead of reading it as JSON"() {
+        given:
+        def httpEntityMock = Mock(HttpEntity)
+        def statusLineMock = Mock(StatusLine)
+
+        when:
+        def result = httpClientHelper.executeHttpGet("http://localhost:8080/test", null, null, new ObjectMapper(), Map)
+
+        then:
+        1 * httpClientMock.execute(_) >> httpResponseMock
+        1 * httpResponseMock.getStatusLine() >> statusLineMock
+        1 * statusLineMock.getStatusCode() >> 401
+        1 * httpResponseMock.getEntity() >> httpEntityMock
+        1 * httpEntityMock.getContent() >> new ByteArrayInputStream('invalid token'.getBytes("UTF-8"))
+        result.value == null
+        result.body == 'invalid token'
+        result.statusCode == 401
+    }
+
+    def "should wrap an invalid JSON response of the http get method to RuntimeException"() {
+        given:
+        def httpEntityMock = Mock(HttpEntity)
+        def statusLineMock = Mock(StatusLine)
+        httpClientMock.execute(_) >> httpResponseMock
+        httpResponseMock.getStatusLine() >> statusLineMock
+        statusLineMock.getStatusCode() >> 200
+        httpResponseMock.getEntity() >> httpEntityMock
+        httpEntityMock.getContent() >> new ByteArrayInputStream('no JSON'.getBytes("UTF-8"))
+
+        when:
+        httpClientHelper.executeHttpGet("http://localhost:8080/test", null, null, new ObjectMapper(), Map)
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    def "should measure the latency of the requests by endpoint without the ids of the path"() {
+        given:
+        def statusLineMock = Mock(StatusLine)
+        statusLineMock.getStatusCode() >> 200
+        httpResponseMock.getStatusLine() >> statusLineMock
+
+        when:
+        httpClientHelper.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/first", null, null)
+        httpClientHelper.executeHttpGet("http://localhost:8080/osiam-auth-server/token/second", null, null)
+        httpClientHelper.executeHttpDelete("http://localhost:8080/osiam-auth-server/client/example-client/cache", null, null)
+        try {
+            httpClientHelper.executeHttpGet("http://localhost:8080/osiam-auth-server/token/third", null, null)
+        } catch (RuntimeException e) {
+        }
+
+        then:
+        3 * httpClientMock.execute(_) >> httpResponseMock
+        1 * httpClientMock.execute(_) >> { throw new IOException() }
+        def endpoints = httpClientHelper.metrics.endpoints
+        endpoints.keySet() == ['DELETE localhost:8080/osiam-auth-server/client',
+            'GET localhost:8080/osiam-auth-server/token'] as Set
+        endpoints['GET localhost:8080/osiam-auth-server/token'].requests == 3
+        endpoints['GET localhost:8080/osiam-auth-server/token'].failures == 1
+        endpoints['DELETE localhost:8080/osiam-auth-server/client'].requests == 1
+    }
+
+    def "the helper should be configurable"() {
+        when:
+        HttpClientHelper helper = new HttpClientHelper(new HttpClientSettings(maxConnections: 10,
+                maxConnectionsPerRoute: 5, connectTimeoutMillis: 100, readTimeoutMillis: 100))
+
+        then:
+        helper.requestConfig.socketTimeout == 100
+        helper.requestConfig.connectTimeout == 100
+
+        cleanup:
+        helper.shutdown()
+    }
+
+    def "should send requests asynchronously and complete the future and the callback with the response"() {
+        given:
+        HttpServer server = HttpServer.create(new InetSocketAddress('localhost', 0), 0)
+        server.createContext('/osiam-resource-server/Users', { HttpExchange exchange ->
+            byte[] body = "${exchange.requestMethod} ${exchange.requestBody.text}".getBytes('UTF-8')
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.responseBody.write(body)
+            exchange.close()
+        } as HttpHandler)
+        server.start()
+        String uri = "http://localhost:${server.address.port}/osiam-resource-server/Users/1"
+        HttpClientHelper helper = new HttpClientHelper()
+        def callbackResult = new LinkedBlockingQueue()
+        FutureCallback<HttpClientRequestResult> callback = [
+            completed: { callbackResult.put(it) },
+            failed: { callbackResult.put(it) },
+            cancelled: { }
+        ] as FutureCallback
+
+        when:
+        def get = helper.executeHttpGetAsync(uri, 'Authorization', 'Bearer token', callback).get(5, TimeUnit.SECONDS)
+        def patch = helper.executeHttpPatchAsync(uri, 'the user', null, null, null).get(5, TimeUnit.SECONDS)
+
+        then:
+        get.statusCode == 200
+        get.body == 'GET '
+        callbackResult.poll(5, TimeUnit.SECONDS).is(get)
+        patch.body == 'PATCH the user'
+        helper.metrics.endpoints["GET localhost:${server.address.port}/osiam-resource-server/Users".toString()].requests == 1
+
+        cleanup:
+        helper.shutdown()
+        server.stop(0)
+    }
+
+    def "should fail the future of an asynchronous request if the server cannot be reached"() {
+        given:
+        HttpClientHelper helper = new HttpClientHelper()
+        ServerSocket socket = new ServerSocket(0)
+        int port = socket.localPort
+        socket.close()
+
+        when:
+        helper.executeHttpGetAsync("http://localhost:$port/osiam-resource-server/Users", null, null, null)
+                .get(5, TimeUnit.SECONDS)
+
+        then:
+        thrown(ExecutionException)
+
+        cleanup:
+        helper.shutdown()
+    }
+}
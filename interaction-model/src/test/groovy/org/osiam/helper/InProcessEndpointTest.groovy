@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.helper
+
+import spock.lang.Specification
+
+class InProcessEndpointTest extends Specification {
+
+    def endpoint = new InProcessEndpoint('org.osiam:type=InProcessEndpoint,name=test')
+
+    def cleanup() {
+        endpoint.unregister()
+    }
+
+    def "a registered endpoint returns the results by reference"() {
+        given:
+        def user = [userName: 'marissa', active: true]
+        endpoint.register([getUser: { String userName -> userName == 'marissa' ? user : null }] as TestEndpoint,
+                TestEndpoint)
+
+        expect:
+        endpoint.registered
+        endpoint.invoke('getUser', 'marissa').is(user)
+        endpoint.invoke('getUser', 'unknown') == null
+    }
+
+    def "a second registration replaces the first one"() {
+        given:
+        endpoint.register([getUser: { String userName -> [version: 1] }] as TestEndpoint, TestEndpoint)
+
+        when:
+        endpoint.register([getUser: { String userName -> [version: 2] }] as TestEndpoint, TestEndpoint)
+
+        then:
+        endpoint.invoke('getUser', 'marissa') == [version: 2]
+    }
+
+    def "calling an endpoint that is not registered raises an exception"() {
+        expect:
+        !endpoint.registered
+
+        when:
+        endpoint.invoke('getUser', 'marissa')
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    static interface TestEndpoint {
+
+        Map<String, Object> getUser(String userName)
+    }
+}
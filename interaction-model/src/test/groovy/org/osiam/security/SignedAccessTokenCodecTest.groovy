@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security
+
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException
+
+import spock.lang.Specification
+
+class SignedAccessTokenCodecTest extends Specification {
+
+    static final String SECRET = 'a secret with at least 32 characters'
+
+    def codec = new SignedAccessTokenCodec(SECRET)
+
+    def "a signed token can be verified and contains the claims"() {
+        given:
+        def expiresAt = (System.currentTimeMillis() / 1000).longValue() + 60
+        def token = new SignedAccessToken('token-id', 'example-client', ['GET', 'POST'] as Set, 'user-id', 'marissa',
+                expiresAt)
+
+        when:
+        def result = codec.verify(codec.sign(token))
+
+        then:
+        result.id == 'token-id'
+        result.clientId == 'example-client'
+        result.scopes == ['GET', 'POST'] as Set
+        result.userId == 'user-id'
+        result.userName == 'marissa'
+        result.expiresAt == expiresAt
+    }
+
+    def "a signed token has the format of a JSON Web Token"() {
+        when:
+        def signedToken = codec.sign(createToken(60))
+
+        then:
+        SignedAccessTokenCodec.isSigned(signedToken)
+        signedToken.split('\\.').length == 3
+        !SignedAccessTokenCodec.isSigned(UUID.randomUUID().toString())
+    }
+
+    def "a token signed with another secret is rejected"() {
+        given:
+        def otherCodec = new SignedAccessTokenCodec('another secret with at least 32 characters')
+
+        when:
+        codec.verify(otherCodec.sign(createToken(60)))
+
+        then:
+        thrown(InvalidTokenException)
+    }
+
+    def "a token with changed claims is rejected"() {
+        given:
+        def parts = codec.sign(createToken(60)).split('\\.')
+        def otherParts = codec.sign(new SignedAccessToken('token-id', 'example-client', ['GET', 'POST', 'DELETE'] as Set,
+                'user-id', 'marissa', 0)).split('\\.')
+
+        when:
+        codec.verify([parts[0], otherParts[1], parts[2]].join('.'))
+
+        then:
+        thrown(InvalidTokenException)
+    }
+
+    def "an expired token is rejected"() {
+        when:
+        codec.verify(codec.sign(createToken(-1)))
+
+        then:
+        thrown(InvalidTokenException)
+    }
+
+    def "a malformed token is rejected"() {
+        when:
+        codec.verify(token)
+
+        then:
+        thrown(InvalidTokenException)
+
+        where:
+        token << ['a.b', 'a.b.c', 'a.b.c.d', '..']
+    }
+
+    def "signing is disabled without a secret and a short secret is not accepted"() {
+        expect:
+        !new SignedAccessTokenCodec('').enabled
+        codec.enabled
+
+        when:
+        new SignedAccessTokenCodec('too short')
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private SignedAccessToken createToken(long expiresInSeconds) {
+        new SignedAccessToken('token-id', 'example-client', ['GET'] as Set, 'user-id', 'marissa',
+                (System.currentTimeMillis() / 1000).longValue() + expiresInSeconds)
+    }
+}
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,6 +55,7 @@ import org.osiam.web.util.HttpHeader;
 import org.osiam.web.util.MailSenderBean;
 import org.osiam.web.util.RegistrationExtensionUrnProvider;
 import org.osiam.web.util.ResourceServerUriBuilder;
+import org.osiam.web.util.ResponseCallback;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -62,6 +64,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
@@ -77,6 +80,8 @@ public class ChangeEmailController {
     @Inject
     private HttpClientHelper httpClient;
     @Inject
+    private Executor executor;
+    @Inject
     private ResourceServerUriBuilder resourceServerUriBuilder;
     @Inject
     private RegistrationExtensionUrnProvider registrationExtensionUrnProvider;
@@ -155,44 +160,61 @@ public class ChangeEmailController {
      * @param newEmailValue
      *        The new email address value
      * @return The HTTP status code
-     * @throws IOException
-     * @throws MessagingException
      */
     @RequestMapping(method = RequestMethod.POST, value = "/change", produces = "application/json")
-    public ResponseEntity<String> change(@RequestHeader final String authorization,
-            @RequestParam final String newEmailValue) throws IOException, MessagingException {
-        String userId;
-
-        // catch exception due to problems getting information from the access token, possible that the token was
-        // invalid
-        try {
-            userId = accessTokenInformationProvider.getUserIdFromToken(authorization);
-        } catch (IllegalArgumentException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-        }
+    public DeferredResult<ResponseEntity<String>> change(@RequestHeader final String authorization,
+            @RequestParam final String newEmailValue) {
+        final DeferredResult<ResponseEntity<String>> deferredResult = new DeferredResult<>();
+
+        accessTokenInformationProvider.requestTokenInformation(authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult result) throws IOException {
+                        String userId;
+
+                        // catch exception due to problems getting information from the access token, possible that
+                        // the token was invalid
+                        try {
+                            userId = accessTokenInformationProvider.getUserIdFromTokenInformation(result);
+                        } catch (IllegalArgumentException e) {
+                            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+                        }
+
+                        return changeEmail(userId, authorization, newEmailValue, deferredResult);
+                    }
+                });
+        return deferredResult;
+    }
 
+    private ResponseEntity<String> changeEmail(String userId, String authorization, final String newEmailValue,
+            DeferredResult<ResponseEntity<String>> deferredResult) throws IOException {
         String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
 
         // generate confirmation token
-        String confirmationToken = UUID.randomUUID().toString();
+        final String confirmationToken = UUID.randomUUID().toString();
 
         // building the user for update with confirm token and temp email as extensions
         String updateUser = buildUserForUpdateAsString(newEmailValue, confirmationToken);
 
         // update the user
-        HttpClientRequestResult updateUserResult = httpClient.executeHttpPatch(uri, updateUser,
-                HttpHeader.AUTHORIZATION, authorization);
-
-        if (updateUserResult.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.log(Level.WARNING, "Problems updating user with extensions!");
-            return new ResponseEntity<>("{\"error\":\"Problems updating user with extensions!\"}",
-                    HttpStatus.valueOf(updateUserResult.getStatusCode()));
-        }
-
-        // send email to the new address with confirmation token and user id
-        User savedUser = mapper.readValue(updateUserResult.getBody(), User.class);
-
-        return sendingConfirmationMailToNewAddress(newEmailValue, confirmationToken, savedUser);
+        httpClient.executeHttpPatchAsync(uri, updateUser, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult updateUserResult)
+                            throws IOException, MessagingException {
+                        if (updateUserResult.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.log(Level.WARNING, "Problems updating user with extensions!");
+                            return new ResponseEntity<>("{\"error\":\"Problems updating user with extensions!\"}",
+                                    HttpStatus.valueOf(updateUserResult.getStatusCode()));
+                        }
+
+                        // send email to the new address with confirmation token and user id
+                        User savedUser = mapper.readValue(updateUserResult.getBody(), User.class);
+
+                        return sendingConfirmationMailToNewAddress(newEmailValue, confirmationToken, savedUser);
+                    }
+                });
+        return null;
     }
 
     /**
@@ -207,23 +229,36 @@ public class ChangeEmailController {
      * @return The HTTP status code and the updated user if successful
      */
     @RequestMapping(method = RequestMethod.POST, value = "/confirm", produces = "application/json")
-    public ResponseEntity<String> confirm(@RequestHeader final String authorization, @RequestParam final String userId,
-            @RequestParam final String confirmToken) throws IOException, MessagingException {
+    public DeferredResult<ResponseEntity<String>> confirm(@RequestHeader final String authorization,
+            @RequestParam final String userId, @RequestParam final String confirmToken) {
+        final DeferredResult<ResponseEntity<String>> deferredResult = new DeferredResult<>();
 
         if (confirmToken.equals("")) {
             LOGGER.log(Level.WARNING, "Confirmation token miss match!");
-            return new ResponseEntity<>("{\"error\":\"No ongoing email change!\"}", HttpStatus.UNAUTHORIZED);
+            deferredResult.setResult(new ResponseEntity<>("{\"error\":\"No ongoing email change!\"}",
+                    HttpStatus.UNAUTHORIZED));
+            return deferredResult;
         }
 
-        String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
-
-        HttpClientRequestResult result = httpClient.executeHttpGet(uri, HttpHeader.AUTHORIZATION, authorization);
-        if (result.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.log(Level.WARNING, "Problems retrieving user by ID!");
-            return new ResponseEntity<>("{\"error\":\"Problems retrieving user by ID!\"}", HttpStatus.valueOf(result
-                    .getStatusCode()));
-        }
+        final String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
+
+        httpClient.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult result) throws IOException {
+                        if (result.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.log(Level.WARNING, "Problems retrieving user by ID!");
+                            return new ResponseEntity<>("{\"error\":\"Problems retrieving user by ID!\"}",
+                                    HttpStatus.valueOf(result.getStatusCode()));
+                        }
+                        return confirmEmail(uri, result, authorization, confirmToken, deferredResult);
+                    }
+                });
+        return deferredResult;
+    }
 
+    private ResponseEntity<String> confirmEmail(String uri, HttpClientRequestResult result, String authorization,
+            String confirmToken, DeferredResult<ResponseEntity<String>> deferredResult) throws IOException {
         User user = mapper.readValue(result.getBody(), User.class);
 
         Extension extension = user.getExtension(registrationExtensionUrnProvider.getExtensionUrn());
@@ -235,24 +270,29 @@ public class ChangeEmailController {
         }
 
         String newEmail = extension.getField(tempEmail, ExtensionFieldType.STRING);
-        String oldEmail = mailSender.extractPrimaryEmail(user);
+        final String oldEmail = mailSender.extractPrimaryEmail(user);
 
         List<Email> emails = replaceOldPrimaryMail(newEmail, user.getEmails());
 
         String updateUserAsString = getUserAsStringWithUpdatedExtensionsAndEmails(extension, emails);
 
         // update the user
-        HttpClientRequestResult updateUserResult = httpClient.executeHttpPatch(uri, updateUserAsString,
-                HttpHeader.AUTHORIZATION, authorization);
-
-        if (updateUserResult.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.log(Level.WARNING, "Problems updating user with extensions!");
-            return new ResponseEntity<>("{\"error\":\"Problems updating user with extensions!\"}",
-                    HttpStatus.valueOf(updateUserResult.getStatusCode()));
-        }
-
-        // Send info mail
-        return sendingInfoMailToOldAddress(oldEmail, updateUserResult.getBody());
+        httpClient.executeHttpPatchAsync(uri, updateUserAsString, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult updateUserResult)
+                            throws IOException, MessagingException {
+                        if (updateUserResult.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.log(Level.WARNING, "Problems updating user with extensions!");
+                            return new ResponseEntity<>("{\"error\":\"Problems updating user with extensions!\"}",
+                                    HttpStatus.valueOf(updateUserResult.getStatusCode()));
+                        }
+
+                        // Send info mail
+                        return sendingInfoMailToOldAddress(oldEmail, updateUserResult.getBody());
+                    }
+                });
+        return null;
     }
 
     private String buildUserForUpdateAsString(String newEmailValue, String confirmationToken) throws IOException {
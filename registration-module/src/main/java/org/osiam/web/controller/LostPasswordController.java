@@ -30,6 +30,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -50,6 +51,7 @@ import org.osiam.web.util.HttpHeader;
 import org.osiam.web.util.MailSenderBean;
 import org.osiam.web.util.RegistrationExtensionUrnProvider;
 import org.osiam.web.util.ResourceServerUriBuilder;
+import org.osiam.web.util.ResponseCallback;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -59,6 +61,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
@@ -76,6 +79,8 @@ public class LostPasswordController {
     @Inject
     private HttpClientHelper httpClient;
     @Inject
+    private Executor executor;
+    @Inject
     private ResourceServerUriBuilder resourceServerUriBuilder;
     @Inject
     private MailSenderBean mailSender;
@@ -121,32 +126,38 @@ public class LostPasswordController {
      *        the user id for whom you want to change the password
      * @return the HTTP status code
      * @throws IOException
-     * @throws MessagingException
      */
     @RequestMapping(value = "/lost/{userId}", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> lost(@RequestHeader final String authorization, @PathVariable final String userId)
-            throws IOException, MessagingException {
+    public DeferredResult<ResponseEntity<String>> lost(@RequestHeader final String authorization,
+            @PathVariable final String userId) throws IOException {
+        DeferredResult<ResponseEntity<String>> deferredResult = new DeferredResult<>();
 
         String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
 
         // generate one time password
-        String otp = UUID.randomUUID().toString();
+        final String otp = UUID.randomUUID().toString();
         User userForUpdate = buildUserForUpdate(otp);
 
         String userAsString = mapper.writeValueAsString(userForUpdate);
         // update the user
-        HttpClientRequestResult saveUserResponse = httpClient.executeHttpPatch(uri, userAsString,
-                HttpHeader.AUTHORIZATION, authorization);
-
-        if (saveUserResponse.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.warning("Problems updating the user with extensions!");
-            return new ResponseEntity<>("{\"error\":\"Problems updating the user with extensions!\"}",
-                    HttpStatus.valueOf(saveUserResponse.getStatusCode()));
-        }
-
-        User updatedUser = mapper.readValue(saveUserResponse.getBody(), User.class);
-
-        return sendPasswordLostMail(updatedUser, otp);
+        httpClient.executeHttpPatchAsync(uri, userAsString, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult saveUserResponse)
+                            throws IOException, MessagingException {
+                        if (saveUserResponse.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.warning("Problems updating the user with extensions!");
+                            return new ResponseEntity<>(
+                                    "{\"error\":\"Problems updating the user with extensions!\"}",
+                                    HttpStatus.valueOf(saveUserResponse.getStatusCode()));
+                        }
+
+                        User updatedUser = mapper.readValue(saveUserResponse.getBody(), User.class);
+
+                        return sendPasswordLostMail(updatedUser, otp);
+                    }
+                });
+        return deferredResult;
     }
 
     /**
@@ -196,28 +207,42 @@ public class LostPasswordController {
      * @param newPassword
      *        the new user password
      * @return the response with status code and the updated user if successfully
-     * @throws IOException
      */
     @RequestMapping(value = "/change", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> change(@RequestHeader final String authorization,
-            @RequestParam String oneTimePassword,
-            @RequestParam String userId, @RequestParam String newPassword) throws IOException {
+    public DeferredResult<ResponseEntity<String>> change(@RequestHeader final String authorization,
+            @RequestParam final String oneTimePassword,
+            @RequestParam String userId, @RequestParam final String newPassword) {
+        final DeferredResult<ResponseEntity<String>> deferredResult = new DeferredResult<>();
 
         if (oneTimePassword.equals("")) {
             LOGGER.log(Level.SEVERE, "The submitted one time password is invalid!");
-            return new ResponseEntity<>("{\"error\":\"The submitted one time password is invalid!\"}",
-                    HttpStatus.UNAUTHORIZED);
+            deferredResult.setResult(new ResponseEntity<>(
+                    "{\"error\":\"The submitted one time password is invalid!\"}", HttpStatus.UNAUTHORIZED));
+            return deferredResult;
         }
 
-        String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
+        final String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
 
         // get user by id
-        HttpClientRequestResult result = httpClient.executeHttpGet(uri, HttpHeader.AUTHORIZATION, authorization);
-        if (result.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.log(Level.WARNING, "Problems retrieving user by ID!");
-            return new ResponseEntity<>("{\"error\":\"Problems retrieving user by ID!\"}", HttpStatus.valueOf(result
-                    .getStatusCode()));
-        }
+        httpClient.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult result) throws IOException {
+                        if (result.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.log(Level.WARNING, "Problems retrieving user by ID!");
+                            return new ResponseEntity<>("{\"error\":\"Problems retrieving user by ID!\"}",
+                                    HttpStatus.valueOf(result.getStatusCode()));
+                        }
+                        return changePassword(uri, result, authorization, oneTimePassword, newPassword,
+                                deferredResult);
+                    }
+                });
+        return deferredResult;
+    }
+
+    private ResponseEntity<String> changePassword(String uri, HttpClientRequestResult result, String authorization,
+            String oneTimePassword, String newPassword, DeferredResult<ResponseEntity<String>> deferredResult)
+            throws IOException {
         User user = mapper.readValue(result.getBody(), User.class);
 
         // validate the oneTimePassword with the saved one from DB
@@ -233,17 +258,22 @@ public class LostPasswordController {
         String updateUser = getUserWithUpdatedExtensionsAsString(extension, newPassword);
 
         // update the user
-        HttpClientRequestResult savedResult = httpClient.executeHttpPatch(uri, updateUser, HttpHeader.AUTHORIZATION,
-                authorization);
-
-        if (savedResult.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.log(Level.WARNING, "Problems updating the user with extensions!");
-            return new ResponseEntity<>("{\"error\":\"Problems updating the user with extensions!\"}",
-                    HttpStatus.valueOf(savedResult.getStatusCode()));
-        }
-
-        // return saved user with corresponding status code
-        return new ResponseEntity<>(savedResult.getBody(), HttpStatus.OK);
+        httpClient.executeHttpPatchAsync(uri, updateUser, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult savedResult) {
+                        if (savedResult.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.log(Level.WARNING, "Problems updating the user with extensions!");
+                            return new ResponseEntity<>(
+                                    "{\"error\":\"Problems updating the user with extensions!\"}",
+                                    HttpStatus.valueOf(savedResult.getStatusCode()));
+                        }
+
+                        // return saved user with corresponding status code
+                        return new ResponseEntity<>(savedResult.getBody(), HttpStatus.OK);
+                    }
+                });
+        return null;
     }
 
     private User buildUserForUpdate(String oneTimePassword) {
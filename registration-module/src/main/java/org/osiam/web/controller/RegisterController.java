@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -53,6 +54,7 @@ import org.osiam.web.util.HttpHeader;
 import org.osiam.web.util.MailSenderBean;
 import org.osiam.web.util.RegistrationExtensionUrnProvider;
 import org.osiam.web.util.ResourceServerUriBuilder;
+import org.osiam.web.util.ResponseCallback;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -62,6 +64,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
@@ -85,6 +88,8 @@ public class RegisterController {
     private MailSenderBean mailSender;
     @Inject
     private HttpClientHelper httpClient;
+    @Inject
+    private Executor executor;
 
     @Inject
     private ServletContext context;
@@ -145,32 +150,40 @@ public class RegisterController {
      *            a valid access token
      * @return the saved user and HTTP.OK (200) for successful creation, otherwise only the HTTP status
      * @throws IOException
-     * @throws MessagingException
      */
     @RequestMapping(value = "/create", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> create(@RequestHeader final String authorization, @RequestBody String user)
-            throws IOException, MessagingException {
+    public DeferredResult<ResponseEntity<String>> create(@RequestHeader final String authorization,
+            @RequestBody String user) throws IOException {
+        final DeferredResult<ResponseEntity<String>> deferredResult = new DeferredResult<>();
 
         User parsedUser = mapper.readValue(user, User.class);
-        String primaryEmail = mailSender.extractPrimaryEmail(parsedUser);
+        final String primaryEmail = mailSender.extractPrimaryEmail(parsedUser);
         if (primaryEmail == null) {
             LOGGER.log(Level.WARNING, "No primary email found!");
-            return new ResponseEntity<>("{\"error\":\"No primary email found!\"}", HttpStatus.BAD_REQUEST);
+            deferredResult.setResult(new ResponseEntity<>("{\"error\":\"No primary email found!\"}",
+                    HttpStatus.BAD_REQUEST));
+            return deferredResult;
         }
         // generate Activation Token
-        String activationToken = UUID.randomUUID().toString();
+        final String activationToken = UUID.randomUUID().toString();
         parsedUser = createUserForRegistration(parsedUser, activationToken);
 
         // Save user
-        HttpClientRequestResult saveUserResponse = saveUser(parsedUser, authorization);
-        if (saveUserResponse.getStatusCode() != HttpStatus.CREATED.value()) {
-            LOGGER.log(Level.WARNING, "Problems creating user for registration");
-            return new ResponseEntity<>("{\"error\":\"Problems creating user for registration\"}",
-                    HttpStatus.valueOf(saveUserResponse.getStatusCode()));
-        }
-
-        String savedUserId = mapper.readValue(saveUserResponse.getBody(), User.class).getId();
-        return sendActivationMail(primaryEmail, savedUserId, activationToken, saveUserResponse);
+        saveUser(parsedUser, authorization, new ResponseCallback(deferredResult, executor) {
+            @Override
+            protected ResponseEntity<String> handle(HttpClientRequestResult saveUserResponse)
+                    throws IOException, MessagingException {
+                if (saveUserResponse.getStatusCode() != HttpStatus.CREATED.value()) {
+                    LOGGER.log(Level.WARNING, "Problems creating user for registration");
+                    return new ResponseEntity<>("{\"error\":\"Problems creating user for registration\"}",
+                            HttpStatus.valueOf(saveUserResponse.getStatusCode()));
+                }
+
+                String savedUserId = mapper.readValue(saveUserResponse.getBody(), User.class).getId();
+                return sendActivationMail(primaryEmail, savedUserId, activationToken, saveUserResponse);
+            }
+        });
+        return deferredResult;
     }
 
     /**
@@ -188,23 +201,37 @@ public class RegisterController {
      * @return HTTP status, HTTP.OK (200) for a valid activation
      */
     @RequestMapping(value = "/activate", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> activate(@RequestHeader final String authorization,
-            @RequestParam final String userId, @RequestParam final String activationToken) throws IOException {
+    public DeferredResult<ResponseEntity<String>> activate(@RequestHeader final String authorization,
+            @RequestParam final String userId, @RequestParam final String activationToken) {
+        final DeferredResult<ResponseEntity<String>> deferredResult = new DeferredResult<>();
 
         if (activationToken.equals("")) {
             LOGGER.log(Level.WARNING, "Activation token miss match!");
-            return new ResponseEntity<>("{\"error\":\"Activation token miss match!\"}", HttpStatus.UNAUTHORIZED);
+            deferredResult.setResult(new ResponseEntity<>("{\"error\":\"Activation token miss match!\"}",
+                    HttpStatus.UNAUTHORIZED));
+            return deferredResult;
         }
 
-        String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
+        final String uri = resourceServerUriBuilder.buildUsersUriWithUserId(userId);
 
         // get user by his id
-        HttpClientRequestResult result = httpClient.executeHttpGet(uri, HttpHeader.AUTHORIZATION, authorization);
-        if (result.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.log(Level.WARNING, "Problems retrieving user by his ID!");
-            return new ResponseEntity<>("{\"error\":\"Problems retrieving user by his ID!\"}",
-                    HttpStatus.valueOf(result.getStatusCode()));
-        }
+        httpClient.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult result) throws IOException {
+                        if (result.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.log(Level.WARNING, "Problems retrieving user by his ID!");
+                            return new ResponseEntity<>("{\"error\":\"Problems retrieving user by his ID!\"}",
+                                    HttpStatus.valueOf(result.getStatusCode()));
+                        }
+                        return activateUser(uri, result, authorization, activationToken, deferredResult);
+                    }
+                });
+        return deferredResult;
+    }
+
+    private ResponseEntity<String> activateUser(String uri, HttpClientRequestResult result, String authorization,
+            String activationToken, DeferredResult<ResponseEntity<String>> deferredResult) throws IOException {
 
         // get extension field to check activation token validity
         User userForActivation = mapper.readValue(result.getBody(), User.class);
@@ -219,15 +246,20 @@ public class RegisterController {
         String updateUser = getUserForActivationAsString(extension);
 
         // update user
-        HttpClientRequestResult requestResult = httpClient.executeHttpPatch(uri, updateUser, HttpHeader.AUTHORIZATION,
-                authorization);
-        if (requestResult.getStatusCode() != HttpStatus.OK.value()) {
-            LOGGER.log(Level.WARNING, "Updating user with extensions failed!");
-            return new ResponseEntity<>("{\"error\":\"Updating user with extensions failed!\"}",
-                    HttpStatus.valueOf(requestResult.getStatusCode()));
-        }
-
-        return new ResponseEntity<String>(HttpStatus.OK);
+        httpClient.executeHttpPatchAsync(uri, updateUser, HttpHeader.AUTHORIZATION, authorization,
+                new ResponseCallback(deferredResult, executor) {
+                    @Override
+                    protected ResponseEntity<String> handle(HttpClientRequestResult requestResult) {
+                        if (requestResult.getStatusCode() != HttpStatus.OK.value()) {
+                            LOGGER.log(Level.WARNING, "Updating user with extensions failed!");
+                            return new ResponseEntity<>("{\"error\":\"Updating user with extensions failed!\"}",
+                                    HttpStatus.valueOf(requestResult.getStatusCode()));
+                        }
+
+                        return new ResponseEntity<String>(HttpStatus.OK);
+                    }
+                });
+        return null;
     }
 
     private String getUserForActivationAsString(Extension extension) throws JsonProcessingException {
@@ -281,9 +313,9 @@ public class RegisterController {
         return new ResponseEntity<>(saveUserResponse.getBody(), HttpStatus.OK);
     }
 
-    private HttpClientRequestResult saveUser(User userToSave, String authorization) throws IOException {
+    private void saveUser(User userToSave, String authorization, ResponseCallback callback) throws IOException {
         String userAsString = mapper.writeValueAsString(userToSave);
         String createUserUri = resourceServerUriBuilder.buildUsersUriWithUserId("");
-        return httpClient.executeHttpPost(createUserUri, userAsString, HttpHeader.AUTHORIZATION, authorization);
+        httpClient.executeHttpPostAsync(createUserUri, userAsString, HttpHeader.AUTHORIZATION, authorization, callback);
     }
-}
\ No newline at end of file
+}
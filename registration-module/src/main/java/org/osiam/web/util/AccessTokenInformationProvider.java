@@ -23,6 +23,7 @@
 
 package org.osiam.web.util;
 
+import org.apache.http.concurrent.FutureCallback;
 import org.osiam.helper.HttpClientHelper;
 import org.osiam.helper.HttpClientRequestResult;
 import org.osiam.helper.ObjectMapperWithExtensionConfig;
@@ -31,6 +32,7 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.util.concurrent.Future;
 
 /**
  * This class using the /me endpoint to get information about the provided access token
@@ -51,12 +53,31 @@ public class AccessTokenInformationProvider {
      * @return the user id from token information
      */
     public String getUserIdFromToken(String token) throws IOException {
-        //get the resource server uri
-        String uri = resourceServerUriBuilder.buildMeEndpointUri();
-
         //calling the /me endpoint
-        HttpClientRequestResult result = httpClientHelper.executeHttpGet(uri, HttpHeader.AUTHORIZATION, token);
+        HttpClientRequestResult result = httpClientHelper.executeHttpGet(resourceServerUriBuilder.buildMeEndpointUri(),
+                HttpHeader.AUTHORIZATION, token);
+
+        return getUserIdFromTokenInformation(result);
+    }
 
+    /**
+     * Calling resource server /me endpoint for access token information without waiting for the response.
+     * @param token the valid access token
+     * @param callback the callback for the response, see {@link #getUserIdFromTokenInformation}
+     * @return the future response of the /me endpoint
+     */
+    public Future<HttpClientRequestResult> requestTokenInformation(String token,
+            FutureCallback<HttpClientRequestResult> callback) {
+        return httpClientHelper.executeHttpGetAsync(resourceServerUriBuilder.buildMeEndpointUri(),
+                HttpHeader.AUTHORIZATION, token, callback);
+    }
+
+    /**
+     * Reads the user id from the response of the /me endpoint.
+     * @param result the response of the /me endpoint
+     * @return the user id from token information
+     */
+    public String getUserIdFromTokenInformation(HttpClientRequestResult result) throws IOException {
         //Check if the result has an error, possible that access token is invalid
         if (result.getBody().contains("error")) {
             throw new IllegalArgumentException(result.getBody());
@@ -67,4 +88,4 @@ public class AccessTokenInformationProvider {
 
         return meUserRepresentation.getId();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.web.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.osiam.helper.HttpClientRequestResult;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Continues an asynchronous request of a controller when the response of the resource server has arrived.
+ *
+ * The callbacks of the http client are called by its I/O threads, so the response is handled by the given executor,
+ * where it is fine to block, e.g. while sending a mail. The returned response is set as result of the request. An
+ * exception, a failed or a cancelled request are set as error result and handled like an exception of a controller.
+ */
+public abstract class ResponseCallback implements FutureCallback<HttpClientRequestResult> {
+
+    private final DeferredResult<ResponseEntity<String>> deferredResult;
+    private final Executor executor;
+
+    protected ResponseCallback(DeferredResult<ResponseEntity<String>> deferredResult, Executor executor) {
+        this.deferredResult = deferredResult;
+        this.executor = executor;
+    }
+
+    /**
+     * Handles the response of the resource server.
+     *
+     * @param result
+     *        the response of the resource server
+     * @return the response of the controller or null if another request was started, which will set it later
+     * @throws Exception
+     *         if the response could not be handled
+     */
+    protected abstract ResponseEntity<String> handle(HttpClientRequestResult result) throws Exception;
+
+    @Override
+    public void completed(final HttpClientRequestResult result) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ResponseEntity<String> response = handle(result);
+                        if (response != null) {
+                            deferredResult.setResult(response);
+                        }
+                    } catch (Exception e) {
+                        deferredResult.setErrorResult(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deferredResult.setErrorResult(e);
+        }
+    }
+
+    @Override
+    public void failed(Exception ex) {
+        deferredResult.setErrorResult(ex);
+    }
+
+    @Override
+    public void cancelled() {
+        deferredResult.setErrorResult(new CancellationException("The request to the resource server was cancelled"));
+    }
+}
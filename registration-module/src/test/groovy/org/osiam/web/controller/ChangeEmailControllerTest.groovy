@@ -23,6 +23,8 @@
 
 package org.osiam.web.controller
 
+import java.util.concurrent.Executor
+
 import javax.servlet.ServletContext
 import javax.servlet.ServletOutputStream
 import javax.servlet.http.HttpServletResponse
@@ -44,6 +46,7 @@ class ChangeEmailControllerTest extends Specification {
 
     def httpClientMock = Mock(HttpClientHelper)
     def resultMock = Mock(HttpClientRequestResult)
+    def tokenResultMock = Mock(HttpClientRequestResult)
     def registrationExtensionUrnProvider = Mock(RegistrationExtensionUrnProvider)
     def resourceServerUriBuilder = Mock(ResourceServerUriBuilder)
     def accessTokenInformationProvider = Mock(AccessTokenInformationProvider)
@@ -72,7 +75,8 @@ class ChangeEmailControllerTest extends Specification {
             emailChangeInfoMailSubject: emailChangeInfoMailSubject, registrationExtensionUrnProvider: registrationExtensionUrnProvider,
             resourceServerUriBuilder: resourceServerUriBuilder, accessTokenInformationProvider: accessTokenInformationProvider,
             mapper: mapper, clientEmailChangeUri: clientEmailChangeUri, bootStrapLib: bootStrapLib, angularLib: angularLib,
-            jqueryLib: jqueryLib)
+            jqueryLib: jqueryLib,
+            executor: { it.run() } as Executor)
 
     def "there should be an failure in change email if email content was not found"(){
         given:
@@ -84,15 +88,16 @@ class ChangeEmailControllerTest extends Specification {
         def user = getUserAsString()
 
         when:
-        def result = changeEmailController.change(authZHeader, newEmailValue)
+        def result = changeEmailController.change(authZHeader, newEmailValue).result
 
         then:
-        1 * accessTokenInformationProvider.getUserIdFromToken(authZHeader) >> userId
+        1 * accessTokenInformationProvider.requestTokenInformation(authZHeader, _) >> { args -> args[-1].completed(tokenResultMock) }
+        1 * accessTokenInformationProvider.getUserIdFromTokenInformation(tokenResultMock) >> userId
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
         1 * resultMock.getStatusCode() >> 200
         1 * resultMock.getBody() >> user
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         1 * mailSender.getEmailContentAsStream("/WEB-INF/registration/emailchange-content.txt", _, context) >> null
         result.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR
         result.getBody() != null
@@ -110,15 +115,16 @@ class ChangeEmailControllerTest extends Specification {
         def inputStream = new ByteArrayInputStream('nine bytes and one placeholder $EMAILCHANGEURL and $BOOTSTRAP and $ANGULAR and $JQUERY'.bytes)
 
         when:
-        def result = changeEmailController.change(authZHeader, newEmailValue)
+        def result = changeEmailController.change(authZHeader, newEmailValue).result
 
         then:
-        1 * accessTokenInformationProvider.getUserIdFromToken(authZHeader) >> userId
+        1 * accessTokenInformationProvider.requestTokenInformation(authZHeader, _) >> { args -> args[-1].completed(tokenResultMock) }
+        1 * accessTokenInformationProvider.getUserIdFromTokenInformation(tokenResultMock) >> userId
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
         1 * resultMock.getStatusCode() >> 200
         1 * resultMock.getBody() >> user
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         1 * mailSender.getEmailContentAsStream("/WEB-INF/registration/emailchange-content.txt", _, context) >> inputStream
         1 * mailSender.sendMail(emailChangeMailFrom, newEmailValue, emailChangeMailSubject, inputStream, _)
         result.getStatusCode() == HttpStatus.OK
@@ -129,10 +135,11 @@ class ChangeEmailControllerTest extends Specification {
         def authZ = "invalid access token"
 
         when:
-        def result = changeEmailController.change(authZ, "some@email.de")
+        def result = changeEmailController.change(authZ, "some@email.de").result
 
         then:
-        1 * accessTokenInformationProvider.getUserIdFromToken(authZ) >> {throw new IllegalArgumentException("{\"error\":\"unauthorized\"}")}
+        1 * accessTokenInformationProvider.requestTokenInformation(authZ, _) >> { args -> args[-1].completed(tokenResultMock) }
+        1 * accessTokenInformationProvider.getUserIdFromTokenInformation(tokenResultMock) >> {throw new IllegalArgumentException("{\"error\":\"unauthorized\"}")}
         result.getBody() == "{\"error\":\"unauthorized\"}"
     }
 
@@ -160,15 +167,15 @@ class ChangeEmailControllerTest extends Specification {
         def inputStream = new ByteArrayInputStream('nine bytes and one placeholder'.bytes)
 
         when:
-        def result = changeEmailController.confirm(authZHeader, userId, confirmToken)
+        def result = changeEmailController.confirm(authZHeader, userId, confirmToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> url
-        1 * httpClientMock.executeHttpGet(url, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpGetAsync(url, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         2 * resultMock.getStatusCode() >> 200
         2 * resultMock.getBody() >> user
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(url, _, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpPatchAsync(url, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         1 * mailSender.extractPrimaryEmail(_) >> "email@example.org"
         1 * mailSender.getEmailContentAsStream("/WEB-INF/registration/emailchange-info.txt", _, context) >> inputStream
         1 * mailSender.sendMail(emailChangeMailFrom, "email@example.org", emailChangeInfoMailSubject, inputStream, _)
@@ -186,11 +193,11 @@ class ChangeEmailControllerTest extends Specification {
         def url = "http://localhost:8080/osiam-resource-server/Users/" + userId
 
         when:
-        def response = changeEmailController.confirm(authZHeader, userId, confirmToken)
+        def response = changeEmailController.confirm(authZHeader, userId, confirmToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> url
-        1 * httpClientMock.executeHttpGet(url, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpGetAsync(url, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         2 * resultMock.getStatusCode() >> 400
         response.getStatusCode() == HttpStatus.BAD_REQUEST
     }
@@ -205,11 +212,11 @@ class ChangeEmailControllerTest extends Specification {
         def user = getUserWithTempEmailAsString("bullShit")
 
         when:
-        def response = changeEmailController.confirm(authZHeader, userId, confirmToken)
+        def response = changeEmailController.confirm(authZHeader, userId, confirmToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> url
-        1 * httpClientMock.executeHttpGet(url, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpGetAsync(url, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         1 * resultMock.getStatusCode() >> 200
         1 * resultMock.getBody() >> user
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
@@ -226,15 +233,15 @@ class ChangeEmailControllerTest extends Specification {
         def user = getUserWithTempEmailAsString("confToken")
 
         when:
-        def response = changeEmailController.confirm(authZHeader, userId, confirmToken)
+        def response = changeEmailController.confirm(authZHeader, userId, confirmToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> url
-        1 * httpClientMock.executeHttpGet(url, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpGetAsync(url, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         1 * resultMock.getStatusCode() >> 200
         1 * resultMock.getBody() >> user
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(url, _,HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpPatchAsync(url, _,HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         2 * resultMock.getStatusCode() >> 400
         response.getStatusCode() == HttpStatus.BAD_REQUEST
     }
@@ -249,15 +256,15 @@ class ChangeEmailControllerTest extends Specification {
         def user = getUserWithTempEmailAsString("confToken")
 
         when:
-        def response = changeEmailController.confirm(authZHeader, userId, confirmToken)
+        def response = changeEmailController.confirm(authZHeader, userId, confirmToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> url
-        1 * httpClientMock.executeHttpGet(url, HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpGetAsync(url, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         1 * resultMock.getStatusCode() >> 200
         2 * resultMock.getBody() >> user
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(url, _,HttpHeader.AUTHORIZATION, authZHeader) >> resultMock
+        1 * httpClientMock.executeHttpPatchAsync(url, _,HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(resultMock) }
         1 * resultMock.getStatusCode() >> 200
         1 * mailSender.getEmailContentAsStream("/WEB-INF/registration/emailchange-info.txt", _, context) >> null
         response.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR
@@ -265,7 +272,7 @@ class ChangeEmailControllerTest extends Specification {
 
     def "there should be a failure if the provided confirmation token is empty"() {
         when:
-        def result = changeEmailController.confirm("authZ", "userId", "")
+        def result = changeEmailController.confirm("authZ", "userId", "").result
 
         then:
         result.getStatusCode() == HttpStatus.UNAUTHORIZED
@@ -303,4 +310,4 @@ class ChangeEmailControllerTest extends Specification {
 
         return mapper.writeValueAsString(user)
     }
-}
\ No newline at end of file
+}
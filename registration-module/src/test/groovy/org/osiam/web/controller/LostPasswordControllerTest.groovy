@@ -23,6 +23,8 @@
 
 package org.osiam.web.controller
 
+import java.util.concurrent.Executor
+
 import javax.servlet.ServletContext
 import javax.servlet.ServletOutputStream
 import javax.servlet.http.HttpServletResponse
@@ -74,7 +76,8 @@ class LostPasswordControllerTest extends Specification {
             passwordlostMailFrom: passwordlostMailFrom, passwordlostMailSubject: passwordlostMailSubject,
             registrationExtensionUrnProvider: registrationExtensionUrnProvider, resourceServerUriBuilder: resourceServerUriBuilder,
             clientPasswordChangeUri: clientPasswordChangeUri, mapper: mapper, bootStrapLib: bootStrapLib, angularLib: angularLib,
-            jqueryLib: jqueryLib)
+            jqueryLib: jqueryLib,
+            executor: { it.run() } as Executor)
 
     def "The controller should start the flow by generating a one time password and send an email to the user"() {
         given:
@@ -87,12 +90,12 @@ class LostPasswordControllerTest extends Specification {
         def inputStream = new ByteArrayInputStream('nine bytes and one placeholder $PASSWORDLOSTURL and $BOOTSTRAP and $ANGULAR and $JQUERY'.bytes)
 
         when:
-        def result = lostPasswordController.lost(authZHeader, userId)
+        def result = lostPasswordController.lost(authZHeader, userId).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> new HttpClientRequestResult(userString, 200)
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(new HttpClientRequestResult(userString, 200)) }
 
         1 * mailSenderMock.getEmailContentAsStream("/WEB-INF/registration/passwordlostmail-content.txt", _, contextMock) >> inputStream
         1 * mailSenderMock.sendMail("noreply@example.org", "toemail@example.org", "Subject", inputStream, _)
@@ -109,12 +112,12 @@ class LostPasswordControllerTest extends Specification {
         def userString = getUserAsStringWithExtension("token")
 
         when:
-        def response = lostPasswordController.lost(authZHeader, userId)
+        def response = lostPasswordController.lost(authZHeader, userId).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> new HttpClientRequestResult("body", 400)
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(new HttpClientRequestResult("body", 400)) }
         response.getStatusCode() == HttpStatus.BAD_REQUEST
     }
 
@@ -126,12 +129,12 @@ class LostPasswordControllerTest extends Specification {
         def userString = getUserAsStringWithExtension("token")
 
         when:
-        def response = lostPasswordController.lost(authZHeader, userId)
+        def response = lostPasswordController.lost(authZHeader, userId).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> new HttpClientRequestResult(userString, 200)
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(new HttpClientRequestResult(userString, 200)) }
         1 * mailSenderMock.extractPrimaryEmail(_) >> null
         response.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR
         response.getBody() != null
@@ -145,12 +148,12 @@ class LostPasswordControllerTest extends Specification {
         def userString = getUserAsStringWithExtension("token")
 
         when:
-        def response = lostPasswordController.lost(authZHeader, userId)
+        def response = lostPasswordController.lost(authZHeader, userId).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> new HttpClientRequestResult(userString, 200)
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(new HttpClientRequestResult(userString, 200)) }
         1 * mailSenderMock.extractPrimaryEmail(_) >> "primary@mail.com"
         1 * mailSenderMock.getEmailContentAsStream("/WEB-INF/registration/passwordlostmail-content.txt", _, contextMock) >> null
         response.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR
@@ -168,15 +171,15 @@ class LostPasswordControllerTest extends Specification {
         def userById = getUserAsStringWithExtension(otp)
 
         when:
-        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword)
+        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, authZHeader) >> requestResultMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(requestResultMock) }
         1 * requestResultMock.getStatusCode() >> 200
         1 * requestResultMock.getBody() >> userById
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> requestResultMock
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(requestResultMock) }
         1 * requestResultMock.getStatusCode() >> 200
         1 * requestResultMock.getBody() >> "updated user"
 
@@ -193,11 +196,11 @@ class LostPasswordControllerTest extends Specification {
         def uri = "http://localhost:8080/osiam-resource-server/Users/" + userId
 
         when:
-        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword)
+        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, authZHeader) >> requestResultMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(requestResultMock) }
         2 * requestResultMock.getStatusCode() >> 400
 
         result.getStatusCode() == HttpStatus.BAD_REQUEST
@@ -214,11 +217,11 @@ class LostPasswordControllerTest extends Specification {
         def userById = getUserAsStringWithExtension("Invalid OTP")
 
         when:
-        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword)
+        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, authZHeader) >> requestResultMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(requestResultMock) }
         1 * requestResultMock.getStatusCode() >> 200
         1 * requestResultMock.getBody() >> userById
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
@@ -236,15 +239,15 @@ class LostPasswordControllerTest extends Specification {
         def userById = getUserAsStringWithExtension("someOTP")
 
         when:
-        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword)
+        def result = lostPasswordController.change(authZHeader, otp, userId, newPassword).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, authZHeader) >> requestResultMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(requestResultMock) }
         1 * requestResultMock.getStatusCode() >> 200
         1 * requestResultMock.getBody() >> userById
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, authZHeader) >> requestResultMock
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, authZHeader, _) >> { args -> args[-1].completed(requestResultMock) }
         2 * requestResultMock.getStatusCode() >> 400
         result.getStatusCode() == HttpStatus.BAD_REQUEST
         result.getBody() != null
@@ -252,7 +255,7 @@ class LostPasswordControllerTest extends Specification {
 
     def "there should be a failure if the provided one time password is empty"() {
         when:
-        def result = lostPasswordController.change("authZ", "", "userId", "newPW")
+        def result = lostPasswordController.change("authZ", "", "userId", "newPW").result
 
         then:
         result.getStatusCode() == HttpStatus.UNAUTHORIZED
@@ -290,4 +293,4 @@ class LostPasswordControllerTest extends Specification {
 
         return mapper.writeValueAsString(user)
     }
-}
\ No newline at end of file
+}
@@ -23,6 +23,8 @@
 
 package org.osiam.web.controller
 
+import java.util.concurrent.Executor
+
 import javax.servlet.ServletContext
 import javax.servlet.ServletOutputStream
 import javax.servlet.http.HttpServletResponse
@@ -68,7 +70,8 @@ class RegisterControllerTest extends Specification {
             clientRegistrationUri: clientRegistrationUri, activationTokenField: activationTokenField,
             mailSender: mailSenderMock, registermailFrom: registermailFrom, registermailSubject: registermailSubject,
             registermailLinkPrefix: registermailLinkPrefix, registrationExtensionUrnProvider: registrationExtensionUrnProvider,
-            resourceServerUriBuilder: resourceServerUriBuilder, mapper: mapper, bootStrapLib: bootStrapLib, angularLib: angularLib)
+            resourceServerUriBuilder: resourceServerUriBuilder, mapper: mapper, bootStrapLib: bootStrapLib, angularLib: angularLib,
+            executor: { it.run() } as Executor)
 
     def "The registration controller should return a HTML file as stream"() {
         given:
@@ -94,15 +97,15 @@ class RegisterControllerTest extends Specification {
         def userString = getUserAsStringWithExtension(activationToken)
 
         when:
-        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, activationToken)
+        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, activationToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN") >> requestResultMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN", _) >> { args -> args[-1].completed(requestResultMock) }
         1 * requestResultMock.getStatusCode() >> 200
         1 * requestResultMock.getBody() >> userString
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN") >> requestResultMock
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN", _) >> { args -> args[-1].completed(requestResultMock) }
         1 * requestResultMock.getStatusCode() >> 200
         response.getStatusCode() == HttpStatus.OK
     }
@@ -116,11 +119,11 @@ class RegisterControllerTest extends Specification {
         def requestResultMock = Mock(HttpClientRequestResult)
 
         when:
-        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, activationToken)
+        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, activationToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN") >> requestResultMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN", _) >> { args -> args[-1].completed(requestResultMock) }
         2 * requestResultMock.getStatusCode() >> 400
         response.getStatusCode() == HttpStatus.BAD_REQUEST
     }
@@ -136,15 +139,15 @@ class RegisterControllerTest extends Specification {
         def userString = getUserAsStringWithExtension(activationToken)
 
         when:
-        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, activationToken)
+        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, activationToken).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN") >> requestResultGetMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN", _) >> { args -> args[-1].completed(requestResultGetMock) }
         1 * requestResultGetMock.getStatusCode() >> 200
         1 * requestResultGetMock.getBody() >> userString
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
-        1 * httpClientMock.executeHttpPatch(uri, _, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN") >> requestResultPutMock
+        1 * httpClientMock.executeHttpPatchAsync(uri, _, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN", _) >> { args -> args[-1].completed(requestResultPutMock) }
         2 * requestResultPutMock.getStatusCode() >> 400
         response.getStatusCode() == HttpStatus.BAD_REQUEST
     }
@@ -158,11 +161,11 @@ class RegisterControllerTest extends Specification {
         def userString = getUserAsStringWithExtension(activationToken)
 
         when:
-        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, UUID.randomUUID().toString())
+        def response = registerController.activate("Bearer ACCESS_TOKEN", userId, UUID.randomUUID().toString()).result
 
         then:
         1 * resourceServerUriBuilder.buildUsersUriWithUserId(userId) >> uri
-        1 * httpClientMock.executeHttpGet(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN") >> requestResultMock
+        1 * httpClientMock.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, "Bearer ACCESS_TOKEN", _) >> { args -> args[-1].completed(requestResultMock) }
         1 * requestResultMock.getStatusCode() >> 200
         1 * requestResultMock.getBody() >> userString
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
@@ -178,12 +181,12 @@ class RegisterControllerTest extends Specification {
         def body = getUserAsStringWithExtension("")
 
         when:
-        def response = registerController.create(auth, body)
+        def response = registerController.create(auth, body).result
 
         then:
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
         1 * resourceServerUriBuilder.buildUsersUriWithUserId("") >> uri
-        1 * httpClientMock.executeHttpPost(_, _, _, _) >> new HttpClientRequestResult('{"id":"1234","schemas":["urn"]}', 201)
+        1 * httpClientMock.executeHttpPostAsync(_, _, _, _, _) >> { args -> args[-1].completed(new HttpClientRequestResult('{"id":"1234","schemas":["urn"]}', 201)) }
         1 * mailSenderMock.getEmailContentAsStream("/WEB-INF/registration/registermail-content.txt", _, contextMock) >> registerMailContent
         1 * mailSenderMock.sendMail("noreply@example.org", "toemail@example.org", "Ihre Registrierung", registerMailContent, _)
         1 * mailSenderMock.extractPrimaryEmail(_) >> "toemail@example.org"
@@ -196,7 +199,7 @@ class RegisterControllerTest extends Specification {
         def body = getUserAsStringWithExtension("")
 
         when:
-        def response = registerController.create(auth, body)
+        def response = registerController.create(auth, body).result
 
         then:
         1 * mailSenderMock.extractPrimaryEmail(_) >> null
@@ -211,13 +214,13 @@ class RegisterControllerTest extends Specification {
         def body = getUserAsStringWithExtension("")
 
         when:
-        def response = registerController.create(auth, body)
+        def response = registerController.create(auth, body).result
 
         then:
         1 * mailSenderMock.extractPrimaryEmail(_) >> "primary@mail.com"
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
         1 * resourceServerUriBuilder.buildUsersUriWithUserId("") >> uri
-        1 * httpClientMock.executeHttpPost(_, _, _, _) >> new HttpClientRequestResult('', 400)
+        1 * httpClientMock.executeHttpPostAsync(_, _, _, _, _) >> { args -> args[-1].completed(new HttpClientRequestResult('', 400)) }
         response.getStatusCode() == HttpStatus.BAD_REQUEST
     }
 
@@ -229,20 +232,20 @@ class RegisterControllerTest extends Specification {
         def body = getUserAsStringWithExtension("")
 
         when:
-        def response = registerController.create(auth, body)
+        def response = registerController.create(auth, body).result
 
         then:
         1 * mailSenderMock.extractPrimaryEmail(_) >> "primary@mail.com"
         1 * registrationExtensionUrnProvider.getExtensionUrn() >> urn
         1 * resourceServerUriBuilder.buildUsersUriWithUserId("") >> uri
-        1 * httpClientMock.executeHttpPost(_, _, _, _) >> new HttpClientRequestResult('{"id":"1234","schemas":["urn"]}', 201)
+        1 * httpClientMock.executeHttpPostAsync(_, _, _, _, _) >> { args -> args[-1].completed(new HttpClientRequestResult('{"id":"1234","schemas":["urn"]}', 201)) }
         1 * mailSenderMock.getEmailContentAsStream("/WEB-INF/registration/registermail-content.txt", _, contextMock) >> null
         response.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR
     }
 
     def "there should be an failure if the provided activation token is empty"() {
         when:
-        def result = registerController.activate("authZ", "userId", "")
+        def result = registerController.activate("authZ", "userId", "").result
 
         then:
         result.getStatusCode() == HttpStatus.UNAUTHORIZED
@@ -263,4 +266,4 @@ class RegisterControllerTest extends Specification {
 
         return mapper.writeValueAsString(user)
     }
-}
\ No newline at end of file
+}
@@ -23,6 +23,9 @@
 
 package org.osiam.web.util
 
+import java.util.concurrent.Future
+
+import org.apache.http.concurrent.FutureCallback
 import org.osiam.helper.HttpClientHelper
 import org.osiam.helper.HttpClientRequestResult
 import org.osiam.helper.ObjectMapperWithExtensionConfig
@@ -80,4 +83,20 @@ class AccessTokenInformationProviderTest extends Specification {
         def exception = thrown(IllegalArgumentException)
         exception.getMessage() == "{\"error\":\"unauthorized\"}"
     }
-}
\ No newline at end of file
+
+    def "the token information can be requested without waiting for the response"() {
+        given:
+        def accessToken = "theToken"
+        def uri = "/me"
+        def callback = Mock(FutureCallback)
+        def future = Mock(Future)
+
+        when:
+        def result = accessTokenInformationProvider.requestTokenInformation(accessToken, callback)
+
+        then:
+        1 * resourceServerUriBuilder.buildMeEndpointUri() >> uri
+        1 * httpClientHelper.executeHttpGetAsync(uri, HttpHeader.AUTHORIZATION, accessToken, callback) >> future
+        result == future
+    }
+}
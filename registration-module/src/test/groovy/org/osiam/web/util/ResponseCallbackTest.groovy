@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.web.util
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.Executor
+
+import org.osiam.helper.HttpClientRequestResult
+import org.springframework.http.HttpStatus
+import org.springframework.http.ResponseEntity
+import org.springframework.web.context.request.async.DeferredResult
+
+import spock.lang.Specification
+
+class ResponseCallbackTest extends Specification {
+
+    def deferredResult = new DeferredResult<ResponseEntity<String>>()
+    def executor = Mock(Executor)
+
+    def "the response is handled by the executor and set as result"() {
+        given:
+        def callback = createCallback { result -> new ResponseEntity<String>(result.body, HttpStatus.OK) }
+
+        when:
+        callback.completed(new HttpClientRequestResult('body', 200))
+
+        then:
+        1 * executor.execute(_) >> { Runnable task -> task.run() }
+        deferredResult.result.statusCode == HttpStatus.OK
+        deferredResult.result.body == 'body'
+    }
+
+    def "no result is set if the response is handled by another request"() {
+        given:
+        def callback = createCallback { result -> null }
+
+        when:
+        callback.completed(new HttpClientRequestResult('body', 200))
+
+        then:
+        1 * executor.execute(_) >> { Runnable task -> task.run() }
+        !deferredResult.hasResult()
+    }
+
+    def "an exception while handling the response is set as error result"() {
+        given:
+        def exception = new IOException()
+        def callback = createCallback { result -> throw exception }
+
+        when:
+        callback.completed(new HttpClientRequestResult('body', 200))
+
+        then:
+        1 * executor.execute(_) >> { Runnable task -> task.run() }
+        deferredResult.result == exception
+    }
+
+    def "a failed or cancelled request is set as error result"() {
+        given:
+        def exception = new IOException()
+
+        when:
+        createCallback { result -> null }.failed(exception)
+
+        then:
+        deferredResult.result == exception
+
+        when:
+        deferredResult = new DeferredResult<ResponseEntity<String>>()
+        createCallback { result -> null }.cancelled()
+
+        then:
+        deferredResult.result instanceof CancellationException
+    }
+
+    def createCallback(Closure handler) {
+        return new ResponseCallback(deferredResult, executor) {
+            @Override
+            protected ResponseEntity<String> handle(HttpClientRequestResult result) throws Exception {
+                return handler(result)
+            }
+        }
+    }
+}
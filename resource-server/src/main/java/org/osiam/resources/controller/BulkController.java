@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.controller;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+
+import org.osiam.resources.exceptions.BulkLimitExceededException;
+import org.osiam.resources.exceptions.SchemaUnknownException;
+import org.osiam.resources.provisioning.BulkRequest;
+import org.osiam.resources.provisioning.BulkResponse;
+import org.osiam.resources.provisioning.SCIMBulkProvisioning;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+
+/**
+ * This Controller is used to execute many operations on users and groups with one request
+ * <p/>
+ * http://tools.ietf.org/html/draft-ietf-scim-api-00#section-3.7
+ * <p/>
+ * The request needs the scope POST, every operation the scope of its method. Requests with more than
+ * {@code osiam.bulk.maxOperations} operations or {@code osiam.bulk.maxPayloadSize} bytes are rejected.
+ */
+@Controller
+@RequestMapping(value = "/Bulk")
+public class BulkController {
+
+    @Inject
+    private SCIMBulkProvisioning scimBulkProvisioning;
+
+    @Value("${osiam.bulk.maxOperations:1000}")
+    private int maxOperations;
+
+    @Value("${osiam.bulk.maxPayloadSize:1048576}")
+    private int maxPayloadSize;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @RequestMapping(method = RequestMethod.POST)
+    @ResponseBody
+    public BulkResponse bulk(HttpServletRequest request) throws IOException {
+        BulkRequest bulkRequest = readBulkRequest(request);
+        if (bulkRequest.getSchemas() == null || !bulkRequest.getSchemas().contains(BulkRequest.SCHEMA)) {
+            throw new SchemaUnknownException();
+        }
+        if (bulkRequest.getOperations().size() > maxOperations) {
+            throw new BulkLimitExceededException("The bulk request has more than " + maxOperations
+                    + " operations");
+        }
+
+        String baseUri = ServletUriComponentsBuilder.fromContextPath(request).build().toUriString();
+        return scimBulkProvisioning.execute(bulkRequest, baseUri, getScopes());
+    }
+
+    private BulkRequest readBulkRequest(HttpServletRequest request) throws IOException {
+        if (request.getContentLength() > maxPayloadSize) {
+            throw payloadTooLarge();
+        }
+        byte[] body = ByteStreams.toByteArray(ByteStreams.limit(request.getInputStream(), maxPayloadSize + 1L));
+        if (body.length > maxPayloadSize) {
+            throw payloadTooLarge();
+        }
+
+        try {
+            return mapper.readValue(body, BulkRequest.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("The JSON structure is invalid", e);
+        }
+    }
+
+    private BulkLimitExceededException payloadTooLarge() {
+        return new BulkLimitExceededException("The bulk request is larger than " + maxPayloadSize + " bytes");
+    }
+
+    private Set<String> getScopes() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof OAuth2Authentication) {
+            return ((OAuth2Authentication) authentication).getAuthorizationRequest().getScope();
+        }
+        return new HashSet<>();
+    }
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 
 import javax.inject.Inject;
 
+import org.osiam.security.helper.ClientCacheInvalidator;
 import org.osiam.storage.dao.ClientDao;
 import org.osiam.storage.entities.ClientEntity;
 import org.springframework.http.HttpStatus;
@@ -52,6 +53,9 @@ public class ClientManagementController {
     @Inject
     private ClientDao clientDao;
 
+    @Inject
+    private ClientCacheInvalidator clientCacheInvalidator;
+
     private ObjectMapper mapper = new ObjectMapper();
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
@@ -71,13 +75,16 @@ public class ClientManagementController {
     @ResponseStatus(HttpStatus.OK)
     public void delete(@PathVariable final String id) {
         clientDao.delete(id);
+        clientCacheInvalidator.invalidate(id);
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
     public ClientEntity update(@PathVariable final String id, @RequestBody String client) throws IOException {
-        return clientDao.update(getClientEntity(client), id);
+        ClientEntity clientEntity = clientDao.update(getClientEntity(client), id);
+        clientCacheInvalidator.invalidate(id);
+        return clientEntity;
     }
 
     private ClientEntity getClientEntity(String client) throws IOException {
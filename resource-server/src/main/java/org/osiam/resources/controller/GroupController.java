@@ -25,18 +25,23 @@ package org.osiam.resources.controller;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.osiam.resources.helper.AttributesRemovalHelper;
 import org.osiam.resources.helper.JsonInputValidator;
+import org.osiam.resources.helper.NdjsonWriter;
 import org.osiam.resources.helper.RequestParamHelper;
+import org.osiam.resources.provisioning.PagedSearchResult;
 import org.osiam.resources.provisioning.SCIMGroupProvisioning;
 import org.osiam.resources.scim.Group;
 import org.osiam.resources.scim.SCIMSearchResult;
+import org.osiam.storage.dao.TotalResults;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
@@ -63,8 +68,6 @@ public class GroupController {
 
     private RequestParamHelper requestParamHelper = new RequestParamHelper();
 
-    private AttributesRemovalHelper attributesRemovalHelper = new AttributesRemovalHelper();
-
     @RequestMapping(method = RequestMethod.POST)
     @ResponseStatus(HttpStatus.CREATED)
     @ResponseBody
@@ -121,20 +124,40 @@ public class GroupController {
     @RequestMapping(method = RequestMethod.GET)
     @ResponseBody
     public SCIMSearchResult<Group> searchWithGet(HttpServletRequest request) {
-        Map<String,Object> parameterMap = requestParamHelper.getRequestParameterValues(request);
-        SCIMSearchResult<Group> scimSearchResult = scimGroupProvisioning.search((String)parameterMap.get("filter"), (String)parameterMap.get("sortBy"), (String)parameterMap.get("sortOrder"),
-                (int)parameterMap.get("count"), (int)parameterMap.get("startIndex"));
-
-        return attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResult, parameterMap);
+        return search(request);
     }
 
     @RequestMapping(value = "/.search", method = RequestMethod.POST)
     @ResponseBody
     public SCIMSearchResult<Group> searchWithPost(HttpServletRequest request) {
-        Map<String,Object> parameterMap = requestParamHelper.getRequestParameterValues(request);
-        SCIMSearchResult<Group> scimSearchResult = scimGroupProvisioning.search((String)parameterMap.get("filter"), (String)parameterMap.get("sortBy"), (String)parameterMap.get("sortOrder"),
-                (int)parameterMap.get("count"), (int)parameterMap.get("startIndex"));
+        return search(request);
+    }
+
+    /**
+     * Streams all groups as newline delimited JSON, one group per line, without holding them in memory.
+     */
+    @RequestMapping(value = "/.export", method = RequestMethod.GET)
+    @Transactional(readOnly = true)
+    public void export(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response)) {
+            scimGroupProvisioning.export(writer);
+        }
+    }
 
-        return attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResult, parameterMap);
+    private SCIMSearchResult<Group> search(HttpServletRequest request) {
+        Map<String,Object> parameterMap = requestParamHelper.getRequestParameterValues(request);
+        Set<String> attributes = new HashSet<>(Arrays.asList((String[]) parameterMap.get("attributes")));
+        PagedSearchResult<Group> scimSearchResult;
+        if (parameterMap.get("cursor") != null) {
+            scimSearchResult = scimGroupProvisioning.searchWithCursor((String) parameterMap.get("filter"), (String) parameterMap.get("sortBy"), (String) parameterMap.get("sortOrder"),
+                    (int) parameterMap.get("count"), (String) parameterMap.get("cursor"), (TotalResults) parameterMap.get("totalResults"),
+                    attributes);
+        } else {
+            scimSearchResult = scimGroupProvisioning.search((String) parameterMap.get("filter"), (String) parameterMap.get("sortBy"), (String) parameterMap.get("sortOrder"),
+                    (int) parameterMap.get("count"), (int) parameterMap.get("startIndex"), (TotalResults) parameterMap.get("totalResults"),
+                    attributes);
+        }
+
+        return scimSearchResult.withAttributes(attributes);
     }
 }
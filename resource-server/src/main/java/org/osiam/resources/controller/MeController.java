@@ -93,7 +93,7 @@ public class MeController {
         Object o = userAuthentication.getPrincipal();
         if (o instanceof LinkedHashMap) {
             String principalId = (String) ((LinkedHashMap<?, ?>) o).get("id");
-            UserEntity userEntity = userDao.getById(principalId);
+            UserEntity userEntity = userDao.getById(principalId, UserEntity.PROFILE_FETCH_PLAN);
             return new FacebookInformationConstruct(userEntity);
         } else {
             throw new IllegalArgumentException("User was not authenticated with OSIAM.");
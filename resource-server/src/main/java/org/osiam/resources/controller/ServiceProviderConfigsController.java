@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.osiam.resources.scim.Constants;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -38,20 +39,25 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 @RequestMapping(value = "/ServiceProviderConfigs")
 @Transactional
 public class ServiceProviderConfigsController {
+
+    @Value("${osiam.bulk.maxOperations:1000}")
+    private int maxBulkOperations;
+
+    @Value("${osiam.bulk.maxPayloadSize:1048576}")
+    private int maxBulkPayloadSize;
+
     @RequestMapping
     @ResponseBody
     public ServiceProviderConfig getConfig() {
-        return ServiceProviderConfig.INSTANCE;
+        return new ServiceProviderConfig(maxBulkOperations, maxBulkPayloadSize);
     }
 
     @JsonSerialize(include = JsonSerialize.Inclusion.NON_EMPTY)
     public static final class ServiceProviderConfig {
 
-        public static final ServiceProviderConfig INSTANCE = new ServiceProviderConfig(); // NOSONAR - Needed public due to json serializing
-
         public Set<String> schemas = new HashSet<>(); // NOSONAR - Needed public due to json serializing
         public final Supported patch = new Supported(true); // NOSONAR - Needed public due to json serializing
-        public final Supported bulk = new BulkSupported(false); // NOSONAR - Needed public due to json serializing
+        public final Supported bulk; // NOSONAR - Needed public due to json serializing
         public final Supported filter = new FilterSupported(true, Constants.MAX_RESULT); // NOSONAR - Needed public due to json serializing
         public final Supported changePassword = new Supported(false); // NOSONAR - Needed public due to json serializing
         public final Supported sort = new Supported(true); // NOSONAR - Needed public due to json serializing
@@ -62,8 +68,9 @@ public class ServiceProviderConfigsController {
                         "OAuth2 Bearer access token is used for authorization.", "http://tools.ietf.org/html/rfc6749",
                         "http://oauth.net/2/"));
 
-        private ServiceProviderConfig() {
+        private ServiceProviderConfig(int maxBulkOperations, int maxBulkPayloadSize) {
             schemas.add(Constants.SERVICE_PROVIDER_CORE_SCHEMA);
+            bulk = new BulkSupported(true, maxBulkOperations, maxBulkPayloadSize);
         }
 
         @JsonSerialize(include = JsonSerialize.Inclusion.NON_EMPTY)
@@ -99,10 +106,10 @@ public class ServiceProviderConfigsController {
             public final Integer maxOperations; // NOSONAR - Needed public due to json serializing
             public final Integer maxPayloadSize; // NOSONAR - Needed public due to json serializing
 
-            public BulkSupported(boolean b) {
+            public BulkSupported(boolean b, Integer maxOperations, Integer maxPayloadSize) {
                 super(b);
-                this.maxOperations = null; // NOSONAR - Field is readable after serializing
-                this.maxPayloadSize = null; // NOSONAR - Field is readable after serializing
+                this.maxOperations = maxOperations; // NOSONAR - Field is readable after serializing
+                this.maxPayloadSize = maxPayloadSize; // NOSONAR - Field is readable after serializing
             }
 
         }
@@ -25,19 +25,24 @@ package org.osiam.resources.controller;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.osiam.resources.helper.AttributesRemovalHelper;
 import org.osiam.resources.helper.JsonInputValidator;
+import org.osiam.resources.helper.NdjsonWriter;
 import org.osiam.resources.helper.RequestParamHelper;
+import org.osiam.resources.provisioning.PagedSearchResult;
 import org.osiam.resources.provisioning.SCIMUserProvisioning;
 import org.osiam.resources.scim.Meta;
 import org.osiam.resources.scim.SCIMSearchResult;
 import org.osiam.resources.scim.User;
+import org.osiam.storage.dao.TotalResults;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
@@ -72,8 +77,6 @@ public class  UserController {
 
     private RequestParamHelper requestParamHelper = new RequestParamHelper();
 
-    private AttributesRemovalHelper attributesRemovalHelper = new AttributesRemovalHelper();
-
     @RequestMapping(value = "/{id}", method = RequestMethod.GET) // NOSONAR - duplicate literals unnecessary
     @ResponseBody
     public User getUser(@PathVariable final String id) {
@@ -122,21 +125,41 @@ public class  UserController {
     @RequestMapping(method = RequestMethod.GET)
     @ResponseBody
     public SCIMSearchResult<User> searchWithGet(HttpServletRequest request) {
-        Map<String,Object> parameterMap = requestParamHelper.getRequestParameterValues(request);
-        SCIMSearchResult<User> scimSearchResult = scimUserProvisioning.search((String)parameterMap.get("filter"), (String)parameterMap.get("sortBy"), (String)parameterMap.get("sortOrder"),
-                (int)parameterMap.get("count"), (int)parameterMap.get("startIndex"));
-
-        return attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResult, parameterMap);
+        return search(request);
     }
 
     @RequestMapping(value = "/.search", method = RequestMethod.POST)
     @ResponseBody
     public SCIMSearchResult<User> searchWithPost(HttpServletRequest request) {
-        Map<String,Object> parameterMap = requestParamHelper.getRequestParameterValues(request);
-        SCIMSearchResult<User> scimSearchResult = scimUserProvisioning.search((String) parameterMap.get("filter"), (String) parameterMap.get("sortBy"), (String) parameterMap.get("sortOrder"),
-                (int) parameterMap.get("count"), (int) parameterMap.get("startIndex"));
+        return search(request);
+    }
+
+    /**
+     * Streams all users as newline delimited JSON, one user per line, without holding them in memory.
+     */
+    @RequestMapping(value = "/.export", method = RequestMethod.GET)
+    @Transactional(readOnly = true)
+    public void export(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response)) {
+            scimUserProvisioning.export(writer);
+        }
+    }
 
-        return attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResult, parameterMap);
+    private SCIMSearchResult<User> search(HttpServletRequest request) {
+        Map<String,Object> parameterMap = requestParamHelper.getRequestParameterValues(request);
+        Set<String> attributes = new HashSet<>(Arrays.asList((String[]) parameterMap.get("attributes")));
+        PagedSearchResult<User> scimSearchResult;
+        if (parameterMap.get("cursor") != null) {
+            scimSearchResult = scimUserProvisioning.searchWithCursor((String) parameterMap.get("filter"), (String) parameterMap.get("sortBy"), (String) parameterMap.get("sortOrder"),
+                    (int) parameterMap.get("count"), (String) parameterMap.get("cursor"), (TotalResults) parameterMap.get("totalResults"),
+                    attributes);
+        } else {
+            scimSearchResult = scimUserProvisioning.search((String) parameterMap.get("filter"), (String) parameterMap.get("sortBy"), (String) parameterMap.get("sortOrder"),
+                    (int) parameterMap.get("count"), (int) parameterMap.get("startIndex"), (TotalResults) parameterMap.get("totalResults"),
+                    attributes);
+        }
+
+        return scimSearchResult.withAttributes(attributes);
     }
 
     private User setLocationUriAndCreateUserForOutput(HttpServletRequest request, HttpServletResponse response,
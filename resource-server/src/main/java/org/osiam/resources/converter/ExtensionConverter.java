@@ -38,7 +38,6 @@ import org.osiam.storage.dao.ExtensionDao;
 import org.osiam.storage.entities.ExtensionEntity;
 import org.osiam.storage.entities.ExtensionFieldEntity;
 import org.osiam.storage.entities.ExtensionFieldValueEntity;
-import org.osiam.storage.helper.NumberPadder;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Strings;
@@ -49,9 +48,6 @@ public class ExtensionConverter implements Converter<Set<Extension>, Set<Extensi
     @Inject
     private ExtensionDao extensionDao;
 
-    @Inject
-    private NumberPadder numberPadder;
-
     @Override
     public Set<ExtensionFieldValueEntity> fromScim(Set<Extension> extensions) {
         Set<ExtensionFieldValueEntity> result = new HashSet<>();
@@ -68,16 +64,8 @@ public class ExtensionConverter implements Converter<Set<Extension>, Set<Extensi
                     }
 
                     ExtensionFieldValueEntity value = new ExtensionFieldValueEntity();
-
-                    String typeCheckedStringValue = getTypeCheckedStringValue(field.getType(), field.getName(),
-                            extension);
-
-                    if (field.getType() == ExtensionFieldType.INTEGER || field.getType() == ExtensionFieldType.DECIMAL) {
-                        typeCheckedStringValue = numberPadder.pad(typeCheckedStringValue);
-                    }
-
-                    value.setValue(typeCheckedStringValue);
                     value.setExtensionField(field);
+                    value.setTypedValue(extension.getField(field.getName(), field.getType()));
                     result.add(value);
                 }
             }
@@ -86,16 +74,17 @@ public class ExtensionConverter implements Converter<Set<Extension>, Set<Extensi
         return result;
     }
 
-    private <T> String getTypeCheckedStringValue(ExtensionFieldType<T> type, String fieldName, Extension extension) {
-        T value = extension.getField(fieldName, type);
-        return type.toString(value);
-    }
-
     @Override
     public Set<Extension> toScim(Set<ExtensionFieldValueEntity> entity) {
         Map<String, Extension> extensionMap = new HashMap<>();
 
         for (ExtensionFieldValueEntity fieldValueEntity : checkNotNull(entity)) {
+            Object value = fieldValueEntity.getTypedValue();
+            if (value == null) {
+                // the value isn't stored in the column of the type of its field
+                continue;
+            }
+
             String urn = fieldValueEntity.getExtensionField().getExtension().getUrn();
             Extension extension;
 
@@ -111,12 +100,6 @@ public class ExtensionConverter implements Converter<Set<Extension>, Set<Extensi
                 // If this is ever true, something went very, very wrong.
                 throw new IllegalArgumentException("The ExtensionField type can't be null");
             }
-            String value = fieldValueEntity.getValue();
-
-            if (type == ExtensionFieldType.INTEGER || type == ExtensionFieldType.DECIMAL) {
-                value = numberPadder.unpad(value);
-            }
-
             String name = fieldValueEntity.getExtensionField().getName();
             addField(extension, type, name, value);
         }
@@ -124,7 +107,8 @@ public class ExtensionConverter implements Converter<Set<Extension>, Set<Extensi
         return new HashSet<>(extensionMap.values());
     }
 
-    private <T> void addField(Extension extension, ExtensionFieldType<T> type, String fieldName, String stringValue) {
-        extension.addOrUpdateField(fieldName, type.fromString(stringValue), type);
+    @SuppressWarnings("unchecked")
+    private <T> void addField(Extension extension, ExtensionFieldType<T> type, String fieldName, Object value) {
+        extension.addOrUpdateField(fieldName, (T) value, type);
     }
 }
@@ -23,7 +23,10 @@
 
 package org.osiam.resources.converter;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -71,27 +74,65 @@ public class GroupConverter implements Converter<Group, GroupEntity> {
 
     @Override
     public Group toScim(GroupEntity group) {
+        return toScim(group, Collections.<String> emptySet());
+    }
+
+    /**
+     * Converts a group entity, leaving out the meta data and members if they were not requested, so their tables are
+     * not read.
+     * 
+     * @param attributes
+     *        the names of the requested attributes, all attributes if empty
+     */
+    public Group toScim(GroupEntity group, Set<String> attributes) {
         if (group == null) {
             return null;
         }
 
         Group.Builder groupBuilder = new Group.Builder(group.getDisplayName())
                 .setId(group.getId().toString())
-                .setMeta(metaConverter.toScim(group.getMeta()))
                 .setExternalId(group.getExternalId());
 
-        Set<MemberRef> members = new HashSet<>();
-        for (ResourceEntity member : group.getMembers()) {
-            MemberRef memberRef = new MemberRef.Builder()
-                    .setValue(member.getId().toString())
-                    .setReference(member.getMeta().getLocation())
-                    .setDisplay(member.getDisplayName() != null ? member.getDisplayName() : null)
-                    .build();
+        if (isRequested("meta", attributes)) {
+            groupBuilder.setMeta(metaConverter.toScim(group.getMeta()));
+        }
 
-            members.add(memberRef);
+        if (isRequested("members", attributes)) {
+            Set<MemberRef> members = new HashSet<>();
+            for (ResourceEntity member : group.getMembers()) {
+                MemberRef memberRef = new MemberRef.Builder()
+                        .setValue(member.getId().toString())
+                        .setReference(member.getMeta().getLocation())
+                        .setDisplay(member.getDisplayName() != null ? member.getDisplayName() : null)
+                        .build();
+
+                members.add(memberRef);
+            }
+            groupBuilder.setMembers(members);
         }
-        groupBuilder.setMembers(members);
 
         return groupBuilder.build();
     }
+
+    /**
+     * Determines the attributes of the group entity {@link #toScim(GroupEntity, Set)} reads for the requested
+     * attributes, so they can be loaded together with the group.
+     * 
+     * @param attributes
+     *        the names of the requested attributes, all attributes if empty
+     * @return the fetch plan for the {@link org.osiam.storage.dao.GroupDao}
+     */
+    public List<String> getFetchPlan(Set<String> attributes) {
+        List<String> fetchPlan = new ArrayList<>();
+        for (String attributePath : GroupEntity.DEFAULT_FETCH_PLAN) {
+            if (isRequested(attributePath.split("\\.")[0], attributes)) {
+                fetchPlan.add(attributePath);
+            }
+        }
+        return fetchPlan;
+    }
+
+    private boolean isRequested(String attribute, Set<String> attributes) {
+        return attributes.isEmpty() || attributes.contains(attribute);
+    }
 }
@@ -24,6 +24,7 @@
 package org.osiam.resources.converter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -144,6 +145,17 @@ public class UserConverter implements Converter<User, UserEntity> {
 
     @Override
     public User toScim(UserEntity entity) {
+        return toScim(entity, Collections.<String> emptySet());
+    }
+
+    /**
+     * Converts a user entity, leaving out the complex and multi-valued attributes that were not requested, so their
+     * tables are not read. Extensions are always converted.
+     * 
+     * @param attributes
+     *        the names of the requested attributes, all attributes if empty
+     */
+    public User toScim(UserEntity entity, Set<String> attributes) {
         if (entity == null) {
             return null;
         }
@@ -151,24 +163,48 @@ public class UserConverter implements Converter<User, UserEntity> {
                 .setActive(entity.getActive())
                 .setDisplayName(entity.getDisplayName())
                 .setLocale(entity.getLocale())
-                .setName(entity.getName() != null ? nameConverter.toScim(entity.getName()) : null)
                 .setNickName(entity.getNickName())
                 .setPassword(entity.getPassword())
                 .setPreferredLanguage(entity.getPreferredLanguage())
                 .setProfileUrl(entity.getProfileUrl())
                 .setTimezone(entity.getTimezone()).setTitle(entity.getTitle())
                 .setUserType(entity.getUserType())
-                .setExternalId(entity.getExternalId()).setId(entity.getId().toString())
-                .setMeta(metaConverter.toScim(entity.getMeta()))
-                .setAddresses(convertMultiValueToScim(addressConverter, entity.getAddresses()))
-                .setEmails(convertMultiValueToScim(emailConverter, entity.getEmails()))
-                .setEntitlements(convertMultiValueToScim(entitlementConverter, entity.getEntitlements()))
-                .setGroups(entityGroupsToScim(entity.getGroups()))
-                .setIms(convertMultiValueToScim(imConverter, entity.getIms()))
-                .setPhoneNumbers(convertMultiValueToScim(phoneNumberConverter, entity.getPhoneNumbers()))
-                .setPhotos(convertMultiValueToScim(photoConverter, entity.getPhotos()))
-                .setRoles(convertMultiValueToScim(roleConverter, entity.getRoles()))
-                .setX509Certificates(convertMultiValueToScim(x509CertificateConverter, entity.getX509Certificates()));
+                .setExternalId(entity.getExternalId()).setId(entity.getId().toString());
+
+        if (isRequested("name", attributes)) {
+            userBuilder.setName(entity.getName() != null ? nameConverter.toScim(entity.getName()) : null);
+        }
+        if (isRequested("meta", attributes)) {
+            userBuilder.setMeta(metaConverter.toScim(entity.getMeta()));
+        }
+        if (isRequested("addresses", attributes)) {
+            userBuilder.setAddresses(convertMultiValueToScim(addressConverter, entity.getAddresses()));
+        }
+        if (isRequested("emails", attributes)) {
+            userBuilder.setEmails(convertMultiValueToScim(emailConverter, entity.getEmails()));
+        }
+        if (isRequested("entitlements", attributes)) {
+            userBuilder.setEntitlements(convertMultiValueToScim(entitlementConverter, entity.getEntitlements()));
+        }
+        if (isRequested("groups", attributes)) {
+            userBuilder.setGroups(entityGroupsToScim(entity.getGroups()));
+        }
+        if (isRequested("ims", attributes)) {
+            userBuilder.setIms(convertMultiValueToScim(imConverter, entity.getIms()));
+        }
+        if (isRequested("phoneNumbers", attributes)) {
+            userBuilder.setPhoneNumbers(convertMultiValueToScim(phoneNumberConverter, entity.getPhoneNumbers()));
+        }
+        if (isRequested("photos", attributes)) {
+            userBuilder.setPhotos(convertMultiValueToScim(photoConverter, entity.getPhotos()));
+        }
+        if (isRequested("roles", attributes)) {
+            userBuilder.setRoles(convertMultiValueToScim(roleConverter, entity.getRoles()));
+        }
+        if (isRequested("x509Certificates", attributes)) {
+            userBuilder.setX509Certificates(convertMultiValueToScim(x509CertificateConverter,
+                    entity.getX509Certificates()));
+        }
 
         addExtensions(userBuilder, entity.getExtensionFieldValues());
 
@@ -176,6 +212,29 @@ public class UserConverter implements Converter<User, UserEntity> {
 
     }
 
+    /**
+     * Determines the attributes of the user entity {@link #toScim(UserEntity, Set)} reads for the requested
+     * attributes, so they can be loaded together with the user.
+     * 
+     * @param attributes
+     *        the names of the requested attributes, all attributes if empty
+     * @return the fetch plan for the {@link org.osiam.storage.dao.UserDao}
+     */
+    public List<String> getFetchPlan(Set<String> attributes) {
+        List<String> fetchPlan = new ArrayList<>();
+        for (String attributePath : UserEntity.DEFAULT_FETCH_PLAN) {
+            String attribute = attributePath.split("\\.")[0];
+            if (attribute.equals("extensionFieldValues") || isRequested(attribute, attributes)) {
+                fetchPlan.add(attributePath);
+            }
+        }
+        return fetchPlan;
+    }
+
+    private boolean isRequested(String attribute, Set<String> attributes) {
+        return attributes.isEmpty() || attributes.contains(attribute);
+    }
+
     private void addExtensions(User.Builder userBuilder, Set<ExtensionFieldValueEntity> extensionFieldValues) {
 
         Set<Extension> extensions = extensionConverter.toScim(extensionFieldValues);
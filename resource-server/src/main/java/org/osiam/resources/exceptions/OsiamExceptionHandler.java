@@ -50,11 +50,18 @@ public class OsiamExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler(value = {Exception.class})
     protected ResponseEntity<Object> handleConflict(Exception ex, WebRequest request) {
         LOGGER.log(Level.WARNING, "An exception occurred", ex);
-        HttpStatus status = setStatus(ex);
-        JsonErrorResult error = new JsonErrorResult(status.name(), constructMessage(ex.getMessage()));
+        HttpStatus status = getStatus(ex);
+        JsonErrorResult error = new JsonErrorResult(status.name(), getMessage(ex));
         return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
     }
 
+    /**
+     * @return the message of the exception, transformed to a more human readable message if possible
+     */
+    public static String getMessage(Exception ex) {
+        return constructMessage(ex.getMessage());
+    }
+
     /**
      * This method may transform error messages to a more human readable message if the message contains some
      * known buzzwords to trigger the effect.
@@ -62,7 +69,7 @@ public class OsiamExceptionHandler extends ResponseEntityExceptionHandler {
      * @param message the message to check and transform
      * @return the original message or a transformed message
      */
-    private String constructMessage(String message) {
+    private static String constructMessage(String message) {
         String result = message;
         for (ErrorMessageTransformer et : KNOWN_ERROR_MSG_TRANSFORMER) {
             result = et.transform(result);
@@ -70,10 +77,16 @@ public class OsiamExceptionHandler extends ResponseEntityExceptionHandler {
         return result;
     }
 
-    private HttpStatus setStatus(Exception ex) {
+    /**
+     * @return the status of the response to a request that failed with the exception
+     */
+    public static HttpStatus getStatus(Exception ex) {
         if (ex instanceof ResourceNotFoundException) {
             return HttpStatus.NOT_FOUND;
         }
+        if (ex instanceof BulkLimitExceededException) {
+            return HttpStatus.REQUEST_ENTITY_TOO_LARGE;
+        }
         if (ex instanceof SchemaUnknownException) {
             return HttpStatus.I_AM_A_TEAPOT;
         }
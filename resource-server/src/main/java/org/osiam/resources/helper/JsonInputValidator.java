@@ -65,8 +65,14 @@ public class JsonInputValidator {
     }
 
     public User validateJsonUser(HttpServletRequest request) throws IOException {
-        String jsonInput = getRequestBody(request);
-        Validator validator = validators.get(RequestMethod.valueOf(request.getMethod()));
+        return validateJsonUser(getRequestBody(request), RequestMethod.valueOf(request.getMethod()));
+    }
+
+    /**
+     * Validates a user sent with the given method, e.g. as data of a bulk operation.
+     */
+    public User validateJsonUser(String jsonInput, RequestMethod method) throws IOException {
+        Validator validator = validators.get(method);
         User user;
         try {
             user = validator.validateJsonUser(jsonInput);
@@ -83,8 +89,14 @@ public class JsonInputValidator {
     }
 
     public Group validateJsonGroup(HttpServletRequest request) throws IOException {
-        String jsonInput = getRequestBody(request);
-        Validator validator = validators.get(RequestMethod.valueOf(request.getMethod()));
+        return validateJsonGroup(getRequestBody(request), RequestMethod.valueOf(request.getMethod()));
+    }
+
+    /**
+     * Validates a group sent with the given method, e.g. as data of a bulk operation.
+     */
+    public Group validateJsonGroup(String jsonInput, RequestMethod method) throws IOException {
+        Validator validator = validators.get(method);
         Group group;
         try {
             group = validator.validateGroup(jsonInput);
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.helper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.osiam.resources.scim.Resource;
+import org.osiam.storage.dao.ChunkHandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writes resources to a response as newline delimited JSON, one resource per line. The response is compressed with
+ * gzip if the client accepts it. Every chunk is flushed to the client at once, so the response isn't buffered.
+ */
+public class NdjsonWriter implements ChunkHandler<Resource>, Closeable {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson;charset=UTF-8";
+
+    private static final ObjectWriter WRITER = new ObjectMapper().writer();
+
+    private final OutputStream out;
+
+    NdjsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts the response, compressed with gzip if the Accept-Encoding of the request contains it.
+     */
+    public static NdjsonWriter forResponse(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(CONTENT_TYPE);
+        if (acceptsGzip(request)) {
+            response.setHeader("Content-Encoding", "gzip");
+            return new NdjsonWriter(new GZIPOutputStream(response.getOutputStream(), true));
+        }
+        return new NdjsonWriter(response.getOutputStream());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> acceptEncodings = request.getHeaders("Accept-Encoding");
+        while (acceptEncodings != null && acceptEncodings.hasMoreElements()) {
+            if (acceptEncodings.nextElement().toLowerCase(Locale.ENGLISH).contains("gzip")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void handle(List<? extends Resource> chunk) throws IOException {
+        for (Resource resource : chunk) {
+            out.write(WRITER.writeValueAsBytes(resource));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes the response, which is incomplete if the export failed.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -25,6 +25,8 @@ package org.osiam.resources.helper;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
 
-@JsonFilter("filter properties by name")
+@JsonFilter(PropertyFilterMixIn.FILTER_ID)
 public class PropertyFilterMixIn {
+
+    public static final String FILTER_ID = "filter properties by name";
 }
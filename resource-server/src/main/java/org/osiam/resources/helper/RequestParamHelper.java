@@ -29,6 +29,7 @@ import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 
 import org.osiam.resources.scim.Constants;
+import org.osiam.storage.dao.TotalResults;
 
 public class RequestParamHelper {
 
@@ -42,6 +43,9 @@ public class RequestParamHelper {
                 request.getParameter("sortOrder") != null ? request.getParameter("sortOrder") : "ascending");
         parameterMap.put("startIndex",
                 request.getParameter("startIndex") != null ? Integer.parseInt(request.getParameter("startIndex")) : 1);
+        // an empty cursor requests the first page of a cursor search, no cursor at all an index based search
+        parameterMap.put("cursor", request.getParameter("cursor"));
+        parameterMap.put("totalResults", TotalResults.fromString(request.getParameter("totalResults")));
         translateAttributesForJackson(request, parameterMap);
 
         validateCount(request, parameterMap);
@@ -61,7 +65,8 @@ public class RequestParamHelper {
         if (request.getParameter("count") != null) {
             count = Integer.parseInt(request.getParameter("count"));
         }
-        if (count <= 0) {
+        // a count of 0 only asks for the total number of results
+        if (count < 0) {
             throw new IllegalArgumentException("Negative count values are not allowed");
         }
         parameterMap.put("count", count);
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.helper;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Generates the ids of new users and groups. By default the ids start with the time of their creation in
+ * milliseconds (the layout of a version 7 UUID), so new ids are inserted next to each other at the end of the index
+ * on scim_id.id instead of at random pages all over it. The remaining 74 bits are random. With
+ * <code>osiam.resource.idStrategy=RANDOM</code> all 122 bits are random, like {@link UUID#randomUUID()}.
+ * <p>
+ * The random bits are drawn from one {@link SecureRandom} per thread instead of the one shared by all callers of
+ * {@link UUID#randomUUID()}, so concurrent requests don't wait for each other.
+ */
+@Service
+public class ResourceIdGenerator {
+
+    public enum Strategy {
+        RANDOM, TIME_ORDERED
+    }
+
+    private static final ThreadLocal<SecureRandom> RANDOM = new ThreadLocal<SecureRandom>() {
+        @Override
+        protected SecureRandom initialValue() {
+            try {
+                // unlike the default NativePRNG it doesn't share a lock with the other instances
+                return SecureRandom.getInstance("SHA1PRNG");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private static final long VERSION_MASK = 0xF000L;
+    private static final long RANDOM_VERSION = 0x4000L;
+    private static final long TIME_ORDERED_VERSION = 0x7000L;
+    private static final long VARIANT_MASK = 0xC000000000000000L;
+    private static final long VARIANT = 0x8000000000000000L;
+
+    private final Strategy strategy;
+
+    @Inject
+    public ResourceIdGenerator(@Value("${osiam.resource.idStrategy:TIME_ORDERED}") Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public UUID generate() {
+        SecureRandom random = RANDOM.get();
+        long mostSigBits = random.nextLong();
+        long leastSigBits = random.nextLong() & ~VARIANT_MASK | VARIANT;
+
+        if (strategy == Strategy.TIME_ORDERED) {
+            mostSigBits = System.currentTimeMillis() << 16 | TIME_ORDERED_VERSION | mostSigBits & 0x0FFFL;
+        } else {
+            mostSigBits = mostSigBits & ~VERSION_MASK | RANDOM_VERSION;
+        }
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
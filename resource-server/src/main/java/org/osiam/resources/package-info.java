@@ -39,16 +39,19 @@
  *  <p>/ - org.osiam.resources.controller.RootController - would be a resource independent search but it is currently
  *  disabled.</p>
  *
+ *  <p>/Bulk - org.osiam.resources.controller.BulkController - is a Controller to execute many operations on users
+ *  and groups with one request.</p>
+ *
  *  <p>/Client - org.osiam.resources.controller.ClientManagementController - is a Controller to create, delete and get
  *  clients.</p>
  *
  *  <p>/Group - org.osiam.resources.controller.GroupController - is a Controller to create, replace, modify, get,
- *  delete and search groups.</p>
+ *  delete, search and export groups.</p>
  *
  *  <p>/me - org.osiam.resources.controller.MeController - is a Facebook /me clone to get name, email and id of an user.</p>
  *
  *  <p>/User - org.osiam.resources.controller.UserController - is a Controller to create, replace, modify, get,</p>
- *  delete and search user.
+ *  delete, search and export user.
  *
  * <p>/ServiceProviderConfig - org.osiam.resources.controller.ServiceProviderConfigController is a controller to get
  * information about the running OSIAM instance.</p>
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.provisioning;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A bulk request with the operations on users and groups, see
+ * http://tools.ietf.org/html/draft-ietf-scim-api-00#section-3.7
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulkRequest {
+
+    public static final String SCHEMA = "urn:scim:schemas:core:2.0:BulkRequest";
+
+    private Set<String> schemas = new HashSet<>();
+
+    private Integer failOnErrors;
+
+    @JsonProperty("Operations")
+    private List<Operation> operations = new ArrayList<>();
+
+    public Set<String> getSchemas() {
+        return schemas;
+    }
+
+    public void setSchemas(Set<String> schemas) {
+        this.schemas = schemas;
+    }
+
+    /**
+     * @return the number of errors after which the remaining operations are skipped or null if all operations are
+     *         executed
+     */
+    public Integer getFailOnErrors() {
+        return failOnErrors;
+    }
+
+    public void setFailOnErrors(Integer failOnErrors) {
+        this.failOnErrors = failOnErrors;
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Operation {
+
+        private String method;
+        private String bulkId;
+        private String path;
+        private JsonNode data;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        /**
+         * @return the id by which later operations refer to the resource created by this operation as
+         *         "bulkId:&lt;bulkId&gt;"
+         */
+        public String getBulkId() {
+            return bulkId;
+        }
+
+        public void setBulkId(String bulkId) {
+            this.bulkId = bulkId;
+        }
+
+        /**
+         * @return the path of the resource relative to the service provider, e.g. "/Users" or "/Groups/&lt;id&gt;"
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        /**
+         * @return the resource as it would be sent to the path with the method
+         */
+        public JsonNode getData() {
+            return data;
+        }
+
+        public void setData(JsonNode data) {
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.provisioning;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * The response to a {@link BulkRequest} with the result of every executed operation in the order of the request.
+ */
+@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+public class BulkResponse {
+
+    public static final String SCHEMA = "urn:scim:schemas:core:2.0:BulkResponse";
+
+    private final List<Operation> operations;
+
+    public BulkResponse(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    public Set<String> getSchemas() {
+        return Collections.singleton(SCHEMA);
+    }
+
+    @JsonProperty("Operations")
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+    public static class Operation {
+
+        private final String method;
+        private final String bulkId;
+        private final String location;
+        private final Status status;
+
+        public Operation(String method, String bulkId, String location, Status status) {
+            this.method = method;
+            this.bulkId = bulkId;
+            this.location = location;
+            this.status = status;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getBulkId() {
+            return bulkId;
+        }
+
+        /**
+         * @return the location of the resource or null if the operation failed
+         */
+        public String getLocation() {
+            return location;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+    }
+
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+    public static class Status {
+
+        private final String code;
+        private final String description;
+
+        public Status(int code, String description) {
+            this.code = String.valueOf(code);
+            this.description = description;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * @return the reason why the operation failed or null if it succeeded
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.provisioning;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.osiam.resources.helper.PropertyFilterMixIn;
+import org.osiam.resources.scim.SCIMSearchResult;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * A page of a {@link SCIMSearchResult} that may omit the totalResults, if the client didn't ask for it. A page of an
+ * index based search carries the startIndex, a page of a cursor search the nextCursor instead. The nextCursor is
+ * omitted on the last page. If only some attributes of the resources were requested, the others are left out while
+ * the page is serialized.
+ */
+@JsonSerialize(using = PagedSearchResult.Serializer.class)
+public class PagedSearchResult<T> extends SCIMSearchResult<T> {
+
+    private final boolean totalResultsOmitted;
+    private final boolean cursorBased;
+    private final String nextCursor;
+    private final Set<String> attributes;
+
+    private PagedSearchResult(List<T> resources, Long totalResults, long itemsPerPage, long startIndex,
+            boolean cursorBased, String nextCursor, Set<String> schemas, Set<String> attributes) {
+        super(resources, totalResults != null ? totalResults : 0, itemsPerPage, startIndex, schemas);
+        this.totalResultsOmitted = totalResults == null;
+        this.cursorBased = cursorBased;
+        this.nextCursor = nextCursor;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Creates a page of an index based search.
+     *
+     * @param totalResults
+     *        the total number of results or null if it should be omitted
+     */
+    public static <T> PagedSearchResult<T> withStartIndex(List<T> resources, Long totalResults, long itemsPerPage,
+            long startIndex, String schema) {
+        return new PagedSearchResult<>(resources, totalResults, itemsPerPage, startIndex, false, null,
+                Collections.singleton(schema), Collections.<String> emptySet());
+    }
+
+    /**
+     * Creates a page of a cursor search.
+     *
+     * @param totalResults
+     *        the total number of results or null if it should be omitted
+     * @param nextCursor
+     *        the cursor of the next page or null if this is the last page
+     */
+    public static <T> PagedSearchResult<T> withCursor(List<T> resources, Long totalResults, long itemsPerPage,
+            String nextCursor, String schema) {
+        return new PagedSearchResult<>(resources, totalResults, itemsPerPage, 0, true, nextCursor,
+                Collections.singleton(schema), Collections.<String> emptySet());
+    }
+
+    /**
+     * Creates a copy of this page that only serializes the requested attributes of its resources. The names are
+     * matched on every level, like the parts of the SCIM attributes parameter.
+     *
+     * @param attributes
+     *        the names of the requested attributes, all attributes if empty
+     */
+    public PagedSearchResult<T> withAttributes(Set<String> attributes) {
+        return new PagedSearchResult<>(getResources(), totalResultsOmitted ? null : getTotalResults(),
+                getItemsPerPage(), getStartIndex(), cursorBased, nextCursor, getSchemas(), attributes);
+    }
+
+    public boolean isTotalResultsOmitted() {
+        return totalResultsOmitted;
+    }
+
+    public boolean isCursorBased() {
+        return cursorBased;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Set<String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Writes the same JSON as a {@link SCIMSearchResult}, except for the omitted attributes. The resources are
+     * filtered while they are written, by a mapper that is configured once and shared by all requests.
+     */
+    static class Serializer extends JsonSerializer<PagedSearchResult<?>> {
+
+        private static final ObjectMapper FILTERING_MAPPER = new ObjectMapper();
+
+        static {
+            FILTERING_MAPPER.addMixInAnnotations(Object.class, PropertyFilterMixIn.class);
+        }
+
+        @Override
+        public void serialize(PagedSearchResult<?> value, JsonGenerator jgen, SerializerProvider provider)
+                throws IOException {
+            jgen.writeStartObject();
+            if (!value.isTotalResultsOmitted()) {
+                jgen.writeNumberField("totalResults", value.getTotalResults());
+            }
+            jgen.writeNumberField("itemsPerPage", value.getItemsPerPage());
+            if (value.isCursorBased()) {
+                if (value.getNextCursor() != null) {
+                    jgen.writeStringField("nextCursor", value.getNextCursor());
+                }
+            } else {
+                jgen.writeNumberField("startIndex", value.getStartIndex());
+            }
+            if (value.getSchemas() != null && !value.getSchemas().isEmpty()) {
+                jgen.writeFieldName("schemas");
+                provider.defaultSerializeValue(value.getSchemas(), jgen);
+            }
+            if (value.getResources() != null && !value.getResources().isEmpty()) {
+                jgen.writeFieldName("Resources");
+                if (value.getAttributes().isEmpty()) {
+                    provider.defaultSerializeValue(value.getResources(), jgen);
+                } else {
+                    getFilteringWriter(value.getAttributes()).writeValue(jgen, value.getResources());
+                }
+            }
+            jgen.writeEndObject();
+        }
+
+        private ObjectWriter getFilteringWriter(Set<String> attributes) {
+            return FILTERING_MAPPER.writer(new SimpleFilterProvider().addFilter(PropertyFilterMixIn.FILTER_ID,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(attributes)));
+        }
+    }
+}
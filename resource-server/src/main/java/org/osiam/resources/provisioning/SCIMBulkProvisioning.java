@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.provisioning;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+
+import org.osiam.resources.exceptions.OsiamExceptionHandler;
+import org.osiam.resources.exceptions.ResourceNotFoundException;
+import org.osiam.resources.helper.JsonInputValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * Executes the operations of a {@link BulkRequest} in chunks of {@code osiam.bulk.chunkSize} operations, each in one
+ * transaction, so the inserts and updates of a chunk are sent in JDBC batches. If an operation of a chunk fails, the
+ * chunk is rolled back and its operations are executed again, each in its own transaction, so only the failed
+ * operations are left out.
+ * <p/>
+ * An operation may refer to a resource created by a previous operation of the same request as
+ * "bulkId:&lt;bulkId&gt;", in its path or in any value of its data.
+ */
+@Service
+public class SCIMBulkProvisioning {
+
+    private static final Logger LOGGER = Logger.getLogger(SCIMBulkProvisioning.class.getName());
+
+    private static final String BULK_ID_PREFIX = "bulkId:";
+    private static final String USERS = "Users";
+    private static final String GROUPS = "Groups";
+
+    @Inject
+    private SCIMUserProvisioning scimUserProvisioning;
+
+    @Inject
+    private SCIMGroupProvisioning scimGroupProvisioning;
+
+    @Inject
+    private JsonInputValidator jsonInputValidator;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${osiam.bulk.chunkSize:100}")
+    private int chunkSize;
+
+    /**
+     * @param baseUri
+     *        the URI the locations of the resources are relative to
+     * @param allowedMethods
+     *        the methods the client is allowed to use, operations with other methods fail with 403
+     */
+    public BulkResponse execute(BulkRequest request, String baseUri, Set<String> allowedMethods) {
+        Execution execution = new Execution(request.getFailOnErrors(), baseUri, allowedMethods);
+        List<BulkRequest.Operation> operations = request.getOperations();
+
+        for (int from = 0; from < operations.size() && !execution.isTerminated(); from += chunkSize) {
+            List<BulkRequest.Operation> chunk = operations.subList(from, Math.min(from + chunkSize,
+                    operations.size()));
+            if (chunk.size() == 1 || !execution.executeInOneTransaction(chunk)) {
+                execution.executeOneByOne(chunk);
+            }
+        }
+
+        return new BulkResponse(execution.results);
+    }
+
+    /**
+     * The state of the execution of one bulk request.
+     */
+    private final class Execution {
+
+        private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        private final Integer failOnErrors;
+        private final String baseUri;
+        private final Set<String> allowedMethods;
+
+        private final List<BulkResponse.Operation> results = new ArrayList<>();
+        private final Map<String, String> idsByBulkId = new HashMap<>();
+        private int errors;
+
+        private Execution(Integer failOnErrors, String baseUri, Set<String> allowedMethods) {
+            this.failOnErrors = failOnErrors;
+            this.baseUri = baseUri;
+            this.allowedMethods = allowedMethods;
+        }
+
+        private boolean isTerminated() {
+            return failOnErrors != null && errors >= failOnErrors;
+        }
+
+        /**
+         * @return false if an operation failed and the chunk was rolled back
+         */
+        private boolean executeInOneTransaction(final List<BulkRequest.Operation> chunk) {
+            final Map<String, String> previousIdsByBulkId = new HashMap<>(idsByBulkId);
+            final int previousErrors = errors;
+            try {
+                results.addAll(transactionTemplate.execute(new TransactionCallback<List<BulkResponse.Operation>>() {
+                    @Override
+                    public List<BulkResponse.Operation> doInTransaction(TransactionStatus status) {
+                        List<BulkResponse.Operation> chunkResults = new ArrayList<>();
+                        for (int i = 0; i < chunk.size() && !isTerminated(); i++) {
+                            BulkRequest.Operation operation = chunk.get(i);
+                            chunkResults.add(isAllowed(operation) ? execute(operation) : forbidden(operation));
+                        }
+                        return chunkResults;
+                    }
+                }));
+                return true;
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "An operation of a bulk request failed, its chunk is executed again", e);
+                idsByBulkId.clear();
+                idsByBulkId.putAll(previousIdsByBulkId);
+                errors = previousErrors;
+                return false;
+            }
+        }
+
+        private void executeOneByOne(List<BulkRequest.Operation> chunk) {
+            for (int i = 0; i < chunk.size() && !isTerminated(); i++) {
+                final BulkRequest.Operation operation = chunk.get(i);
+                if (!isAllowed(operation)) {
+                    results.add(forbidden(operation));
+                    continue;
+                }
+                try {
+                    results.add(transactionTemplate.execute(new TransactionCallback<BulkResponse.Operation>() {
+                        @Override
+                        public BulkResponse.Operation doInTransaction(TransactionStatus status) {
+                            return execute(operation);
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.INFO, "An operation of a bulk request failed", e);
+                    results.add(failed(operation, OsiamExceptionHandler.getStatus(e),
+                            OsiamExceptionHandler.getMessage(e)));
+                }
+            }
+        }
+
+        private boolean isAllowed(BulkRequest.Operation operation) {
+            return operation.getMethod() != null
+                    && allowedMethods.contains(operation.getMethod().toUpperCase(Locale.ENGLISH));
+        }
+
+        private BulkResponse.Operation forbidden(BulkRequest.Operation operation) {
+            return failed(operation, HttpStatus.FORBIDDEN,
+                    "The client is not allowed to use the method " + operation.getMethod());
+        }
+
+        private BulkResponse.Operation failed(BulkRequest.Operation operation, HttpStatus status, String description) {
+            errors++;
+            return new BulkResponse.Operation(operation.getMethod(), operation.getBulkId(), null,
+                    new BulkResponse.Status(status.value(), description));
+        }
+
+        private BulkResponse.Operation execute(BulkRequest.Operation operation) {
+            RequestMethod method = RequestMethod.valueOf(operation.getMethod().toUpperCase(Locale.ENGLISH));
+            String[] path = (operation.getPath() != null ? operation.getPath() : "").replaceFirst("^/", "")
+                    .split("/", 2);
+            String resourceType = path[0];
+            String id = path.length > 1 ? resolveBulkId(path[1]) : null;
+
+            if (method == RequestMethod.POST) {
+                if (id != null || operation.getBulkId() == null) {
+                    throw new IllegalArgumentException("A POST operation needs a bulkId and the path /" + resourceType);
+                }
+            } else if (id == null || id.isEmpty()) {
+                throw new IllegalArgumentException("A " + method + " operation needs the path /" + resourceType
+                        + "/<id>");
+            }
+
+            String data = null;
+            if (method != RequestMethod.DELETE) {
+                if (operation.getData() == null) {
+                    throw new IllegalArgumentException("A " + method + " operation needs data");
+                }
+                data = resolveBulkIds(operation.getData().deepCopy()).toString();
+            }
+
+            try {
+                if (USERS.equals(resourceType)) {
+                    id = executeOnUsers(method, id, data);
+                } else if (GROUPS.equals(resourceType)) {
+                    id = executeOnGroups(method, id, data);
+                } else {
+                    throw new ResourceNotFoundException("Unknown resource type /" + resourceType);
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("The JSON structure is invalid", e);
+            }
+
+            if (method == RequestMethod.POST) {
+                idsByBulkId.put(operation.getBulkId(), id);
+            }
+            HttpStatus status = method == RequestMethod.POST ? HttpStatus.CREATED : HttpStatus.OK;
+            return new BulkResponse.Operation(operation.getMethod(), operation.getBulkId(),
+                    baseUri + "/" + resourceType + "/" + id, new BulkResponse.Status(status.value(), null));
+        }
+
+        /**
+         * @return the id of the user
+         */
+        private String executeOnUsers(RequestMethod method, String id, String data) throws IOException {
+            switch (method) {
+            case POST:
+                return scimUserProvisioning.create(jsonInputValidator.validateJsonUser(data, method)).getId();
+            case PUT:
+                return scimUserProvisioning.replace(id, jsonInputValidator.validateJsonUser(data, method)).getId();
+            case PATCH:
+                return scimUserProvisioning.update(id, jsonInputValidator.validateJsonUser(data, method)).getId();
+            case DELETE:
+                scimUserProvisioning.delete(id);
+                return id;
+            default:
+                throw new UnsupportedOperationException("The method " + method + " is not supported in bulks");
+            }
+        }
+
+        /**
+         * @return the id of the group
+         */
+        private String executeOnGroups(RequestMethod method, String id, String data) throws IOException {
+            switch (method) {
+            case POST:
+                return scimGroupProvisioning.create(jsonInputValidator.validateJsonGroup(data, method)).getId();
+            case PUT:
+                return scimGroupProvisioning.replace(id, jsonInputValidator.validateJsonGroup(data, method)).getId();
+            case PATCH:
+                return scimGroupProvisioning.update(id, jsonInputValidator.validateJsonGroup(data, method)).getId();
+            case DELETE:
+                scimGroupProvisioning.delete(id);
+                return id;
+            default:
+                throw new UnsupportedOperationException("The method " + method + " is not supported in bulks");
+            }
+        }
+
+        /**
+         * Replaces the references to created resources in all values of the given node.
+         */
+        private JsonNode resolveBulkIds(JsonNode node) {
+            if (node.isObject()) {
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    field.setValue(resolveBulkIds(field.getValue()));
+                }
+            } else if (node.isArray()) {
+                ArrayNode array = (ArrayNode) node;
+                for (int i = 0; i < array.size(); i++) {
+                    array.set(i, resolveBulkIds(array.get(i)));
+                }
+            } else if (node.isTextual() && node.textValue().startsWith(BULK_ID_PREFIX)) {
+                return TextNode.valueOf(resolveBulkId(node.textValue()));
+            }
+            return node;
+        }
+
+        /**
+         * @return the id of the resource the value refers to or the value itself if it is no reference
+         */
+        private String resolveBulkId(String value) {
+            if (!value.startsWith(BULK_ID_PREFIX)) {
+                return value;
+            }
+            String bulkId = value.substring(BULK_ID_PREFIX.length());
+            String id = idsByBulkId.get(bulkId);
+            if (id == null) {
+                throw new ResourceNotFoundException("No resource was created with the bulkId \"" + bulkId
+                        + "\" by a previous operation");
+            }
+            return id;
+        }
+    }
+}
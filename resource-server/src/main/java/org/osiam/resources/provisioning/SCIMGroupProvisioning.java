@@ -23,9 +23,11 @@
 
 package org.osiam.resources.provisioning;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,13 +38,17 @@ import javax.persistence.PersistenceException;
 import org.osiam.resources.converter.GroupConverter;
 import org.osiam.resources.exceptions.ResourceExistsException;
 import org.osiam.resources.exceptions.ResourceNotFoundException;
+import org.osiam.resources.helper.ResourceIdGenerator;
 import org.osiam.resources.provisioning.update.GroupUpdater;
 import org.osiam.resources.scim.Constants;
 import org.osiam.resources.scim.Group;
 import org.osiam.resources.scim.SCIMSearchResult;
 import org.osiam.storage.dao.GroupDao;
+import org.osiam.storage.dao.ChunkHandler;
 import org.osiam.storage.dao.SearchResult;
+import org.osiam.storage.dao.TotalResults;
 import org.osiam.storage.entities.GroupEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
@@ -60,6 +66,12 @@ public class SCIMGroupProvisioning implements SCIMProvisioning<Group> {
     @Inject
     private GroupUpdater groupUpdater;
 
+    @Inject
+    private ResourceIdGenerator resourceIdGenerator;
+
+    @Value("${osiam.export.chunkSize:500}")
+    private int exportChunkSize;
+
     @Override
     public Group create(Group group) {
         if (groupDao.isDisplayNameAlreadyTaken(group.getDisplayName())) {
@@ -71,7 +83,7 @@ public class SCIMGroupProvisioning implements SCIMProvisioning<Group> {
                     group.getExternalId() + "\" is already taken.");
         }
         GroupEntity groupEntity = groupConverter.fromScim(group);
-        groupEntity.setId(UUID.randomUUID());
+        groupEntity.setId(resourceIdGenerator.generate());
 
         groupDao.create(groupEntity);
 
@@ -103,16 +115,60 @@ public class SCIMGroupProvisioning implements SCIMProvisioning<Group> {
 
     @Override
     public SCIMSearchResult<Group> search(String filter, String sortBy, String sortOrder, int count, int startIndex) {
+        return search(filter, sortBy, sortOrder, count, startIndex, TotalResults.EXACT,
+                Collections.<String> emptySet());
+    }
+
+    @Override
+    public PagedSearchResult<Group> search(String filter, String sortBy, String sortOrder, int count, int startIndex,
+            TotalResults totalResults, Set<String> attributes) {
         List<Group> groups = new ArrayList<>();
 
         // Decrease startIndex by 1 because scim pagination starts at 1 and JPA doesn't
-        SearchResult<GroupEntity> result = groupDao.search(filter, sortBy, sortOrder, count, startIndex - 1);
+        SearchResult<GroupEntity> result = groupDao.search(filter, sortBy, sortOrder, count, startIndex - 1,
+                totalResults, groupConverter.getFetchPlan(attributes));
+
+        for (GroupEntity group : result.results) {
+            groups.add(groupConverter.toScim(group, attributes));
+        }
+
+        return PagedSearchResult.withStartIndex(groups, getTotalResults(result, totalResults), count, startIndex,
+                Constants.GROUP_CORE_SCHEMA);
+    }
+
+    @Override
+    public PagedSearchResult<Group> searchWithCursor(String filter, String sortBy, String sortOrder, int count,
+            String cursor, TotalResults totalResults, Set<String> attributes) {
+        List<Group> groups = new ArrayList<>();
+
+        SearchResult<GroupEntity> result = groupDao.searchWithCursor(filter, sortBy, sortOrder, count, cursor,
+                totalResults, groupConverter.getFetchPlan(attributes));
 
         for (GroupEntity group : result.results) {
-            groups.add(groupConverter.toScim(group));
+            groups.add(groupConverter.toScim(group, attributes));
         }
 
-        return new SCIMSearchResult<>(groups, result.totalResults, count, startIndex, Constants.GROUP_CORE_SCHEMA);
+        return PagedSearchResult.withCursor(groups, getTotalResults(result, totalResults), count, result.nextCursor,
+                Constants.GROUP_CORE_SCHEMA);
+    }
+
+    @Override
+    public void export(final ChunkHandler<? super Group> handler) throws IOException {
+        groupDao.scroll(groupConverter.getFetchPlan(Collections.<String> emptySet()), exportChunkSize,
+                new ChunkHandler<GroupEntity>() {
+                    @Override
+                    public void handle(List<? extends GroupEntity> chunk) throws IOException {
+                        List<Group> groups = new ArrayList<>(chunk.size());
+                        for (GroupEntity groupEntity : chunk) {
+                            groups.add(groupConverter.toScim(groupEntity));
+                        }
+                        handler.handle(groups);
+                    }
+                });
+    }
+
+    private Long getTotalResults(SearchResult<GroupEntity> result, TotalResults totalResults) {
+        return totalResults == TotalResults.NONE ? null : result.totalResults;
     }
 
     @Override
@@ -23,8 +23,13 @@
 
 package org.osiam.resources.provisioning;
 
+import java.io.IOException;
+import java.util.Set;
+
 import org.osiam.resources.scim.Resource;
 import org.osiam.resources.scim.SCIMSearchResult;
+import org.osiam.storage.dao.ChunkHandler;
+import org.osiam.storage.dao.TotalResults;
 
 public interface SCIMProvisioning<T extends Resource> {
     /**
@@ -97,4 +102,63 @@ public interface SCIMProvisioning<T extends Resource> {
      */
     SCIMSearchResult<T> search(String filter, String sortBy, String sortOrder, int count, int startIndex);
 
-}
\ No newline at end of file
+    /**
+     * This method provide a search across users or groups.
+     *
+     *
+     * @param filter
+     *              the filter expression.
+     * @param sortBy
+     *              the field name which is used to sort by
+     * @param sortOrder
+     *              the sort order. Allowed: "ascending" and "descending". Default is "ascending"
+     * @param count
+     *              the maximum returned results per page. If 0 only the total number of results is returned.
+     * @param startIndex
+     *              the value to start from for paging. Default: 1
+     * @param totalResults
+     *              how the total number of results is determined, it is omitted for {@link TotalResults#NONE}
+     * @param attributes
+     *              the names of the requested attributes. Complex and multi-valued attributes that are not requested
+     *              are neither loaded nor returned. All attributes are returned if empty.
+     * @return the search results
+     */
+    PagedSearchResult<T> search(String filter, String sortBy, String sortOrder, int count, int startIndex,
+            TotalResults totalResults, Set<String> attributes);
+
+    /**
+     * This method provide a search across users or groups using cursor based paging. In contrast to index based
+     * paging every page is retrieved in constant time and no resource is skipped or returned twice if resources are
+     * created or deleted while paging.
+     *
+     * @param filter
+     *              the filter expression.
+     * @param sortBy
+     *              the field name which is used to sort by
+     * @param sortOrder
+     *              the sort order. Allowed: "ascending" and "descending". Default is "ascending"
+     * @param count
+     *              the maximum returned results per page. If 0 only the total number of results is returned.
+     * @param cursor
+     *              the nextCursor of the previous page or an empty string for the first page
+     * @param totalResults
+     *              how the total number of results is determined, it is omitted for {@link TotalResults#NONE}
+     * @param attributes
+     *              the names of the requested attributes. Complex and multi-valued attributes that are not requested
+     *              are neither loaded nor returned. All attributes are returned if empty.
+     * @return the search results
+     * @throws IllegalArgumentException
+     *          if the cursor is not valid or was issued for another sortBy or sortOrder
+     */
+    PagedSearchResult<T> searchWithCursor(String filter, String sortBy, String sortOrder, int count, String cursor,
+            TotalResults totalResults, Set<String> attributes);
+
+    /**
+     * This method passes all users or groups to the handler, in chunks of {@code osiam.export.chunkSize} resources.
+     * Only one chunk is held in memory at a time, so it is used to export all resources.
+     *
+     * @param handler
+     *              receives the resources of every chunk
+     */
+    void export(ChunkHandler<? super T> handler) throws IOException;
+}
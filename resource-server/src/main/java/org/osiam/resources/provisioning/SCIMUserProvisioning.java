@@ -23,9 +23,11 @@
 
 package org.osiam.resources.provisioning;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,13 +38,17 @@ import javax.persistence.PersistenceException;
 import org.osiam.resources.converter.UserConverter;
 import org.osiam.resources.exceptions.ResourceExistsException;
 import org.osiam.resources.exceptions.ResourceNotFoundException;
+import org.osiam.resources.helper.ResourceIdGenerator;
 import org.osiam.resources.provisioning.update.UserUpdater;
 import org.osiam.resources.scim.Constants;
 import org.osiam.resources.scim.SCIMSearchResult;
 import org.osiam.resources.scim.User;
+import org.osiam.storage.dao.ChunkHandler;
 import org.osiam.storage.dao.SearchResult;
+import org.osiam.storage.dao.TotalResults;
 import org.osiam.storage.dao.UserDao;
 import org.osiam.storage.entities.UserEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.encoding.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -63,6 +69,12 @@ public class SCIMUserProvisioning implements SCIMProvisioning<User> {
     @Inject
     private UserUpdater userUpdater;
 
+    @Inject
+    private ResourceIdGenerator resourceIdGenerator;
+
+    @Value("${osiam.export.chunkSize:500}")
+    private int exportChunkSize;
+
     @Override
     public User getById(String id) {
         try {
@@ -89,7 +101,7 @@ public class SCIMUserProvisioning implements SCIMProvisioning<User> {
                     user.getExternalId() + "\" is already taken.");
         }
         UserEntity userEntity = userConverter.fromScim(user);
-        userEntity.setId(UUID.randomUUID());
+        userEntity.setId(resourceIdGenerator.generate());
 
         String hashedPassword = passwordEncoder.encodePassword(user.getPassword(), userEntity.getId());
         userEntity.setPassword(hashedPassword);
@@ -137,17 +149,62 @@ public class SCIMUserProvisioning implements SCIMProvisioning<User> {
 
     @Override
     public SCIMSearchResult<User> search(String filter, String sortBy, String sortOrder, int count, int startIndex) {
+        return search(filter, sortBy, sortOrder, count, startIndex, TotalResults.EXACT,
+                Collections.<String> emptySet());
+    }
+
+    @Override
+    public PagedSearchResult<User> search(String filter, String sortBy, String sortOrder, int count, int startIndex,
+            TotalResults totalResults, Set<String> attributes) {
         List<User> users = new ArrayList<>();
 
         // Decrease startIndex by 1 because scim pagination starts at 1 and JPA doesn't
-        SearchResult<UserEntity> result = userDao.search(filter, sortBy, sortOrder, count, startIndex - 1);
+        SearchResult<UserEntity> result = userDao.search(filter, sortBy, sortOrder, count, startIndex - 1,
+                totalResults, userConverter.getFetchPlan(attributes));
 
         for (UserEntity userEntity : result.results) {
-            User scimResultUser = userConverter.toScim(userEntity);
+            User scimResultUser = userConverter.toScim(userEntity, attributes);
             users.add(removePassword(scimResultUser));
         }
 
-        return new SCIMSearchResult<>(users, result.totalResults, count, startIndex, Constants.USER_CORE_SCHEMA);
+        return PagedSearchResult.withStartIndex(users, getTotalResults(result, totalResults), count, startIndex,
+                Constants.USER_CORE_SCHEMA);
+    }
+
+    @Override
+    public PagedSearchResult<User> searchWithCursor(String filter, String sortBy, String sortOrder, int count,
+            String cursor, TotalResults totalResults, Set<String> attributes) {
+        List<User> users = new ArrayList<>();
+
+        SearchResult<UserEntity> result = userDao.searchWithCursor(filter, sortBy, sortOrder, count, cursor,
+                totalResults, userConverter.getFetchPlan(attributes));
+
+        for (UserEntity userEntity : result.results) {
+            User scimResultUser = userConverter.toScim(userEntity, attributes);
+            users.add(removePassword(scimResultUser));
+        }
+
+        return PagedSearchResult.withCursor(users, getTotalResults(result, totalResults), count, result.nextCursor,
+                Constants.USER_CORE_SCHEMA);
+    }
+
+    @Override
+    public void export(final ChunkHandler<? super User> handler) throws IOException {
+        userDao.scroll(userConverter.getFetchPlan(Collections.<String> emptySet()), exportChunkSize,
+                new ChunkHandler<UserEntity>() {
+                    @Override
+                    public void handle(List<? extends UserEntity> chunk) throws IOException {
+                        List<User> users = new ArrayList<>(chunk.size());
+                        for (UserEntity userEntity : chunk) {
+                            users.add(removePassword(userConverter.toScim(userEntity)));
+                        }
+                        handler.handle(users);
+                    }
+                });
+    }
+
+    private Long getTotalResults(SearchResult<UserEntity> result, TotalResults totalResults) {
+        return totalResults == TotalResults.NONE ? null : result.totalResults;
     }
 
     @Override
@@ -37,7 +37,6 @@ import org.osiam.storage.entities.ExtensionEntity;
 import org.osiam.storage.entities.ExtensionFieldEntity;
 import org.osiam.storage.entities.ExtensionFieldValueEntity;
 import org.osiam.storage.entities.UserEntity;
-import org.osiam.storage.helper.NumberPadder;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Optional;
@@ -53,9 +52,6 @@ class ExtensionUpdater {
     @Inject
     private ExtensionDao extensionDao;
 
-    @Inject
-    private NumberPadder numberPadder;
-
     /**
      * updates (remove, updates) the {@link ExtensionEntity}'s of the given {@link UserEntity} based on the given List
      * of Email's
@@ -111,7 +107,7 @@ class ExtensionUpdater {
         for (String fieldName : updatedScimExtension.getAllFields().keySet()) {
             ExtensionFieldEntity extensionEntitiyField = null;
             try {
-                extensionEntitiyField = extensionEntity.getFieldForName(fieldName, true);
+                extensionEntitiyField = extensionDao.getExtensionField(extensionEntity, fieldName, true);
             } catch (NoSuchElementException e) {
                 throw new NoSuchElementException("Could not update the extension \"" + urn + "\".", e);
             }
@@ -121,26 +117,16 @@ class ExtensionUpdater {
             if (extensionFieldValue == null) {
                 extensionFieldValue = new ExtensionFieldValueEntity();
             }
-            String newValue = getNewExtensionValue(extensionEntitiyField, updatedScimExtension, fieldName);
+            String newValue = updatedScimExtension.getField(fieldName, ExtensionFieldType.STRING);
             if (!Strings.isNullOrEmpty(newValue)) {
-                extensionFieldValue.setValue(newValue);
                 extensionFieldValue.setExtensionField(extensionEntitiyField);
+                extensionFieldValue.setTypedValue(updatedScimExtension.getField(fieldName,
+                        extensionEntitiyField.getType()));
                 userEntity.addOrUpdateExtensionValue(extensionFieldValue);
             }
         }
     }
 
-    private String getNewExtensionValue(ExtensionFieldEntity extensionField, Extension updatedExtension,
-            String fieldName) {
-        String newValue = updatedExtension.getField(fieldName, ExtensionFieldType.STRING);
-        if (newValue != null &&
-                (extensionField.getType() == ExtensionFieldType.INTEGER
-                || extensionField.getType() == ExtensionFieldType.DECIMAL)) {
-            newValue = numberPadder.pad(newValue);
-        }
-        return newValue;
-    }
-
     private ExtensionFieldValueEntity findExtensionFieldValue(ExtensionFieldEntity extensionField, UserEntity userEntity) {
         for (ExtensionFieldValueEntity extensionFieldValue : userEntity.getExtensionFieldValues()) {
             if (extensionFieldValue.getExtensionField().equals(extensionField)) {
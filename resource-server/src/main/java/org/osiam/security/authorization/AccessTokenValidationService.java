@@ -24,59 +24,224 @@
 package org.osiam.security.authorization;
 
 import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
 import org.apache.http.HttpStatus;
 import org.osiam.helper.HttpClientHelper;
+import org.osiam.helper.HttpClientJsonResult;
 import org.osiam.helper.HttpClientRequestResult;
+import org.osiam.helper.InProcessEndpoint;
 import org.osiam.helper.ObjectMapperWithExtensionConfig;
+import org.osiam.security.AuthenticationSpring;
+import org.osiam.security.AuthorizationRequestSpring;
 import org.osiam.security.OAuth2AuthenticationSpring;
+import org.osiam.security.SignedAccessToken;
+import org.osiam.security.SignedAccessTokenCodec;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
 import org.springframework.stereotype.Service;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Validates access tokens. Signed tokens are verified locally, if signing is enabled, and checked against the
+ * {@link RevokedAccessTokens}. Other tokens are validated at the auth server. Validated tokens are cached until they
+ * expire, but at most for {@code osiam.token.cache.ttlSeconds}, so a revoked token is only accepted for a short time.
+ * Invalid tokens are cached for {@code osiam.token.cache.invalidTtlSeconds}. Concurrent requests with the same
+ * uncached token share one validation. The cache statistics are exported via JMX.
+ * <p>
+ * If {@code osiam.colocated} is enabled and the auth server is deployed in the same JVM, the tokens are validated in
+ * process instead of via HTTP, see {@link InProcessEndpoint}.
+ */
 @Service
+@ManagedResource(objectName = "org.osiam:type=AccessTokenCache,name=resourceServer",
+        description = "Cache of the access tokens validated by the auth server")
 public class AccessTokenValidationService implements ResourceServerTokenServices {
 
+    /**
+     * The maximum number of cached tokens, valid and invalid ones.
+     */
+    static final int MAX_CACHED_TOKENS = 10000;
+
     @Inject
     private ObjectMapperWithExtensionConfig mapper;
 
     @Inject
     private HttpClientHelper httpClient;
 
+    @Inject
+    private SignedAccessTokenCodec signedAccessTokenCodec;
+
+    @Inject
+    private RevokedAccessTokens revokedAccessTokens;
+
     @Value("${osiam.server.port}")
     private int serverPort;
     @Value("${osiam.server.host}")
     private String serverHost;
     @Value("${osiam.server.http.scheme}")
     private String httpScheme;
+    @Value("${osiam.token.cache.ttlSeconds:60}")
+    private long timeToLiveSeconds;
+    @Value("${osiam.token.cache.invalidTtlSeconds:5}")
+    private long invalidTimeToLiveSeconds;
+    @Value("${osiam.colocated:false}")
+    private boolean colocated;
+
+    private final InProcessEndpoint authServer = new InProcessEndpoint(InProcessEndpoint.AUTH_SERVER);
+
+    private final Cache<String, ValidatedToken> validatedTokens = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .build();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong signedTokens = new AtomicLong();
 
     @Override
     public OAuth2Authentication loadAuthentication(String accessToken) {
-        final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-auth-server";
+        if (signedAccessTokenCodec.isEnabled() && SignedAccessTokenCodec.isSigned(accessToken)) {
+            return verifySignedToken(accessToken);
+        }
 
-        HttpClientRequestResult result = httpClient.executeHttpGet(serverUri + "/token/validate/" + accessToken, null, null);
+        ValidatedToken validatedToken = getValidatedToken(accessToken);
 
-        if (result.getStatusCode() == HttpStatus.SC_UNAUTHORIZED) {
+        if (validatedToken.oAuth2AuthenticationSpring == null) {
             throw new InvalidTokenException("invalid_token");
         }
 
-        OAuth2AuthenticationSpring oAuth2AuthenticationSpring;
+        // a new authentication for every request, because the details of the request are set on it
+        OAuth2AuthenticationSpring oAuth2AuthenticationSpring = validatedToken.oAuth2AuthenticationSpring;
+        return new OAuth2Authentication(oAuth2AuthenticationSpring.getAuthorizationRequestSpring(),
+                oAuth2AuthenticationSpring.getAuthenticationSpring());
+    }
+
+    private OAuth2Authentication verifySignedToken(String accessToken) {
+        SignedAccessToken signedAccessToken = signedAccessTokenCodec.verify(accessToken);
+        if (revokedAccessTokens.isRevoked(signedAccessToken.getId())) {
+            throw new InvalidTokenException("invalid_token");
+        }
+        signedTokens.incrementAndGet();
+
+        AuthorizationRequestSpring authorizationRequest = new AuthorizationRequestSpring();
+        authorizationRequest.setClientId(signedAccessToken.getClientId());
+        authorizationRequest.setScope(signedAccessToken.getScopes());
+        authorizationRequest.setApproved(true);
+
+        //In case of OAuth2 client credentials grant there is no user authentication
+        AuthenticationSpring userAuthentication = null;
+        if (signedAccessToken.getUserId() != null) {
+            // the same principal as the user read from a validated token
+            Map<String, Object> principal = new LinkedHashMap<>();
+            principal.put("id", signedAccessToken.getUserId());
+            principal.put("username", signedAccessToken.getUserName());
+
+            userAuthentication = new AuthenticationSpring();
+            userAuthentication.setPrincipal(principal);
+            userAuthentication.setName(signedAccessToken.getUserName());
+            userAuthentication.setAuthenticated(true);
+        }
+
+        return new OAuth2Authentication(authorizationRequest, userAuthentication);
+    }
+
+    private ValidatedToken getValidatedToken(final String accessToken) {
+        ValidatedToken cachedToken = validatedTokens.getIfPresent(accessToken);
+        if (cachedToken != null) {
+            if (!cachedToken.isExpired()) {
+                hits.incrementAndGet();
+                return cachedToken;
+            }
+            validatedTokens.asMap().remove(accessToken, cachedToken);
+        }
+
         try {
-            oAuth2AuthenticationSpring = mapper.readValue(result.getBody(), OAuth2AuthenticationSpring.class);
-        } catch (IOException e) {
-            throw new RuntimeException(e); //NOSONAR : Need only wrapping to a runtime exception
+            return validatedTokens.get(accessToken, new Callable<ValidatedToken>() {
+                @Override
+                public ValidatedToken call() {
+                    misses.incrementAndGet();
+                    return validate(accessToken);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private ValidatedToken validate(String accessToken) {
+        OAuth2AuthenticationSpring oAuth2AuthenticationSpring = colocated && authServer.isRegistered()
+                ? validateInProcess(accessToken) : validateByHttp(accessToken);
+
+        long now = System.currentTimeMillis();
+        if (oAuth2AuthenticationSpring == null) {
+            return new ValidatedToken(null, now + TimeUnit.SECONDS.toMillis(invalidTimeToLiveSeconds));
         }
 
-        return new OAuth2Authentication(oAuth2AuthenticationSpring.getAuthorizationRequestSpring(), oAuth2AuthenticationSpring.getAuthenticationSpring());
+        long expiresAt = now + TimeUnit.SECONDS.toMillis(timeToLiveSeconds);
+        Date expiration = oAuth2AuthenticationSpring.getExpiration();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        return new ValidatedToken(oAuth2AuthenticationSpring, expiresAt);
+    }
+
+    /**
+     * @return the authentication of the token or null if it is invalid
+     */
+    private OAuth2AuthenticationSpring validateByHttp(String accessToken) {
+        final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-auth-server";
+
+        HttpClientJsonResult<OAuth2AuthenticationSpring> result = httpClient.executeHttpGet(
+                serverUri + "/token/validate/" + accessToken, null, null, mapper, OAuth2AuthenticationSpring.class);
+
+        if (result.getStatusCode() == HttpStatus.SC_UNAUTHORIZED) {
+            return null;
+        }
+
+        OAuth2AuthenticationSpring oAuth2AuthenticationSpring = result.getValue();
+        if (oAuth2AuthenticationSpring == null) {
+            String message = String.format("Unexpected response of the auth server: %d %s", result.getStatusCode(),
+                    result.getBody());
+            throw new RuntimeException(message); //NOSONAR : Need only a runtime exception
+        }
+        return oAuth2AuthenticationSpring;
+    }
+
+    /**
+     * @return the authentication of the token or null if it is invalid
+     */
+    private OAuth2AuthenticationSpring validateInProcess(String accessToken) {
+        Map<String, Object> authentication = authServer.invoke("validateToken", accessToken);
+        return authentication != null ? mapper.convertValue(authentication, OAuth2AuthenticationSpring.class) : null;
     }
 
     @Override
     public OAuth2AccessToken readAccessToken(String accessToken) {
+        if (colocated && authServer.isRegistered()) {
+            Map<String, Object> token = authServer.invoke("getToken", accessToken);
+            if (token == null) {
+                throw new InvalidTokenException("invalid_token");
+            }
+            return mapper.convertValue(token, OAuth2AccessToken.class);
+        }
+
         final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-auth-server";
 
         HttpClientRequestResult result = httpClient.executeHttpGet(serverUri + "/token/" + accessToken, null, null);
@@ -93,4 +258,51 @@ public class AccessTokenValidationService implements ResourceServerTokenServices
         }
         return oAuth2AccessToken;
     }
-}
\ No newline at end of file
+
+    @ManagedAttribute(description = "Number of cached tokens, including expired ones not yet removed")
+    public long getCachedTokens() {
+        return validatedTokens.size();
+    }
+
+    @ManagedAttribute(description = "Number of tokens found in the cache since the last reset")
+    public long getHits() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "Number of tokens validated by the auth server since the last reset")
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @ManagedAttribute(description = "Number of signed tokens verified locally since the last reset")
+    public long getSignedTokens() {
+        return signedTokens.get();
+    }
+
+    @ManagedOperation(description = "Resets the hit, miss and signed token statistics")
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+        signedTokens.set(0);
+    }
+
+    @ManagedOperation(description = "Removes all tokens from the cache, so they are validated again")
+    public void clearCache() {
+        validatedTokens.invalidateAll();
+    }
+
+    private static final class ValidatedToken {
+
+        private final OAuth2AuthenticationSpring oAuth2AuthenticationSpring;
+        private final long expiresAt;
+
+        private ValidatedToken(OAuth2AuthenticationSpring oAuth2AuthenticationSpring, long expiresAt) {
+            this.oAuth2AuthenticationSpring = oAuth2AuthenticationSpring;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
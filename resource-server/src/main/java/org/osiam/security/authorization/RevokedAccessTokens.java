@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security.authorization;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.http.HttpStatus;
+import org.osiam.helper.HttpClientHelper;
+import org.osiam.helper.HttpClientRequestResult;
+import org.osiam.helper.ObjectMapperWithExtensionConfig;
+import org.osiam.security.SignedAccessTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Keeps a local copy of the ids of revoked signed access tokens, which is fetched from the auth server every
+ * {@code osiam.token.revocation.pollSeconds}. A revoked token is accepted until the next fetch. If the auth server
+ * can't be reached, the last fetched list is kept. Nothing is fetched if signed tokens are disabled.
+ */
+@Service
+public class RevokedAccessTokens {
+
+    private static final Logger LOGGER = Logger.getLogger(RevokedAccessTokens.class.getName());
+
+    @Inject
+    private SignedAccessTokenCodec signedAccessTokenCodec;
+
+    @Inject
+    private ObjectMapperWithExtensionConfig mapper;
+
+    @Inject
+    private HttpClientHelper httpClient;
+
+    @Value("${osiam.server.port}")
+    private int serverPort;
+    @Value("${osiam.server.host}")
+    private String serverHost;
+    @Value("${osiam.server.http.scheme}")
+    private String httpScheme;
+    @Value("${osiam.token.revocation.pollSeconds:30}")
+    private long pollSeconds;
+
+    private volatile Set<String> revokedTokenIds = Collections.emptySet();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void startPolling() {
+        if (!signedAccessTokenCodec.isEnabled()) {
+            return;
+        }
+
+        update();
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "revoked-access-tokens");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                update();
+            }
+        }, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stopPolling() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revokedTokenIds.contains(tokenId);
+    }
+
+    void update() {
+        final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-auth-server";
+
+        try {
+            HttpClientRequestResult result = httpClient.executeHttpGet(serverUri + "/token/revoked", null, null);
+            if (result.getStatusCode() != HttpStatus.SC_OK) {
+                LOGGER.warning("Could not fetch the revoked access tokens, status " + result.getStatusCode());
+                return;
+            }
+            List<String> tokenIds = mapper.readValue(result.getBody(), new TypeReference<List<String>>() {
+            });
+            revokedTokenIds = ImmutableSet.copyOf(tokenIds);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not fetch the revoked access tokens", e);
+        }
+    }
+}
@@ -27,20 +27,16 @@ import java.io.IOException;
 import java.net.URLDecoder;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.HashSet;
+import java.util.Date;
 import java.util.Locale;
-import java.util.Set;
 
 import javax.inject.Inject;
 
 import org.osiam.resources.ClientSpring;
-import org.osiam.resources.RoleSpring;
 import org.osiam.resources.UserSpring;
 import org.osiam.storage.dao.ClientDao;
 import org.osiam.storage.dao.UserDao;
 import org.osiam.storage.entities.ClientEntity;
-import org.osiam.storage.entities.RoleEntity;
-import org.osiam.storage.entities.UserEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
@@ -71,26 +67,7 @@ public class AuthenticationController {
             produces = { MediaType.APPLICATION_JSON_VALUE })
     @ResponseBody
     public UserSpring getUser(@RequestBody final String userName) {
-        UserEntity dbUser = userDao.getByUsername(userName);
-        return getUserSpring(dbUser);
-    }
-
-    private UserSpring getUserSpring(UserEntity dbUser) {
-
-        Set<RoleSpring> springRoles = new HashSet<>();
-        for (RoleEntity role : dbUser.getRoles()) {
-            RoleSpring springRole = new RoleSpring();
-            springRole.setValue(role.getValue());
-            springRoles.add(springRole);
-        }
-
-        UserSpring springUser = new UserSpring();
-        springUser.setUsername(dbUser.getUserName());
-        springUser.setId(dbUser.getId().toString());
-        springUser.setPassword(dbUser.getPassword());
-        springUser.setRoles(springRoles);
-        springUser.setActive(dbUser.getActive());
-        return springUser;
+        return userDao.getLoginByUsername(userName);
     }
 
     @RequestMapping(value = "/client/{id}", method = RequestMethod.GET)
@@ -126,8 +103,12 @@ public class AuthenticationController {
         String theDate = body.split("=")[1];
         String expiry = URLDecoder.decode(theDate, "UTF-8");
 
+        updateClientExpiry(id, sdf.parse(expiry));
+    }
+
+    public void updateClientExpiry(final String id, final Date expiry) {
         ClientEntity dbClient = clientDao.getClient(id);
-        dbClient.setExpiry(sdf.parse(expiry));
+        dbClient.setExpiry(expiry);
         clientDao.update(dbClient, id);
     }
 }
\ No newline at end of file
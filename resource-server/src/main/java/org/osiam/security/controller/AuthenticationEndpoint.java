@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.controller;
+
+import java.util.Map;
+
+/**
+ * The operations of the {@link AuthenticationController} for an auth server deployed in the same JVM, see
+ * {@link org.osiam.helper.InProcessEndpoint}. The interface must not be named like a MBean, otherwise the
+ * annotation-driven exporter would register every implementation, even if the co-located mode is disabled.
+ */
+public interface AuthenticationEndpoint {
+
+    /**
+     * @return the login of the user or null if there is no user with this name
+     */
+    Map<String, Object> getUser(String userName);
+
+    /**
+     * @return the client or null if there is no client with this id
+     */
+    Map<String, Object> getClient(String clientId);
+
+    /**
+     * @param expiry
+     *        the new expiry in milliseconds since the epoch
+     */
+    void updateClientExpiry(String clientId, Long expiry);
+}
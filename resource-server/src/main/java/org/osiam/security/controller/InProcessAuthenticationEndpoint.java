@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.controller;
+
+import java.util.Date;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.osiam.helper.InProcessEndpoint;
+import org.osiam.helper.ObjectMapperWithExtensionConfig;
+import org.osiam.resources.exceptions.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves the users and clients of the {@link AuthenticationController} to an auth server deployed in the same JVM,
+ * see {@link InProcessEndpoint}. It is only registered if {@code osiam.colocated} is enabled.
+ */
+@Component
+public class InProcessAuthenticationEndpoint implements AuthenticationEndpoint {
+
+    @Inject
+    private AuthenticationController authenticationController;
+
+    @Inject
+    private ObjectMapperWithExtensionConfig mapper;
+
+    @Value("${osiam.colocated:false}")
+    private boolean colocated;
+
+    private final InProcessEndpoint endpoint = new InProcessEndpoint(InProcessEndpoint.RESOURCE_SERVER);
+
+    @PostConstruct
+    public void register() {
+        if (colocated) {
+            endpoint.register(this, AuthenticationEndpoint.class);
+        }
+    }
+
+    @PreDestroy
+    public void unregister() {
+        if (colocated) {
+            endpoint.unregister();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getUser(String userName) {
+        try {
+            return toMap(authenticationController.getUser(userName));
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, Object> getClient(String clientId) {
+        try {
+            return toMap(authenticationController.getClient(clientId));
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void updateClientExpiry(String clientId, Long expiry) {
+        authenticationController.updateClientExpiry(clientId, new Date(expiry));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toMap(Object value) {
+        return mapper.convertValue(value, Map.class);
+    }
+}
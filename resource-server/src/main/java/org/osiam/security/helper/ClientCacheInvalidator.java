@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.helper;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+
+import org.apache.http.HttpStatus;
+import org.osiam.helper.HttpClientHelper;
+import org.osiam.helper.HttpClientRequestResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tells the auth server to remove a changed client from its cache. Inside a transaction the auth server is called
+ * after the commit, otherwise it could load the client again before the change is visible. If the auth server can't
+ * be reached, it uses the old client until its cache expires.
+ */
+@Service
+public class ClientCacheInvalidator {
+
+    private static final Logger LOGGER = Logger.getLogger(ClientCacheInvalidator.class.getName());
+
+    @Inject
+    private HttpClientHelper httpClient;
+
+    @Value("${osiam.server.port}")
+    private int serverPort;
+    @Value("${osiam.server.host}")
+    private String serverHost;
+    @Value("${osiam.server.http.scheme}")
+    private String httpScheme;
+
+    public void invalidate(final String clientId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeFromCache(clientId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                removeFromCache(clientId);
+            }
+        });
+    }
+
+    private void removeFromCache(String clientId) {
+        final String serverUri = httpScheme + "://" + serverHost + ":" + serverPort + "/osiam-auth-server";
+
+        try {
+            HttpClientRequestResult result = httpClient.executeHttpDelete(serverUri + "/client/" + clientId
+                    + "/cache", null, null);
+            if (result.getStatusCode() != HttpStatus.SC_OK) {
+                LOGGER.warning("Could not remove the client " + clientId + " from the cache of the auth server,"
+                        + " status " + result.getStatusCode());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not remove the client " + clientId
+                    + " from the cache of the auth server", e);
+        }
+    }
+}
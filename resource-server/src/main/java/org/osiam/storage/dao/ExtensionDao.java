@@ -23,29 +23,45 @@
 
 package org.osiam.storage.dao;
 
-import java.util.Locale;
+import java.util.LinkedHashSet;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
-import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
-import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Root;
 
+import org.osiam.resources.exceptions.NoSuchElementException;
 import org.osiam.resources.exceptions.OsiamException;
 import org.osiam.storage.entities.ExtensionEntity;
 import org.osiam.storage.entities.ExtensionEntity_;
+import org.osiam.storage.entities.ExtensionFieldEntity;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Provides the extensions and their fields from an {@link ExtensionRegistry} that is loaded at startup. Extensions are
+ * only added or changed directly in the database, so the registry is reloaded when an unknown URN or field name is
+ * requested, but at most once per {@link #MIN_RELOAD_INTERVAL_MILLIS}.
+ */
 @Repository
 public class ExtensionDao {
+
+    static final long MIN_RELOAD_INTERVAL_MILLIS = 10000;
+
     @PersistenceContext
     private EntityManager em;
 
+    private volatile ExtensionRegistry registry;
+
+    @PostConstruct
+    public void loadExtensions() {
+        reload();
+    }
+
     /**
-     * Retrieves the extension with the given URN from the database. The URN is case-sensitive.
+     * Retrieves the extension with the given URN. The URN is case-sensitive.
      * 
      * @param urn
      *        The URN of the extension to look up
@@ -56,7 +72,7 @@ public class ExtensionDao {
     }
 
     /**
-     * Retrieves the extension with the given URN from the database
+     * Retrieves the extension with the given URN. The returned entity is shared and must not be changed.
      * 
      * @param urn
      *        the URN of the extension to look up
@@ -65,30 +81,69 @@ public class ExtensionDao {
      * @return the extension entity
      */
     public ExtensionEntity getExtensionByUrn(String urn, boolean caseInsensitive) {
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<ExtensionEntity> cq = cb.createQuery(ExtensionEntity.class);
-        Root<ExtensionEntity> extension = cq.from(ExtensionEntity.class);
-
-        Predicate predicate;
-        if (caseInsensitive) {
-            predicate = cb.equal(cb.lower(extension.get(ExtensionEntity_.urn)), urn.toLowerCase(Locale.ENGLISH));
-        } else {
-            predicate = cb.equal(extension.get(ExtensionEntity_.urn), urn);
+        ExtensionEntity extension = getRegistry().getExtension(urn, caseInsensitive);
+        if (extension == null && reloadIfOutdated()) {
+            extension = getRegistry().getExtension(urn, caseInsensitive);
         }
 
-        cq.select(extension).where(predicate);
+        if (extension == null) {
+            throw new OsiamException("Could not find the Extension '" + urn + "'.");
+        }
+        return extension;
+    }
 
-        TypedQuery<ExtensionEntity> query = em.createQuery(cq);
+    /**
+     * Retrieves the field with the given name of an extension, like {@link ExtensionEntity#getFieldForName(String,
+     * boolean)}, but without iterating over the fields.
+     * 
+     * @param extension
+     *        an extension returned by {@link #getExtensionByUrn(String, boolean)}
+     * @param fieldName
+     *        the name of the field to look up
+     * @param caseInsensitive
+     *        should the case of the field name be ignored
+     * @return the extension field entity
+     */
+    public ExtensionFieldEntity getExtensionField(ExtensionEntity extension, String fieldName,
+            boolean caseInsensitive) {
+        ExtensionFieldEntity field = getRegistry().getField(extension, fieldName, caseInsensitive);
+        if (field == null && reloadIfOutdated()) {
+            field = getRegistry().getField(extension, fieldName, caseInsensitive);
+        }
 
-        ExtensionEntity singleExtension;
+        if (field == null) {
+            throw new NoSuchElementException("Field " + fieldName + " not available in extension with URN "
+                    + extension.getUrn());
+        }
+        return field;
+    }
 
-        try {
-            singleExtension = query.getSingleResult();
-        } catch (NoResultException e) {
-            throw new OsiamException("Could not find the Extension '" + urn + "'.", e);
+    private ExtensionRegistry getRegistry() {
+        ExtensionRegistry currentRegistry = registry;
+        if (currentRegistry == null) {
+            currentRegistry = reload();
         }
+        return currentRegistry;
+    }
 
-        return singleExtension;
+    private synchronized boolean reloadIfOutdated() {
+        if (registry != null && System.currentTimeMillis() - registry.getLoadedAt() < MIN_RELOAD_INTERVAL_MILLIS) {
+            return false;
+        }
+        reload();
+        return true;
     }
 
+    private synchronized ExtensionRegistry reload() {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<ExtensionEntity> cq = cb.createQuery(ExtensionEntity.class);
+        Root<ExtensionEntity> extension = cq.from(ExtensionEntity.class);
+        extension.fetch(ExtensionEntity_.fields, JoinType.LEFT);
+        cq.select(extension);
+
+        // the fetch join returns an extension once per field
+        registry = new ExtensionRegistry(new LinkedHashSet<>(em.createQuery(cq).getResultList()),
+                System.currentTimeMillis());
+        return registry;
+    }
 }
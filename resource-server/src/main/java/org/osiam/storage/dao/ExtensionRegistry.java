@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.osiam.storage.entities.ExtensionEntity;
+import org.osiam.storage.entities.ExtensionFieldEntity;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An immutable snapshot of all extensions and their fields, indexed by the exact and the lower-cased URN and field
+ * name. The extensions must have their fields loaded and are only read, so a snapshot can be shared by all threads.
+ */
+final class ExtensionRegistry {
+
+    private final long loadedAt;
+
+    private final Map<String, ExtensionEntity> extensionsByUrn;
+    private final Map<String, ExtensionEntity> extensionsByLowerCaseUrn;
+    private final Map<String, Map<String, ExtensionFieldEntity>> fieldsByUrnAndName;
+    private final Map<String, Map<String, ExtensionFieldEntity>> fieldsByUrnAndLowerCaseName;
+
+    /**
+     * @param loadedAt
+     *        the time the extensions were loaded in milliseconds
+     */
+    ExtensionRegistry(Collection<ExtensionEntity> extensions, long loadedAt) {
+        this.loadedAt = loadedAt;
+
+        Map<String, ExtensionEntity> byUrn = new HashMap<>();
+        Map<String, ExtensionEntity> byLowerCaseUrn = new HashMap<>();
+        Map<String, Map<String, ExtensionFieldEntity>> byUrnAndName = new HashMap<>();
+        Map<String, Map<String, ExtensionFieldEntity>> byUrnAndLowerCaseName = new HashMap<>();
+
+        for (ExtensionEntity extension : extensions) {
+            byUrn.put(extension.getUrn(), extension);
+            byLowerCaseUrn.put(toLowerCase(extension.getUrn()), extension);
+
+            Map<String, ExtensionFieldEntity> byName = new HashMap<>();
+            Map<String, ExtensionFieldEntity> byLowerCaseName = new HashMap<>();
+            for (ExtensionFieldEntity field : extension.getFields()) {
+                byName.put(field.getName(), field);
+                byLowerCaseName.put(toLowerCase(field.getName()), field);
+            }
+            byUrnAndName.put(extension.getUrn(), ImmutableMap.copyOf(byName));
+            byUrnAndLowerCaseName.put(extension.getUrn(), ImmutableMap.copyOf(byLowerCaseName));
+        }
+
+        extensionsByUrn = ImmutableMap.copyOf(byUrn);
+        extensionsByLowerCaseUrn = ImmutableMap.copyOf(byLowerCaseUrn);
+        fieldsByUrnAndName = ImmutableMap.copyOf(byUrnAndName);
+        fieldsByUrnAndLowerCaseName = ImmutableMap.copyOf(byUrnAndLowerCaseName);
+    }
+
+    long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return the extension or null if there is no extension with the given URN
+     */
+    ExtensionEntity getExtension(String urn, boolean caseInsensitive) {
+        if (caseInsensitive) {
+            return extensionsByLowerCaseUrn.get(toLowerCase(urn));
+        }
+        return extensionsByUrn.get(urn);
+    }
+
+    /**
+     * @return the field or null if the extension is unknown or has no field with the given name
+     */
+    ExtensionFieldEntity getField(ExtensionEntity extension, String fieldName, boolean caseInsensitive) {
+        Map<String, ExtensionFieldEntity> fields;
+        if (caseInsensitive) {
+            fields = fieldsByUrnAndLowerCaseName.get(extension.getUrn());
+            fieldName = toLowerCase(fieldName);
+        } else {
+            fields = fieldsByUrnAndName.get(extension.getUrn());
+        }
+        return fields != null ? fields.get(fieldName) : null;
+    }
+
+    private static String toLowerCase(String value) {
+        return value.toLowerCase(Locale.ENGLISH);
+    }
+}
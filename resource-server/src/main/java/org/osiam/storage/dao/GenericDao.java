@@ -23,6 +23,9 @@
 
 package org.osiam.storage.dao;
 
+import java.io.IOException;
+import java.util.List;
+
 import org.osiam.storage.entities.ResourceEntity;
 
 public interface GenericDao<T extends ResourceEntity> {
@@ -36,4 +39,23 @@ public interface GenericDao<T extends ResourceEntity> {
     void delete(String id);
 
     SearchResult<T> search(String filter, String sortBy, String sortOrder, int count, int startIndex);
-}
\ No newline at end of file
+
+    /**
+     * @param fetchPlan
+     *        the attributes loaded together with the resources, see {@link ResourceDao}
+     */
+    SearchResult<T> search(String filter, String sortBy, String sortOrder, int count, int startIndex,
+            TotalResults totalResults, List<String> fetchPlan);
+
+    /**
+     * @param fetchPlan
+     *        the attributes loaded together with the resources, see {@link ResourceDao}
+     */
+    SearchResult<T> searchWithCursor(String filter, String sortBy, String sortOrder, int count, String cursor,
+            TotalResults totalResults, List<String> fetchPlan);
+
+    /**
+     * Passes all resources to the handler in chunks, see {@link ResourceDao#scroll(Class, List, int, ChunkHandler)}.
+     */
+    void scroll(List<String> fetchPlan, int chunkSize, ChunkHandler<? super T> handler) throws IOException;
+}
@@ -23,6 +23,9 @@
 
 package org.osiam.storage.dao;
 
+import java.io.IOException;
+import java.util.List;
+
 import javax.inject.Inject;
 
 import org.osiam.resources.exceptions.ResourceNotFoundException;
@@ -122,4 +125,23 @@ public class GroupDao implements GenericDao<GroupEntity> {
         return resourceDao.search(GroupEntity.class, filter, count, startIndex, sortBy, sortOrder, filterParser);
     }
 
-}
\ No newline at end of file
+    @Override
+    public SearchResult<GroupEntity> search(String filter, String sortBy, String sortOrder, int count, int startIndex,
+            TotalResults totalResults, List<String> fetchPlan) {
+        return resourceDao.search(GroupEntity.class, filter, count, startIndex, sortBy, sortOrder, totalResults,
+                fetchPlan, filterParser);
+    }
+
+    @Override
+    public SearchResult<GroupEntity> searchWithCursor(String filter, String sortBy, String sortOrder, int count,
+            String cursor, TotalResults totalResults, List<String> fetchPlan) {
+        return resourceDao.searchWithCursor(GroupEntity.class, filter, count, cursor, sortBy, sortOrder, totalResults,
+                fetchPlan, filterParser);
+    }
+
+    @Override
+    public void scroll(List<String> fetchPlan, int chunkSize, ChunkHandler<? super GroupEntity> handler)
+            throws IOException {
+        resourceDao.scroll(GroupEntity.class, fetchPlan, chunkSize, handler);
+    }
+}
@@ -23,63 +23,525 @@
 
 package org.osiam.storage.dao;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.Table;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Subquery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
 import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.osiam.resources.exceptions.OsiamException;
 import org.osiam.resources.exceptions.ResourceNotFoundException;
 import org.osiam.storage.entities.GroupEntity;
 import org.osiam.storage.entities.ResourceEntity;
 import org.osiam.storage.entities.ResourceEntity_;
+import org.osiam.storage.entities.UserEntity;
+import org.osiam.storage.helper.OsiamPostgreSQLDialect;
 import org.osiam.storage.query.FilterParser;
 import org.springframework.stereotype.Repository;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
 @Repository
 public class ResourceDao {
 
+    /**
+     * Below this number of resources an estimated total number of results is replaced by an exact count.
+     */
+    private static final long MIN_ESTIMATED_TOTAL_RESULTS = 10000;
+
+    /**
+     * The maximum number of internal ids passed to a single IN clause, as the PostgreSQL JDBC driver can't bind more
+     * than 32767 parameters per statement.
+     */
+    private static final int MAX_INTERNAL_IDS_PER_QUERY = 1000;
+
+    private static final Map<Class<?>, List<String>> DEFAULT_FETCH_PLANS = ImmutableMap.<Class<?>, List<String>> of(
+            UserEntity.class, UserEntity.DEFAULT_FETCH_PLAN,
+            GroupEntity.class, GroupEntity.DEFAULT_FETCH_PLAN);
+
     @PersistenceContext
     private EntityManager em;
 
     public <T extends ResourceEntity> SearchResult<T> search(Class<T> clazz, String filter, int count, int startIndex,
             String sortBy, String sortOrder, FilterParser<T> filterParser) {
+        return search(clazz, filter, count, startIndex, sortBy, sortOrder, TotalResults.EXACT,
+                getDefaultFetchPlan(clazz), filterParser);
+    }
+
+    /**
+     * Searches resources using index based pagination.
+     * 
+     * @param count
+     *        the maximum number of resources to return. If 0 only the total number of results is determined.
+     * @param startIndex
+     *        the 0 based index of the first resource to return
+     * @param totalResults
+     *        how the total number of results is determined. {@link SearchResult#totalResults} is 0 for
+     *        {@link TotalResults#NONE}.
+     * @param fetchPlan
+     *        the attributes loaded together with the resources, nested attributes separated by dots. Other
+     *        associations are loaded lazily.
+     */
+    public <T extends ResourceEntity> SearchResult<T> search(Class<T> clazz, String filter, int count, int startIndex,
+            String sortBy, String sortOrder, TotalResults totalResults, List<String> fetchPlan,
+            FilterParser<T> filterParser) {
+
+        if (count == 0) {
+            return new SearchResult<>(new ArrayList<T>(), getTotalResults(clazz, filter, totalResults, filterParser));
+        }
+
+        boolean countInSameStatement = totalResults == TotalResults.EXACT
+                || totalResults == TotalResults.ESTIMATED && filter != null && !filter.isEmpty();
+
+        if (countInSameStatement && isWindowCountSupported()) {
+            return searchWithWindowCount(clazz, filter, count, startIndex, sortBy, sortOrder, fetchPlan,
+                    filterParser);
+        }
 
         CriteriaBuilder cb = em.getCriteriaBuilder();
 
         CriteriaQuery<T> resourceQuery = cb.createQuery(clazz);
         Root<T> resourceRoot = resourceQuery.from(clazz);
+        fetchSingularAttributes(resourceRoot, fetchPlan);
+
+        resourceQuery.select(resourceRoot).where(
+                createFilterPredicate(resourceQuery, resourceRoot, filter, filterParser));
+
+        Expression<?> sortByField = createSortByField(sortBy, resourceRoot, filterParser);
+        resourceQuery.orderBy(createOrder(sortByField, sortOrder));
+
+        TypedQuery<T> query = em.createQuery(resourceQuery);
+        query.setFirstResult(startIndex);
+        query.setMaxResults(count);
+
+        List<T> results = query.getResultList();
+        fetchCollections(clazz, results, fetchPlan);
+
+        long totalResult = getTotalResults(clazz, filter, totalResults, filterParser);
+
+        return new SearchResult<>(results, totalResult);
+    }
+
+    /**
+     * Reads all resources of a type ordered by their internal id with a forward-only cursor and passes them to the
+     * handler in chunks. The collections of the fetch plan are loaded per chunk. The persistence context is cleared
+     * after every chunk, so the memory needed doesn't grow with the number of resources. Must be called in a
+     * transaction, otherwise the JDBC driver may read all rows at once.
+     *
+     * @param fetchPlan
+     *        the attributes loaded together with the resources, nested attributes separated by dots
+     * @param chunkSize
+     *        the number of resources per chunk, also the number of rows fetched from the database at once
+     */
+    public <T extends ResourceEntity> void scroll(Class<T> clazz, List<String> fetchPlan, int chunkSize,
+            ChunkHandler<? super T> handler) throws IOException {
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> resourceQuery = cb.createQuery(clazz);
+        Root<T> resourceRoot = resourceQuery.from(clazz);
+        fetchSingularAttributes(resourceRoot, fetchPlan);
 
-        Subquery<Long> internalIdQuery = resourceQuery.subquery(Long.class);
-        Root<T> internalIdRoot = internalIdQuery.from(clazz);
-        internalIdQuery.select(internalIdRoot.get(ResourceEntity_.internalId));
+        resourceQuery.select(resourceRoot).orderBy(cb.asc(resourceRoot.get(ResourceEntity_.internalId)));
 
-        if (filter != null && !filter.isEmpty()) {
-            Predicate predicate = filterParser.createPredicateAndJoin(filter, internalIdRoot);
-            internalIdQuery.where(predicate);
+        ScrollableResults rows = em.createQuery(resourceQuery).unwrap(org.hibernate.Query.class)
+                .setFetchSize(chunkSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            while (rows.next()) {
+                chunk.add(clazz.cast(rows.get(0)));
+                if (chunk.size() == chunkSize) {
+                    handleChunk(clazz, chunk, fetchPlan, handler);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                handleChunk(clazz, chunk, fetchPlan, handler);
+            }
+        } finally {
+            rows.close();
         }
+    }
 
-        resourceQuery.select(resourceRoot).where(
-                cb.in(resourceRoot.get(ResourceEntity_.internalId)).value(internalIdQuery));
+    private <T extends ResourceEntity> void handleChunk(Class<T> clazz, List<T> chunk, List<String> fetchPlan,
+            ChunkHandler<? super T> handler) throws IOException {
+        fetchCollections(clazz, chunk, fetchPlan);
+        handler.handle(chunk);
+        chunk.clear();
+        em.clear();
+    }
 
-        // TODO: evaluate if a User-/GroupDao supplied default sortBy field is possible
-        Expression<?> sortByField = resourceRoot.get(ResourceEntity_.id);
+    /**
+     * Retrieves the internal ids of a page together with the total number of results in a single statement, using a
+     * window function. The page is then loaded by its primary keys, as Hibernate can't select a resource entity
+     * together with a scalar value (it confuses the id attribute with the identifier of the entity).
+     */
+    private <T extends ResourceEntity> SearchResult<T> searchWithWindowCount(Class<T> clazz, String filter,
+            int count, int startIndex, String sortBy, String sortOrder, List<String> fetchPlan,
+            FilterParser<T> filterParser) {
 
-        if (sortBy != null && !sortBy.isEmpty()) {
-            sortByField = filterParser.createSortByField(sortBy, resourceRoot);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<Object[]> pageQuery = cb.createQuery(Object[].class);
+        Root<T> resourceRoot = pageQuery.from(clazz);
+        Path<Long> internalId = resourceRoot.get(ResourceEntity_.internalId);
+
+        pageQuery.multiselect(internalId, cb.function(OsiamPostgreSQLDialect.COUNT_OVER, Long.class))
+                .where(createFilterPredicate(pageQuery, resourceRoot, filter, filterParser));
+
+        Expression<?> sortByField = createSortByField(sortBy, resourceRoot, filterParser);
+        pageQuery.orderBy(createOrder(sortByField, sortOrder));
+
+        TypedQuery<Object[]> query = em.createQuery(pageQuery);
+        query.setFirstResult(startIndex);
+        query.setMaxResults(count);
+
+        List<Object[]> rows = query.getResultList();
+
+        if (rows.isEmpty()) {
+            // a page behind the last result doesn't tell the total, so it has to be counted
+            long totalResult = startIndex == 0 ? 0 : getTotalResults(clazz, filter, TotalResults.EXACT, filterParser);
+            return new SearchResult<>(new ArrayList<T>(), totalResult);
+        }
+
+        List<Long> internalIds = new ArrayList<>();
+        for (Object[] row : rows) {
+            internalIds.add((Long) row[0]);
+        }
+
+        return new SearchResult<>(getByInternalIds(clazz, internalIds, fetchPlan), (Long) rows.get(0)[1]);
+    }
+
+    /**
+     * Retrieves resources by their internal ids, keeping the order of the given ids.
+     */
+    private <T extends ResourceEntity> List<T> getByInternalIds(Class<T> clazz, List<Long> internalIds,
+            List<String> fetchPlan) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        Map<Long, T> resourcesByInternalId = new HashMap<>();
+        for (List<Long> partition : Lists.partition(internalIds, MAX_INTERNAL_IDS_PER_QUERY)) {
+            CriteriaQuery<T> resourceQuery = cb.createQuery(clazz);
+            Root<T> resourceRoot = resourceQuery.from(clazz);
+            fetchSingularAttributes(resourceRoot, fetchPlan);
+
+            resourceQuery.select(resourceRoot).where(resourceRoot.get(ResourceEntity_.internalId).in(partition));
+
+            for (T resource : em.createQuery(resourceQuery).getResultList()) {
+                resourcesByInternalId.put(resource.getInternalId(), resource);
+            }
+        }
+
+        fetchCollections(clazz, new ArrayList<>(resourcesByInternalId.values()), fetchPlan);
+
+        List<T> results = new ArrayList<>();
+        for (Long internalId : internalIds) {
+            results.add(resourcesByInternalId.get(internalId));
+        }
+        return results;
+    }
+
+    private List<String> getDefaultFetchPlan(Class<?> clazz) {
+        List<String> fetchPlan = DEFAULT_FETCH_PLANS.get(clazz);
+        return fetchPlan != null ? fetchPlan : Collections.<String> emptyList();
+    }
+
+    /**
+     * Adds fetch joins for the attributes of the fetch plan that are not collections, so they are read by the same
+     * statement as the resources instead of one statement per resource. Joining collections would multiply the rows
+     * and break the pagination of the query, they are loaded by {@link #fetchCollections(Class, List, List)}.
+     * 
+     * @param attributePaths
+     *        the attributes to fetch, nested attributes separated by dots
+     */
+    private void fetchSingularAttributes(Root<?> resourceRoot, List<String> attributePaths) {
+        fetchSingularAttributes(resourceRoot, em.getMetamodel().managedType(resourceRoot.getJavaType()),
+                attributePaths);
+    }
+
+    private void fetchSingularAttributes(FetchParent<?, ?> fetchParent, ManagedType<?> type,
+            List<String> attributePaths) {
+
+        for (Map.Entry<String, List<String>> entry : splitAttributePaths(attributePaths).entrySet()) {
+            Attribute<?, ?> attribute = type.getAttribute(entry.getKey());
+            if (attribute.isCollection()) {
+                continue;
+            }
+
+            Fetch<?, ?> fetch = fetchParent.fetch(attribute.getName(), JoinType.LEFT);
+
+            Type<?> attributeType = ((SingularAttribute<?, ?>) attribute).getType();
+            if (attributeType instanceof ManagedType) {
+                fetchSingularAttributes(fetch, (ManagedType<?>) attributeType, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Initializes the collections of the fetch plan for all given resources, using one statement per collection
+     * instead of one per resource and collection. Nested attributes of the collection elements are fetched by the
+     * same statement.
+     */
+    private <T extends ResourceEntity> void fetchCollections(Class<T> clazz, List<T> resources,
+            List<String> attributePaths) {
+
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        List<Long> internalIds = new ArrayList<>();
+        for (T resource : resources) {
+            internalIds.add(resource.getInternalId());
+        }
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        ManagedType<T> type = em.getMetamodel().managedType(clazz);
+
+        for (Map.Entry<String, List<String>> entry : splitAttributePaths(attributePaths).entrySet()) {
+            Attribute<? super T, ?> attribute = type.getAttribute(entry.getKey());
+            if (!attribute.isCollection()) {
+                continue;
+            }
+
+            Type<?> elementType = ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+
+            for (List<Long> partition : Lists.partition(internalIds, MAX_INTERNAL_IDS_PER_QUERY)) {
+                CriteriaQuery<T> collectionQuery = cb.createQuery(clazz);
+                Root<T> resourceRoot = collectionQuery.from(clazz);
+
+                Fetch<T, ?> fetch = resourceRoot.fetch(attribute.getName(), JoinType.LEFT);
+                if (elementType instanceof ManagedType) {
+                    fetchSingularAttributes(fetch, (ManagedType<?>) elementType, entry.getValue());
+                }
+
+                collectionQuery.select(resourceRoot).where(resourceRoot.get(ResourceEntity_.internalId).in(partition));
+
+                // the resources are already managed, the query only initializes their collections
+                em.createQuery(collectionQuery).getResultList();
+            }
+        }
+    }
+
+    /**
+     * Maps the first attribute of every path to the remaining paths of its nested attributes, keeping the order.
+     */
+    private Map<String, List<String>> splitAttributePaths(List<String> attributePaths) {
+        Map<String, List<String>> nestedPaths = new LinkedHashMap<>();
+        for (String attributePath : attributePaths) {
+            String[] parts = attributePath.split("\\.", 2);
+            if (!nestedPaths.containsKey(parts[0])) {
+                nestedPaths.put(parts[0], new ArrayList<String>());
+            }
+            if (parts.length > 1) {
+                nestedPaths.get(parts[0]).add(parts[1]);
+            }
+        }
+        return nestedPaths;
+    }
+
+    private boolean isWindowCountSupported() {
+        SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(
+                SessionFactoryImplementor.class);
+        return sessionFactory.getSqlFunctionRegistry().hasFunction(OsiamPostgreSQLDialect.COUNT_OVER);
+    }
+
+    /**
+     * @return true if the row counts can be read from the statistics of the PostgreSQL query planner
+     */
+    private boolean isRowCountEstimateSupported() {
+        SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(
+                SessionFactoryImplementor.class);
+        return sessionFactory.getDialect() instanceof PostgreSQL81Dialect;
+    }
+
+    /**
+     * Searches resources using keyset pagination. Instead of skipping over an offset the query seeks directly behind
+     * the last resource of the previous page, so the cost of retrieving a page does not grow with its position in the
+     * result set and concurrent inserts or deletes don't shift resources between pages.
+     * 
+     * @param count
+     *        the maximum number of resources to return. If 0 only the total number of results is determined.
+     * @param cursor
+     *        the cursor returned with the previous page, or an empty string to retrieve the first page
+     * @param totalResults
+     *        how the total number of results is determined. {@link SearchResult#totalResults} is 0 for
+     *        {@link TotalResults#NONE}.
+     * @param fetchPlan
+     *        the attributes loaded together with the resources, nested attributes separated by dots. Other
+     *        associations are loaded lazily.
+     * @return the matching resources. {@link SearchResult#nextCursor} is null if there are no more results.
+     * @throws IllegalArgumentException
+     *         if the cursor is not valid or was created for another sort field or order
+     */
+    public <T extends ResourceEntity> SearchResult<T> searchWithCursor(Class<T> clazz, String filter, int count,
+            String cursor, String sortBy, String sortOrder, TotalResults totalResults, List<String> fetchPlan,
+            FilterParser<T> filterParser) {
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        String sortKey = sortBy != null ? sortBy : "";
+        boolean descending = sortOrder.equalsIgnoreCase("descending");
+
+        SearchCursor lastPosition = null;
+        if (!cursor.isEmpty()) {
+            lastPosition = SearchCursor.decode(cursor);
+            if (!lastPosition.isCompatibleWith(sortKey, descending)) {
+                throw new IllegalArgumentException("The cursor '" + cursor
+                        + "' can't be used with a different sortBy or sortOrder");
+            }
+        }
+
+        if (count == 0) {
+            return new SearchResult<>(new ArrayList<T>(), getTotalResults(clazz, filter, totalResults, filterParser));
+        }
+
+        CriteriaQuery<T> resourceQuery = cb.createQuery(clazz);
+        Root<T> resourceRoot = resourceQuery.from(clazz);
+        fetchSingularAttributes(resourceRoot, fetchPlan);
+        Path<Long> internalId = resourceRoot.get(ResourceEntity_.internalId);
+
+        Expression<?> sortByField = createSortByField(sortBy, resourceRoot, filterParser);
+
+        Predicate predicate = createFilterPredicate(resourceQuery, resourceRoot, filter, filterParser);
+        if (lastPosition != null) {
+            predicate = cb.and(predicate, createSeekPredicate(sortByField, internalId, lastPosition));
+        }
+
+        resourceQuery.select(resourceRoot).where(predicate);
+
+        // the resources without a sort value are ordered by an explicit key, as databases differ in where they put
+        // null values. The internal id makes the order total, so every resource can be identified by its position.
+        Expression<Integer> nullKey = cb.<Integer> selectCase().when(cb.isNull(sortByField), 1).otherwise(0);
+        if (descending) {
+            resourceQuery.orderBy(cb.desc(nullKey), cb.desc(sortByField), cb.desc(internalId));
+        } else {
+            resourceQuery.orderBy(cb.asc(nullKey), cb.asc(sortByField), cb.asc(internalId));
+        }
+
+        TypedQuery<T> query = em.createQuery(resourceQuery);
+        // fetch one more than requested to find out if there is a next page
+        query.setMaxResults(count + 1);
+
+        List<T> results = query.getResultList();
+
+        String nextCursor = null;
+        if (results.size() > count) {
+            results = new ArrayList<>(results.subList(0, count));
+            long lastInternalId = results.get(count - 1).getInternalId();
+            Object lastSortValue = getSortValue(clazz, sortBy, lastInternalId, filterParser);
+            nextCursor = new SearchCursor(sortKey, descending, lastSortValue, lastInternalId).encode();
         }
+        fetchCollections(clazz, results, fetchPlan);
+
+        long totalResult = getTotalResults(clazz, filter, totalResults, filterParser);
+
+        return new SearchResult<>(results, totalResult, nextCursor);
+    }
+
+    /**
+     * Creates the predicate selecting all resources positioned behind the cursor in the order of
+     * {@link #searchWithCursor}: the resources without a sort value come last in ascending and first in descending
+     * order, then the sort value and the internal id decide.
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate createSeekPredicate(Expression<?> sortByField, Path<Long> internalId,
+            SearchCursor lastPosition) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        Expression<Comparable<Object>> sortKey = (Expression<Comparable<Object>>) sortByField;
+        Comparable<Object> lastValue = (Comparable<Object>) lastPosition.getLastSortValue();
+        boolean descending = lastPosition.isDescending();
+        boolean nullsLast = !descending;
+
+        Predicate behindLastInternalId = descending
+                ? cb.lessThan(internalId, lastPosition.getLastInternalId())
+                : cb.greaterThan(internalId, lastPosition.getLastInternalId());
+
+        if (lastValue == null) {
+            if (nullsLast) {
+                return cb.and(cb.isNull(sortKey), behindLastInternalId);
+            }
+            return cb.or(cb.isNotNull(sortKey), behindLastInternalId);
+        }
+
+        Predicate behindLastValue = cb.or(
+                descending ? cb.lessThan(sortKey, lastValue) : cb.greaterThan(sortKey, lastValue),
+                cb.and(cb.equal(sortKey, lastValue), behindLastInternalId));
+        if (nullsLast) {
+            return cb.or(behindLastValue, cb.isNull(sortKey));
+        }
+        return behindLastValue;
+    }
+
+    /**
+     * Retrieves the value of the sort field of a single resource. Hibernate can't select a resource entity together
+     * with a scalar value, as it confuses the id attribute with the identifier of the entity, so the value is looked
+     * up by the primary key instead.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends ResourceEntity> Object getSortValue(Class<T> clazz, String sortBy, long internalId,
+            FilterParser<T> filterParser) {
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Object> sortValueQuery = cb.createQuery(Object.class);
+        Root<T> resourceRoot = sortValueQuery.from(clazz);
+
+        sortValueQuery.select((Expression<Object>) createSortByField(sortBy, resourceRoot, filterParser)).where(
+                cb.equal(resourceRoot.get(ResourceEntity_.internalId), internalId));
+
+        return em.createQuery(sortValueQuery).getSingleResult();
+    }
+
+    /**
+     * Creates the predicate restricting the resources of the given query to the ones matching the filter. The filter
+     * is applied to the resource root directly, so PostgreSQL reads the resource table only once and can walk the
+     * index of the sort field until the page is complete.
+     */
+    private <T extends ResourceEntity> Predicate createFilterPredicate(AbstractQuery<?> resourceQuery,
+            Root<T> resourceRoot, String filter, FilterParser<T> filterParser) {
+
+        if (filter == null || filter.isEmpty()) {
+            return em.getCriteriaBuilder().conjunction();
+        }
+
+        return filterParser.createPredicate(filter, resourceQuery, resourceRoot);
+    }
+
+    private Order createOrder(Expression<?> sortByField, String sortOrder) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
 
         // default order is ascending
         Order order = cb.asc(sortByField);
@@ -88,33 +550,62 @@ public class ResourceDao {
             order = cb.desc(sortByField);
         }
 
-        resourceQuery.orderBy(order);
+        return order;
+    }
 
-        TypedQuery<T> query = em.createQuery(resourceQuery);
-        query.setFirstResult(startIndex);
-        query.setMaxResults(count);
+    private <T extends ResourceEntity> Expression<?> createSortByField(String sortBy, Root<T> resourceRoot,
+            FilterParser<T> filterParser) {
 
-        List<T> results = query.getResultList();
+        // TODO: evaluate if a User-/GroupDao supplied default sortBy field is possible
+        Expression<?> sortByField = resourceRoot.get(ResourceEntity_.id);
 
-        long totalResult = getTotalResults(clazz, internalIdQuery);
+        if (sortBy != null && !sortBy.isEmpty()) {
+            sortByField = filterParser.createSortByField(sortBy, resourceRoot);
+        }
 
-        return new SearchResult<>(results, totalResult);
+        return sortByField;
     }
 
-    private <T extends ResourceEntity> long getTotalResults(Class<T> clazz, Subquery<Long> internalIdQuery) {
+    private <T extends ResourceEntity> long getTotalResults(Class<T> clazz, String filter,
+            TotalResults totalResults, FilterParser<T> filterParser) {
+
+        if (totalResults == TotalResults.NONE) {
+            return 0;
+        }
+
+        if (totalResults == TotalResults.ESTIMATED && (filter == null || filter.isEmpty())
+                && isRowCountEstimateSupported()) {
+            long estimatedTotal = getEstimatedRowCount(clazz);
+            // small or never analyzed tables are counted, that's cheap and exact
+            if (estimatedTotal >= MIN_ESTIMATED_TOTAL_RESULTS) {
+                return estimatedTotal;
+            }
+        }
 
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Long> resourceQuery = cb.createQuery(Long.class);
         Root<T> resourceRoot = resourceQuery.from(clazz);
 
         resourceQuery.select(cb.count(resourceRoot)).where(
-                cb.in(resourceRoot.get(ResourceEntity_.internalId)).value(internalIdQuery));
+                createFilterPredicate(resourceQuery, resourceRoot, filter, filterParser));
 
         Long total = em.createQuery(resourceQuery).getSingleResult();
 
         return total;
     }
 
+    /**
+     * Reads the number of rows of the table of the given resource entity from the statistics of the PostgreSQL query
+     * planner, which are updated by VACUUM and ANALYZE.
+     */
+    private long getEstimatedRowCount(Class<? extends ResourceEntity> clazz) {
+        Query query = em.createNativeQuery("SELECT CAST(reltuples AS bigint) FROM pg_class WHERE relname = ?1");
+        query.setParameter(1, clazz.getAnnotation(Table.class).name());
+
+        List<?> result = query.getResultList();
+        return result.isEmpty() ? 0 : ((Number) result.get(0)).longValue();
+    }
+
     /**
      * Retrieves a single {@link ResourceEntity} by the given id.
      * 
@@ -127,7 +618,28 @@ public class ResourceDao {
      *         if no {@link ResourceEntity} with the given id could be found
      */
     public <T extends ResourceEntity> T getById(String id, Class<T> clazz) {
-        return getByAttribute(ResourceEntity_.id, id, clazz);
+        return getById(id, clazz, getDefaultFetchPlan(clazz));
+    }
+
+    /**
+     * Retrieves a single {@link ResourceEntity} by the given id, loading only the given attributes together with it.
+     * 
+     * @param id
+     *        the id of the resource to retrieve it by
+     * @param clazz
+     *        the concrete resource entity class to retrieve
+     * @param fetchPlan
+     *        the attributes to load, nested attributes separated by dots
+     * @return The matching {@link ResourceEntity}
+     * @throws ResourceNotFoundException
+     *         if no {@link ResourceEntity} with the given id could be found
+     */
+    public <T extends ResourceEntity> T getById(String id, Class<T> clazz, List<String> fetchPlan) {
+        if (!isValidId(id)) {
+            throw new ResourceNotFoundException(String.format("Resource with attribute 'id' set to '%s' not found",
+                    id));
+        }
+        return getByAttribute(ResourceEntity_.id, id, clazz, fetchPlan);
     }
 
     /**
@@ -147,17 +659,25 @@ public class ResourceDao {
      */
     public <T extends ResourceEntity, V> T getByAttribute(SingularAttribute<? super T, V> attribute, V value,
             Class<T> clazz) {
+        return getByAttribute(attribute, value, clazz, Collections.<String> emptyList());
+    }
+
+    private <T extends ResourceEntity, V> T getByAttribute(SingularAttribute<? super T, V> attribute, V value,
+            Class<T> clazz, List<String> fetchPlan) {
 
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<T> cq = cb.createQuery(clazz);
         Root<T> resource = cq.from(clazz);
+        fetchSingularAttributes(resource, fetchPlan);
 
         cq.select(resource).where(cb.equal(resource.get(attribute), value));
 
         TypedQuery<T> q = em.createQuery(cq);
 
         try {
-            return q.getSingleResult();
+            T result = q.getSingleResult();
+            fetchCollections(clazz, Collections.singletonList(result), fetchPlan);
+            return result;
         } catch (NoResultException nre) {
             throw new ResourceNotFoundException(String.format("Resource with attribute '%s' set to '%s' not found",
                     attribute.getName(), value), nre);
@@ -176,7 +696,7 @@ public class ResourceDao {
         cq.select(cb.countDistinct(resource));
 
         Predicate predicate = cb.equal(resource.get(attribute), attributeValue);
-        if (id != null) {
+        if (isValidId(id)) {
             Predicate ignoreId = cb.notEqual(resource.get(ResourceEntity_.id), id);
             predicate = cb.and(predicate, ignoreId);
         }
@@ -187,6 +707,21 @@ public class ResourceDao {
         return countQuery.getSingleResult() > 0;
     }
 
+    /**
+     * Only UUIDs in their canonical form can be ids of resources. Other ids aren't looked up, because a database that
+     * stores the ids in a native uuid column would reject them.
+     */
+    private static boolean isValidId(String id) {
+        if (id == null) {
+            return false;
+        }
+        try {
+            return UUID.fromString(id).toString().equalsIgnoreCase(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     public boolean isExternalIdAlreadyTaken(String externalId, String id) {
         return isUniqueAttributeAlreadyTaken(externalId, id, ResourceEntity_.externalId, ResourceEntity.class);
     }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+
+import com.google.common.base.Objects;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * The position of the last resource of a page in a keyset (cursor) search. A cursor is handed out to the client as an
+ * opaque, URL safe token and holds the sort field and order it was created for, the value of the sort field of the
+ * last resource and the internal id of that resource as tie breaker.
+ */
+public final class SearchCursor {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_DATE = 2;
+    private static final byte TYPE_BOOLEAN = 3;
+
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+
+    private final String sortBy;
+    private final boolean descending;
+    private final Object lastSortValue;
+    private final long lastInternalId;
+
+    /**
+     * @param sortBy
+     *        the sort field as given by the client, or an empty string for the default sort field
+     * @param descending
+     *        whether the search is sorted descending
+     * @param lastSortValue
+     *        the value of the sort field of the last resource, may be null. Only {@link String}, {@link Date} and
+     *        {@link Boolean} values are supported.
+     * @param lastInternalId
+     *        the internal id of the last resource
+     */
+    public SearchCursor(String sortBy, boolean descending, Object lastSortValue, long lastInternalId) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.lastSortValue = lastSortValue;
+        this.lastInternalId = lastInternalId;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Object getLastSortValue() {
+        return lastSortValue;
+    }
+
+    public long getLastInternalId() {
+        return lastInternalId;
+    }
+
+    /**
+     * Checks if this cursor can be used to continue a search with the given sort field and order.
+     */
+    public boolean isCompatibleWith(String sortBy, boolean descending) {
+        return this.sortBy.equals(sortBy) && this.descending == descending;
+    }
+
+    /**
+     * @return this cursor as opaque, URL safe token
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(sortBy);
+            out.writeBoolean(descending);
+            out.writeLong(lastInternalId);
+            writeSortValue(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode search cursor", e);
+        }
+        return ENCODING.encode(bytes.toByteArray());
+    }
+
+    private void writeSortValue(DataOutputStream out) throws IOException {
+        if (lastSortValue == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (lastSortValue instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) lastSortValue);
+        } else if (lastSortValue instanceof Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) lastSortValue).getTime());
+        } else if (lastSortValue instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) lastSortValue);
+        } else {
+            throw new IllegalStateException("Sort values of type " + lastSortValue.getClass().getName()
+                    + " are not supported by cursor searches");
+        }
+    }
+
+    /**
+     * Decodes a token previously created by {@link #encode()}.
+     *
+     * @param token
+     *        the token given by the client
+     * @return the decoded cursor
+     * @throws IllegalArgumentException
+     *         if the token is not a valid cursor
+     */
+    public static SearchCursor decode(String token) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(ENCODING.decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("The cursor '" + token + "' is not valid");
+            }
+            String sortBy = in.readUTF();
+            boolean descending = in.readBoolean();
+            long lastInternalId = in.readLong();
+            Object lastSortValue = readSortValue(in, token);
+            if (in.read() != -1) {
+                throw new IllegalArgumentException("The cursor '" + token + "' is not valid");
+            }
+            return new SearchCursor(sortBy, descending, lastSortValue, lastInternalId);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The cursor '" + token + "' is not valid", e);
+        }
+    }
+
+    private static Object readSortValue(DataInputStream in, String token) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+        case TYPE_NULL:
+            return null;
+        case TYPE_STRING:
+            return in.readUTF();
+        case TYPE_DATE:
+            return new Date(in.readLong());
+        case TYPE_BOOLEAN:
+            return in.readBoolean();
+        default:
+            throw new IllegalArgumentException("The cursor '" + token + "' is not valid");
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(sortBy, descending, lastSortValue, lastInternalId);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        SearchCursor other = (SearchCursor) obj;
+        return descending == other.descending && lastInternalId == other.lastInternalId
+                && Objects.equal(sortBy, other.sortBy) && Objects.equal(lastSortValue, other.lastSortValue);
+    }
+}
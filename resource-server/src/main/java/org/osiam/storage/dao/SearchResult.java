@@ -31,9 +31,19 @@ public class SearchResult<T extends ResourceEntity> {
 
     public final List<T> results; // NOSONAR - field is final and can be public
     public final long totalResults; // NOSONAR - field is final and can be public
+    public final String nextCursor; // NOSONAR - field is final and can be public
 
     public SearchResult(List<T> results, long totalResults) {
+        this(results, totalResults, null);
+    }
+
+    /**
+     * @param nextCursor
+     *        the cursor pointing behind the last result of a cursor search, or null if there are no more results
+     */
+    public SearchResult(List<T> results, long totalResults, String nextCursor) {
         this.results = results;
         this.totalResults = totalResults;
+        this.nextCursor = nextCursor;
     }
 }
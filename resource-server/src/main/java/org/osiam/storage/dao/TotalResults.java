@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao;
+
+import java.util.Locale;
+
+/**
+ * Defines how the total number of results of a search is determined.
+ */
+public enum TotalResults {
+
+    /**
+     * All matching resources are counted.
+     */
+    EXACT,
+
+    /**
+     * The total number of results may be estimated. The database statistics are used for unfiltered searches on
+     * large tables, all other searches are counted.
+     */
+    ESTIMATED,
+
+    /**
+     * The total number of results is not determined at all.
+     */
+    NONE;
+
+    /**
+     * Parses the value of the totalResults request parameter.
+     *
+     * @param value
+     *        "exact", "estimated" or "none", case is ignored. Null means {@link #EXACT}.
+     * @throws IllegalArgumentException
+     *         if the value is not known
+     */
+    public static TotalResults fromString(String value) {
+        if (value == null) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The totalResults value '" + value
+                    + "' is not valid. Allowed are exact, estimated and none", e);
+        }
+    }
+}
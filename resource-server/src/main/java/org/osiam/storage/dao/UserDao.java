@@ -23,8 +23,17 @@
 
 package org.osiam.storage.dao;
 
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
+import org.osiam.resources.RoleSpring;
+import org.osiam.resources.UserSpring;
 import org.osiam.resources.exceptions.ResourceNotFoundException;
 import org.osiam.storage.entities.UserEntity;
 import org.osiam.storage.entities.UserEntity_;
@@ -40,6 +49,9 @@ public class UserDao implements GenericDao<UserEntity> {
     @Inject
     private ResourceDao resourceDao;
 
+    @PersistenceContext
+    private EntityManager em;
+
     @Override
     public void create(UserEntity userEntity) {
         resourceDao.create(userEntity);
@@ -54,6 +66,25 @@ public class UserDao implements GenericDao<UserEntity> {
         }
     }
 
+    /**
+     * Retrieves a user by its id, loading only the given attributes together with it.
+     * 
+     * @param id
+     *        the id of the user
+     * @param fetchPlan
+     *        the attributes to load, e.g. {@link UserEntity#PROFILE_FETCH_PLAN}
+     * @return the user
+     * @throws ResourceNotFoundException
+     *         if no user with the given id exists
+     */
+    public UserEntity getById(String id, List<String> fetchPlan) {
+        try {
+            return resourceDao.getById(id, UserEntity.class, fetchPlan);
+        } catch (ResourceNotFoundException rnfe) {
+            throw new ResourceNotFoundException(String.format("User with id '%s' not found", id), rnfe);
+        }
+    }
+
     public UserEntity getByUsername(String userName) {
         try {
             return resourceDao.getByAttribute(UserEntity_.userName, userName, UserEntity.class);
@@ -62,6 +93,43 @@ public class UserDao implements GenericDao<UserEntity> {
         }
     }
 
+    /**
+     * Retrieves what is needed to authenticate a user: the id, userName, password, active flag and the values of the
+     * roles. They are read with a single statement, one row per role, without loading the {@link UserEntity}.
+     * 
+     * @param userName
+     *        the userName of the user
+     * @return the user
+     * @throws ResourceNotFoundException
+     *         if no user with the given userName exists
+     */
+    public UserSpring getLoginByUsername(String userName) {
+        List<Object[]> rows = em.createNamedQuery("getLoginByUserName", Object[].class)
+                .setParameter("userName", userName)
+                .getResultList();
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException(String.format("User with userName '%s' not found", userName));
+        }
+
+        Set<RoleSpring> roles = new HashSet<>();
+        for (Object[] row : rows) {
+            if (row[4] != null) {
+                RoleSpring role = new RoleSpring();
+                role.setValue((String) row[4]);
+                roles.add(role);
+            }
+        }
+
+        Object[] user = rows.get(0);
+        UserSpring userSpring = new UserSpring();
+        userSpring.setId(user[0].toString());
+        userSpring.setUsername((String) user[1]);
+        userSpring.setPassword((String) user[2]);
+        userSpring.setActive(Boolean.TRUE.equals(user[3]));
+        userSpring.setRoles(roles);
+        return userSpring;
+    }
+
     /**
      * Checks if a userName is already taken by another user.
      * 
@@ -129,4 +197,23 @@ public class UserDao implements GenericDao<UserEntity> {
         return resourceDao.search(UserEntity.class, filter, count, startIndex, sortBy, sortOrder, filterParser);
     }
 
-}
\ No newline at end of file
+    @Override
+    public SearchResult<UserEntity> search(String filter, String sortBy, String sortOrder, int count, int startIndex,
+            TotalResults totalResults, List<String> fetchPlan) {
+        return resourceDao.search(UserEntity.class, filter, count, startIndex, sortBy, sortOrder, totalResults,
+                fetchPlan, filterParser);
+    }
+
+    @Override
+    public SearchResult<UserEntity> searchWithCursor(String filter, String sortBy, String sortOrder, int count,
+            String cursor, TotalResults totalResults, List<String> fetchPlan) {
+        return resourceDao.searchWithCursor(UserEntity.class, filter, count, cursor, sortBy, sortOrder, totalResults,
+                fetchPlan, filterParser);
+    }
+
+    @Override
+    public void scroll(List<String> fetchPlan, int chunkSize, ChunkHandler<? super UserEntity> handler)
+            throws IOException {
+        resourceDao.scroll(UserEntity.class, fetchPlan, chunkSize, handler);
+    }
+}
@@ -26,7 +26,6 @@ package org.osiam.storage.entities;
 import javax.persistence.Basic;
 import javax.persistence.Entity;
 import javax.persistence.Index;
-import javax.persistence.Lob;
 import javax.persistence.Table;
 
 import org.hibernate.annotations.Type;
@@ -40,6 +39,7 @@ import org.osiam.resources.scim.Address;
         indexes = {
                 @Index(columnList = "type"),
                 @Index(columnList = "country, region, locality, postalCode, streetAddress"),
+                @Index(columnList = UserEntity.JOIN_COLUMN_NAME),
         })
 public class AddressEntity extends BaseMultiValuedAttributeEntity {
 
@@ -55,8 +55,7 @@ public class AddressEntity extends BaseMultiValuedAttributeEntity {
     @Basic
     private Address.Type type; // @Basic is needed for JPA meta model generator
 
-    @Lob
-    @Type(type = "org.hibernate.type.StringClobType")
+    @Type(type = "text")
     private String formatted;
 
     private String streetAddress;
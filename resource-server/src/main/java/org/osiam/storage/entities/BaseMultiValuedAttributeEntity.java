@@ -28,11 +28,15 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.osiam.storage.helper.PooledSequenceGenerator;
+
 @MappedSuperclass
 public abstract class BaseMultiValuedAttributeEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "multi_value_id")
     private long multiValueId;
 
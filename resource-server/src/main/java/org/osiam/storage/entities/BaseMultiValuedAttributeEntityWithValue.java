@@ -23,7 +23,6 @@
 
 package org.osiam.storage.entities;
 
-import javax.persistence.Lob;
 import javax.persistence.MappedSuperclass;
 
 import org.hibernate.annotations.Type;
@@ -31,8 +30,7 @@ import org.hibernate.annotations.Type;
 @MappedSuperclass
 public abstract class BaseMultiValuedAttributeEntityWithValue extends BaseMultiValuedAttributeEntity{
 
-    @Lob
-    @Type(type="org.hibernate.type.StringClobType")
+    @Type(type = "text")
     private String value;
 
     public String getValue() {
@@ -37,12 +37,13 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.Lob;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
+import org.osiam.storage.helper.PooledSequenceGenerator;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -57,7 +58,8 @@ public class ClientEntity {
     private static final int LENGTH = 32;
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     @JsonIgnore
     @Column(name = "internal_id")
     private long internalId;
@@ -73,8 +75,7 @@ public class ClientEntity {
     private int refreshTokenValiditySeconds;
 
     @JsonProperty
-    @Lob
-    @Type(type="org.hibernate.type.StringClobType")
+    @Type(type = "text")
     @Column(name = "redirect_uri", unique = true, nullable = false)
     private String redirectUri;
 
@@ -29,14 +29,17 @@ import javax.persistence.Id;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.osiam.resources.scim.Enterprise;
+import org.osiam.storage.helper.PooledSequenceGenerator;
 
 @Entity
 @Table(name = "scim_enterprise")
 public class EnterpriseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     private long id;
 
     private String employeeNumber;
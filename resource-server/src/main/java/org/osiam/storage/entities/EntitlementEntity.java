@@ -39,6 +39,7 @@ import org.osiam.resources.scim.Entitlement;
                 @Index(columnList = "value"),
                 @Index(columnList = "type"),
                 @Index(columnList = "value, type"),
+                @Index(columnList = UserEntity.JOIN_COLUMN_NAME),
         })
 public class EntitlementEntity extends BaseMultiValuedAttributeEntityWithValue {
 
@@ -31,12 +31,13 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Index;
-import javax.persistence.Lob;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 import org.osiam.resources.exceptions.NoSuchElementException;
+import org.osiam.storage.helper.PooledSequenceGenerator;
 
 /**
  * Defines a SCIM-Extension.
@@ -48,12 +49,12 @@ import org.osiam.resources.exceptions.NoSuchElementException;
 public class ExtensionEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "internal_id")
     private long internalId;
 
-    @Lob
-    @Type(type = "org.hibernate.type.StringClobType")
+    @Type(type = "text")
     @Column(nullable = false)
     private String urn;
 
@@ -36,7 +36,9 @@ import javax.persistence.Index;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.osiam.resources.scim.ExtensionFieldType;
+import org.osiam.storage.helper.PooledSequenceGenerator;
 
 /**
  * Defines a field in a scim-extension.
@@ -49,7 +51,8 @@ import org.osiam.resources.scim.ExtensionFieldType;
 public class ExtensionFieldEntity { // NOSONAR - will be constructed by jackson
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "internal_id")
     private long internalId;
 
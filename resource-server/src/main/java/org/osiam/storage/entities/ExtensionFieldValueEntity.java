@@ -23,20 +23,35 @@
 
 package org.osiam.storage.entities;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
-import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
+import org.osiam.resources.scim.ExtensionFieldType;
+import org.osiam.storage.helper.PooledSequenceGenerator;
 
 /**
  * Defines a value of a field of a scim-extension. It's user-dependent!
+ *
+ * The value is stored in the column matching the type of its field: integers and decimals in numeric_value, booleans
+ * in boolean_value, date times in date_value and all other types as their string representation in value. The other
+ * columns are null, so the partial indexes of the typed columns in init_ddl.sql only contain the values of their
+ * type. JPA can't declare partial indexes, so they are not generated from the mapping.
+ *
+ * The value column may hold base64 encoded binaries and long strings, which exceed the size of a B-tree index entry.
+ * init_ddl.sql therefore only indexes the first {@link #VALUE_PREFIX_LENGTH} characters of the value. JPA can't
+ * declare expression indexes either.
  */
 @Entity
 @Table(name = "scim_extension_field_value",
@@ -46,8 +61,15 @@ import org.hibernate.annotations.Type;
 )
 public class ExtensionFieldValueEntity {
 
+    /**
+     * The number of characters of the value in the index on (extension_field_internal_id, substring(value, 1, 256)).
+     * At 4 bytes per character the entries stay below the maximum size of a B-tree index entry in PostgreSQL.
+     */
+    public static final int VALUE_PREFIX_LENGTH = 256;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "internal_id")
     private long internalId;
 
@@ -55,11 +77,18 @@ public class ExtensionFieldValueEntity {
     @JoinColumn(name = "extension_field_internal_id")
     private ExtensionFieldEntity extensionField;
 
-    @Lob
-    @Type(type = "org.hibernate.type.StringClobType")
-    @Column(nullable = false)
+    @Type(type = "text")
     private String value;
 
+    @Column(name = "numeric_value", columnDefinition = "numeric")
+    private BigDecimal numericValue;
+
+    @Column(name = "boolean_value")
+    private Boolean booleanValue;
+
+    @Column(name = "date_value")
+    private Date dateValue;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = UserEntity.JOIN_COLUMN_NAME, nullable = false, insertable = false, updatable = false)
     private UserEntity user;
@@ -88,6 +117,92 @@ public class ExtensionFieldValueEntity {
         this.value = value;
     }
 
+    public BigDecimal getNumericValue() {
+        return numericValue;
+    }
+
+    public void setNumericValue(BigDecimal numericValue) {
+        this.numericValue = numericValue;
+    }
+
+    public Boolean getBooleanValue() {
+        return booleanValue;
+    }
+
+    public void setBooleanValue(Boolean booleanValue) {
+        this.booleanValue = booleanValue;
+    }
+
+    public Date getDateValue() {
+        return dateValue != null ? (Date) dateValue.clone() : null;
+    }
+
+    public void setDateValue(Date dateValue) {
+        this.dateValue = dateValue != null ? (Date) dateValue.clone() : null;
+    }
+
+    /**
+     * Stores the given value in the column of the type of the extension field, which has to be set before, and clears
+     * the other columns.
+     *
+     * @param typedValue
+     *        the value as instance of the Java type of the {@link ExtensionFieldType} of the field
+     */
+    public void setTypedValue(Object typedValue) {
+        ExtensionFieldType<?> type = extensionField.getType();
+        value = null;
+        numericValue = null;
+        booleanValue = null;
+        dateValue = null;
+
+        if (type == ExtensionFieldType.INTEGER) {
+            numericValue = new BigDecimal((BigInteger) typedValue);
+        } else if (type == ExtensionFieldType.DECIMAL) {
+            numericValue = (BigDecimal) typedValue;
+        } else if (type == ExtensionFieldType.BOOLEAN) {
+            booleanValue = (Boolean) typedValue;
+        } else if (type == ExtensionFieldType.DATE_TIME) {
+            setDateValue((Date) typedValue);
+        } else {
+            value = toStringValue(type, typedValue);
+        }
+    }
+
+    /**
+     * @return the value as instance of the Java type of the {@link ExtensionFieldType} of the field, or null if the
+     *         column of this type is empty, e.g. because the type of the field was changed
+     */
+    public Object getTypedValue() {
+        ExtensionFieldType<?> type = extensionField.getType();
+
+        if (type == ExtensionFieldType.INTEGER) {
+            return numericValue != null ? numericValue.toBigInteger() : null;
+        } else if (type == ExtensionFieldType.DECIMAL) {
+            return numericValue;
+        } else if (type == ExtensionFieldType.BOOLEAN) {
+            return booleanValue;
+        } else if (type == ExtensionFieldType.DATE_TIME) {
+            return getDateValue();
+        }
+        return value != null ? type.fromString(value) : null;
+    }
+
+    /**
+     * @return the first {@link #VALUE_PREFIX_LENGTH} characters of the given value, counted in code points like the
+     *         database does
+     */
+    public static String valuePrefix(String value) {
+        if (value.codePointCount(0, value.length()) <= VALUE_PREFIX_LENGTH) {
+            return value;
+        }
+        return value.substring(0, value.offsetByCodePoints(0, VALUE_PREFIX_LENGTH));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> String toStringValue(ExtensionFieldType<T> type, Object typedValue) {
+        return type.toString((T) typedValue);
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -122,7 +237,8 @@ public class ExtensionFieldValueEntity {
     public String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append("ExtensionFieldValueEntity [extensionField=").append(extensionField).append(", value=")
-                .append(value).append("]");
+                .append(value).append(", numericValue=").append(numericValue).append(", booleanValue=")
+                .append(booleanValue).append(", dateValue=").append(dateValue).append("]");
         return builder.toString();
     }
 
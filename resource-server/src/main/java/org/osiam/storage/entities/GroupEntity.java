@@ -24,15 +24,19 @@
 package org.osiam.storage.entities;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
 
 import org.hibernate.annotations.BatchSize;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -41,8 +45,15 @@ import com.google.common.collect.ImmutableSet;
 @Entity
 @Table(name = "scim_group")
 public class GroupEntity extends ResourceEntity {
+
+    /**
+     * The attributes needed to convert a group into its SCIM representation. They are loaded together with the groups
+     * by {@link org.osiam.storage.dao.ResourceDao} and are named like the SCIM attributes they are converted to.
+     */
+    public static final List<String> DEFAULT_FETCH_PLAN = ImmutableList.of("meta", "members.meta");
     
     @ManyToMany
+    @JoinTable(indexes = @Index(columnList = "members_internal_id"))
     @BatchSize(size = 100)
     private Set<ResourceEntity> members = new HashSet<>();
 
@@ -30,14 +30,17 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.osiam.resources.scim.Manager;
+import org.osiam.storage.helper.PooledSequenceGenerator;
 
 @Entity
 @Table(name = "scim_manager")
 public class ManagerEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     private long id;
 
     private UUID managerId;
@@ -30,12 +30,15 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Index;
-import javax.persistence.Lob;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
+import org.osiam.storage.helper.PooledSequenceGenerator;
 
 @Entity
+@BatchSize(size = 100)
 @Table(name = "scim_meta",
         indexes = {
                 @Index(columnList = "created"),
@@ -44,15 +47,15 @@ import org.hibernate.annotations.Type;
 public class MetaEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     private long id;
 
     private Date created;
 
     private Date lastModified;
 
-    @Lob
-    @Type(type = "org.hibernate.type.StringClobType")
+    @Type(type = "text")
     private String location;
 
     private String version;
@@ -43,6 +43,7 @@ import org.osiam.resources.scim.Photo;
                 @Index(columnList = "value"),
                 @Index(columnList = "type"),
                 @Index(columnList = "value, type"),
+                @Index(columnList = UserEntity.JOIN_COLUMN_NAME),
         })
 public class PhotoEntity extends BaseMultiValuedAttributeEntityWithValue {
 
@@ -31,6 +31,7 @@ import java.util.UUID;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Inheritance;
@@ -40,6 +41,10 @@ import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.osiam.storage.helper.PooledSequenceGenerator;
+
 import com.google.common.collect.ImmutableSet;
 
 @Entity
@@ -50,26 +55,38 @@ public abstract class ResourceEntity {
     @Column(unique = true, nullable = false)
     private String id;
 
+    /**
+     * The parsed {@link #id}, so it is only parsed once per loaded entity.
+     */
+    @Transient
+    private UUID uuid;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "internal_id")
     private long internalId;
 
     @Column(unique = true)
     private String externalId;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private MetaEntity meta = new MetaEntity(GregorianCalendar.getInstance());
 
     @ManyToMany(mappedBy = "members")
+    @BatchSize(size = 100)
     private Set<GroupEntity> groups = new HashSet<>();
 
     public UUID getId() {
-        return UUID.fromString(id != null ? id : "");
+        if (uuid == null) {
+            uuid = UUID.fromString(id != null ? id : "");
+        }
+        return uuid;
     }
 
     public void setId(UUID id) {
         this.id = id.toString();
+        uuid = id;
     }
 
     public long getInternalId() {
@@ -24,13 +24,16 @@
 package org.osiam.storage.entities;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
-import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
@@ -38,6 +41,7 @@ import javax.persistence.Table;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Type;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -45,20 +49,36 @@ import com.google.common.collect.ImmutableSet;
  */
 @Entity
 @Table(name = "scim_user")
+@NamedQueries({ @NamedQuery(name = "getLoginByUserName",
+        query = "SELECT u.id, u.userName, u.password, u.active, r.value FROM UserEntity u LEFT JOIN u.roles r"
+                + " WHERE u.userName = :userName") })
 public class UserEntity extends ResourceEntity {
 
     public static final String JOIN_COLUMN_NAME = "user_internal_id";
 
+    /**
+     * The attributes needed to convert a user into its SCIM representation. They are loaded together with the users
+     * by {@link org.osiam.storage.dao.ResourceDao}. Apart from the extension values they are named like the SCIM
+     * attributes they are converted to.
+     */
+    public static final List<String> DEFAULT_FETCH_PLAN = ImmutableList.of("meta", "name", "emails", "phoneNumbers",
+            "ims", "photos", "addresses", "entitlements", "roles", "x509Certificates", "groups.meta",
+            "extensionFieldValues.extensionField.extension");
+
+    /**
+     * The attributes of a user returned by the /me endpoint.
+     */
+    public static final List<String> PROFILE_FETCH_PLAN = ImmutableList.of("meta", "name", "emails");
+
     @Column(nullable = false, unique = true)
     private String userName;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private NameEntity name;
 
     private String nickName;
 
-    @Lob
-    @Type(type = "org.hibernate.type.StringClobType")
+    @Type(type = "text")
     private String profileUrl;
 
     private String title;
@@ -80,47 +100,47 @@ public class UserEntity extends ResourceEntity {
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<EmailEntity> emails = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<PhoneNumberEntity> phoneNumbers = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<ImEntity> ims = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<PhotoEntity> photos = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<AddressEntity> addresses = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<EntitlementEntity> entitlements = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<RoleEntity> roles = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<X509CertificateEntity> x509Certificates = new HashSet<>();
 
     @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false)
+    @JoinColumn(name = JOIN_COLUMN_NAME, nullable = false, updatable = false)
     private Set<ExtensionFieldValueEntity> extensionFieldValues = new HashSet<>();
 
     public UserEntity() {
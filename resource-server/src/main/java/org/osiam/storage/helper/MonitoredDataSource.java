@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.helper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolExhaustedException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Wraps the pooled {@link DataSource} of the resource server and records how long callers have to wait for a
+ * connection. The pool state and the collected statistics are exported via JMX, so the pool can be sized based on
+ * the real load.
+ */
+@ManagedResource(objectName = "org.osiam:type=ConnectionPool,name=resourceServer",
+        description = "Connection pool of the resource server")
+public class MonitoredDataSource extends DelegatingDataSource {
+
+    private final DataSource pool;
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitTimeNanos = new AtomicLong();
+    private final AtomicLong maxWaitTimeNanos = new AtomicLong();
+
+    public MonitoredDataSource(DataSource pool) {
+        super(pool);
+        this.pool = pool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return pool.getConnection();
+        } catch (PoolExhaustedException e) {
+            timeouts.incrementAndGet();
+            throw e;
+        } finally {
+            recordWaitTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return pool.getConnection(username, password);
+        } catch (PoolExhaustedException e) {
+            timeouts.incrementAndGet();
+            throw e;
+        } finally {
+            recordWaitTime(System.nanoTime() - start);
+        }
+    }
+
+    private void recordWaitTime(long waitTimeNanos) {
+        acquisitions.incrementAndGet();
+        totalWaitTimeNanos.addAndGet(waitTimeNanos);
+
+        long currentMax = maxWaitTimeNanos.get();
+        while (waitTimeNanos > currentMax && !maxWaitTimeNanos.compareAndSet(currentMax, waitTimeNanos)) {
+            currentMax = maxWaitTimeNanos.get();
+        }
+    }
+
+    @ManagedAttribute(description = "Number of connections currently borrowed from the pool")
+    public int getActiveConnections() {
+        return pool.getActive();
+    }
+
+    @ManagedAttribute(description = "Number of idle connections in the pool")
+    public int getIdleConnections() {
+        return pool.getIdle();
+    }
+
+    @ManagedAttribute(description = "Number of open connections, active and idle")
+    public int getPoolSize() {
+        return pool.getSize();
+    }
+
+    @ManagedAttribute(description = "Maximum number of connections the pool will open")
+    public int getMaxPoolSize() {
+        return pool.getMaxActive();
+    }
+
+    @ManagedAttribute(description = "Number of threads currently waiting for a connection")
+    public int getWaitingThreads() {
+        return pool.getWaitCount();
+    }
+
+    @ManagedAttribute(description = "Number of connection requests since the last reset")
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    @ManagedAttribute(description = "Number of connection requests that timed out since the last reset")
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    @ManagedAttribute(description = "Average time in milliseconds spent waiting for a connection")
+    public double getAverageWaitTimeMillis() {
+        long count = acquisitions.get();
+        if (count == 0) {
+            return 0;
+        }
+        return totalWaitTimeNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @ManagedAttribute(description = "Longest time in milliseconds spent waiting for a connection")
+    public long getMaxWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTimeNanos.get());
+    }
+
+    @ManagedOperation(description = "Resets the collected wait time and timeout statistics")
+    public void resetStatistics() {
+        acquisitions.set(0);
+        timeouts.set(0);
+        totalWaitTimeNanos.set(0);
+        maxWaitTimeNanos.set(0);
+    }
+}
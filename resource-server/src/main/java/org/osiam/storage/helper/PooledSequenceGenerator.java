@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.helper;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.type.Type;
+
+/**
+ * Generates the ids of all entities from the hibernate_sequence. Every call of the sequence allocates a block of
+ * {@link #INCREMENT_SIZE} ids, which are handed out starting with the value returned by the sequence (pooled-lo), so
+ * a transaction creating a user with all its attributes usually doesn't call the sequence at all. The sequence has to
+ * be incremented by the same size, see sql/migration/from_0_17_to_0_18.sql. Ids are unique across all servers, but
+ * not ordered by their creation anymore.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * The name used for this generator in the mapping of the entities.
+     */
+    public static final String NAME = "pooledSequence";
+
+    public static final String STRATEGY = "org.osiam.storage.helper.PooledSequenceGenerator";
+
+    public static final String SEQUENCE_NAME = "hibernate_sequence";
+
+    public static final int INCREMENT_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, Dialect dialect) throws MappingException {
+        params.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(INCREMENT_SIZE));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, dialect);
+    }
+}
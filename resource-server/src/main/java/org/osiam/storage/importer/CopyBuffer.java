@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import org.postgresql.copy.CopyManager;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.CharSource;
+
+/**
+ * Collects the rows of one table in the CSV format of the PostgreSQL COPY command and sends them with a single COPY.
+ * A null value is written as an empty field and an empty string as a quoted empty field, so COPY can tell them
+ * apart. Dates are written in the time zone of the JVM, like Hibernate writes them to the timestamp columns.
+ */
+class CopyBuffer {
+
+    private final String table;
+    private final String copyStatement;
+    private final int columns;
+    private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.ENGLISH);
+
+    private final StringBuilder rows = new StringBuilder();
+    private long rowCount;
+
+    CopyBuffer(String table, String... columns) {
+        this.table = table;
+        this.columns = columns.length;
+        copyStatement = "COPY " + table + " (" + Joiner.on(", ").join(columns) + ") FROM STDIN WITH CSV";
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the number of rows added since the last copy
+     */
+    long getRowCount() {
+        return rowCount;
+    }
+
+    void addRow(Object... values) {
+        if (values.length != columns) {
+            throw new IllegalArgumentException("The table " + table + " has " + columns + " columns, not "
+                    + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                rows.append(',');
+            }
+            appendValue(values[i]);
+        }
+        rows.append('\n');
+        rowCount++;
+    }
+
+    private void appendValue(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Date) {
+            rows.append(dateFormat.format((Date) value));
+        } else if (value instanceof Boolean || value instanceof Number) {
+            rows.append(value);
+        } else {
+            rows.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    /**
+     * Sends the rows added since the last copy and clears the buffer.
+     *
+     * @return the number of rows copied
+     */
+    long copyTo(CopyManager copyManager) throws SQLException, IOException {
+        long copied = 0;
+        if (rowCount > 0) {
+            copied = copyManager.copyIn(copyStatement, CharSource.wrap(rows).openStream());
+        }
+        rows.setLength(0);
+        rowCount = 0;
+        return copied;
+    }
+
+    /**
+     * @return the rows added since the last copy, as they would be sent to the database
+     */
+    @Override
+    public String toString() {
+        return rows.toString();
+    }
+}
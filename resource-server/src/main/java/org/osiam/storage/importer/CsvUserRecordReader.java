@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.osiam.resources.scim.Constants;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Reads users from a CSV file as described in RFC 4180. The header names the attribute of each column:
+ *
+ * <ul>
+ * <li>a simple attribute like <code>userName</code>, <code>password</code> or <code>active</code>,</li>
+ * <li>an attribute of the name like <code>name.givenName</code>,</li>
+ * <li>a value of a multi-valued attribute, optionally with its type, like <code>emails.work</code> or
+ * <code>roles</code>.</li>
+ * </ul>
+ *
+ * Empty fields are left out. Addresses and extensions can only be imported from SCIM JSON.
+ */
+class CsvUserRecordReader extends UserRecordReader {
+
+    private static final Set<String> SIMPLE_ATTRIBUTES = ImmutableSet.of("userName", "password", "externalId",
+            "displayName", "nickName", "profileUrl", "title", "userType", "preferredLanguage", "locale", "timezone",
+            "active");
+    private static final Set<String> MULTI_VALUED_ATTRIBUTES = ImmutableSet.of("emails", "phoneNumbers", "ims",
+            "photos", "entitlements", "roles", "x509Certificates");
+    private static final String NAME_PREFIX = "name.";
+
+    private final Reader reader;
+    private final List<String> header;
+
+    CsvUserRecordReader(Reader reader) throws IOException {
+        this.reader = reader;
+        header = readFields();
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV file has no header");
+        }
+        for (String column : header) {
+            checkColumn(column);
+        }
+    }
+
+    private static void checkColumn(String column) {
+        int dot = column.indexOf('.');
+        String attribute = dot < 0 ? column : column.substring(0, dot);
+        if (SIMPLE_ATTRIBUTES.contains(column) || column.startsWith(NAME_PREFIX)
+                || MULTI_VALUED_ATTRIBUTES.contains(attribute)) {
+            return;
+        }
+        throw new IllegalArgumentException("The CSV column " + column + " is not a supported attribute");
+    }
+
+    @Override
+    ObjectNode readRecord() throws IOException {
+        List<String> fields = readFields();
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Record " + (getRecordNumber() + 1) + " has " + fields.size()
+                    + " fields, but the header has " + header.size());
+        }
+
+        ObjectNode user = JsonNodeFactory.instance.objectNode();
+        user.putArray("schemas").add(Constants.USER_CORE_SCHEMA);
+        for (int i = 0; i < fields.size(); i++) {
+            String value = fields.get(i);
+            if (!value.isEmpty()) {
+                addAttribute(user, header.get(i), value);
+            }
+        }
+        return user;
+    }
+
+    private void addAttribute(ObjectNode user, String column, String value) {
+        if ("active".equals(column)) {
+            user.put(column, Boolean.parseBoolean(value));
+        } else if (SIMPLE_ATTRIBUTES.contains(column)) {
+            user.put(column, value);
+        } else if (column.startsWith(NAME_PREFIX)) {
+            user.with("name").put(column.substring(NAME_PREFIX.length()), value);
+        } else {
+            int dot = column.indexOf('.');
+            ObjectNode multiValue = user.withArray(dot < 0 ? column : column.substring(0, dot)).addObject();
+            multiValue.put("value", value);
+            if (dot >= 0) {
+                multiValue.put("type", column.substring(dot + 1));
+            }
+        }
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the file. Empty lines are skipped.
+     */
+    private List<String> readFields() throws IOException {
+        int c = reader.read();
+        while (c == '\r' || c == '\n') {
+            c = reader.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (quoted || c != '\n' && c != -1) {
+            if (c == -1) {
+                throw new IllegalArgumentException("Record " + (getRecordNumber() + 1)
+                        + " ends within a quoted field");
+            }
+            if (quoted && c == '"') {
+                c = reader.read();
+                if (c != '"') {
+                    quoted = false;
+                    continue;
+                }
+                field.append('"');
+            } else if (quoted) {
+                field.append((char) c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+/**
+ * A block of ids drawn from the hibernate_sequence, so they don't collide with the ids the resource server assigns to
+ * its entities. Like the resource server every value of the sequence reserves the ids up to the next increment.
+ */
+class IdBlock {
+
+    // the sequence relation itself has no increment_by column anymore since PostgreSQL 10
+    private static final String INCREMENT = "SELECT increment FROM information_schema.sequences "
+            + "WHERE sequence_schema = current_schema() AND sequence_name = 'hibernate_sequence'";
+    private static final String LEGACY_INCREMENT = "SELECT increment_by FROM hibernate_sequence";
+    private static final String NEXT_VALUES = "SELECT nextval('hibernate_sequence') FROM generate_series(1, ?)";
+
+    private final long[] ids;
+    private int next;
+
+    IdBlock(long[] ids) {
+        this.ids = ids;
+    }
+
+    static IdBlock allocate(Connection connection, int count) throws SQLException {
+        int increment = getIncrement(connection);
+        int values = (count + increment - 1) / increment;
+
+        long[] ids = new long[count];
+        try (PreparedStatement statement = connection.prepareStatement(NEXT_VALUES)) {
+            statement.setInt(1, values);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int i = 0;
+                while (resultSet.next()) {
+                    long value = resultSet.getLong(1);
+                    for (int j = 0; j < increment && i < count; j++) {
+                        ids[i++] = value + j;
+                    }
+                }
+                if (i != count) {
+                    throw new SQLException("Got " + i + " instead of " + count + " ids from hibernate_sequence");
+                }
+            }
+        }
+        return new IdBlock(ids);
+    }
+
+    /**
+     * Reads the increment from the information schema. PostgreSQL before 9.1 leaves it empty there, so it is read
+     * from the sequence relation instead.
+     */
+    private static int getIncrement(Connection connection) throws SQLException {
+        String increment = queryIncrement(connection, INCREMENT);
+        if (increment == null) {
+            increment = queryIncrement(connection, LEGACY_INCREMENT);
+        }
+        if (increment == null) {
+            throw new SQLException("The sequence hibernate_sequence has no increment");
+        }
+        return Integer.parseInt(increment.trim());
+    }
+
+    private static String queryIncrement(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+                ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    long next() {
+        if (next == ids.length) {
+            throw new NoSuchElementException("All " + ids.length + " ids of the block are used");
+        }
+        return ids[next++];
+    }
+}
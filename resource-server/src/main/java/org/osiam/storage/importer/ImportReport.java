@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Measures the time an import spends in each of its phases and the number of users and rows imported.
+ */
+class ImportReport {
+
+    static final String READ = "read and validate records";
+    static final String CHECK = "check uniqueness";
+    static final String CONVERT = "convert users";
+    static final String HASH = "hash passwords";
+    static final String ALLOCATE = "allocate ids";
+    static final String COPY = "copy rows";
+
+    private final Stopwatch total = Stopwatch.createStarted();
+    private final Map<String, Stopwatch> phases = new LinkedHashMap<>();
+    private final Map<String, Long> rows = new LinkedHashMap<>();
+    private long users;
+
+    ImportReport() {
+        for (String phase : new String[] { READ, CHECK, CONVERT, HASH, ALLOCATE, COPY }) {
+            phases.put(phase, Stopwatch.createUnstarted());
+        }
+    }
+
+    void start(String phase) {
+        phases.get(phase).start();
+    }
+
+    void stop(String phase) {
+        phases.get(phase).stop();
+    }
+
+    void addUsers(long count) {
+        users += count;
+    }
+
+    void addRows(Map<String, Long> copiedRows) {
+        for (Map.Entry<String, Long> entry : copiedRows.entrySet()) {
+            Long count = rows.get(entry.getKey());
+            rows.put(entry.getKey(), (count != null ? count : 0) + entry.getValue());
+        }
+    }
+
+    long getUsers() {
+        return users;
+    }
+
+    String getProgress() {
+        return String.format(Locale.ENGLISH, "%d users imported, %.0f users/s", users,
+                perSecond(users, total.elapsed(TimeUnit.MILLISECONDS)));
+    }
+
+    void print(PrintStream out) {
+        long totalMillis = total.elapsed(TimeUnit.MILLISECONDS);
+        out.println(String.format(Locale.ENGLISH, "Imported %d users in %.1f s, %.0f users/s", users,
+                totalMillis / 1000.0, perSecond(users, totalMillis)));
+
+        out.println(String.format(Locale.ENGLISH, "%-28s %12s %8s", "phase", "time (s)", "share"));
+        for (Map.Entry<String, Stopwatch> phase : phases.entrySet()) {
+            long millis = phase.getValue().elapsed(TimeUnit.MILLISECONDS);
+            out.println(String.format(Locale.ENGLISH, "%-28s %12.1f %7.0f%%", phase.getKey(), millis / 1000.0,
+                    totalMillis == 0 ? 0 : 100.0 * millis / totalMillis));
+        }
+
+        long copyMillis = phases.get(COPY).elapsed(TimeUnit.MILLISECONDS);
+        out.println(String.format(Locale.ENGLISH, "%-28s %12s", "table", "rows"));
+        long totalRows = 0;
+        for (Map.Entry<String, Long> table : rows.entrySet()) {
+            out.println(String.format(Locale.ENGLISH, "%-28s %12d", table.getKey(), table.getValue()));
+            totalRows += table.getValue();
+        }
+        out.println(String.format(Locale.ENGLISH, "Copied %d rows, %.0f rows/s while copying", totalRows,
+                perSecond(totalRows, copyMillis)));
+    }
+
+    private static double perSecond(long count, long millis) {
+        return millis == 0 ? 0 : count * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads users from an array of SCIM JSON objects or from objects that simply follow each other, like the newline
+ * delimited JSON written by /Users/.export.
+ */
+class JsonUserRecordReader extends UserRecordReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JsonParser parser;
+    private final boolean array;
+    private JsonToken nextToken;
+
+    JsonUserRecordReader(Reader reader) throws IOException {
+        parser = MAPPER.getFactory().createParser(reader);
+        nextToken = parser.nextToken();
+        array = nextToken == JsonToken.START_ARRAY;
+        if (array) {
+            nextToken = parser.nextToken();
+        }
+    }
+
+    @Override
+    ObjectNode readRecord() throws IOException {
+        JsonToken token = nextToken != null ? nextToken : parser.nextToken();
+        nextToken = null;
+        if (token == null || array && token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Record " + (getRecordNumber() + 1) + " is not a JSON object");
+        }
+        return MAPPER.readTree(parser);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
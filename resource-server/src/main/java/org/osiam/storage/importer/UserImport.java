@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.osiam.resources.converter.UserConverter;
+import org.osiam.resources.helper.JsonInputValidator;
+import org.osiam.resources.helper.ResourceIdGenerator;
+import org.osiam.resources.scim.User;
+import org.osiam.storage.entities.UserEntity;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.security.authentication.encoding.PasswordEncoder;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+
+/**
+ * Imports users from a file into an empty or existing PostgreSQL database of the resource server, much faster than
+ * creating them one by one via /Users. The users are read as SCIM JSON, e.g. the output of /Users/.export, or as CSV
+ * (see {@link CsvUserRecordReader}) and stored as if they were created via /Users:
+ *
+ * <pre>
+ * java -cp 'WEB-INF/classes:WEB-INF/lib/*' org.osiam.storage.importer.UserImport \
+ *     /etc/osiam/osiam.properties users.json
+ * </pre>
+ *
+ * The import runs in one transaction and reads the file twice. The first pass validates every user and copies its
+ * userName and externalId into a temporary table, which is then checked for duplicates and for users that already
+ * exist with a few set-wise queries. If there is no conflict, the second pass converts the users in batches of
+ * <code>osiam.import.batchSize</code> users (10000 by default). The passwords of a batch are hashed by
+ * <code>osiam.import.hashThreads</code> threads (one per processor by default), the ids of a batch are drawn from
+ * the hibernate_sequence with one statement, and the rows of each table are sent with one COPY. The time spent in
+ * each phase is printed at the end.
+ */
+public final class UserImport {
+
+    private static final String CONTEXT = "classpath:user-import-context.xml";
+    private static final int MAX_CONFLICTS = 100;
+
+    private final DataSource dataSource;
+    private final UserConverter userConverter;
+    private final PasswordEncoder passwordEncoder;
+    private final ResourceIdGenerator resourceIdGenerator;
+    private final JsonInputValidator jsonInputValidator = new JsonInputValidator();
+    private final ExecutorService hashExecutor;
+    private final int hashThreads;
+    private final int batchSize;
+
+    UserImport(DataSource dataSource, UserConverter userConverter, PasswordEncoder passwordEncoder,
+            ResourceIdGenerator resourceIdGenerator, int batchSize, int hashThreads) {
+        this.dataSource = dataSource;
+        this.userConverter = userConverter;
+        this.passwordEncoder = passwordEncoder;
+        this.resourceIdGenerator = resourceIdGenerator;
+        this.batchSize = batchSize;
+        this.hashThreads = hashThreads;
+        hashExecutor = Executors.newFixedThreadPool(hashThreads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: java " + UserImport.class.getName()
+                    + " <osiam.properties> <users.json|users.csv>[.gz]");
+            System.exit(2);
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(args[0])) {
+            properties.load(in);
+        }
+        int batchSize = Integer.parseInt(properties.getProperty("osiam.import.batchSize", "10000"));
+        int hashThreads = Integer.parseInt(properties.getProperty("osiam.import.hashThreads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        GenericXmlApplicationContext context = new GenericXmlApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new PropertiesPropertySource("osiam", properties));
+        context.load(CONTEXT);
+        context.refresh();
+
+        UserImport userImport = new UserImport(context.getBean(DataSource.class), context.getBean(UserConverter.class),
+                context.getBean(PasswordEncoder.class), context.getBean(ResourceIdGenerator.class), batchSize,
+                hashThreads);
+        try {
+            userImport.run(new File(args[1])).print(System.out);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            userImport.shutdown();
+            context.close();
+        }
+    }
+
+    /**
+     * Imports all users of the file or none of them.
+     *
+     * @throws IllegalArgumentException
+     *         if a user is invalid or its userName or externalId is not unique
+     */
+    ImportReport run(File file) throws SQLException, IOException, InterruptedException, ExecutionException {
+        ImportReport report = new ImportReport();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                stageKeys(file, connection, copyManager, report);
+                checkUniqueness(connection, report);
+                copyUsers(file, connection, copyManager, report);
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        return report;
+    }
+
+    void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    private void stageKeys(File file, Connection connection, CopyManager copyManager, ImportReport report)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE import_user_key (record bigint NOT NULL,"
+                    + " username character varying(255) NOT NULL, externalid character varying(255)) ON COMMIT DROP");
+        }
+
+        CopyBuffer keys = new CopyBuffer("import_user_key", "record", "username", "externalid");
+        try (UserRecordReader reader = UserRecordReader.open(file)) {
+            User user;
+            while ((user = readUser(reader, report)) != null) {
+                keys.addRow(reader.getRecordNumber(), user.getUserName(), Strings.emptyToNull(user.getExternalId()));
+                if (keys.getRowCount() == batchSize) {
+                    copyKeys(keys, copyManager, report);
+                }
+            }
+        }
+        copyKeys(keys, copyManager, report);
+    }
+
+    private void copyKeys(CopyBuffer keys, CopyManager copyManager, ImportReport report)
+            throws SQLException, IOException {
+        report.start(ImportReport.CHECK);
+        keys.copyTo(copyManager);
+        report.stop(ImportReport.CHECK);
+    }
+
+    /**
+     * @return the next user or null if all users are read
+     */
+    private User readUser(UserRecordReader reader, ImportReport report) throws IOException {
+        report.start(ImportReport.READ);
+        try {
+            ObjectNode record = reader.next();
+            if (record == null) {
+                return null;
+            }
+            User user;
+            try {
+                user = jsonInputValidator.validateJsonUser(record.toString(), RequestMethod.POST);
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalArgumentException("Record " + reader.getRecordNumber() + " is not a valid user: "
+                        + e.getMessage(), e);
+            }
+            if (Strings.isNullOrEmpty(user.getUserName())) {
+                throw new IllegalArgumentException("Record " + reader.getRecordNumber() + " has no userName");
+            }
+            return user;
+        } finally {
+            report.stop(ImportReport.READ);
+        }
+    }
+
+    private void checkUniqueness(Connection connection, ImportReport report) throws SQLException {
+        report.start(ImportReport.CHECK);
+        List<String> conflicts = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE import_user_key");
+            addDuplicates(statement, "userName", "username", conflicts);
+            addDuplicates(statement, "externalId", "externalid", conflicts);
+            addTaken(statement, "userName", "SELECT k.record, k.username FROM import_user_key k"
+                    + " JOIN scim_user u ON u.username = k.username", conflicts);
+            addTaken(statement, "externalId", "SELECT k.record, k.externalid FROM import_user_key k"
+                    + " JOIN scim_id r ON r.externalid = k.externalid", conflicts);
+        }
+        report.stop(ImportReport.CHECK);
+
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("Nothing was imported, because of these conflicts (at most "
+                    + MAX_CONFLICTS + " of each kind are listed):\n" + Joiner.on('\n').join(conflicts));
+        }
+    }
+
+    private void addDuplicates(Statement statement, String attribute, String column, List<String> conflicts)
+            throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT " + column
+                + ", string_agg(record::text, ', ' ORDER BY record) FROM import_user_key WHERE " + column
+                + " IS NOT NULL GROUP BY " + column + " HAVING count(*) > 1 ORDER BY min(record) LIMIT "
+                + MAX_CONFLICTS)) {
+            while (resultSet.next()) {
+                conflicts.add("The " + attribute + " \"" + resultSet.getString(1) + "\" is used by the records "
+                        + resultSet.getString(2));
+            }
+        }
+    }
+
+    private void addTaken(Statement statement, String attribute, String query, List<String> conflicts)
+            throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(query + " ORDER BY k.record LIMIT " + MAX_CONFLICTS)) {
+            while (resultSet.next()) {
+                conflicts.add("The " + attribute + " \"" + resultSet.getString(2) + "\" of record "
+                        + resultSet.getLong(1) + " is already taken");
+            }
+        }
+    }
+
+    private void copyUsers(File file, Connection connection, CopyManager copyManager, ImportReport report)
+            throws SQLException, IOException, InterruptedException, ExecutionException {
+        UserRows rows = new UserRows();
+        List<UserEntity> batch = new ArrayList<>(batchSize);
+        try (UserRecordReader reader = UserRecordReader.open(file)) {
+            User user;
+            while ((user = readUser(reader, report)) != null) {
+                report.start(ImportReport.CONVERT);
+                UserEntity userEntity = userConverter.fromScim(user);
+                userEntity.setId(resourceIdGenerator.generate());
+                batch.add(userEntity);
+                report.stop(ImportReport.CONVERT);
+
+                if (batch.size() == batchSize) {
+                    copyBatch(batch, rows, connection, copyManager, report);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            copyBatch(batch, rows, connection, copyManager, report);
+        }
+    }
+
+    private void copyBatch(List<UserEntity> batch, UserRows rows, Connection connection, CopyManager copyManager,
+            ImportReport report) throws SQLException, IOException, InterruptedException, ExecutionException {
+        report.start(ImportReport.HASH);
+        hashPasswords(batch);
+        report.stop(ImportReport.HASH);
+
+        report.start(ImportReport.ALLOCATE);
+        int idCount = 0;
+        for (UserEntity userEntity : batch) {
+            idCount += UserRows.countIds(userEntity);
+        }
+        IdBlock ids = IdBlock.allocate(connection, idCount);
+        report.stop(ImportReport.ALLOCATE);
+
+        report.start(ImportReport.COPY);
+        for (UserEntity userEntity : batch) {
+            rows.add(userEntity, ids);
+        }
+        report.addRows(rows.copyTo(copyManager));
+        report.stop(ImportReport.COPY);
+
+        report.addUsers(batch.size());
+        batch.clear();
+        System.out.println(report.getProgress());
+    }
+
+    /**
+     * Hashes the passwords like {@link org.osiam.resources.provisioning.SCIMUserProvisioning#create(User)}, spread
+     * over the hashing threads.
+     */
+    private void hashPasswords(List<UserEntity> users) throws InterruptedException, ExecutionException {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        int usersPerTask = Math.max(1, (users.size() + hashThreads - 1) / hashThreads);
+        for (final List<UserEntity> slice : Lists.partition(users, usersPerTask)) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (UserEntity userEntity : slice) {
+                        userEntity.setPassword(passwordEncoder.encodePassword(userEntity.getPassword(),
+                                userEntity.getId()));
+                    }
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> hashed : hashExecutor.invokeAll(tasks)) {
+            hashed.get();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Charsets;
+
+/**
+ * Reads the users to import one by one as SCIM JSON, so a file of any size can be imported.
+ */
+abstract class UserRecordReader implements Closeable {
+
+    private long recordNumber;
+
+    /**
+     * Opens a file of users. Files ending with .csv are read as CSV, all others as SCIM JSON. Files ending with .gz
+     * are decompressed.
+     */
+    static UserRecordReader open(File file) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ENGLISH);
+        InputStream in = new FileInputStream(file);
+        if (name.endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charsets.UTF_8));
+        if (name.endsWith(".csv")) {
+            return new CsvUserRecordReader(reader);
+        }
+        return new JsonUserRecordReader(reader);
+    }
+
+    /**
+     * @return the next user or null if all users are read
+     */
+    ObjectNode next() throws IOException {
+        ObjectNode user = readRecord();
+        if (user != null) {
+            recordNumber++;
+        }
+        return user;
+    }
+
+    /**
+     * @return the number of the user last read, starting with 1
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    abstract ObjectNode readRecord() throws IOException;
+}
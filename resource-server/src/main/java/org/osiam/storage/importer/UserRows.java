@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.osiam.resources.scim.MultiValuedAttributeType;
+import org.osiam.storage.entities.AddressEntity;
+import org.osiam.storage.entities.BaseMultiValuedAttributeEntityWithValue;
+import org.osiam.storage.entities.EmailEntity;
+import org.osiam.storage.entities.EntitlementEntity;
+import org.osiam.storage.entities.ExtensionFieldValueEntity;
+import org.osiam.storage.entities.ImEntity;
+import org.osiam.storage.entities.MetaEntity;
+import org.osiam.storage.entities.NameEntity;
+import org.osiam.storage.entities.PhoneNumberEntity;
+import org.osiam.storage.entities.PhotoEntity;
+import org.osiam.storage.entities.RoleEntity;
+import org.osiam.storage.entities.UserEntity;
+import org.osiam.storage.entities.X509CertificateEntity;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Writes users into the rows of the tables Hibernate maps their entities to, one {@link CopyBuffer} per table. The
+ * buffers are copied in the order of the foreign keys between the tables.
+ */
+class UserRows {
+
+    private static final String[] MULTI_VALUE_COLUMNS = { "multi_value_id", "is_primary", "value", "type",
+            UserEntity.JOIN_COLUMN_NAME };
+
+    private final CopyBuffer metas = new CopyBuffer("scim_meta", "id", "created", "lastmodified", "location",
+            "resourcetype", "version");
+    private final CopyBuffer resources = new CopyBuffer("scim_id", "internal_id", "externalid", "id", "meta_id");
+    private final CopyBuffer names = new CopyBuffer("scim_name", "id", "familyname", "formatted", "givenname",
+            "honorificprefix", "honorificsuffix", "middlename");
+    private final CopyBuffer users = new CopyBuffer("scim_user", "internal_id", "active", "displayname", "locale",
+            "nickname", "password", "preferredlanguage", "profileurl", "timezone", "title", "username", "usertype",
+            "name_id");
+    private final CopyBuffer emails = new CopyBuffer("scim_email", MULTI_VALUE_COLUMNS);
+    private final CopyBuffer phoneNumbers = new CopyBuffer("scim_phonenumber", MULTI_VALUE_COLUMNS);
+    private final CopyBuffer ims = new CopyBuffer("scim_im", MULTI_VALUE_COLUMNS);
+    private final CopyBuffer photos = new CopyBuffer("scim_photo", MULTI_VALUE_COLUMNS);
+    private final CopyBuffer entitlements = new CopyBuffer("scim_entitlements", MULTI_VALUE_COLUMNS);
+    private final CopyBuffer roles = new CopyBuffer("scim_roles", MULTI_VALUE_COLUMNS);
+    private final CopyBuffer certificates = new CopyBuffer("scim_certificate", MULTI_VALUE_COLUMNS);
+    private final CopyBuffer addresses = new CopyBuffer("scim_address", "multi_value_id", "is_primary", "country",
+            "formatted", "locality", "postalcode", "region", "streetaddress", "type", UserEntity.JOIN_COLUMN_NAME);
+    private final CopyBuffer extensionFieldValues = new CopyBuffer("scim_extension_field_value", "internal_id",
+            "value", "numeric_value", "boolean_value", "date_value", "extension_field_internal_id",
+            UserEntity.JOIN_COLUMN_NAME);
+
+    private final List<CopyBuffer> tables = Arrays.asList(metas, resources, names, users, emails, phoneNumbers, ims,
+            photos, entitlements, roles, certificates, addresses, extensionFieldValues);
+
+    /**
+     * @return the number of ids needed to add the user
+     */
+    static int countIds(UserEntity user) {
+        return 2 + (user.getName() != null ? 1 : 0) + user.getEmails().size() + user.getPhoneNumbers().size()
+                + user.getIms().size() + user.getPhotos().size() + user.getEntitlements().size()
+                + user.getRoles().size() + user.getX509Certificates().size() + user.getAddresses().size()
+                + user.getExtensionFieldValues().size();
+    }
+
+    /**
+     * Adds the rows of a user with a hashed password and a resource id.
+     */
+    void add(UserEntity user, IdBlock ids) {
+        long internalId = ids.next();
+        long metaId = ids.next();
+
+        MetaEntity meta = user.getMeta();
+        metas.addRow(metaId, meta.getCreated(), meta.getLastModified(), meta.getLocation(), meta.getResourceType(),
+                meta.getVersion());
+        resources.addRow(internalId, user.getExternalId(), user.getId().toString(), metaId);
+
+        Long nameId = null;
+        NameEntity name = user.getName();
+        if (name != null) {
+            nameId = ids.next();
+            names.addRow(nameId, name.getFamilyName(), name.getFormatted(), name.getGivenName(),
+                    name.getHonorificPrefix(), name.getHonorificSuffix(), name.getMiddleName());
+        }
+
+        users.addRow(internalId, user.getActive(), user.getDisplayName(), user.getLocale(), user.getNickName(),
+                user.getPassword(), user.getPreferredLanguage(), user.getProfileUrl(), user.getTimezone(),
+                user.getTitle(), user.getUserName(), user.getUserType(), nameId);
+
+        for (EmailEntity email : user.getEmails()) {
+            addMultiValue(emails, ids.next(), email, email.getType(), internalId);
+        }
+        for (PhoneNumberEntity phoneNumber : user.getPhoneNumbers()) {
+            addMultiValue(phoneNumbers, ids.next(), phoneNumber, phoneNumber.getType(), internalId);
+        }
+        for (ImEntity im : user.getIms()) {
+            addMultiValue(ims, ids.next(), im, im.getType(), internalId);
+        }
+        for (PhotoEntity photo : user.getPhotos()) {
+            addMultiValue(photos, ids.next(), photo, photo.getType(), internalId);
+        }
+        for (EntitlementEntity entitlement : user.getEntitlements()) {
+            addMultiValue(entitlements, ids.next(), entitlement, entitlement.getType(), internalId);
+        }
+        for (RoleEntity role : user.getRoles()) {
+            addMultiValue(roles, ids.next(), role, role.getType(), internalId);
+        }
+        for (X509CertificateEntity certificate : user.getX509Certificates()) {
+            addMultiValue(certificates, ids.next(), certificate, certificate.getType(), internalId);
+        }
+        for (AddressEntity address : user.getAddresses()) {
+            addresses.addRow(ids.next(), address.isPrimary(), address.getCountry(), address.getFormatted(),
+                    address.getLocality(), address.getPostalCode(), address.getRegion(),
+                    address.getStreetAddress(), typeValue(address.getType()), internalId);
+        }
+        for (ExtensionFieldValueEntity fieldValue : user.getExtensionFieldValues()) {
+            extensionFieldValues.addRow(ids.next(), fieldValue.getValue(), fieldValue.getNumericValue(),
+                    fieldValue.getBooleanValue(), fieldValue.getDateValue(),
+                    fieldValue.getExtensionField().getInternalId(), internalId);
+        }
+    }
+
+    private void addMultiValue(CopyBuffer table, long id, BaseMultiValuedAttributeEntityWithValue multiValue,
+            MultiValuedAttributeType type, long internalId) {
+        table.addRow(id, multiValue.isPrimary(), multiValue.getValue(), typeValue(type), internalId);
+    }
+
+    /**
+     * @return the type like the converters in org.osiam.storage.entities.jpa_converters store it
+     */
+    private static String typeValue(MultiValuedAttributeType type) {
+        if (type == null || type.getValue() == null || type.getValue().isEmpty()) {
+            return null;
+        }
+        return type.getValue();
+    }
+
+    /**
+     * Copies the rows added since the last copy into the tables.
+     *
+     * @return the number of rows copied per table
+     */
+    Map<String, Long> copyTo(CopyManager copyManager) throws SQLException, IOException {
+        Map<String, Long> copiedRows = new LinkedHashMap<>();
+        for (CopyBuffer table : tables) {
+            copiedRows.put(table.getTable(), table.copyTo(copyManager));
+        }
+        return copiedRows;
+    }
+
+    Collection<CopyBuffer> getTables() {
+        return tables;
+    }
+}
@@ -23,25 +23,36 @@
 
 package org.osiam.storage.query;
 
+import java.util.List;
+
+import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.misc.NotNull;
 import org.osiam.storage.entities.ResourceEntity;
+import org.osiam.storage.entities.ResourceEntity_;
 import org.osiam.storage.parser.LogicalOperatorRulesBaseVisitor;
 import org.osiam.storage.parser.LogicalOperatorRulesParser;
 
 /**
- * Implements the generated visitor class to do the mapping to criteria api.
+ * Implements the generated visitor class to do the mapping to criteria api. The parse tree may have been created for
+ * another filter of the same shape, so the values are taken from the tokens of the current filter.
  */
 public class EvalVisitor<T extends ResourceEntity> extends LogicalOperatorRulesBaseVisitor<Predicate> {
 
     private final FilterParser<T> filterParser;
+    private final AbstractQuery<?> query;
     private final Root<T> root;
+    private final List<Token> tokens;
 
-    public EvalVisitor(FilterParser<T> filterParser, Root<T> root) {
+    public EvalVisitor(FilterParser<T> filterParser, AbstractQuery<?> query, Root<T> root, List<Token> tokens) {
         this.filterParser = filterParser;
+        this.query = query;
         this.root = root;
+        this.tokens = tokens;
     }
 
     @Override
@@ -61,12 +72,12 @@ public class EvalVisitor<T extends ResourceEntity> extends LogicalOperatorRulesB
     public Predicate visitSimpleExp(@NotNull LogicalOperatorRulesParser.SimpleExpContext ctx) {
         ScimExpression scimExpression = getScimExpressionFromContext(ctx);
         FilterChain<T> filterChain = filterParser.createFilterChain(scimExpression);
-        return filterChain.createPredicateAndJoin(root);
+        return createPredicate(filterChain);
     }
 
     private ScimExpression getScimExpressionFromContext(LogicalOperatorRulesParser.SimpleExpContext ctx) {
         String fieldName = ctx.FIELD().getText();
-        String value = ctx.VALUE().getText();
+        String value = tokens.get(ctx.VALUE().getSymbol().getTokenIndex()).getText();
         value = value.substring(1, value.length() - 1); // removed first and last quote
         value = value.replace("\\\"", "\""); // replaced \" with "
         FilterConstraint operator = FilterConstraint.fromString(ctx.OPERATOR().getText());
@@ -80,7 +91,25 @@ public class EvalVisitor<T extends ResourceEntity> extends LogicalOperatorRulesB
         ScimExpression scimExpression = new ScimExpression(fieldName, operator, null);
 
         FilterChain<T> filterChain = filterParser.createFilterChain(scimExpression);
-        return filterChain.createPredicateAndJoin(root);
+        return createPredicate(filterChain);
+    }
+
+    /**
+     * Single-valued attributes are filtered directly on the root. Multi-valued attributes are filtered in an EXISTS
+     * subquery, which joins the association of the correlated root, so every expression gets its own join and a
+     * negated expression matches resources that have no matching value at all.
+     */
+    private Predicate createPredicate(FilterChain<T> filterChain) {
+        if (!filterChain.isMultiValued()) {
+            return filterChain.createPredicateAndJoin(root);
+        }
+
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<T> correlatedRoot = subquery.correlate(root);
+        subquery.select(correlatedRoot.get(ResourceEntity_.internalId)).where(
+                filterChain.createPredicateAndJoin(correlatedRoot));
+
+        return filterParser.entityManager.getCriteriaBuilder().exists(subquery);
     }
 
     @Override
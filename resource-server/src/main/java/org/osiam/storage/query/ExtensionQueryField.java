@@ -31,49 +31,36 @@ import javax.persistence.criteria.Root;
 import javax.persistence.criteria.SetJoin;
 import javax.persistence.metamodel.SetAttribute;
 
-import org.osiam.resources.scim.ExtensionFieldType;
 import org.osiam.storage.entities.ExtensionFieldEntity;
 import org.osiam.storage.entities.ExtensionFieldEntity_;
 import org.osiam.storage.entities.ExtensionFieldValueEntity;
 import org.osiam.storage.entities.ExtensionFieldValueEntity_;
 import org.osiam.storage.entities.UserEntity;
 import org.osiam.storage.entities.UserEntity_;
-import org.osiam.storage.helper.NumberPadder;
 
 public class ExtensionQueryField {
 
     private final String urn;
     private final ExtensionFieldEntity field;
-    private final NumberPadder numberPadder;
 
-    public ExtensionQueryField(String urn, ExtensionFieldEntity field, NumberPadder numberPadder) {
+    public ExtensionQueryField(String urn, ExtensionFieldEntity field) {
         this.urn = urn;
         this.field = field;
-        this.numberPadder = numberPadder;
     }
 
     public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
             String value, CriteriaBuilder cb) {
 
-        if (constraint != FilterConstraint.PRESENT && (field.getType() == ExtensionFieldType.INTEGER ||
-                field.getType() == ExtensionFieldType.DECIMAL)) {
-
-            value = numberPadder.pad(value); // NOSONAR - We want our modify our parameters
-        }
-
         final SetJoin<UserEntity, ExtensionFieldValueEntity> join = createOrGetJoin(
                 generateAlias(urn + "." + field.getName()), root, UserEntity_.extensionFieldValues);
         
-        Predicate filterPredicate = constraint.createPredicateForExtensionField(
-                join.get(ExtensionFieldValueEntity_.value), // NOSONAR - XEntity_.X will be filled by JPA provider
-                value, field, cb);
+        Predicate filterPredicate = constraint.createPredicateForExtensionField(join, value, field, cb);
         
         Predicate valueBelongsToField = cb.equal(join.get(ExtensionFieldValueEntity_.extensionField)
                 .get(ExtensionFieldEntity_.internalId), field.getInternalId());
-        
-        join.on(valueBelongsToField);
 
-        return filterPredicate;
+        // the filter is evaluated in its own EXISTS subquery, where Hibernate ignores the on clause of a join
+        return cb.and(valueBelongsToField, filterPredicate);
     }
 
     private String generateAlias(String value) {
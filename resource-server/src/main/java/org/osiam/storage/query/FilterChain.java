@@ -30,4 +30,9 @@ import org.osiam.storage.entities.ResourceEntity;
 
 public interface FilterChain<T extends ResourceEntity> {
     Predicate createPredicateAndJoin(Root<T> root);
+
+    /**
+     * @return true if the predicate joins a to-many association of the root
+     */
+    boolean isMultiValued();
 }
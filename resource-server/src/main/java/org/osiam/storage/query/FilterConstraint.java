@@ -23,6 +23,7 @@
 
 package org.osiam.storage.query;
 
+import java.math.BigDecimal;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
@@ -32,9 +33,13 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 
+import org.joda.time.format.ISODateTimeFormat;
 import org.osiam.resources.exceptions.InvalidConstraintException;
+import org.osiam.resources.scim.ExtensionFieldType;
 import org.osiam.resources.scim.MultiValuedAttributeType;
 import org.osiam.storage.entities.ExtensionFieldEntity;
+import org.osiam.storage.entities.ExtensionFieldValueEntity;
+import org.osiam.storage.entities.ExtensionFieldValueEntity_;
 
 public enum FilterConstraint {
     EQUALS("eq") {
@@ -54,12 +59,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            return cb.equal(path, value);
         }
 
         @Override
@@ -86,12 +87,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            throw new InvalidConstraintException(toString());
         }
 
         @Override
@@ -118,12 +115,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            throw new InvalidConstraintException(toString());
         }
 
         @Override
@@ -149,12 +142,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            return cb.isNotNull(path);
         }
 
         @Override
@@ -180,12 +169,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            return cb.greaterThan(path, value);
         }
 
         @Override
@@ -211,12 +196,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            return cb.greaterThanOrEqualTo(path, value);
         }
 
         @Override
@@ -243,12 +224,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            return cb.lessThan(path, value);
         }
 
         @Override
@@ -274,12 +251,8 @@ public enum FilterConstraint {
         }
 
         @Override
-        public Predicate createPredicateForExtensionField(Path<String> path, String value, ExtensionFieldEntity field,
-                CriteriaBuilder cb) {
-            if (!field.isConstrainedValid(toString())) {
-                throw new InvalidConstraintException(toString());
-            }
-            return createPredicateForStringField(path, value, cb);
+        public Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value, CriteriaBuilder cb) {
+            return cb.lessThanOrEqualTo(path, value);
         }
 
         @Override
@@ -321,7 +294,42 @@ public enum FilterConstraint {
     public abstract <T extends MultiValuedAttributeType> Predicate createPredicateForMultiValuedAttributeTypeField(
             Path<T> path, T value, CriteriaBuilder cb);
 
-    public abstract Predicate createPredicateForExtensionField(Path<String> path, String value,
-            ExtensionFieldEntity field, CriteriaBuilder cb);
+    public abstract Predicate createPredicateForNumericField(Path<BigDecimal> path, BigDecimal value,
+            CriteriaBuilder cb);
+
+    /**
+     * Creates the predicate on the column of the given field value that matches the type of the extension field, so
+     * numbers, booleans and dates are compared by their value and not by their string representation.
+     */
+    public Predicate createPredicateForExtensionField(Path<ExtensionFieldValueEntity> path, String value,
+            ExtensionFieldEntity field, CriteriaBuilder cb) {
+        if (!field.isConstrainedValid(toString())) {
+            throw new InvalidConstraintException(toString());
+        }
+
+        ExtensionFieldType<?> type = field.getType();
+        boolean hasValue = this != PRESENT;
+
+        if (type == ExtensionFieldType.INTEGER || type == ExtensionFieldType.DECIMAL) {
+            return createPredicateForNumericField(path.get(ExtensionFieldValueEntity_.numericValue),
+                    hasValue ? new BigDecimal(value) : null, cb);
+        } else if (type == ExtensionFieldType.BOOLEAN) {
+            return createPredicateForBooleanField(path.get(ExtensionFieldValueEntity_.booleanValue),
+                    hasValue ? ExtensionFieldType.BOOLEAN.fromString(value) : null, cb);
+        } else if (type == ExtensionFieldType.DATE_TIME) {
+            return createPredicateForDateField(path.get(ExtensionFieldValueEntity_.dateValue),
+                    hasValue ? ISODateTimeFormat.dateTimeParser().parseDateTime(value).toDate() : null, cb);
+        }
+
+        Path<String> valuePath = path.get(ExtensionFieldValueEntity_.value);
+        if (this == EQUALS) {
+            // the index only covers a prefix of the value, see ExtensionFieldValueEntity
+            return cb.and(
+                    cb.equal(cb.substring(valuePath, 1, ExtensionFieldValueEntity.VALUE_PREFIX_LENGTH),
+                            ExtensionFieldValueEntity.valuePrefix(value)),
+                    cb.equal(valuePath, value));
+        }
+        return createPredicateForStringField(valuePath, value, cb);
+    }
 
 }
\ No newline at end of file
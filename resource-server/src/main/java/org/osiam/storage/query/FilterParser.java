@@ -23,34 +23,115 @@
 
 package org.osiam.storage.query;
 
+import java.util.List;
+
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.osiam.storage.entities.ResourceEntity;
 import org.osiam.storage.parser.LogicalOperatorRulesLexer;
 import org.osiam.storage.parser.LogicalOperatorRulesParser;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public abstract class FilterParser<T extends ResourceEntity> {
 
+    /**
+     * The maximum number of filter shapes whose parse trees are kept.
+     */
+    static final int MAX_CACHED_FILTER_SHAPES = 1000;
+
+    private static final String VALUE_SLOT = "\"?\"";
+
     @PersistenceContext
     protected EntityManager entityManager; // NOSONAR - doesn't need to be private
 
-    public Predicate createPredicateAndJoin(String filterString, Root<T> root) {
+    /**
+     * Parse trees by the shape of their filter, i.e. its tokens with every value replaced by a slot. Clients mostly
+     * send the same few filters with different values, so these only have to be parsed once. The trees are only read
+     * by the {@link EvalVisitor}, which takes the values from the tokens of the current filter.
+     */
+    private final Cache<String, ParseTree> parseTrees = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_FILTER_SHAPES)
+            .build();
+
+    /**
+     * Creates the predicate for the given filter, to be used in the where clause of the given query. The query stays
+     * flat: filters on multi-valued attributes are turned into EXISTS subqueries correlated with the root, so the
+     * query never joins a to-many association and doesn't return a resource more than once.
+     * 
+     * @param filterString
+     *        the SCIM filter
+     * @param query
+     *        the query the predicate is created for
+     * @param root
+     *        the root of the query
+     */
+    public Predicate createPredicate(String filterString, AbstractQuery<?> query, Root<T> root) {
         LogicalOperatorRulesLexer lexer = new LogicalOperatorRulesLexer(new ANTLRInputStream(filterString));
-        LogicalOperatorRulesParser parser = new LogicalOperatorRulesParser(new CommonTokenStream(lexer));
-        parser.addErrorListener(new OsiamAntlrErrorListener());
-        ParseTree tree = parser.parse();
-        EvalVisitor<T> visitor = new EvalVisitor<>(this, root);
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        tokenStream.fill();
+        List<Token> tokens = tokenStream.getTokens();
+
+        String shape = getShape(tokens);
+        ParseTree tree = parseTrees.getIfPresent(shape);
+        if (tree == null) {
+            tree = parse(tokenStream);
+            parseTrees.put(shape, tree);
+        }
+        EvalVisitor<T> visitor = new EvalVisitor<>(this, query, root, tokens);
 
         return visitor.visit(tree);
     }
 
+    private String getShape(List<Token> tokens) {
+        StringBuilder shape = new StringBuilder();
+        for (Token token : tokens) {
+            if (token.getType() == LogicalOperatorRulesLexer.VALUE) {
+                shape.append(VALUE_SLOT);
+            } else {
+                shape.append(token.getText());
+            }
+            shape.append(' ');
+        }
+        return shape.toString();
+    }
+
+    /**
+     * Parses the tokens with the faster SLL prediction first. It is sufficient for almost all filters, but may fail
+     * for valid ones, so the filter is parsed again with full LL prediction if it does, which reports syntax errors.
+     */
+    private ParseTree parse(CommonTokenStream tokenStream) {
+        LogicalOperatorRulesParser parser = new LogicalOperatorRulesParser(tokenStream);
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+
+        try {
+            return parser.parse();
+        } catch (ParseCancellationException e) {
+            tokenStream.reset();
+            parser.reset();
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.addErrorListener(new OsiamAntlrErrorListener());
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            return parser.parse();
+        }
+    }
+
     public Expression<?> createSortByField(String sortBy, Root<T> root) {
         QueryField<T> filterField = getFilterField(sortBy);
 
@@ -53,4 +53,9 @@ public class GroupSimpleFilterChain implements FilterChain<GroupEntity> {
         return filterField.addFilter(root, scimExpression.getConstraint(), scimExpression.getValue(), criteriaBuilder);
     }
 
+    @Override
+    public boolean isMultiValued() {
+        return filterField != null && filterField.isMultiValued();
+    }
+
 }
\ No newline at end of file
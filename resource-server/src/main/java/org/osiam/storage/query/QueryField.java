@@ -35,4 +35,9 @@ public interface QueryField<T extends ResourceEntity> {
             CriteriaBuilder cb);
 
     Expression<?> createSortByField(Root<T> root, CriteriaBuilder cb);
+
+    /**
+     * @return true if the filter joins a to-many association of the root
+     */
+    boolean isMultiValued();
 }
@@ -29,7 +29,6 @@ import javax.inject.Inject;
 
 import org.osiam.storage.dao.ExtensionDao;
 import org.osiam.storage.entities.UserEntity;
-import org.osiam.storage.helper.NumberPadder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -38,12 +37,9 @@ public class UserFilterParser extends FilterParser<UserEntity> {
     @Inject
     private ExtensionDao extensionDao;
 
-    @Inject
-    private NumberPadder numberPadder;
-
     @Override
     protected FilterChain<UserEntity> createFilterChain(ScimExpression filter) {
-        return new UserSimpleFilterChain(entityManager.getCriteriaBuilder(), extensionDao, filter, numberPadder);
+        return new UserSimpleFilterChain(entityManager.getCriteriaBuilder(), extensionDao, filter);
     }
 
     @Override
@@ -336,7 +336,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
         }
 
     },
-    EMAILS("emails") {
+    EMAILS("emails", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -352,7 +352,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
         }
 
     },
-    EMAILS_VALUE("emails.value") {
+    EMAILS_VALUE("emails.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -368,7 +368,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
         }
 
     },
-    EMAILS_TYPE("emails.type") {
+    EMAILS_TYPE("emails.type", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -391,7 +391,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
         }
 
     },
-    EMAILS_PRIMARY("emails.primary") {
+    EMAILS_PRIMARY("emails.primary", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -410,7 +410,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
         }
 
     },
-    PHONENUMBERS("phonenumbers") {
+    PHONENUMBERS("phonenumbers", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -424,7 +424,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    PHONENUMBERS_VALUE("phonenumbers.value") {
+    PHONENUMBERS_VALUE("phonenumbers.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -438,7 +438,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    PHONENUMBERS_TYPE("phonenumbers.type") {
+    PHONENUMBERS_TYPE("phonenumbers.type", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -458,7 +458,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    PHONENUMBERS_PRIMARY("phonenumbers.primary") {
+    PHONENUMBERS_PRIMARY("phonenumbers.primary", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, PhoneNumberEntity> join = root.join(UserEntity_.phoneNumbers, JoinType.LEFT);
@@ -470,7 +470,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    IMS("ims") {
+    IMS("ims", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -485,7 +485,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    IMS_VALUE("ims.value") {
+    IMS_VALUE("ims.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -500,7 +500,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
         }
 
     },
-    IMS_TYPE("ims.type") {
+    IMS_TYPE("ims.type", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -520,7 +520,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    IMS_PRIMARY("ims.primary") {
+    IMS_PRIMARY("ims.primary", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, ImEntity> join = root.join(UserEntity_.ims, JoinType.LEFT);
@@ -532,7 +532,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    PHOTOS("photos") {
+    PHOTOS("photos", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -548,7 +548,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    PHOTOS_VALUE("photos.value") {
+    PHOTOS_VALUE("photos.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -563,7 +563,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    PHOTOS_TYPE("photos.type") {
+    PHOTOS_TYPE("photos.type", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -583,7 +583,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    PHOTOS_PRIMARY("photos.primary") {
+    PHOTOS_PRIMARY("photos.primary", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, PhotoEntity> join = root.join(UserEntity_.photos, JoinType.LEFT);
@@ -595,7 +595,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_REGION("addresses.region") {
+    ADDRESSES_REGION("addresses.region", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, AddressEntity> join = root.join(UserEntity_.addresses, JoinType.LEFT);
@@ -607,7 +607,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_STREETADDRESS("addresses.streetaddress") {
+    ADDRESSES_STREETADDRESS("addresses.streetaddress", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, AddressEntity> join = root.join(UserEntity_.addresses, JoinType.LEFT);
@@ -619,7 +619,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_FORMATTED("addresses.formatted") {
+    ADDRESSES_FORMATTED("addresses.formatted", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, AddressEntity> join = root.join(UserEntity_.addresses, JoinType.LEFT);
@@ -631,7 +631,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_POSTALCODE("addresses.postalcode") {
+    ADDRESSES_POSTALCODE("addresses.postalcode", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, AddressEntity> join = root.join(UserEntity_.addresses, JoinType.LEFT);
@@ -643,7 +643,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_LOCALITY("addresses.locality") {
+    ADDRESSES_LOCALITY("addresses.locality", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, AddressEntity> join = root.join(UserEntity_.addresses, JoinType.LEFT);
@@ -655,7 +655,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_TYPE("addresses.type") {
+    ADDRESSES_TYPE("addresses.type", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             Address.Type addressType = null;
@@ -674,7 +674,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_COUNTRY("addresses.country") {
+    ADDRESSES_COUNTRY("addresses.country", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, AddressEntity> join = root.join(UserEntity_.addresses, JoinType.LEFT);
@@ -686,7 +686,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ADDRESSES_PRIMARY("addresses.primary") {
+    ADDRESSES_PRIMARY("addresses.primary", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, AddressEntity> join = root.join(UserEntity_.addresses, JoinType.LEFT);
@@ -698,7 +698,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ENTITLEMENTS("entitlements") {
+    ENTITLEMENTS("entitlements", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -712,7 +712,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ENTITLEMENTS_VALUE("entitlements.value") {
+    ENTITLEMENTS_VALUE("entitlements.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -726,7 +726,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ENTITLEMENTS_TYPE("entitlements.type") {
+    ENTITLEMENTS_TYPE("entitlements.type", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             Entitlement.Type type = null;
@@ -745,7 +745,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ENTITLEMENTS_PRIMARY("entitlements.primary") {
+    ENTITLEMENTS_PRIMARY("entitlements.primary", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, EntitlementEntity> join = root.join(UserEntity_.entitlements, JoinType.LEFT);
@@ -757,7 +757,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ROLES("roles") {
+    ROLES("roles", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -771,7 +771,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ROLES_VALUE("roles.value") {
+    ROLES_VALUE("roles.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -785,7 +785,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    ROLES_PRIMARY("roles.primary") {
+    ROLES_PRIMARY("roles.primary", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint, String value, CriteriaBuilder cb) {
             SetJoin<UserEntity, RoleEntity> join = root.join(UserEntity_.roles, JoinType.LEFT);
@@ -797,7 +797,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    X509CERTIFICATES("x509certificates") {
+    X509CERTIFICATES("x509certificates", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -811,7 +811,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    X509CERTIFICATES_VALUE("x509certificates.value") {
+    X509CERTIFICATES_VALUE("x509certificates.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -825,7 +825,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    GROUPS("groups") {
+    GROUPS("groups", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -838,7 +838,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    GROUPS_VALUE("groups.value") {
+    GROUPS_VALUE("groups.value", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -851,7 +851,7 @@ public enum UserQueryField implements QueryField<UserEntity> {
             throw handleSortByFieldNotSupported(toString());
         }
     },
-    GROUPS_DISPLAY("groups.display") {
+    GROUPS_DISPLAY("groups.display", true) {
         @Override
         public Predicate addFilter(Root<UserEntity> root, FilterConstraint constraint,
                 String value, CriteriaBuilder cb) {
@@ -874,9 +874,20 @@ public enum UserQueryField implements QueryField<UserEntity> {
     }
 
     private final String name;
+    private final boolean multiValued;
 
     private UserQueryField(String name) {
+        this(name, false);
+    }
+
+    private UserQueryField(String name, boolean multiValued) {
         this.name = name;
+        this.multiValued = multiValued;
+    }
+
+    @Override
+    public boolean isMultiValued() {
+        return multiValued;
     }
 
     protected RuntimeException handleSortByFieldNotSupported(String fieldName) {
@@ -35,7 +35,6 @@ import org.osiam.storage.dao.ExtensionDao;
 import org.osiam.storage.entities.ExtensionEntity;
 import org.osiam.storage.entities.ExtensionFieldEntity;
 import org.osiam.storage.entities.UserEntity;
-import org.osiam.storage.helper.NumberPadder;
 
 public class UserSimpleFilterChain implements FilterChain<UserEntity> {
 
@@ -47,14 +46,11 @@ public class UserSimpleFilterChain implements FilterChain<UserEntity> {
 
     private final ExtensionDao extensionDao;
     private final CriteriaBuilder criteriaBuilder;
-    private final NumberPadder numberPadder;
 
     public UserSimpleFilterChain(CriteriaBuilder criteriaBuilder, ExtensionDao extensionDao,
-            ScimExpression scimExpression,
-            NumberPadder numberPadder) {
+            ScimExpression scimExpression) {
         this.criteriaBuilder = criteriaBuilder;
         this.extensionDao = extensionDao;
-        this.numberPadder = numberPadder;
         this.scimExpression = scimExpression;
         
         String field = scimExpression.getField();
@@ -84,8 +80,8 @@ public class UserSimpleFilterChain implements FilterChain<UserEntity> {
         } catch (OsiamException ex) {
             return null;
         }
-        final ExtensionFieldEntity fieldEntity = extension.getFieldForName(fieldName, true);
-        return new ExtensionQueryField(urn, fieldEntity, numberPadder);
+        final ExtensionFieldEntity fieldEntity = extensionDao.getExtensionField(extension, fieldName, true);
+        return new ExtensionQueryField(urn, fieldEntity);
     }
 
     @Override
@@ -102,4 +98,10 @@ public class UserSimpleFilterChain implements FilterChain<UserEntity> {
         }
     }
 
+    @Override
+    public boolean isMultiValued() {
+        // extension field values are stored in a to-many association of the user
+        return userFilterField == null || userFilterField.isMultiValued();
+    }
+
 }
\ No newline at end of file
@@ -1,4 +1,7 @@
 drop table if exists database_scheme_version cascade;
+drop table if exists osiam_revoked_access_token cascade;
+drop table if exists osiam_refresh_token cascade;
+drop table if exists osiam_access_token cascade;
 drop table if exists osiam_client_scopes cascade;
 drop table if exists osiam_client_grants cascade;
 drop table if exists osiam_client cascade;
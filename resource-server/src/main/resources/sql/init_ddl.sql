@@ -32,7 +32,7 @@ CREATE TABLE database_scheme_version (
 
 CREATE SEQUENCE hibernate_sequence
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
     CACHE 1;
@@ -81,6 +81,44 @@ CREATE TABLE osiam_client_scopes (
 );
 
 
+--
+-- Name: osiam_access_token; Type: TABLE; Schema: public; Owner: -
+--
+
+CREATE TABLE osiam_access_token (
+    token_id character varying(32) NOT NULL,
+    token bytea NOT NULL,
+    authentication_id character varying(32) NOT NULL,
+    user_name character varying(255),
+    client_id character varying(32) NOT NULL,
+    authentication bytea NOT NULL,
+    refresh_token character varying(32),
+    expiration timestamp without time zone
+);
+
+
+--
+-- Name: osiam_refresh_token; Type: TABLE; Schema: public; Owner: -
+--
+
+CREATE TABLE osiam_refresh_token (
+    token_id character varying(32) NOT NULL,
+    token bytea NOT NULL,
+    authentication bytea NOT NULL,
+    expiration timestamp without time zone
+);
+
+
+--
+-- Name: osiam_revoked_access_token; Type: TABLE; Schema: public; Owner: -
+--
+
+CREATE TABLE osiam_revoked_access_token (
+    token_id character varying(255) NOT NULL,
+    expiration timestamp without time zone NOT NULL
+);
+
+
 --
 -- TOC entry 165 (class 1259 OID 34639)
 -- Dependencies: 5
@@ -198,7 +236,10 @@ CREATE TABLE scim_extension_field (
 
 CREATE TABLE scim_extension_field_value (
     internal_id bigint NOT NULL,
-    value text NOT NULL,
+    value text,
+    numeric_value numeric,
+    boolean_value boolean,
+    date_value timestamp without time zone,
     extension_field_internal_id bigint NOT NULL,
     user_internal_id bigint NOT NULL
 );
@@ -391,6 +432,30 @@ ALTER TABLE ONLY osiam_client
     ADD CONSTRAINT osiam_client_pkey PRIMARY KEY (internal_id);
 
 
+--
+-- Name: osiam_access_token_pkey; Type: CONSTRAINT; Schema: public; Owner: -
+--
+
+ALTER TABLE ONLY osiam_access_token
+    ADD CONSTRAINT osiam_access_token_pkey PRIMARY KEY (token_id);
+
+
+--
+-- Name: osiam_refresh_token_pkey; Type: CONSTRAINT; Schema: public; Owner: -
+--
+
+ALTER TABLE ONLY osiam_refresh_token
+    ADD CONSTRAINT osiam_refresh_token_pkey PRIMARY KEY (token_id);
+
+
+--
+-- Name: osiam_revoked_access_token_pkey; Type: CONSTRAINT; Schema: public; Owner: -
+--
+
+ALTER TABLE ONLY osiam_revoked_access_token
+    ADD CONSTRAINT osiam_revoked_access_token_pkey PRIMARY KEY (token_id);
+
+
 --
 -- TOC entry 1914 (class 2606 OID 34646)
 -- Dependencies: 165 165 2111
@@ -671,6 +736,76 @@ ALTER TABLE ONLY scim_id
     ADD CONSTRAINT uk_q4ya5m8v6tafgtvw1inqtmm42 UNIQUE (id);
 
 
+--
+-- Name: osiam_access_token_authentication_id_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX osiam_access_token_authentication_id_idx ON osiam_access_token USING btree (authentication_id);
+
+
+--
+-- Name: osiam_access_token_client_id_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX osiam_access_token_client_id_idx ON osiam_access_token USING btree (client_id);
+
+
+--
+-- Name: osiam_access_token_expiration_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX osiam_access_token_expiration_idx ON osiam_access_token USING btree (expiration);
+
+
+--
+-- Name: osiam_access_token_refresh_token_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX osiam_access_token_refresh_token_idx ON osiam_access_token USING btree (refresh_token);
+
+
+--
+-- Name: osiam_access_token_user_name_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX osiam_access_token_user_name_idx ON osiam_access_token USING btree (user_name);
+
+
+--
+-- Name: osiam_refresh_token_expiration_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX osiam_refresh_token_expiration_idx ON osiam_refresh_token USING btree (expiration);
+
+
+--
+-- Name: osiam_revoked_access_token_expiration_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX osiam_revoked_access_token_expiration_idx ON osiam_revoked_access_token USING btree (expiration);
+
+
+--
+-- Name: scim_extension_field_value_boolean_value_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX scim_extension_field_value_boolean_value_idx ON scim_extension_field_value USING btree (extension_field_internal_id, boolean_value) WHERE (boolean_value IS NOT NULL);
+
+
+--
+-- Name: scim_extension_field_value_date_value_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX scim_extension_field_value_date_value_idx ON scim_extension_field_value USING btree (extension_field_internal_id, date_value) WHERE (date_value IS NOT NULL);
+
+
+--
+-- Name: scim_extension_field_value_numeric_value_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX scim_extension_field_value_numeric_value_idx ON scim_extension_field_value USING btree (extension_field_internal_id, numeric_value) WHERE (numeric_value IS NOT NULL);
+
+
 --
 -- TOC entry 1966 (class 1259 OID 34817)
 -- Dependencies: 178 2111
@@ -734,6 +869,13 @@ CREATE INDEX uk_6y89p0fpcdcg2fq9k5u8h1173 ON scim_photo USING btree (value);
 CREATE INDEX uk_75wo1phhovp2nbruh2dmfhcwk ON scim_entitlements USING btree (type);
 
 
+--
+-- Name: uk_7jnl5vqcfg1j9plj4py1qvxcp; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_7jnl5vqcfg1j9plj4py1qvxcp ON scim_entitlements USING btree (user_internal_id);
+
+
 --
 -- TOC entry 1919 (class 1259 OID 34794)
 -- Dependencies: 166 2111
@@ -779,6 +921,13 @@ CREATE INDEX uk_8snvn02x0for0fvcj8erir2k0 ON scim_email USING btree (value);
 CREATE INDEX uk_abrc9lbp52g1b16x0dwtd5nld ON scim_phonenumber USING btree (value);
 
 
+--
+-- Name: uk_b29y2qc2j5uu49wa9grpbulb0; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_b29y2qc2j5uu49wa9grpbulb0 ON scim_group_scim_id USING btree (members_internal_id);
+
+
 --
 -- TOC entry 1961 (class 1259 OID 34815)
 -- Dependencies: 176 176 2111
@@ -788,6 +937,13 @@ CREATE INDEX uk_abrc9lbp52g1b16x0dwtd5nld ON scim_phonenumber USING btree (value
 CREATE INDEX uk_da192a97ita9ygqdlmabnf4bw ON scim_im USING btree (value, type);
 
 
+--
+-- Name: uk_dmfj3s46npn4p1pcrc3iur2mp; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_dmfj3s46npn4p1pcrc3iur2mp ON scim_email USING btree (user_internal_id);
+
+
 --
 -- TOC entry 1973 (class 1259 OID 34819)
 -- Dependencies: 180 2111
@@ -806,6 +962,20 @@ CREATE INDEX uk_e7hqv692l3lm558s16p1l5acm ON scim_phonenumber USING btree (type)
 CREATE INDEX uk_eplkwvpox52tjppj9oogkf6f2 ON scim_certificate USING btree (value, type);
 
 
+--
+-- Name: uk_ghdpgmh1b8suimtfxdl8653bj; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_ghdpgmh1b8suimtfxdl8653bj ON scim_certificate USING btree (user_internal_id);
+
+
+--
+-- Name: uk_hmsah9dinhk7f8k4lf50h658; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_hmsah9dinhk7f8k4lf50h658 ON scim_im USING btree (user_internal_id);
+
+
 --
 -- TOC entry 1925 (class 1259 OID 34797)
 -- Dependencies: 167 2111
@@ -869,6 +1039,13 @@ CREATE INDEX uk_ipfxts8e4ofm3oo5djk40pv86 ON scim_phonenumber USING btree (value
 CREATE INDEX uk_j86m6mxppkb3g2vx72a11xob1 ON scim_email USING btree (value, type);
 
 
+--
+-- Name: scim_extension_field_value_value_prefix_idx; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX scim_extension_field_value_value_prefix_idx ON scim_extension_field_value USING btree (extension_field_internal_id, substring(value, 1, 256));
+
+
 --
 -- TOC entry 1984 (class 1259 OID 34824)
 -- Dependencies: 182 2111
@@ -878,6 +1055,13 @@ CREATE INDEX uk_j86m6mxppkb3g2vx72a11xob1 ON scim_email USING btree (value, type
 CREATE INDEX uk_mw914wc9rj4qsue2q60n4ktk4 ON scim_roles USING btree (value);
 
 
+--
+-- Name: uk_n5und6lnrtblhgs2ococpglyi; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_n5und6lnrtblhgs2ococpglyi ON scim_roles USING btree (user_internal_id);
+
+
 --
 -- TOC entry 1933 (class 1259 OID 34799)
 -- Dependencies: 169 2111
@@ -896,6 +1080,27 @@ CREATE INDEX uk_nxxhl5vhce96gwm0se9spjjjv ON scim_entitlements USING btree (valu
 CREATE INDEX uk_p2y10qxtuqdvbl5spxu98akx2 ON scim_extension_field_value USING btree (user_internal_id, extension_field_internal_id);
 
 
+--
+-- Name: uk_q3rk61yla08pvod7gq8av7i0l; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_q3rk61yla08pvod7gq8av7i0l ON scim_photo USING btree (user_internal_id);
+
+
+--
+-- Name: uk_qr6gtqi0h9r6yp034tarlry1k; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_qr6gtqi0h9r6yp034tarlry1k ON scim_address USING btree (user_internal_id);
+
+
+--
+-- Name: uk_rpqvdf1p9twdigaq1wclu5wm8; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX uk_rpqvdf1p9twdigaq1wclu5wm8 ON scim_phonenumber USING btree (user_internal_id);
+
+
 --
 -- TOC entry 1921 (class 1259 OID 34793)
 -- Dependencies: 166 2111
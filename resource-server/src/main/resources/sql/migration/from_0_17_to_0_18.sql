@@ -0,0 +1,124 @@
+-- Migrationscript from release server version 0.17 to 0.18
+
+CREATE INDEX uk_7jnl5vqcfg1j9plj4py1qvxcp ON scim_entitlements USING btree (user_internal_id);
+
+CREATE INDEX uk_b29y2qc2j5uu49wa9grpbulb0 ON scim_group_scim_id USING btree (members_internal_id);
+
+CREATE INDEX uk_dmfj3s46npn4p1pcrc3iur2mp ON scim_email USING btree (user_internal_id);
+
+CREATE INDEX uk_ghdpgmh1b8suimtfxdl8653bj ON scim_certificate USING btree (user_internal_id);
+
+CREATE INDEX uk_hmsah9dinhk7f8k4lf50h658 ON scim_im USING btree (user_internal_id);
+
+CREATE INDEX uk_n5und6lnrtblhgs2ococpglyi ON scim_roles USING btree (user_internal_id);
+
+CREATE INDEX uk_q3rk61yla08pvod7gq8av7i0l ON scim_photo USING btree (user_internal_id);
+
+CREATE INDEX uk_qr6gtqi0h9r6yp034tarlry1k ON scim_address USING btree (user_internal_id);
+
+CREATE INDEX uk_rpqvdf1p9twdigaq1wclu5wm8 ON scim_phonenumber USING btree (user_internal_id);
+
+CREATE TABLE osiam_access_token (
+    token_id character varying(32) NOT NULL,
+    token bytea NOT NULL,
+    authentication_id character varying(32) NOT NULL,
+    user_name character varying(255),
+    client_id character varying(32) NOT NULL,
+    authentication bytea NOT NULL,
+    refresh_token character varying(32),
+    expiration timestamp without time zone
+);
+
+CREATE TABLE osiam_refresh_token (
+    token_id character varying(32) NOT NULL,
+    token bytea NOT NULL,
+    authentication bytea NOT NULL,
+    expiration timestamp without time zone
+);
+
+CREATE TABLE osiam_revoked_access_token (
+    token_id character varying(255) NOT NULL,
+    expiration timestamp without time zone NOT NULL
+);
+
+ALTER TABLE ONLY osiam_access_token
+    ADD CONSTRAINT osiam_access_token_pkey PRIMARY KEY (token_id);
+
+ALTER TABLE ONLY osiam_refresh_token
+    ADD CONSTRAINT osiam_refresh_token_pkey PRIMARY KEY (token_id);
+
+ALTER TABLE ONLY osiam_revoked_access_token
+    ADD CONSTRAINT osiam_revoked_access_token_pkey PRIMARY KEY (token_id);
+
+CREATE INDEX osiam_access_token_authentication_id_idx ON osiam_access_token USING btree (authentication_id);
+
+CREATE INDEX osiam_access_token_client_id_idx ON osiam_access_token USING btree (client_id);
+
+CREATE INDEX osiam_access_token_expiration_idx ON osiam_access_token USING btree (expiration);
+
+CREATE INDEX osiam_access_token_refresh_token_idx ON osiam_access_token USING btree (refresh_token);
+
+CREATE INDEX osiam_access_token_user_name_idx ON osiam_access_token USING btree (user_name);
+
+CREATE INDEX osiam_refresh_token_expiration_idx ON osiam_refresh_token USING btree (expiration);
+
+CREATE INDEX osiam_revoked_access_token_expiration_idx ON osiam_revoked_access_token USING btree (expiration);
+
+--
+-- The ids are allocated in blocks of 50 by the resource server (pooled-lo),
+-- so the sequence has to be incremented by the same size.
+--
+ALTER SEQUENCE hibernate_sequence INCREMENT BY 50;
+
+--
+-- The values of multi-valued attributes, extension fields and the other unbounded
+-- strings are mapped as text instead of character large objects. The columns are
+-- of type text already, so only the index for equality filters on extension
+-- fields is added. It covers the first 256 characters of the value only, because
+-- base64 encoded binaries and long strings exceed the size of a B-tree index entry.
+--
+CREATE INDEX scim_extension_field_value_value_prefix_idx ON scim_extension_field_value USING btree (extension_field_internal_id, substring(value, 1, 256));
+
+--
+-- Integers, decimals, booleans and date times of extension fields are stored in
+-- columns of their type instead of as strings, so filters on them compare the
+-- values and can use the partial indexes of the typed columns.
+--
+ALTER TABLE scim_extension_field_value ADD COLUMN numeric_value numeric;
+ALTER TABLE scim_extension_field_value ADD COLUMN boolean_value boolean;
+ALTER TABLE scim_extension_field_value ADD COLUMN date_value timestamp without time zone;
+ALTER TABLE scim_extension_field_value ALTER COLUMN value DROP NOT NULL;
+
+--
+-- Numbers were stored with an offset of 10^20 added to their integral part and
+-- the fractional part appended with the sign of the number. Numbers between -1
+-- and 0 were stored like their positive counterparts and become positive.
+--
+UPDATE scim_extension_field_value v
+    SET numeric_value = trunc(v.value::numeric) - 100000000000000000000
+            + CASE WHEN trunc(v.value::numeric) < 100000000000000000000 THEN -1 ELSE 1 END
+            * (v.value::numeric - trunc(v.value::numeric)),
+        value = NULL
+    FROM scim_extension_field f
+    WHERE f.internal_id = v.extension_field_internal_id AND f.type IN ('INTEGER', 'DECIMAL');
+
+UPDATE scim_extension_field_value v
+    SET boolean_value = v.value::boolean, value = NULL
+    FROM scim_extension_field f
+    WHERE f.internal_id = v.extension_field_internal_id AND f.type = 'BOOLEAN';
+
+--
+-- Date times were stored in UTC. The resource server writes timestamps in the
+-- time zone of its JVM, so run this script in a session with the same time zone
+-- (SET TIME ZONE '...').
+--
+UPDATE scim_extension_field_value v
+    SET date_value = v.value::timestamp with time zone, value = NULL
+    FROM scim_extension_field f
+    WHERE f.internal_id = v.extension_field_internal_id AND f.type = 'DATE_TIME';
+
+CREATE INDEX scim_extension_field_value_boolean_value_idx ON scim_extension_field_value USING btree (extension_field_internal_id, boolean_value) WHERE (boolean_value IS NOT NULL);
+
+CREATE INDEX scim_extension_field_value_date_value_idx ON scim_extension_field_value USING btree (extension_field_internal_id, date_value) WHERE (date_value IS NOT NULL);
+
+CREATE INDEX scim_extension_field_value_numeric_value_idx ON scim_extension_field_value USING btree (extension_field_internal_id, numeric_value) WHERE (numeric_value IS NOT NULL);
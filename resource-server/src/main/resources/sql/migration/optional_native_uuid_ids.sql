@@ -0,0 +1,11 @@
+-- Optional migration, stores the ids of users and groups in a native uuid column
+-- instead of a varchar, which halves the size of the column and its unique index.
+--
+-- The resource server sends the ids as strings, so the JDBC URL in osiam.properties
+-- needs the parameter stringtype=unspecified, e.g.
+-- db.url=jdbc:postgresql://localhost:5432/osiam?stringtype=unspecified
+--
+-- Afterwards the filter operators co, sw and ew can't be used with the ids
+-- of groups and members, because PostgreSQL doesn't compare uuids with LIKE.
+
+ALTER TABLE scim_id ALTER COLUMN id TYPE uuid USING id::uuid;
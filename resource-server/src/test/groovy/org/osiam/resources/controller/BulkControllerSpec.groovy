@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.controller
+
+import javax.servlet.ServletInputStream
+import javax.servlet.http.HttpServletRequest
+
+import org.osiam.resources.exceptions.BulkLimitExceededException
+import org.osiam.resources.exceptions.SchemaUnknownException
+import org.osiam.resources.provisioning.BulkResponse
+import org.osiam.resources.provisioning.SCIMBulkProvisioning
+import org.springframework.security.core.context.SecurityContextHolder
+import org.springframework.security.oauth2.provider.AuthorizationRequest
+import org.springframework.security.oauth2.provider.DefaultAuthorizationRequest
+import org.springframework.security.oauth2.provider.OAuth2Authentication
+
+import spock.lang.Specification
+
+class BulkControllerSpec extends Specification {
+
+    static final String BULK_REQUEST = '{"schemas":["urn:scim:schemas:core:2.0:BulkRequest"],"failOnErrors":1,' +
+            '"Operations":[{"method":"DELETE","path":"/Users/u1"},{"method":"DELETE","path":"/Users/u2"}]}'
+
+    SCIMBulkProvisioning scimBulkProvisioning = Mock()
+    BulkController bulkController = new BulkController(scimBulkProvisioning: scimBulkProvisioning,
+            maxOperations: 1000, maxPayloadSize: 1024)
+    HttpServletRequest request = Mock()
+
+    def setup() {
+        request.scheme >> 'http'
+        request.serverName >> 'localhost'
+        request.serverPort >> 8080
+        request.contextPath >> '/osiam-resource-server'
+        request.requestURI >> '/osiam-resource-server/Bulk'
+    }
+
+    def cleanup() {
+        SecurityContextHolder.clearContext()
+    }
+
+    def 'the operations are executed with the scopes of the client'() {
+        given:
+        AuthorizationRequest authorizationRequest = new DefaultAuthorizationRequest('example-client', ['POST', 'DELETE'])
+        SecurityContextHolder.context.authentication = new OAuth2Authentication(authorizationRequest, null)
+        def response = new BulkResponse([])
+        withBody(BULK_REQUEST)
+
+        when:
+        def result = bulkController.bulk(request)
+
+        then:
+        1 * scimBulkProvisioning.execute({ it.failOnErrors == 1 && it.operations*.path == ['/Users/u1', '/Users/u2'] },
+                'http://localhost:8080/osiam-resource-server', { it == ['POST', 'DELETE'] as Set }) >> response
+        result.is(response)
+    }
+
+    def 'a request with more operations than allowed is rejected'() {
+        given:
+        bulkController.maxOperations = 1
+        withBody(BULK_REQUEST)
+
+        when:
+        bulkController.bulk(request)
+
+        then:
+        thrown(BulkLimitExceededException)
+        0 * scimBulkProvisioning._
+    }
+
+    def 'a request larger than the maximum payload size is rejected even without a content length'() {
+        given:
+        bulkController.maxPayloadSize = BULK_REQUEST.length() - 1
+        withBody(BULK_REQUEST, contentLength)
+
+        when:
+        bulkController.bulk(request)
+
+        then:
+        thrown(BulkLimitExceededException)
+        0 * scimBulkProvisioning._
+
+        where:
+        contentLength << [BULK_REQUEST.length(), -1]
+    }
+
+    def 'a request without the schema of bulk requests is rejected'() {
+        given:
+        withBody('{"Operations":[]}')
+
+        when:
+        bulkController.bulk(request)
+
+        then:
+        thrown(SchemaUnknownException)
+    }
+
+    private void withBody(String body, int contentLength = body.length()) {
+        def input = new ByteArrayInputStream(body.bytes)
+        request.contentLength >> contentLength
+        request.inputStream >> new ServletInputStream() {
+            @Override
+            int read() {
+                input.read()
+            }
+        }
+    }
+}
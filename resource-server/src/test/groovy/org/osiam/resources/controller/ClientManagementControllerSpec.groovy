@@ -25,6 +25,7 @@ package org.osiam.resources.controller
 
 import java.lang.reflect.Method
 
+import org.osiam.security.helper.ClientCacheInvalidator
 import org.osiam.storage.dao.ClientDao
 import org.springframework.http.HttpStatus
 import org.springframework.web.bind.annotation.RequestMapping
@@ -37,7 +38,9 @@ import spock.lang.Specification
 class ClientManagementControllerSpec extends Specification {
 
     def clientDao = Mock(ClientDao)
-    def clientManagementController = new ClientManagementController(clientDao: clientDao)
+    def clientCacheInvalidator = Mock(ClientCacheInvalidator)
+    def clientManagementController = new ClientManagementController(clientDao: clientDao,
+            clientCacheInvalidator: clientCacheInvalidator)
 
     def "should contain a method to GET a client"() {
         given:
@@ -87,6 +90,7 @@ class ClientManagementControllerSpec extends Specification {
         mapping.method() == [RequestMethod.DELETE]
         defaultStatus.value() == HttpStatus.OK
         1 * clientDao.delete("f47ac10b-58cc-4372-a567-0e02b2c3d479")
+        1 * clientCacheInvalidator.invalidate("f47ac10b-58cc-4372-a567-0e02b2c3d479")
     }
 
     def "should contain a method to update a client"() {
@@ -106,5 +110,6 @@ class ClientManagementControllerSpec extends Specification {
         defaultStatus.value() == HttpStatus.OK
         body
         1 * clientDao.update(_, _)
+        1 * clientCacheInvalidator.invalidate('id')
     }
 }
\ No newline at end of file
@@ -23,12 +23,12 @@
 
 package org.osiam.resources.controller
 
-import org.osiam.resources.helper.AttributesRemovalHelper
 import org.osiam.resources.helper.JsonInputValidator
 import org.osiam.resources.helper.RequestParamHelper
+import org.osiam.resources.provisioning.PagedSearchResult
 import org.osiam.resources.provisioning.SCIMGroupProvisioning
 import org.osiam.resources.scim.Group
-import org.osiam.resources.scim.SCIMSearchResult
+import org.osiam.storage.dao.TotalResults
 import org.springframework.http.HttpStatus
 import org.springframework.web.bind.annotation.RequestMapping
 import org.springframework.web.bind.annotation.RequestMethod
@@ -46,9 +46,8 @@ class GroupControllerSpec extends Specification {
     def provisioning = Mock(SCIMGroupProvisioning)
     def requestParamHelper = Mock(RequestParamHelper)
     def jsonInputValidator = Mock(JsonInputValidator)
-    def attributesRemovalHelper = Mock(AttributesRemovalHelper)
     def underTest = new GroupController(scimGroupProvisioning: provisioning, requestParamHelper: requestParamHelper,
-            jsonInputValidator: jsonInputValidator, attributesRemovalHelper: attributesRemovalHelper)
+            jsonInputValidator: jsonInputValidator)
     def httpServletResponse = Mock(HttpServletResponse)
     Group group = new Group.Builder("group1").setId(UUID.randomUUID().toString()).build()
 
@@ -189,10 +188,12 @@ class GroupControllerSpec extends Specification {
         map.get("sortOrder") >> "sortOrder"
         map.get("count") >> 10
         map.get("startIndex") >> 1
+        map.get("totalResults") >> TotalResults.EXACT
+        map.get("attributes") >> ([] as String[])
 
-        def scimSearchResultMock = Mock(SCIMSearchResult)
+        def scimSearchResultMock = Mock(PagedSearchResult)
         def set = ["schemas"] as Set
-        provisioning.search("filter", "sortBy", "sortOrder", 10, 1) >> scimSearchResultMock
+        provisioning.search("filter", "sortBy", "sortOrder", 10, 1, TotalResults.EXACT, Collections.emptySet()) >> scimSearchResultMock
         scimSearchResultMock.getSchemas() >> set
 
         when:
@@ -204,7 +205,7 @@ class GroupControllerSpec extends Specification {
         mapping.method() == [RequestMethod.GET]
         mapping.value() == []
         body
-        1 * attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResultMock, map)
+        1 * scimSearchResultMock.withAttributes(Collections.emptySet())
     }
 
     def "should be able to search a group on /Group/.search URI with POST method"() {
@@ -219,10 +220,12 @@ class GroupControllerSpec extends Specification {
         map.get("sortOrder") >> "sortOrder"
         map.get("count") >> 10
         map.get("startIndex") >> 1
+        map.get("totalResults") >> TotalResults.EXACT
+        map.get("attributes") >> ([] as String[])
 
-        def scimSearchResultMock = Mock(SCIMSearchResult)
+        def scimSearchResultMock = Mock(PagedSearchResult)
         def set = ["schemas"] as Set
-        provisioning.search("filter", "sortBy", "sortOrder", 10, 1) >> scimSearchResultMock
+        provisioning.search("filter", "sortBy", "sortOrder", 10, 1, TotalResults.EXACT, Collections.emptySet()) >> scimSearchResultMock
         scimSearchResultMock.getSchemas() >> set
 
         when:
@@ -234,7 +237,33 @@ class GroupControllerSpec extends Specification {
         mapping.value() == ["/.search"]
         mapping.method() == [RequestMethod.POST]
         body
-        1 * attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResultMock, map)
+        1 * scimSearchResultMock.withAttributes(Collections.emptySet())
 
     }
+
+    def "should use a cursor search if a cursor is given"() {
+        given:
+        def servletRequestMock = Mock(HttpServletRequest)
+        def map = Mock(Map)
+        requestParamHelper.getRequestParameterValues(servletRequestMock) >> map
+
+        map.get("filter") >> "filter"
+        map.get("sortBy") >> "sortBy"
+        map.get("sortOrder") >> "sortOrder"
+        map.get("count") >> 10
+        map.get("startIndex") >> 1
+        map.get("totalResults") >> TotalResults.EXACT
+        map.get("attributes") >> ([] as String[])
+        map.get("cursor") >> "cursor"
+
+        def scimSearchResultMock = Mock(PagedSearchResult)
+
+        when:
+        underTest.searchWithGet(servletRequestMock)
+
+        then:
+        1 * provisioning.searchWithCursor("filter", "sortBy", "sortOrder", 10, "cursor", TotalResults.EXACT, Collections.emptySet()) >> scimSearchResultMock
+        0 * provisioning.search(_, _, _, _, _, _, _)
+        1 * scimSearchResultMock.withAttributes(Collections.emptySet())
+    }
 }
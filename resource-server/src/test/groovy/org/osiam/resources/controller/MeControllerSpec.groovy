@@ -70,7 +70,7 @@ class MeControllerSpec extends Specification {
         1 * accessTokenValidationService.loadAuthentication("access_token") >> authentication
         1 * userAuthentication.getPrincipal() >> principal
         1 * principal.get("id") >> userId
-        1 * userDao.getById(userId) >> user
+        1 * userDao.getById(userId, UserEntity.PROFILE_FETCH_PLAN) >> user
         result.email == "test@test.de"
         result.first_name == user.getName().getGivenName()
         result.last_name == user.getName().getFamilyName()
@@ -102,7 +102,7 @@ class MeControllerSpec extends Specification {
         1 * accessTokenValidationService.loadAuthentication("access_token") >> authentication
         1 * userAuthentication.getPrincipal() >> principal
         1 * principal.get("id") >> userId
-        1 * userDao.getById(userId) >> user
+        1 * userDao.getById(userId, UserEntity.PROFILE_FETCH_PLAN) >> user
         result.getEmail() == null
     }
 
@@ -130,7 +130,7 @@ class MeControllerSpec extends Specification {
         1 * accessTokenValidationService.loadAuthentication("access_token") >> authentication
         1 * userAuthentication.getPrincipal() >> principal
         1 * principal.get("id") >> userId
-        1 * userDao.getById(userId) >> user
+        1 * userDao.getById(userId, UserEntity.PROFILE_FETCH_PLAN) >> user
         result
     }
 
@@ -163,7 +163,7 @@ class MeControllerSpec extends Specification {
         1 * accessTokenValidationService.loadAuthentication("access_token") >> authentication
         1 * userAuthentication.getPrincipal() >> principal
         1 * principal.get("id") >> userId
-        1 * userDao.getById(userId) >> user
+        1 * userDao.getById(userId, UserEntity.PROFILE_FETCH_PLAN) >> user
         result.getEmail() == null
     }
 
@@ -186,7 +186,7 @@ class MeControllerSpec extends Specification {
         1 * accessTokenValidationService.loadAuthentication("access_token") >> authentication
         1 * userAuthentication.getPrincipal() >> principal
         1 * principal.get("id") >> userId
-        1 * userDao.getById(userId) >> user
+        1 * userDao.getById(userId, UserEntity.PROFILE_FETCH_PLAN) >> user
         result.getName() == null
         result.getFirst_name() == null
         result.getLast_name() == null
@@ -28,7 +28,7 @@ import org.osiam.resources.scim.Constants
 import spock.lang.Specification
 
 class ServiceProviderConfigSpec extends Specification {
-    def underTest = new ServiceProviderConfigsController()
+    def underTest = new ServiceProviderConfigsController(maxBulkOperations: 1000, maxBulkPayloadSize: 1048576)
 
     def "should return a ServiceProviderConfig"() {
         given:
@@ -41,9 +41,9 @@ class ServiceProviderConfigSpec extends Specification {
         then:
         config.schemas == schemas
         config.patch.supported
-        !config.bulk.supported
-        !config.bulk.maxOperations
-        !config.bulk.maxPayloadSize
+        config.bulk.supported
+        config.bulk.maxOperations == 1000
+        config.bulk.maxPayloadSize == 1048576
         config.filter.supported
         config.filter.maxResults == 100
         !config.changePassword.supported
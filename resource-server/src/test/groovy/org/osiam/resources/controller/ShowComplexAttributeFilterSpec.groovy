@@ -29,16 +29,19 @@ import org.joda.time.DateTime
 import org.joda.time.format.ISODateTimeFormat
 import org.osiam.resources.helper.RequestParamHelper
 import org.osiam.resources.provisioning.SCIMUserProvisioning
+import org.osiam.resources.provisioning.PagedSearchResult
 import org.osiam.resources.scim.Meta
-import org.osiam.resources.scim.SCIMSearchResult
 import org.osiam.resources.scim.User
 
 import spock.lang.Specification
 
+import com.fasterxml.jackson.databind.ObjectMapper
+
 class ShowComplexAttributeFilterSpec extends Specification {
     def provisioning = Mock(SCIMUserProvisioning)
     def underTest = new UserController(scimUserProvisioning: provisioning, requestParamHelper: new RequestParamHelper())
     def servletRequestMock = Mock(HttpServletRequest)
+    def mapper = new ObjectMapper()
 
     def "should be able to just show a field of an complex type"() {
         given:
@@ -48,18 +51,20 @@ class ShowComplexAttributeFilterSpec extends Specification {
         def created = dateTimeFormatter.print(date)
 
         def user = new User.Builder("username").setMeta(new Meta.Builder(actualDate, null).build()).build()
-        def scimSearchResult = new SCIMSearchResult([user] as List, 23, 100, 0, ["urn:scim:schemas:core:1.0"] as Set)
+        def attributes = ['meta', 'created'] as Set
+        def scimSearchResult = PagedSearchResult.withStartIndex([user] as List, 23, 100, 0, "urn:scim:schemas:core:1.0")
         when:
         def result = underTest.searchWithPost(servletRequestMock)
+        def json = mapper.readValue(mapper.writeValueAsString(result), Map)
 
         then:
         2 * servletRequestMock.getParameter("attributes") >> "meta.created"
-        1 * provisioning.search(_, _, _, _, _) >> scimSearchResult
+        1 * provisioning.search(_, _, _, _, _, _, attributes) >> scimSearchResult
 
-        result.getResources() == [[meta: [created: created]]] as List
-        result.getItemsPerPage() == 100
-        result.getStartIndex() == 0
-        result.getTotalResults() == 23
-        result.getSchemas() == ["urn:scim:schemas:core:1.0"] as Set
+        json.Resources == [[meta: [created: created]]]
+        json.itemsPerPage == 100
+        json.startIndex == 0
+        json.totalResults == 23
+        json.schemas == ["urn:scim:schemas:core:1.0"]
     }
 }
\ No newline at end of file
@@ -23,14 +23,15 @@
 
 package org.osiam.resources.controller
 
-import org.osiam.resources.helper.AttributesRemovalHelper
 import org.osiam.resources.helper.JsonInputValidator
+import org.osiam.resources.helper.NdjsonWriter
 import org.osiam.resources.helper.RequestParamHelper
+import org.osiam.resources.provisioning.PagedSearchResult
 import org.osiam.resources.provisioning.SCIMUserProvisioning
 import org.osiam.resources.scim.Meta
 import org.osiam.resources.scim.Name
-import org.osiam.resources.scim.SCIMSearchResult
 import org.osiam.resources.scim.User
+import org.osiam.storage.dao.TotalResults
 import org.osiam.storage.entities.EmailEntity
 import org.osiam.storage.entities.MetaEntity
 import org.osiam.storage.entities.NameEntity
@@ -42,6 +43,7 @@ import org.springframework.web.bind.annotation.ResponseBody
 import org.springframework.web.bind.annotation.ResponseStatus
 import spock.lang.Specification
 
+import javax.servlet.ServletOutputStream
 import javax.servlet.http.HttpServletRequest
 import javax.servlet.http.HttpServletResponse
 import java.lang.reflect.Method
@@ -50,10 +52,9 @@ class UserControllerSpec extends Specification {
 
     RequestParamHelper requestParamHelper = Mock()
     JsonInputValidator jsonInputValidator = Mock()
-    AttributesRemovalHelper attributesRemovalHelper = Mock()
     SCIMUserProvisioning scimUserProvisioning = Mock()
     UserController userController = new UserController(requestParamHelper: requestParamHelper,
-            jsonInputValidator: jsonInputValidator, attributesRemovalHelper: attributesRemovalHelper,
+            jsonInputValidator: jsonInputValidator,
             scimUserProvisioning: scimUserProvisioning)
     def httpServletRequest = Mock(HttpServletRequest)
     def httpServletResponse = Mock(HttpServletResponse)
@@ -262,10 +263,12 @@ class UserControllerSpec extends Specification {
         map.get("sortOrder") >> "sortOrder"
         map.get("count") >> 10
         map.get("startIndex") >> 1
+        map.get("totalResults") >> TotalResults.EXACT
+        map.get("attributes") >> ([] as String[])
 
-        SCIMSearchResult scimSearchResultMock = Mock()
+        PagedSearchResult scimSearchResultMock = Mock()
         def set = ["schemas"] as Set
-        scimUserProvisioning.search("filter", "sortBy", "sortOrder", 10, 1) >> scimSearchResultMock
+        scimUserProvisioning.search("filter", "sortBy", "sortOrder", 10, 1, TotalResults.EXACT, Collections.emptySet()) >> scimSearchResultMock
         scimSearchResultMock.getSchemas() >> set
 
         when:
@@ -277,7 +280,7 @@ class UserControllerSpec extends Specification {
         mapping.value() == []
         mapping.method() == [RequestMethod.GET]
         body
-        1 * attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResultMock, map)
+        1 * scimSearchResultMock.withAttributes(Collections.emptySet())
     }
 
     def "should be able to search a user on /User/.search URI with POST method"() {
@@ -292,10 +295,12 @@ class UserControllerSpec extends Specification {
         map.get("sortOrder") >> "sortOrder"
         map.get("count") >> 10
         map.get("startIndex") >> 1
+        map.get("totalResults") >> TotalResults.EXACT
+        map.get("attributes") >> ([] as String[])
 
-        def scimSearchResultMock = Mock(SCIMSearchResult)
+        def scimSearchResultMock = Mock(PagedSearchResult)
         def set = ["schemas"] as Set
-        scimUserProvisioning.search("filter", "sortBy", "sortOrder", 10, 1) >> scimSearchResultMock
+        scimUserProvisioning.search("filter", "sortBy", "sortOrder", 10, 1, TotalResults.EXACT, Collections.emptySet()) >> scimSearchResultMock
         scimSearchResultMock.getSchemas() >> set
 
         when:
@@ -307,6 +312,30 @@ class UserControllerSpec extends Specification {
         mapping.value() == ["/.search"]
         mapping.method() == [RequestMethod.POST]
         body
-        1 * attributesRemovalHelper.removeSpecifiedAttributes(scimSearchResultMock, map)
+        1 * scimSearchResultMock.withAttributes(Collections.emptySet())
     }
-}
\ No newline at end of file
+
+    def "should stream all users on /Users/.export as newline delimited JSON"() {
+        given:
+        Method method = UserController.class.getDeclaredMethod("export", HttpServletRequest, HttpServletResponse)
+        ByteArrayOutputStream body = new ByteArrayOutputStream()
+        httpServletRequest.getHeaders("Accept-Encoding") >> Collections.enumeration([])
+        httpServletResponse.getOutputStream() >> new ServletOutputStream() {
+            void write(int b) {
+                body.write(b)
+            }
+        }
+
+        when:
+        RequestMapping mapping = method.getAnnotation(RequestMapping)
+        userController.export(httpServletRequest, httpServletResponse)
+
+        then:
+        mapping.value() == ["/.export"]
+        mapping.method() == [RequestMethod.GET]
+        1 * scimUserProvisioning.export({ it instanceof NdjsonWriter }) >> { NdjsonWriter writer ->
+            writer.handle([provisionedUser])
+        }
+        body.toString("UTF-8").readLines().size() == 1
+    }
+}
@@ -30,7 +30,6 @@ import org.osiam.storage.dao.ExtensionDao
 import org.osiam.storage.entities.ExtensionEntity
 import org.osiam.storage.entities.ExtensionFieldEntity
 import org.osiam.storage.entities.ExtensionFieldValueEntity
-import org.osiam.storage.helper.NumberPadder
 
 import spock.lang.Specification
 
@@ -40,9 +39,8 @@ class ExtensionConverterSpec extends Specification {
     private static String URN2 = "urn:org.osiam.extensions:Test02:1.0"
 
     private ExtensionDao extensionDao = Mock()
-    private NumberPadder numberPadder = Mock()
 
-    private ExtensionConverter converter = new ExtensionConverter(extensionDao: extensionDao, numberPadder: numberPadder)
+    private ExtensionConverter converter = new ExtensionConverter(extensionDao: extensionDao)
 
     Map fixtures = [(URN1): [
             [fieldname: 'gender', valueAsString: 'male', value: 'male', type: ExtensionFieldType.STRING],
@@ -65,8 +63,6 @@ class ExtensionConverterSpec extends Specification {
         Set<Extension> extensions = converter.toScim(extensionFieldValueEntitySet)
 
         then:
-        1 * numberPadder.unpad('1.78') >> '1.78'
-        1 * numberPadder.unpad('2') >> '2'
         extensions == scimExtensionSet
     }
 
@@ -82,11 +78,42 @@ class ExtensionConverterSpec extends Specification {
         then:
         1 * extensionDao.getExtensionByUrn(URN1) >> extensionMap[URN1]
         1 * extensionDao.getExtensionByUrn(URN2) >> extensionMap[URN2]
-        1 * numberPadder.pad('1.78') >> '1.78'
-        1 * numberPadder.pad('2') >> '2'
         extensions == extensionFieldValueEntitySet
     }
 
+    def 'the values are stored in the column of the type of their field'() {
+        given:
+        Set<Extension> scimExtensionSet = getFilledScimExtension(fixtures, URN1)
+        extensionDao.getExtensionByUrn(URN1) >> createExtension(URN1)
+
+        when:
+        Map values = converter.fromScim(scimExtensionSet).collectEntries { [it.extensionField.name, it] }
+
+        then:
+        values.gender.value == 'male'
+        values.gender.numericValue == null
+        values.size.numericValue == new BigDecimal('1.78')
+        values.size.value == null
+        values.numberChildren.numericValue == 2
+        values.birth.dateValue == fixtures[URN1].find { it.fieldname == 'birth' }.value
+        values.newsletter.booleanValue
+    }
+
+    def 'a value missing in the column of the type of its field is left out'() {
+        given:
+        ExtensionEntity extension = new ExtensionEntity(urn: URN1)
+        ExtensionFieldEntity field = new ExtensionFieldEntity(name: 'numberChildren', type: ExtensionFieldType.INTEGER,
+                extension: extension)
+        ExtensionFieldValueEntity valueEntity = new ExtensionFieldValueEntity(extensionField: field, value: '2')
+
+        when:
+        Set<Extension> extensions = converter.toScim([valueEntity] as Set)
+
+        then:
+        valueEntity.typedValue == null
+        extensions.empty
+    }
+
     def 'convert empty extensionEntity set to empty extension set works'() {
         given:
         Set<ExtensionFieldValueEntity> extensionFieldValueEntitySet = Collections.emptySet()
@@ -138,7 +165,7 @@ class ExtensionConverterSpec extends Specification {
 
             def fixture = fixtures.get(urn)
             for (field in fixture) {
-                ExtensionFieldValueEntity valueEntity = getFieldToEntityValueSet(entity, field.get('fieldname'), field.get('valueAsString'), field.get('type'))
+                ExtensionFieldValueEntity valueEntity = getFieldToEntityValueSet(entity, field.get('fieldname'), field.get('value'), field.get('type'))
                 extensionFieldValueEntitySet.add(valueEntity)
             }
         }
@@ -164,15 +191,15 @@ class ExtensionConverterSpec extends Specification {
         return scimExtensionSet
     }
 
-    def ExtensionFieldValueEntity getFieldToEntityValueSet(ExtensionEntity extensionEntity, String name, String value, ExtensionFieldType type) {
+    def ExtensionFieldValueEntity getFieldToEntityValueSet(ExtensionEntity extensionEntity, String name, Object value, ExtensionFieldType type) {
         ExtensionFieldEntity fieldEntity = new ExtensionFieldEntity()
         fieldEntity.setName(name)
         fieldEntity.setType(type)
 
         ExtensionFieldValueEntity valueEntity = new ExtensionFieldValueEntity()
-        valueEntity.setValue(value)
         fieldEntity.setExtension(extensionEntity)
         valueEntity.setExtensionField(fieldEntity)
+        valueEntity.setTypedValue(value)
 
         return valueEntity
     }
@@ -103,6 +103,25 @@ class GroupConverterSpec extends Specification {
         group.getMembers().first().getReference() == 'location'
     }
 
+    def 'converting group entity to scim leaves out the members if they are not requested'() {
+        given:
+        GroupEntity groupEntity = getFilledGroupEntityWithMember(UUID.randomUUID(), 'location')
+
+        when:
+        Group group = groupConverter.toScim(groupEntity, ['displayName'] as Set)
+
+        then:
+        0 * metaConverter.toScim(_)
+        group.displayName == fixtures["displayName"]
+        group.members.empty
+    }
+
+    def 'the fetch plan only contains the requested attributes'() {
+        expect:
+        groupConverter.getFetchPlan(['displayName', 'members'] as Set) == ['members.meta']
+        groupConverter.getFetchPlan([] as Set) == GroupEntity.DEFAULT_FETCH_PLAN
+    }
+
     def 'converting group entity to scim works as expected'() {
         given:
         def uuid = UUID.randomUUID()
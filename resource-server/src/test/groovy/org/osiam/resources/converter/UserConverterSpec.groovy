@@ -109,6 +109,33 @@ class UserConverterSpec extends Specification {
         user.userType == fixtures["userType"]
     }
 
+    def 'converting user entity to scim only converts the requested attributes'() {
+        given:
+        UserEntity userEntity = getFilledUserEntity(UUID.randomUUID())
+
+        when:
+        def user = userConverter.toScim(userEntity, ['userName', 'emails'] as Set)
+
+        then:
+        1 * extensionConverter.toScim(_) >> ([] as Set<Extension>)
+        1 * emailConverter.toScim(_) >> ([] as Set)
+        0 * nameConverter.toScim(_)
+        0 * metaConverter.toScim(_)
+        0 * addressConverter.toScim(_)
+        0 * phoneNumberConverter.toScim(_)
+        0 * roleConverter.toScim(_)
+        user.userName == fixtures["userName"]
+        user.meta == null
+        user.groups.empty
+    }
+
+    def 'the fetch plan contains the requested attributes and the extension values'() {
+        expect:
+        userConverter.getFetchPlan(['userName', 'emails', 'groups'] as Set) ==
+                ['emails', 'groups.meta', 'extensionFieldValues.extensionField.extension']
+        userConverter.getFetchPlan([] as Set) == UserEntity.DEFAULT_FETCH_PLAN
+    }
+
     def 'converting scim user to entity works as expected'() {
         given:
         def uuid = UUID.randomUUID()
@@ -81,6 +81,14 @@ class OsiamExceptionHandlerSpec extends Specification {
         (result.getBody() as OsiamExceptionHandler.JsonErrorResult).error_code == HttpStatus.I_AM_A_TEAPOT.name()
     }
 
+    def "status is set to REQUEST_ENTITY_TOO_LARGE when a bulk request exceeds the limits"() {
+        when:
+        def result = exceptionHandler.handleConflict(new BulkLimitExceededException(IRRELEVANT), request)
+        then:
+        result.getStatusCode() == HttpStatus.REQUEST_ENTITY_TOO_LARGE
+        (result.getBody() as OsiamExceptionHandler.JsonErrorResult).description == IRRELEVANT
+    }
+
     def get_exception(Closure c) {
         try {
             c.call()
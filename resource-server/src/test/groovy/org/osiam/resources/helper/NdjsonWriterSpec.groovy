@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.helper
+
+import java.util.zip.GZIPInputStream
+
+import javax.servlet.ServletOutputStream
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+
+import org.osiam.resources.scim.User
+
+import spock.lang.Specification
+
+import com.fasterxml.jackson.databind.ObjectMapper
+
+class NdjsonWriterSpec extends Specification {
+
+    HttpServletRequest request = Mock()
+    HttpServletResponse response = Mock()
+    ByteArrayOutputStream body = new ByteArrayOutputStream()
+
+    def setup() {
+        response.getOutputStream() >> new ServletOutputStream() {
+            void write(int b) {
+                body.write(b)
+            }
+        }
+    }
+
+    def 'resources are written one per line'() {
+        given:
+        request.getHeaders('Accept-Encoding') >> Collections.enumeration([])
+
+        when:
+        NdjsonWriter writer = NdjsonWriter.forResponse(request, response)
+        writer.handle([new User(userName: 'user1'), new User(userName: 'user2')])
+        writer.handle([new User(userName: 'user3')])
+        writer.close()
+
+        then:
+        1 * response.setContentType(NdjsonWriter.CONTENT_TYPE)
+        0 * response.setHeader('Content-Encoding', _)
+        readUserNames(body.toString('UTF-8')) == ['user1', 'user2', 'user3']
+    }
+
+    def 'resources are compressed with gzip if the client accepts it'() {
+        given:
+        request.getHeaders('Accept-Encoding') >> Collections.enumeration(['deflate, GZIP'])
+
+        when:
+        NdjsonWriter writer = NdjsonWriter.forResponse(request, response)
+        writer.handle([new User(userName: 'user1')])
+        writer.close()
+
+        then:
+        1 * response.setHeader('Content-Encoding', 'gzip')
+        readUserNames(new GZIPInputStream(new ByteArrayInputStream(body.toByteArray())).getText('UTF-8')) ==
+                ['user1']
+    }
+
+    def 'every chunk is flushed to the client'() {
+        given:
+        request.getHeaders('Accept-Encoding') >> Collections.enumeration(['gzip'])
+        NdjsonWriter writer = NdjsonWriter.forResponse(request, response)
+
+        when:
+        writer.handle([new User(userName: 'user1')])
+
+        then:
+        body.size() > 0
+    }
+
+    private List<String> readUserNames(String ndjson) {
+        ObjectMapper mapper = new ObjectMapper()
+        ndjson.readLines().collect { mapper.readValue(it, User).userName }
+    }
+}
@@ -26,6 +26,7 @@ package org.osiam.resources.helper
 import javax.servlet.http.HttpServletRequest
 
 import org.osiam.storage.dao.ResourceDao
+import org.osiam.storage.dao.TotalResults
 
 import spock.lang.Ignore
 import spock.lang.Specification
@@ -200,4 +201,59 @@ class RequestParamHelperSpec extends Specification {
             "created"
         ]
     }
+
+    def "should pass the cursor through, including an empty one"() {
+        given:
+        servletRequestMock.getParameter("cursor") >> cursor
+
+        when:
+        Map result = requestParamHelper.getRequestParameterValues(servletRequestMock)
+
+        then:
+        result.get("cursor") == cursor
+
+        where:
+        cursor << [null, "", "AQAAAA"]
+    }
+
+    def "should allow a count of 0 to only retrieve the total number of results"() {
+        given:
+        servletRequestMock.getParameter("count") >> "0"
+
+        when:
+        Map result = requestParamHelper.getRequestParameterValues(servletRequestMock)
+
+        then:
+        result.get("count") == 0
+    }
+
+    def "should parse the kind of total results and default to exact"() {
+        given:
+        servletRequestMock.getParameter("totalResults") >> totalResults
+
+        when:
+        Map result = requestParamHelper.getRequestParameterValues(servletRequestMock)
+
+        then:
+        result.get("totalResults") == expected
+
+        where:
+        totalResults | expected
+        null         | TotalResults.EXACT
+        "exact"      | TotalResults.EXACT
+        "Estimated"  | TotalResults.ESTIMATED
+        "none"       | TotalResults.NONE
+    }
+
+    def "should throw exception if the kind of total results is unknown"() {
+        given:
+        servletRequestMock.getParameter("totalResults") >> "some"
+
+        when:
+        requestParamHelper.getRequestParameterValues(servletRequestMock)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "The totalResults value 'some' is not valid. Allowed are exact, estimated and none"
+    }
 }
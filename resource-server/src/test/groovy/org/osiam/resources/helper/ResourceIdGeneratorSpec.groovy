@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.helper
+
+import org.osiam.resources.helper.ResourceIdGenerator.Strategy
+
+import spock.lang.Specification
+
+class ResourceIdGeneratorSpec extends Specification {
+
+    def 'time ordered ids are version 7 UUIDs starting with the time of their creation'() {
+        given:
+        long before = System.currentTimeMillis()
+
+        when:
+        UUID id = new ResourceIdGenerator(Strategy.TIME_ORDERED).generate()
+
+        then:
+        id.version() == 7
+        id.variant() == 2
+        (id.mostSignificantBits >>> 16) >= before
+        (id.mostSignificantBits >>> 16) <= System.currentTimeMillis()
+    }
+
+    def 'time ordered ids of later milliseconds are sorted after the earlier ones as strings'() {
+        given:
+        ResourceIdGenerator generator = new ResourceIdGenerator(Strategy.TIME_ORDERED)
+
+        when:
+        String first = generator.generate().toString()
+        Thread.sleep(2)
+        String second = generator.generate().toString()
+
+        then:
+        first < second
+    }
+
+    def 'random ids are version 4 UUIDs'() {
+        when:
+        List<UUID> ids = (1..1000).collect { new ResourceIdGenerator(Strategy.RANDOM).generate() }
+
+        then:
+        ids*.version().unique() == [4]
+        ids*.variant().unique() == [2]
+        ids.unique().size() == 1000
+    }
+}
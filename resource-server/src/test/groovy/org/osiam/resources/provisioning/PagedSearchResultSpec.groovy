@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.provisioning
+
+import org.joda.time.DateTime
+import org.joda.time.format.ISODateTimeFormat
+import org.osiam.resources.scim.Constants
+import org.osiam.resources.scim.Meta
+import org.osiam.resources.scim.SCIMSearchResult
+import org.osiam.resources.scim.User
+
+import spock.lang.Specification
+
+import com.fasterxml.jackson.databind.ObjectMapper
+
+class PagedSearchResultSpec extends Specification {
+
+    def mapper = new ObjectMapper()
+
+    def 'a page of an index based search is serialized like a SCIM search result'() {
+        given:
+        def user = new User.Builder('marissa').build()
+        def pagedResult = PagedSearchResult.withStartIndex([user], 2L, 1, 1, Constants.USER_CORE_SCHEMA)
+        def scimResult = new SCIMSearchResult([user], 2, 1, 1, Constants.USER_CORE_SCHEMA)
+
+        expect:
+        mapper.readTree(mapper.writeValueAsString(pagedResult)) == mapper.readTree(mapper.writeValueAsString(scimResult))
+    }
+
+    def 'the next cursor is serialized instead of the start index'() {
+        given:
+        def result = PagedSearchResult.withCursor([new User.Builder('marissa').build()], 2L, 1, 'nextPage',
+                Constants.USER_CORE_SCHEMA)
+
+        when:
+        def json = mapper.readTree(mapper.writeValueAsString(result))
+
+        then:
+        json.get('nextCursor').asText() == 'nextPage'
+        json.get('totalResults').asLong() == 2
+        json.get('itemsPerPage').asLong() == 1
+        json.get('Resources').size() == 1
+        !json.has('startIndex')
+    }
+
+    def 'the next cursor is omitted on the last page'() {
+        given:
+        def result = PagedSearchResult.withCursor([], 0L, 100, null, Constants.USER_CORE_SCHEMA)
+
+        when:
+        def json = mapper.readTree(mapper.writeValueAsString(result))
+
+        then:
+        !json.has('nextCursor')
+        !json.has('startIndex')
+        !json.has('Resources')
+    }
+
+    def 'an omitted total number of results is not serialized'() {
+        given:
+        def result = PagedSearchResult.withStartIndex([], null, 100, 1, Constants.USER_CORE_SCHEMA)
+
+        when:
+        def json = mapper.readTree(mapper.writeValueAsString(result))
+
+        then:
+        !json.has('totalResults')
+        json.get('startIndex').asLong() == 1
+    }
+
+    def 'only the requested attributes of the resources are serialized'() {
+        given:
+        def user = new User.Builder('marissa').setSchemas([Constants.USER_CORE_SCHEMA] as Set).build()
+        def result = PagedSearchResult.withStartIndex([user], 1L, 100, 1, Constants.USER_CORE_SCHEMA)
+                .withAttributes(['userName'] as Set)
+
+        when:
+        def json = mapper.readValue(mapper.writeValueAsString(result), Map)
+
+        then:
+        json.Resources == [[userName: 'marissa']]
+        json.schemas == [Constants.USER_CORE_SCHEMA]
+        json.totalResults == 1
+        json.itemsPerPage == 100
+        json.startIndex == 1
+    }
+
+    def 'the requested attributes are matched on every level of the resources'() {
+        given:
+        def created = new Date()
+        def user = new User.Builder('marissa').setMeta(new Meta.Builder(created, null).build()).build()
+        def result = PagedSearchResult.withStartIndex([user], 1L, 100, 1, Constants.USER_CORE_SCHEMA)
+                .withAttributes(['meta', 'created'] as Set)
+
+        when:
+        def json = mapper.readValue(mapper.writeValueAsString(result), Map)
+
+        then:
+        json.Resources == [[meta: [created: ISODateTimeFormat.dateTime().print(new DateTime(created))]]]
+    }
+
+    def 'all attributes are serialized if none were requested'() {
+        given:
+        def user = new User.Builder('marissa').setSchemas([Constants.USER_CORE_SCHEMA] as Set).build()
+        def result = PagedSearchResult.withStartIndex([user], 1L, 100, 1, Constants.USER_CORE_SCHEMA)
+
+        when:
+        def json = mapper.readValue(mapper.writeValueAsString(result.withAttributes([] as Set)), Map)
+
+        then:
+        json.Resources == [[schemas: [Constants.USER_CORE_SCHEMA], userName: 'marissa']]
+    }
+
+    def 'a page with requested attributes keeps its paging information'() {
+        given:
+        def result = PagedSearchResult.withCursor([new User.Builder('marissa').build()], null, 1, 'nextPage',
+                Constants.USER_CORE_SCHEMA)
+
+        when:
+        def filteredResult = result.withAttributes(['userName'] as Set)
+
+        then:
+        filteredResult.cursorBased
+        filteredResult.totalResultsOmitted
+        filteredResult.nextCursor == 'nextPage'
+        filteredResult.itemsPerPage == 1
+        filteredResult.resources == result.resources
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.provisioning
+
+import org.osiam.resources.exceptions.ResourceExistsException
+import org.osiam.resources.helper.JsonInputValidator
+import org.osiam.resources.scim.Group
+import org.osiam.resources.scim.User
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.TransactionStatus
+
+import spock.lang.Specification
+
+import com.fasterxml.jackson.databind.ObjectMapper
+
+class SCIMBulkProvisioningSpec extends Specification {
+
+    static final String BASE_URI = 'http://localhost:8080/osiam-resource-server'
+    static final Set<String> ALL_METHODS = ['GET', 'POST', 'PUT', 'PATCH', 'DELETE'] as Set
+
+    SCIMUserProvisioning scimUserProvisioning = Mock()
+    SCIMGroupProvisioning scimGroupProvisioning = Mock()
+    PlatformTransactionManager transactionManager = Mock()
+    TransactionStatus transactionStatus = Mock()
+
+    SCIMBulkProvisioning scimBulkProvisioning = new SCIMBulkProvisioning(scimUserProvisioning: scimUserProvisioning,
+            scimGroupProvisioning: scimGroupProvisioning, jsonInputValidator: new JsonInputValidator(),
+            transactionManager: transactionManager, chunkSize: 100)
+
+    def 'the operations of a chunk are executed in one transaction and may refer to created resources'() {
+        given:
+        def request = bulkRequest(
+                operation('POST', '/Users', 'marissa', user('marissa')),
+                operation('POST', '/Groups', 'admins',
+                        '{"schemas":["urn:scim:schemas:core:2.0:Group"],"displayName":"admins",' +
+                        '"members":[{"value":"bulkId:marissa"}]}'),
+                operation('DELETE', '/Groups/bulkId:admins', null, null))
+
+        when:
+        def response = scimBulkProvisioning.execute(request, BASE_URI, ALL_METHODS)
+
+        then:
+        1 * transactionManager.getTransaction(_) >> transactionStatus
+        1 * transactionManager.commit(transactionStatus)
+        0 * transactionManager.rollback(_)
+        1 * scimUserProvisioning.create({ it.userName == 'marissa' }) >> new User.Builder('marissa').setId('u1').build()
+        1 * scimGroupProvisioning.create({ it.members*.value == ['u1'] }) >>
+                new Group.Builder('admins').setId('g1').build()
+        1 * scimGroupProvisioning.delete('g1')
+        response.schemas == [BulkResponse.SCHEMA] as Set
+        response.operations*.status*.code == ['201', '201', '200']
+        response.operations*.bulkId == ['marissa', 'admins', null]
+        response.operations*.location == [BASE_URI + '/Users/u1', BASE_URI + '/Groups/g1', BASE_URI + '/Groups/g1']
+    }
+
+    def 'a failed chunk is rolled back and its operations are executed again one by one'() {
+        given:
+        def request = bulkRequest(
+                operation('POST', '/Users', 'marissa', user('marissa')),
+                operation('POST', '/Users', 'taken', user('taken')))
+        transactionManager.getTransaction(_) >> transactionStatus
+
+        when:
+        def response = scimBulkProvisioning.execute(request, BASE_URI, ALL_METHODS)
+
+        then:
+        2 * scimUserProvisioning.create({ it.userName == 'marissa' }) >> new User.Builder('marissa').setId('u1').build()
+        2 * scimUserProvisioning.create({ it.userName == 'taken' }) >> {
+            throw new ResourceExistsException('The username "taken" is already taken.')
+        }
+        2 * transactionManager.rollback(transactionStatus)
+        1 * transactionManager.commit(transactionStatus)
+        response.operations*.status*.code == ['201', '409']
+        response.operations[1].status.description == 'The username "taken" is already taken.'
+        response.operations[1].location == null
+    }
+
+    def 'the chunks are executed in their own transactions'() {
+        given:
+        scimBulkProvisioning.chunkSize = 2
+        def request = bulkRequest(
+                operation('DELETE', '/Users/u1', null, null),
+                operation('DELETE', '/Users/u2', null, null),
+                operation('DELETE', '/Users/u3', null, null))
+
+        when:
+        def response = scimBulkProvisioning.execute(request, BASE_URI, ALL_METHODS)
+
+        then:
+        2 * transactionManager.getTransaction(_) >> transactionStatus
+        2 * transactionManager.commit(transactionStatus)
+        3 * scimUserProvisioning.delete(_)
+        response.operations*.status*.code == ['200', '200', '200']
+    }
+
+    def 'the remaining operations are skipped after failOnErrors errors'() {
+        given:
+        def request = bulkRequest(
+                operation('POST', '/Users', 'first', user('first')),
+                operation('POST', '/Users', 'second', user('second')),
+                operation('POST', '/Users', 'third', user('third')))
+        request.failOnErrors = 2
+        transactionManager.getTransaction(_) >> transactionStatus
+
+        when:
+        def response = scimBulkProvisioning.execute(request, BASE_URI, ALL_METHODS)
+
+        then:
+        _ * scimUserProvisioning.create(_) >> { throw new ResourceExistsException('taken') }
+        response.operations*.status*.code == ['409', '409']
+    }
+
+    def 'operations with a method the client is not allowed to use and unknown bulkIds fail'() {
+        given:
+        def request = bulkRequest(
+                operation('DELETE', '/Users/u1', null, null),
+                operation('PATCH', '/Users/bulkId:unknown', null, user('marissa')))
+        transactionManager.getTransaction(_) >> transactionStatus
+
+        when:
+        def response = scimBulkProvisioning.execute(request, BASE_URI, ['POST', 'PATCH'] as Set)
+
+        then:
+        0 * scimUserProvisioning._
+        response.operations*.status*.code == ['403', '404']
+    }
+
+    private static BulkRequest bulkRequest(Object... operations) {
+        new BulkRequest(schemas: [BulkRequest.SCHEMA] as Set, operations: operations as List)
+    }
+
+    private static BulkRequest.Operation operation(String method, String path, String bulkId, String data) {
+        new BulkRequest.Operation(method: method, path: path, bulkId: bulkId,
+                data: data != null ? new ObjectMapper().readTree(data) : null)
+    }
+
+    private static String user(String userName) {
+        '{"schemas":["urn:scim:schemas:core:2.0:User"],"userName":"' + userName + '"}'
+    }
+}
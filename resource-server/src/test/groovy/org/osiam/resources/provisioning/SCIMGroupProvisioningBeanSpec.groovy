@@ -28,11 +28,14 @@ import javax.persistence.NoResultException
 import org.osiam.resources.converter.GroupConverter
 import org.osiam.resources.exceptions.ResourceExistsException
 import org.osiam.resources.exceptions.ResourceNotFoundException
+import org.osiam.resources.helper.ResourceIdGenerator
 import org.osiam.resources.provisioning.update.GroupUpdater
 import org.osiam.resources.scim.Group
 import org.osiam.resources.scim.MemberRef
+import org.osiam.storage.dao.ChunkHandler
 import org.osiam.storage.dao.GroupDao
 import org.osiam.storage.dao.SearchResult
+import org.osiam.storage.dao.TotalResults
 import org.osiam.storage.entities.GroupEntity
 import org.osiam.storage.entities.MetaEntity
 import org.springframework.dao.DataIntegrityViolationException
@@ -46,7 +49,8 @@ class SCIMGroupProvisioningBeanSpec extends Specification {
     GroupUpdater groupUpdater = Mock()
 
     SCIMGroupProvisioning scimGroupProvisioning = new SCIMGroupProvisioning(groupDao: groupDao, groupConverter: groupConverter,
-    groupUpdater: groupUpdater)
+    groupUpdater: groupUpdater, exportChunkSize: 500,
+    resourceIdGenerator: new ResourceIdGenerator(ResourceIdGenerator.Strategy.TIME_ORDERED))
 
     Group group = Mock()
     GroupEntity groupEntity = Mock()
@@ -186,8 +190,9 @@ class SCIMGroupProvisioningBeanSpec extends Specification {
         def result = scimGroupProvisioning.search("anyFilter", "userName", "ascending", 100, 1)
 
         then:
-        1 * groupDao.search("anyFilter", "userName", "ascending", 100, 0) >> new SearchResult(groupList, 1000)
-        1 * groupConverter.toScim(groupEntity) >> group
+        1 * groupConverter.getFetchPlan(Collections.emptySet()) >> GroupEntity.DEFAULT_FETCH_PLAN
+        1 * groupDao.search("anyFilter", "userName", "ascending", 100, 0, TotalResults.EXACT, GroupEntity.DEFAULT_FETCH_PLAN) >> new SearchResult(groupList, 1000)
+        1 * groupConverter.toScim(groupEntity, Collections.emptySet()) >> group
 
         result.resources.size() == 1
         result.resources.first() == group
@@ -196,6 +201,41 @@ class SCIMGroupProvisioningBeanSpec extends Specification {
         result.totalResults == 1000.toLong()
     }
 
+    def 'searching for groups with a cursor calls groupDao.searchWithCursor() and returns the next cursor'() {
+        given:
+        def groupList = [groupEntity] as List
+        def attributes = ["displayName"] as Set
+
+        when:
+        def result = scimGroupProvisioning.searchWithCursor("anyFilter", "displayName", "ascending", 1, "", TotalResults.EXACT, attributes)
+
+        then:
+        1 * groupConverter.getFetchPlan(attributes) >> []
+        1 * groupDao.searchWithCursor("anyFilter", "displayName", "ascending", 1, "", TotalResults.EXACT, []) >> new SearchResult(groupList, 2, "nextPage")
+        1 * groupConverter.toScim(groupEntity, attributes) >> group
+
+        result.resources == [group]
+        result.nextCursor == "nextPage"
+        result.itemsPerPage == 1
+        result.totalResults == 2.toLong()
+    }
+
+    def 'exporting groups converts each chunk of entities to scim'() {
+        given:
+        ChunkHandler<Group> handler = Mock()
+
+        when:
+        scimGroupProvisioning.export(handler)
+
+        then:
+        1 * groupConverter.getFetchPlan(Collections.emptySet()) >> GroupEntity.DEFAULT_FETCH_PLAN
+        1 * groupDao.scroll(GroupEntity.DEFAULT_FETCH_PLAN, 500, _) >> { fetchPlan, chunkSize, chunkHandler ->
+            chunkHandler.handle([groupEntity])
+        }
+        1 * groupConverter.toScim(groupEntity) >> group
+        1 * handler.handle([group])
+    }
+
     def 'updating a group retrieves the entity, updates it and converts it back to scim'() {
         given:
 
@@ -25,8 +25,11 @@ package org.osiam.resources.provisioning
 
 import org.osiam.resources.converter.UserConverter
 import org.osiam.resources.exceptions.ResourceExistsException
+import org.osiam.resources.helper.ResourceIdGenerator
 import org.osiam.resources.scim.User
+import org.osiam.storage.dao.ChunkHandler
 import org.osiam.storage.dao.SearchResult
+import org.osiam.storage.dao.TotalResults
 import org.osiam.storage.dao.UserDao
 import org.osiam.storage.entities.MetaEntity
 import org.osiam.storage.entities.UserEntity
@@ -41,7 +44,8 @@ class SCIMUserProvisioningBeanSpec extends Specification {
     UserConverter userConverter = Mock()
 
     SCIMUserProvisioning scimUserProvisioningBean = new SCIMUserProvisioning(userDao: userDao,
-            userConverter: userConverter, passwordEncoder: passwordEncoder)
+            userConverter: userConverter, passwordEncoder: passwordEncoder, exportChunkSize: 500,
+            resourceIdGenerator: new ResourceIdGenerator(ResourceIdGenerator.Strategy.TIME_ORDERED))
 
     def 'should be possible to get a user by his id'() {
         given:
@@ -257,13 +261,49 @@ class SCIMUserProvisioningBeanSpec extends Specification {
         UserEntity userEntity = new UserEntity()
         User userScim = new User()
         SearchResult searchResult = new SearchResult([userEntity] as List, 1000L)
-        userConverter.toScim(userEntity) >> userScim
+        userConverter.getFetchPlan(Collections.emptySet()) >> UserEntity.DEFAULT_FETCH_PLAN
+        userConverter.toScim(userEntity, Collections.emptySet()) >> userScim
 
         when:
         def result = scimUserProvisioningBean.search('anyFilter', 'userName', 'ascending', 100, 1)
 
         then:
-        1 * userDao.search('anyFilter', 'userName', 'ascending', 100, 0) >> searchResult
+        1 * userDao.search('anyFilter', 'userName', 'ascending', 100, 0, TotalResults.EXACT,
+                UserEntity.DEFAULT_FETCH_PLAN) >> searchResult
+    }
+
+    def 'searching for users without totalResults omits the total number of results'() {
+        given:
+        UserEntity userEntity = new UserEntity()
+        userConverter.getFetchPlan(Collections.emptySet()) >> UserEntity.DEFAULT_FETCH_PLAN
+        userConverter.toScim(userEntity, Collections.emptySet()) >> new User()
+
+        when:
+        def result = scimUserProvisioningBean.search('anyFilter', 'userName', 'ascending', 100, 1, TotalResults.NONE,
+                [] as Set)
+
+        then:
+        1 * userDao.search('anyFilter', 'userName', 'ascending', 100, 0, TotalResults.NONE,
+                UserEntity.DEFAULT_FETCH_PLAN) >> new SearchResult([userEntity], 0)
+        result.totalResultsOmitted
+        result.resources.size() == 1
+    }
+
+    def 'searching for users only loads and converts the requested attributes'() {
+        given:
+        UserEntity userEntity = new UserEntity()
+        def attributes = ['userName', 'emails'] as Set
+
+        when:
+        def result = scimUserProvisioningBean.search('anyFilter', 'userName', 'ascending', 100, 1, TotalResults.NONE,
+                attributes)
+
+        then:
+        1 * userConverter.getFetchPlan(attributes) >> ['emails']
+        1 * userDao.search('anyFilter', 'userName', 'ascending', 100, 0, TotalResults.NONE, ['emails']) >>
+                new SearchResult([userEntity], 0)
+        1 * userConverter.toScim(userEntity, attributes) >> new User()
+        result.resources.size() == 1
     }
 
     def 'creating a user returns the new user with its password removed'() {
@@ -282,4 +322,21 @@ class SCIMUserProvisioningBeanSpec extends Specification {
         then:
         user.password == null
     }
-}
\ No newline at end of file
+
+    def 'exporting users converts each chunk and removes the passwords'() {
+        given:
+        UserEntity userEntity = new UserEntity()
+        ChunkHandler<User> handler = Mock()
+
+        when:
+        scimUserProvisioningBean.export(handler)
+
+        then:
+        1 * userConverter.getFetchPlan(Collections.emptySet()) >> UserEntity.DEFAULT_FETCH_PLAN
+        1 * userDao.scroll(UserEntity.DEFAULT_FETCH_PLAN, 500, _) >> { fetchPlan, chunkSize, chunkHandler ->
+            chunkHandler.handle([userEntity])
+        }
+        1 * userConverter.toScim(userEntity) >> new User(userName: 'test', password: 'password')
+        1 * handler.handle({ it*.userName == ['test'] && it*.password == [null] })
+    }
+}
@@ -95,6 +95,9 @@ class ExtensionUpdaterSpec extends Specification {
 
         then:
         1 * extensionDao.getExtensionByUrn(URN) >> extensionEntity
+        1 * extensionDao.getExtensionField(extensionEntity, IRRELEVANT, true) >> {
+            throw new NoSuchElementException(IRRELEVANT)
+        }
         thrown(NoSuchElementException)
     }
 
@@ -108,6 +111,7 @@ class ExtensionUpdaterSpec extends Specification {
 
         then:
         1 * extensionDao.getExtensionByUrn(URN) >> extensionEntity
+        1 * extensionDao.getExtensionField(extensionEntity, FIELD, true) >> extensionEntity.fields.first()
         1 * userEntity.getExtensionFieldValues() >> ([getExtensionValueEntity()] as Set)
         1 * userEntity.addOrUpdateExtensionValue(_)
     }
@@ -122,10 +126,28 @@ class ExtensionUpdaterSpec extends Specification {
 
         then:
         1 * extensionDao.getExtensionByUrn(URN) >> extensionEntity
+        1 * extensionDao.getExtensionField(extensionEntity, FIELD, true) >> extensionEntity.fields.first()
         1 * userEntity.getExtensionFieldValues() >> ([] as Set)
         1 * userEntity.addOrUpdateExtensionValue(_)
     }
 
+    def 'updating an integer extension field stores the number in its column'(){
+        given:
+        Extension extension = new Extension(URN)
+        extension.addOrUpdateField(FIELD, BigInteger.valueOf(42))
+        ExtensionEntity extensionEntity = createExtensionEntity()
+        ExtensionFieldEntity field = new ExtensionFieldEntity(name: FIELD, type: ExtensionFieldType.INTEGER)
+
+        when:
+        extensionUpdater.update([(URN) : extension] as Map, userEntity, [] as Set)
+
+        then:
+        1 * extensionDao.getExtensionByUrn(URN) >> extensionEntity
+        1 * extensionDao.getExtensionField(extensionEntity, FIELD, true) >> field
+        1 * userEntity.getExtensionFieldValues() >> ([] as Set)
+        1 * userEntity.addOrUpdateExtensionValue({ it.numericValue == 42 && it.value == null })
+    }
+
     def createExtensionEntity() {
         ExtensionFieldEntity extensionFieldEntity = new ExtensionFieldEntity(name: FIELD, type: ExtensionFieldType.STRING)
         ExtensionFieldValueEntity extensionFieldValueEntity = getExtensionValueEntity()
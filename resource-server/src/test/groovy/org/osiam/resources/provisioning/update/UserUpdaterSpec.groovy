@@ -31,7 +31,6 @@ import org.osiam.resources.scim.User
 import org.osiam.storage.dao.ExtensionDao
 import org.osiam.storage.dao.UserDao
 import org.osiam.storage.entities.UserEntity
-import org.osiam.storage.helper.NumberPadder
 import org.springframework.security.authentication.encoding.PasswordEncoder
 
 import spock.lang.Specification
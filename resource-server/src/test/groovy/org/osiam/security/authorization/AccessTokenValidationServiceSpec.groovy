@@ -23,12 +23,19 @@
 
 package org.osiam.security.authorization
 
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
 import org.osiam.helper.HttpClientHelper
+import org.osiam.helper.HttpClientJsonResult
 import org.osiam.helper.HttpClientRequestResult
+import org.osiam.helper.InProcessEndpoint
 import org.osiam.helper.ObjectMapperWithExtensionConfig
 import org.osiam.security.AuthenticationSpring
 import org.osiam.security.AuthorizationRequestSpring
 import org.osiam.security.OAuth2AuthenticationSpring
+import org.osiam.security.SignedAccessToken
+import org.osiam.security.SignedAccessTokenCodec
 import org.springframework.security.oauth2.common.OAuth2AccessToken
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException
 import org.springframework.security.oauth2.provider.OAuth2Authentication
@@ -43,49 +50,206 @@ class AccessTokenValidationServiceSpec extends Specification {
 
     def jacksonMapperMock = Mock(ObjectMapperWithExtensionConfig)
     def httpClientHelperMock = Mock(HttpClientHelper)
+    def signedAccessTokenCodec = new SignedAccessTokenCodec("a secret with at least 32 characters")
+    def revokedAccessTokensMock = Mock(RevokedAccessTokens)
     def accessTokenValidationService = new AccessTokenValidationService(mapper: jacksonMapperMock, httpClient: httpClientHelperMock,
-    httpScheme: "http", serverHost: "localhost", serverPort: 8080)
+    httpScheme: "http", serverHost: "localhost", serverPort: 8080, timeToLiveSeconds: 60, invalidTimeToLiveSeconds: 5,
+    signedAccessTokenCodec: signedAccessTokenCodec, revokedAccessTokens: revokedAccessTokensMock)
 
     def "Inherit from springs ResourceServerTokenServices and override the method to load the Authentication depending on the given accessToken as String"() {
         given:
-        def resultAsString = "the result"
         def oAuth2AuthenticationSpringMock = Mock(OAuth2AuthenticationSpring)
-        def response = new HttpClientRequestResult(resultAsString, 200)
+        def response = new HttpClientJsonResult(oAuth2AuthenticationSpringMock, null, 200)
 
         when:
         def result = accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
 
         then:
-        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/accessToken", null, null) >> response
-        1 * jacksonMapperMock.readValue(response.body, OAuth2AuthenticationSpring.class) >> oAuth2AuthenticationSpringMock
+        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/accessToken", null, null,
+                jacksonMapperMock, OAuth2AuthenticationSpring) >> response
         1 * oAuth2AuthenticationSpringMock.getAuthenticationSpring() >> Mock(AuthenticationSpring)
         1 * oAuth2AuthenticationSpringMock.getAuthorizationRequestSpring() >> Mock(AuthorizationRequestSpring)
         result instanceof OAuth2Authentication
     }
 
-    def "Should wrap the IOException from JacksonMapper to RuntimeException for loadAuthentication method"() {
+    def "Should throw a RuntimeException if the auth server answers neither with a validated nor an invalid token"() {
         given:
-        def resultAsString = "the result"
-        def response = new HttpClientRequestResult(resultAsString, 200)
+        def response = new HttpClientJsonResult(null, "the error", 500)
 
         when:
         accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
 
         then:
-        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/accessToken", null, null) >> response
-        1 * jacksonMapperMock.readValue(response.body, OAuth2AuthenticationSpring.class) >> { throw new IOException() }
+        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/accessToken", null, null,
+                jacksonMapperMock, OAuth2AuthenticationSpring) >> response
         thrown(RuntimeException)
     }
 
     def "Should throw InvalidTokenException if a token can't be validated"() {
 
         given:
-        def response = new HttpClientRequestResult("Irrelevant", 401)
+        def response = new HttpClientJsonResult(null, "Irrelevant", 401)
+
+        when:
+        accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+        then:
+        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/$ACCESS_TOKEN", null, null,
+                jacksonMapperMock, OAuth2AuthenticationSpring) >> response
+        thrown(InvalidTokenException)
+    }
+
+    def "A validated token is taken from the cache, but every request gets its own authentication"() {
+        given:
+        def oAuth2AuthenticationSpring = new OAuth2AuthenticationSpring(authorizationRequestSpring: new AuthorizationRequestSpring())
+        def response = new HttpClientJsonResult(oAuth2AuthenticationSpring, null, 200)
+
+        when:
+        def first = accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+        def second = accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+
+        then:
+        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/accessToken", null, null,
+                jacksonMapperMock, OAuth2AuthenticationSpring) >> response
+        !first.is(second)
+        accessTokenValidationService.hits == 1
+        accessTokenValidationService.misses == 1
+    }
+
+    def "An expired token is validated again"() {
+        given:
+        def oAuth2AuthenticationSpring = new OAuth2AuthenticationSpring(authorizationRequestSpring: new AuthorizationRequestSpring(),
+        expiration: new Date(System.currentTimeMillis() - 1000))
+        def response = new HttpClientJsonResult(oAuth2AuthenticationSpring, null, 200)
+
+        when:
+        accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+        accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+
+        then:
+        2 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/accessToken", null, null,
+                jacksonMapperMock, OAuth2AuthenticationSpring) >> response
+        accessTokenValidationService.hits == 0
+        accessTokenValidationService.misses == 2
+    }
+
+    def "An invalid token is taken from the cache"() {
+        given:
+        def response = new HttpClientJsonResult(null, "Irrelevant", 401)
+
+        when:
+        accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+
+        then:
+        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/$ACCESS_TOKEN", null, null,
+                jacksonMapperMock, OAuth2AuthenticationSpring) >> response
+        thrown(InvalidTokenException)
 
         when:
         accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+
         then:
-        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/$ACCESS_TOKEN", null, null) >> response
+        0 * httpClientHelperMock.executeHttpGet(*_)
+        thrown(InvalidTokenException)
+    }
+
+    def "A token whose validation failed is not cached"() {
+        given:
+        when:
+        accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+
+        then:
+        1 * httpClientHelperMock.executeHttpGet(_, null, null, jacksonMapperMock, OAuth2AuthenticationSpring) >> {
+            throw new RuntimeException(new IOException())
+        }
+        thrown(RuntimeException)
+        accessTokenValidationService.cachedTokens == 0
+    }
+
+    def "Concurrent requests with the same token share one validation"() {
+        given:
+        def oAuth2AuthenticationSpring = new OAuth2AuthenticationSpring(authorizationRequestSpring: new AuthorizationRequestSpring())
+        def response = new HttpClientJsonResult(oAuth2AuthenticationSpring, null, 200)
+        def executor = Executors.newFixedThreadPool(4)
+
+        when:
+        def results = (1..4).collect {
+            executor.submit({ accessTokenValidationService.loadAuthentication(ACCESS_TOKEN) } as Callable)
+        }*.get()
+
+        then:
+        1 * httpClientHelperMock.executeHttpGet(_, null, null, jacksonMapperMock, OAuth2AuthenticationSpring) >> {
+            Thread.sleep(200); response
+        }
+        results.every { it instanceof OAuth2Authentication }
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "A signed token is verified without asking the auth server"() {
+        given:
+        def token = signedAccessTokenCodec.sign(new SignedAccessToken("token-id", "example-client", ["GET"] as Set,
+                "user-id", "marissa", expiresIn(60)))
+
+        when:
+        def result = accessTokenValidationService.loadAuthentication(token)
+
+        then:
+        0 * httpClientHelperMock._
+        1 * revokedAccessTokensMock.isRevoked("token-id") >> false
+        result.authorizationRequest.clientId == "example-client"
+        result.authorizationRequest.scope == ["GET"] as Set
+        result.userAuthentication.principal.id == "user-id"
+        result.userAuthentication.name == "marissa"
+        accessTokenValidationService.signedTokens == 1
+    }
+
+    def "A signed token of the client credentials grant has no user authentication"() {
+        given:
+        def token = signedAccessTokenCodec.sign(new SignedAccessToken("token-id", "example-client", ["GET"] as Set,
+                null, null, expiresIn(60)))
+
+        when:
+        def result = accessTokenValidationService.loadAuthentication(token)
+
+        then:
+        result.clientOnly
+    }
+
+    def "A revoked, expired or forged signed token is rejected"() {
+        given:
+        revokedAccessTokensMock.isRevoked("revoked-token-id") >> true
+
+        when:
+        accessTokenValidationService.loadAuthentication(token)
+
+        then:
+        0 * httpClientHelperMock._
+        thrown(InvalidTokenException)
+
+        where:
+        token << [
+            new SignedAccessTokenCodec("a secret with at least 32 characters").sign(
+            new SignedAccessToken("revoked-token-id", "example-client", ["GET"] as Set, null, null, expiresIn(60))),
+            new SignedAccessTokenCodec("a secret with at least 32 characters").sign(
+            new SignedAccessToken("token-id", "example-client", ["GET"] as Set, null, null, expiresIn(-1))),
+            new SignedAccessTokenCodec("another secret with at least 32 characters").sign(
+            new SignedAccessToken("token-id", "example-client", ["GET"] as Set, null, null, expiresIn(60)))
+        ]
+    }
+
+    def "A signed token is validated by the auth server if signing is disabled"() {
+        given:
+        accessTokenValidationService.signedAccessTokenCodec = new SignedAccessTokenCodec("")
+        def token = signedAccessTokenCodec.sign(new SignedAccessToken("token-id", "example-client", ["GET"] as Set,
+                null, null, expiresIn(60)))
+
+        when:
+        accessTokenValidationService.loadAuthentication(token)
+
+        then:
+        1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/validate/$token", null, null,
+                jacksonMapperMock, OAuth2AuthenticationSpring) >> new HttpClientJsonResult(null, "Irrelevant", 401)
         thrown(InvalidTokenException)
     }
 
@@ -129,4 +293,53 @@ class AccessTokenValidationServiceSpec extends Specification {
         1 * httpClientHelperMock.executeHttpGet("http://localhost:8080/osiam-auth-server/token/$ACCESS_TOKEN", null, null) >> response
         thrown(InvalidTokenException)
     }
-}
\ No newline at end of file
+
+    def "A co-located auth server is called in process instead of via HTTP"() {
+        given:
+        def validated = [authorizationRequestSpring: [clientId: "example-client"]]
+        def token = [access_token: ACCESS_TOKEN]
+        def authServer = new InProcessEndpoint(InProcessEndpoint.AUTH_SERVER)
+        authServer.register([validateToken: { it == ACCESS_TOKEN ? validated : null },
+            getToken: { it == ACCESS_TOKEN ? token : null }] as TokenValidationEndpoint, TokenValidationEndpoint)
+        accessTokenValidationService.colocated = true
+
+        when:
+        def authentication = accessTokenValidationService.loadAuthentication(ACCESS_TOKEN)
+        def accessToken = accessTokenValidationService.readAccessToken(ACCESS_TOKEN)
+
+        then:
+        0 * httpClientHelperMock._
+        1 * jacksonMapperMock.convertValue(validated, OAuth2AuthenticationSpring) >>
+                new OAuth2AuthenticationSpring(authorizationRequestSpring: new AuthorizationRequestSpring())
+        1 * jacksonMapperMock.convertValue(token, OAuth2AccessToken) >> Mock(OAuth2AccessToken)
+        authentication instanceof OAuth2Authentication
+        accessToken instanceof OAuth2AccessToken
+
+        when:
+        accessTokenValidationService.loadAuthentication("unknown")
+
+        then:
+        0 * httpClientHelperMock._
+        thrown(InvalidTokenException)
+
+        when:
+        accessTokenValidationService.readAccessToken("unknown")
+
+        then:
+        0 * httpClientHelperMock._
+        thrown(InvalidTokenException)
+
+        cleanup:
+        authServer.unregister()
+    }
+
+    private static long expiresIn(long seconds) {
+        (System.currentTimeMillis() / 1000).longValue() + seconds
+    }
+
+    static interface TokenValidationEndpoint {
+        Map<String, Object> validateToken(String token)
+
+        Map<String, Object> getToken(String token)
+    }
+}
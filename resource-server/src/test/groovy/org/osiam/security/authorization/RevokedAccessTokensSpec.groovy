@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.osiam.security.authorization
+
+import org.osiam.helper.HttpClientHelper
+import org.osiam.helper.HttpClientRequestResult
+import org.osiam.helper.ObjectMapperWithExtensionConfig
+import org.osiam.security.SignedAccessTokenCodec
+
+import spock.lang.Specification
+
+class RevokedAccessTokensSpec extends Specification {
+
+    static final String REVOKED_URI = "http://localhost:8080/osiam-auth-server/token/revoked"
+
+    def httpClientHelperMock = Mock(HttpClientHelper)
+    def revokedAccessTokens = new RevokedAccessTokens(mapper: new ObjectMapperWithExtensionConfig(),
+    httpClient: httpClientHelperMock, httpScheme: "http", serverHost: "localhost", serverPort: 8080, pollSeconds: 30,
+    signedAccessTokenCodec: new SignedAccessTokenCodec("a secret with at least 32 characters"))
+
+    def cleanup() {
+        revokedAccessTokens.stopPolling()
+    }
+
+    def "The revoked tokens are fetched from the auth server when polling starts"() {
+        when:
+        revokedAccessTokens.startPolling()
+
+        then:
+        1 * httpClientHelperMock.executeHttpGet(REVOKED_URI, null, null) >> new HttpClientRequestResult('["token-id"]', 200)
+        revokedAccessTokens.isRevoked("token-id")
+        !revokedAccessTokens.isRevoked("other-token-id")
+    }
+
+    def "The last fetched revoked tokens are kept if the auth server can't be reached"() {
+        given:
+        httpClientHelperMock.executeHttpGet(REVOKED_URI, null, null) >>> [
+            new HttpClientRequestResult('["token-id"]', 200),
+            new HttpClientRequestResult('', 503)
+        ] >> { throw new RuntimeException(new IOException()) }
+
+        when:
+        3.times { revokedAccessTokens.update() }
+
+        then:
+        revokedAccessTokens.isRevoked("token-id")
+    }
+
+    def "Nothing is fetched if signed tokens are disabled"() {
+        given:
+        revokedAccessTokens.signedAccessTokenCodec = new SignedAccessTokenCodec("")
+
+        when:
+        revokedAccessTokens.startPolling()
+
+        then:
+        0 * httpClientHelperMock._
+    }
+}
@@ -30,8 +30,6 @@ import org.osiam.resources.UserSpring
 import org.osiam.storage.dao.ClientDao
 import org.osiam.storage.dao.UserDao
 import org.osiam.storage.entities.ClientEntity
-import org.osiam.storage.entities.RoleEntity
-import org.osiam.storage.entities.UserEntity
 import org.springframework.http.HttpStatus
 import org.springframework.web.bind.annotation.RequestMapping
 import org.springframework.web.bind.annotation.RequestMethod
@@ -48,27 +46,15 @@ class AuthenticationControllerSpec extends Specification {
 
     def "Should be able to load an User by his name an getting a UserSpring representation"() {
         given:
-        def userEntityMock = Mock(UserEntity)
-        def role = new RoleEntity()
-        role.setValue("TestRole")
-        def roles = [role] as Set
-        def userId = UUID.randomUUID()
+        def userSpring = new UserSpring(username: "userName", password: "password", active: true)
 
         when:
         def result = authenticationController.getUser("userName")
 
         then:
-        1 * userDaoMock.getByUsername("userName") >> userEntityMock
-        1 * userEntityMock.getRoles() >> roles
-        1 * userEntityMock.getUserName() >> "userName"
-        1 * userEntityMock.getPassword() >> "password"
-        1 * userEntityMock.getId() >> userId
-        1 * userEntityMock.getActive() >> true
-        result instanceof UserSpring
-        result.getUsername() == "userName"
-        result.getPassword() == "password"
-        result.getId() == userId.toString()
-        result.isActive()
+        1 * userDaoMock.getLoginByUsername("userName") >> userSpring
+        0 * userDaoMock.getByUsername(_)
+        result.is(userSpring)
     }
 
     def "The getClient method annotations should be present with appropriate configuration for RequestMapping and Response Body"() {
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.controller
+
+import org.osiam.helper.InProcessEndpoint
+import org.osiam.helper.ObjectMapperWithExtensionConfig
+import org.osiam.resources.ClientSpring
+import org.osiam.resources.UserSpring
+import org.osiam.resources.exceptions.ResourceNotFoundException
+
+import spock.lang.Specification
+
+class InProcessAuthenticationEndpointSpec extends Specification {
+
+    def authenticationControllerMock = Mock(AuthenticationController)
+    def authenticationEndpoint = new InProcessAuthenticationEndpoint(
+            authenticationController: authenticationControllerMock, mapper: new ObjectMapperWithExtensionConfig())
+
+    def cleanup() {
+        authenticationEndpoint.unregister()
+    }
+
+    def "the user is returned as map"() {
+        when:
+        def result = authenticationEndpoint.getUser('marissa')
+
+        then:
+        1 * authenticationControllerMock.getUser('marissa') >> new UserSpring(username: 'marissa', password: 'hash')
+        result.username == 'marissa'
+        result.password == 'hash'
+    }
+
+    def "an unknown user or client is returned as null"() {
+        when:
+        def user = authenticationEndpoint.getUser('unknown')
+        def client = authenticationEndpoint.getClient('unknown')
+
+        then:
+        1 * authenticationControllerMock.getUser('unknown') >> { throw new ResourceNotFoundException('unknown') }
+        1 * authenticationControllerMock.getClient('unknown') >> { throw new ResourceNotFoundException('unknown') }
+        user == null
+        client == null
+    }
+
+    def "the expiry of a client is updated by the controller"() {
+        given:
+        def expiry = new Date()
+
+        when:
+        authenticationEndpoint.updateClientExpiry('example-client', expiry.time)
+
+        then:
+        1 * authenticationControllerMock.updateClientExpiry('example-client', expiry)
+    }
+
+    def "the endpoint is only registered in the co-located mode"() {
+        given:
+        def resourceServer = new InProcessEndpoint(InProcessEndpoint.RESOURCE_SERVER)
+
+        when:
+        authenticationEndpoint.register()
+
+        then:
+        !resourceServer.registered
+
+        when:
+        authenticationEndpoint.colocated = true
+        authenticationEndpoint.register()
+        def client = resourceServer.invoke('getClient', 'example-client')
+
+        then:
+        1 * authenticationControllerMock.getClient('example-client') >> new ClientSpring(id: 'example-client')
+        resourceServer.registered
+        client.id == 'example-client'
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.security.helper
+
+import org.osiam.helper.HttpClientHelper
+import org.osiam.helper.HttpClientRequestResult
+import org.springframework.transaction.support.TransactionSynchronizationManager
+
+import spock.lang.Specification
+
+class ClientCacheInvalidatorSpec extends Specification {
+
+    static final String CACHE_URI = "http://localhost:8080/osiam-auth-server/client/example-client/cache"
+
+    def httpClientHelperMock = Mock(HttpClientHelper)
+    def clientCacheInvalidator = new ClientCacheInvalidator(httpClient: httpClientHelperMock, httpScheme: "http",
+    serverHost: "localhost", serverPort: 8080)
+
+    def cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+    }
+
+    def "The client is removed from the cache of the auth server"() {
+        when:
+        clientCacheInvalidator.invalidate('example-client')
+
+        then:
+        1 * httpClientHelperMock.executeHttpDelete(CACHE_URI, null, null) >> new HttpClientRequestResult('', 200)
+    }
+
+    def "Inside a transaction the client is removed from the cache after the commit"() {
+        given:
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        clientCacheInvalidator.invalidate('example-client')
+
+        then:
+        0 * httpClientHelperMock._
+
+        when:
+        TransactionSynchronizationManager.synchronizations*.afterCommit()
+
+        then:
+        1 * httpClientHelperMock.executeHttpDelete(CACHE_URI, null, null) >> new HttpClientRequestResult('', 200)
+    }
+
+    def "A failed removal does not fail the change of the client"() {
+        when:
+        clientCacheInvalidator.invalidate('example-client')
+
+        then:
+        1 * httpClientHelperMock.executeHttpDelete(CACHE_URI, null, null) >> {
+            throw new RuntimeException(new IOException())
+        }
+        notThrown(RuntimeException)
+    }
+}
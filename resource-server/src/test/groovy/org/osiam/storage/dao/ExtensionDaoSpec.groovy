@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao
+
+import javax.persistence.EntityManager
+import javax.persistence.EntityManagerFactory
+
+import org.hibernate.SessionFactory
+import org.hibernate.stat.Statistics
+import org.osiam.resources.exceptions.NoSuchElementException
+import org.osiam.resources.exceptions.OsiamException
+import org.osiam.resources.scim.ExtensionFieldType
+import org.osiam.storage.entities.ExtensionEntity
+import org.osiam.storage.entities.ExtensionFieldEntity
+import org.springframework.context.support.ClassPathXmlApplicationContext
+import org.springframework.orm.jpa.EntityManagerFactoryUtils
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ExtensionDaoSpec extends Specification {
+
+    static final String URN = 'urn:org.osiam:registry'
+
+    @Shared ClassPathXmlApplicationContext context
+    @Shared TransactionTemplate transactionTemplate
+    @Shared Statistics statistics
+
+    @Shared ExtensionDao extensionDao
+
+    def setupSpec() {
+        context = new ClassPathXmlApplicationContext('statement-count-context.xml')
+        transactionTemplate = new TransactionTemplate(context.getBean('txManager'))
+        statistics = context.getBean(EntityManagerFactory).unwrap(SessionFactory).statistics
+        extensionDao = context.getBean(ExtensionDao)
+
+        inTransaction { createExtension(URN, 'gender', 'birthday') }
+        extensionDao.loadExtensions()
+    }
+
+    def cleanupSpec() {
+        context.close()
+    }
+
+    def 'extensions and their fields are looked up without a statement'() {
+        when:
+        def statements = countStatements {
+            ExtensionEntity extension = extensionDao.getExtensionByUrn(URN)
+            [
+                extension,
+                extensionDao.getExtensionByUrn(URN.toUpperCase(), true),
+                extensionDao.getExtensionField(extension, 'gender', false),
+                extensionDao.getExtensionField(extension, 'BIRTHDAY', true)
+            ]
+        }
+
+        then:
+        statements == 0
+    }
+
+    def 'the case of URNs and field names is only ignored if asked for'() {
+        given:
+        ExtensionEntity extension = extensionDao.getExtensionByUrn(URN.toUpperCase(), true)
+
+        expect:
+        extension.urn == URN
+        extensionDao.getExtensionField(extension, 'GENDER', true).name == 'gender'
+
+        when:
+        extensionDao.getExtensionByUrn(URN.toUpperCase())
+
+        then:
+        thrown(OsiamException)
+    }
+
+    def 'an unknown field name raises an exception'() {
+        when:
+        extensionDao.getExtensionField(extensionDao.getExtensionByUrn(URN), 'GENDER', false)
+
+        then:
+        thrown(NoSuchElementException)
+    }
+
+    def 'an unknown URN reloads the extensions if they were loaded a while ago'() {
+        given:
+        inTransaction { createExtension('urn:org.osiam:registry:added', 'department') }
+        extensionDao.registry = new ExtensionRegistry([], 0)
+
+        when:
+        def extension = extensionDao.getExtensionByUrn('urn:org.osiam:registry:added')
+
+        then:
+        extensionDao.getExtensionField(extension, 'department', false).type == ExtensionFieldType.STRING
+    }
+
+    def 'an unknown URN does not reload the extensions again right after they were loaded'() {
+        given:
+        extensionDao.loadExtensions()
+
+        when:
+        def statements = countStatements {
+            try {
+                extensionDao.getExtensionByUrn('urn:org.osiam:registry:unknown')
+            } catch (OsiamException e) {
+                e
+            }
+        }
+
+        then:
+        statements == 0
+    }
+
+    private int countStatements(Closure closure) {
+        inTransaction {
+            statistics.clear()
+            closure()
+            statistics.prepareStatementCount
+        }
+    }
+
+    private <T> T inTransaction(Closure<T> closure) {
+        transactionTemplate.execute({ status -> closure() } as TransactionCallback)
+    }
+
+    private void createExtension(String urn, String... fieldNames) {
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(context.getBean(
+                EntityManagerFactory))
+
+        ExtensionEntity extension = new ExtensionEntity(urn: urn)
+        extension.fields = fieldNames.collect { new ExtensionFieldEntity(name: it, type: ExtensionFieldType.STRING) } as Set
+        em.persist(extension)
+        extension.fields.each { em.persist(it) }
+    }
+}
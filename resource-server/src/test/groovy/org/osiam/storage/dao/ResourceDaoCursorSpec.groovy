@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao
+
+import javax.persistence.EntityManager
+import javax.persistence.EntityManagerFactory
+
+import org.osiam.storage.entities.UserEntity
+import org.springframework.context.support.ClassPathXmlApplicationContext
+import org.springframework.orm.jpa.EntityManagerFactoryUtils
+import org.springframework.transaction.TransactionStatus
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
+
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * Pages through users with a cursor on an in-memory H2 database, which orders null values differently than
+ * PostgreSQL.
+ */
+class ResourceDaoCursorSpec extends Specification {
+
+    static final int USERS = 12
+    static final int PAGE_SIZE = 5
+
+    @Shared ClassPathXmlApplicationContext context
+    @Shared TransactionTemplate transactionTemplate
+    @Shared UserDao userDao
+
+    def setupSpec() {
+        context = new ClassPathXmlApplicationContext('statement-count-context.xml')
+        transactionTemplate = new TransactionTemplate(context.getBean('txManager'))
+        userDao = context.getBean(UserDao)
+    }
+
+    def cleanupSpec() {
+        context.close()
+    }
+
+    @Unroll
+    def 'paging with a cursor through a sort field with null values returns every user once in #sortOrder order'() {
+        when:
+        List<UserEntity> users = transactionTemplate.execute({ TransactionStatus status ->
+            createUsers()
+            List<UserEntity> found = []
+            String cursor = ''
+            while (cursor != null) {
+                SearchResult<UserEntity> page = userDao.searchWithCursor('userName sw "cursor"', 'title', sortOrder,
+                        PAGE_SIZE, cursor, TotalResults.NONE, UserEntity.DEFAULT_FETCH_PLAN)
+                found.addAll(page.results)
+                cursor = page.nextCursor
+            }
+            status.setRollbackOnly()
+            found
+        } as TransactionCallback)
+
+        then: 'there are no duplicates or gaps'
+        users*.userName.size() == USERS
+        users*.userName.toSet() == (1..USERS).collect { "cursor$it" as String }.toSet()
+
+        and: 'the users without a title come last in ascending and first in descending order'
+        List<String> titles = users*.title
+        titles.findIndexValues { it == null }*.intValue() == nullPositions
+
+        where:
+        sortOrder    | nullPositions
+        'ascending'  | [8, 9, 10, 11]
+        'descending' | [0, 1, 2, 3]
+    }
+
+    /**
+     * Every third user has no title, the others share two titles.
+     */
+    private void createUsers() {
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(context.getBean(
+                EntityManagerFactory))
+
+        (1..USERS).each { int i ->
+            em.persist(new UserEntity(id: UUID.randomUUID(), userName: "cursor$i", password: 'secret',
+                    title: i % 3 == 0 ? null : "title${i % 2}"))
+        }
+        em.flush()
+    }
+}
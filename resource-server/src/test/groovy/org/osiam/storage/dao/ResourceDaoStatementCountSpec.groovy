@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao
+
+import javax.persistence.EntityManager
+import javax.persistence.EntityManagerFactory
+
+import org.hibernate.Session
+import org.hibernate.SessionFactory
+import org.hibernate.stat.Statistics
+import org.osiam.resources.UserSpring
+import org.osiam.resources.converter.GroupConverter
+import org.osiam.resources.converter.UserConverter
+import org.osiam.resources.exceptions.ResourceNotFoundException
+import org.osiam.resources.scim.Email
+import org.osiam.resources.scim.ExtensionFieldType
+import org.osiam.resources.scim.PhoneNumber
+import org.osiam.storage.entities.EmailEntity
+import org.osiam.storage.entities.ExtensionEntity
+import org.osiam.storage.entities.ExtensionFieldEntity
+import org.osiam.storage.entities.ExtensionFieldValueEntity
+import org.osiam.storage.entities.GroupEntity
+import org.osiam.storage.entities.NameEntity
+import org.osiam.storage.entities.PhoneNumberEntity
+import org.osiam.storage.entities.RoleEntity
+import org.osiam.storage.entities.UserEntity
+import org.osiam.storage.helper.PooledSequenceGenerator
+import org.springframework.context.support.ClassPathXmlApplicationContext
+import org.springframework.orm.jpa.EntityManagerFactoryUtils
+import org.springframework.transaction.TransactionStatus
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+/**
+ * Counts the statements needed to load resources and convert them into their SCIM representation, which must not
+ * depend on the number of resources.
+ */
+class ResourceDaoStatementCountSpec extends Specification {
+
+    static final int USERS = 30
+    static final int MAX_STATEMENTS_PER_PAGE = 12
+    static final int NEW_USERS = 40
+
+    @Shared ClassPathXmlApplicationContext context
+    @Shared TransactionTemplate transactionTemplate
+    @Shared Statistics statistics
+
+    @Shared UserDao userDao
+    @Shared GroupDao groupDao
+    @Shared UserConverter userConverter
+    @Shared GroupConverter groupConverter
+
+    def setupSpec() {
+        context = new ClassPathXmlApplicationContext('statement-count-context.xml')
+        transactionTemplate = new TransactionTemplate(context.getBean('txManager'))
+        statistics = context.getBean(EntityManagerFactory).unwrap(SessionFactory).statistics
+
+        userDao = context.getBean(UserDao)
+        groupDao = context.getBean(GroupDao)
+        userConverter = context.getBean(UserConverter)
+        groupConverter = context.getBean(GroupConverter)
+
+        inTransaction { createUsersAndGroups() }
+    }
+
+    def cleanupSpec() {
+        context.close()
+    }
+
+    def 'a page of users is loaded with a constant number of statements'() {
+        when:
+        int smallPage = countStatements {
+            userDao.search(null, 'userName', 'ascending', 5, 0, TotalResults.EXACT,
+                    UserEntity.DEFAULT_FETCH_PLAN).results.each {
+                userConverter.toScim(it)
+            }
+        }
+        int largePage = countStatements {
+            userDao.search(null, 'userName', 'ascending', USERS, 0, TotalResults.EXACT,
+                    UserEntity.DEFAULT_FETCH_PLAN).results.each {
+                userConverter.toScim(it)
+            }
+        }
+
+        then:
+        largePage == smallPage
+        largePage <= MAX_STATEMENTS_PER_PAGE
+    }
+
+    def 'a page of users restricted to some attributes does not read the tables of the other attributes'() {
+        given:
+        Set<String> attributes = ['id', 'userName'] as Set
+
+        when:
+        int statements = countStatements {
+            userDao.search(null, 'userName', 'ascending', USERS, 0, TotalResults.EXACT,
+                    userConverter.getFetchPlan(attributes)).results.each {
+                userConverter.toScim(it, attributes)
+            }
+        }
+
+        then:
+        statements <= 3
+    }
+
+    def 'a page of users retrieved with a cursor is loaded with a constant number of statements'() {
+        when:
+        int statements = countStatements {
+            userDao.searchWithCursor(null, 'userName', 'ascending', USERS, '', TotalResults.NONE,
+                    UserEntity.DEFAULT_FETCH_PLAN).results.each {
+                userConverter.toScim(it)
+            }
+        }
+
+        then:
+        statements <= MAX_STATEMENTS_PER_PAGE
+    }
+
+    def 'a page of groups is loaded with a constant number of statements'() {
+        when:
+        int statements = countStatements {
+            groupDao.search(null, 'displayName', 'ascending', USERS, 0, TotalResults.EXACT,
+                    GroupEntity.DEFAULT_FETCH_PLAN).results.each {
+                groupConverter.toScim(it)
+            }
+        }
+
+        then:
+        statements <= 4
+    }
+
+    def 'all users are exported in chunks with a constant number of statements and managed entities'() {
+        given:
+        List<Integer> chunkSizes = []
+        List<Long> statementsPerChunk = []
+        List<Integer> entitiesPerChunk = []
+
+        when:
+        int statements = countStatements {
+            Session session = EntityManagerFactoryUtils.getTransactionalEntityManager(context.getBean(
+                    EntityManagerFactory)).unwrap(Session)
+            long statementsBefore = 0
+            userDao.scroll(UserEntity.DEFAULT_FETCH_PLAN, 10, { List chunk ->
+                chunk.each { userConverter.toScim(it) }
+                chunkSizes << chunk.size()
+                statementsPerChunk << statistics.prepareStatementCount - statementsBefore
+                entitiesPerChunk << session.statistics.entityCount
+                statementsBefore = statistics.prepareStatementCount
+            } as ChunkHandler)
+        }
+
+        then:
+        chunkSizes == [10, 10, 10]
+        statementsPerChunk.tail().unique() == [statementsPerChunk.last()]
+        statementsPerChunk.last() <= MAX_STATEMENTS_PER_PAGE
+        entitiesPerChunk.unique().size() == 1
+        statements <= 3 * MAX_STATEMENTS_PER_PAGE
+    }
+
+    def 'an estimated total without filter is counted exactly on databases other than PostgreSQL'() {
+        when:
+        List<Long> totals = inTransaction {
+            [TotalResults.ESTIMATED, TotalResults.EXACT].collect {
+                userDao.search(null, 'userName', 'ascending', 5, 0, it, UserEntity.DEFAULT_FETCH_PLAN).totalResults
+            }
+        }
+
+        then:
+        totals[0] == totals[1]
+        totals[0] >= USERS
+    }
+
+    def 'a single user is loaded with one statement per collection'() {
+        given:
+        String id = inTransaction { userDao.getByUsername('user1').id.toString() }
+
+        when:
+        int statements = countStatements { userConverter.toScim(userDao.getById(id)) }
+
+        then:
+        statements <= MAX_STATEMENTS_PER_PAGE - 1
+    }
+
+    def 'an id that is no UUID is not looked up'() {
+        when:
+        int statements = countStatements {
+            try {
+                userDao.getById('no-uuid')
+            } catch (ResourceNotFoundException e) {
+                e
+            }
+        }
+
+        then:
+        statements == 0
+    }
+
+    def 'a range filter on a numeric extension field compares the numbers and keeps their scale'() {
+        given:
+        context.getBean(ExtensionDao).loadExtensions()
+
+        when:
+        List<UserEntity> users = inTransaction {
+            userDao.search('urn:org.osiam:test.size gt "9.5"', 'userName', 'ascending', USERS, 0,
+                    TotalResults.EXACT, UserEntity.DEFAULT_FETCH_PLAN).results
+        }
+
+        then:
+        users.size() == USERS - 9
+        users*.userName.contains('user10')
+        !users*.userName.contains('user9')
+        users.find { it.userName == 'user10' }.extensionFieldValues*.numericValue.contains(new BigDecimal('10.50'))
+    }
+
+    def 'an extension value of several KB is stored and found by an equality filter on its whole value'() {
+        given:
+        context.getBean(ExtensionDao).loadExtensions()
+        String prefix = 'x' * (ExtensionFieldValueEntity.VALUE_PREFIX_LENGTH + 4000)
+
+        when:
+        List<String> userNames = transactionTemplate.execute({ TransactionStatus status ->
+            EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(context.getBean(
+                    EntityManagerFactory))
+            ExtensionFieldEntity field = em.createQuery(
+                    'SELECT f FROM ExtensionFieldEntity f WHERE f.name = :name', ExtensionFieldEntity)
+                    .setParameter('name', 'department').singleResult
+            ['long1', 'long2'].each { String userName ->
+                UserEntity user = new UserEntity(id: UUID.randomUUID(), userName: userName, password: 'secret')
+                user.addExtensionFieldValue(new ExtensionFieldValueEntity(extensionField: field,
+                        value: prefix + userName))
+                em.persist(user)
+            }
+            em.flush()
+            List<String> found = userDao.search("urn:org.osiam:test.department eq \"${prefix}long2\"", 'userName',
+                    'ascending', USERS, 0, TotalResults.EXACT, UserEntity.DEFAULT_FETCH_PLAN).results*.userName
+            status.setRollbackOnly()
+            found
+        } as TransactionCallback)
+
+        then: 'values sharing the indexed prefix are told apart by the whole value'
+        userNames == ['long2']
+    }
+
+    def 'the profile of a user is loaded with two statements'() {
+        given:
+        String id = inTransaction { userDao.getByUsername('user1').id.toString() }
+
+        when:
+        int statements = countStatements {
+            UserEntity user = userDao.getById(id, UserEntity.PROFILE_FETCH_PLAN)
+            [user.name.givenName, user.emails*.value, user.meta.created]
+        }
+
+        then:
+        statements == 2
+    }
+
+    def 'the login of a user is loaded with one statement'() {
+        when:
+        UserSpring login
+        int statements = countStatements { login = userDao.getLoginByUsername('user1') }
+
+        then:
+        statements == 1
+        login.username == 'user1'
+        login.password == 'secret'
+        login.roles*.value == ['USER']
+    }
+
+    def 'the login of an unknown user is not found'() {
+        when:
+        inTransaction { userDao.getLoginByUsername('unknown') }
+
+        then:
+        thrown(ResourceNotFoundException)
+    }
+
+    def 'new users are inserted in batches with their ids allocated in blocks'() {
+        when:
+        int statements = transactionTemplate.execute({ TransactionStatus status ->
+            EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(context.getBean(
+                    EntityManagerFactory))
+            statistics.clear()
+            (1..NEW_USERS).each { int i ->
+                UserEntity user = new UserEntity(id: UUID.randomUUID(), userName: "new$i", password: 'secret',
+                        name: new NameEntity(givenName: "Given$i", familyName: "Family$i"))
+                user.addEmail(new EmailEntity(value: "new$i@work.example.com", type: Email.Type.WORK))
+                user.addEmail(new EmailEntity(value: "new$i@home.example.com", type: Email.Type.HOME))
+                user.addRole(new RoleEntity(value: 'USER'))
+                em.persist(user)
+            }
+            em.flush()
+            status.setRollbackOnly()
+            statistics.prepareStatementCount
+        } as TransactionCallback)
+
+        then: 'hibernate only batches the first table of a resource, but the other entities are batched per table'
+        statements <= 2 * NEW_USERS + 4 + Math.ceil(NEW_USERS * 6 / PooledSequenceGenerator.INCREMENT_SIZE)
+    }
+
+    private int countStatements(Closure closure) {
+        inTransaction {
+            statistics.clear()
+            closure()
+            statistics.prepareStatementCount
+        }
+    }
+
+    private <T> T inTransaction(Closure<T> closure) {
+        transactionTemplate.execute({ status -> closure() } as TransactionCallback)
+    }
+
+    private void createUsersAndGroups() {
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(context.getBean(
+                EntityManagerFactory))
+
+        ExtensionEntity extension = new ExtensionEntity(urn: 'urn:org.osiam:test')
+        ExtensionFieldEntity field = new ExtensionFieldEntity(name: 'department', type: ExtensionFieldType.STRING)
+        ExtensionFieldEntity size = new ExtensionFieldEntity(name: 'size', type: ExtensionFieldType.DECIMAL)
+        extension.fields = [field, size] as Set
+        em.persist(extension)
+        em.persist(field)
+        em.persist(size)
+
+        GroupEntity group = new GroupEntity(id: UUID.randomUUID(), displayName: 'group')
+
+        (1..USERS).each { int i ->
+            UserEntity user = new UserEntity(id: UUID.randomUUID(), userName: "user$i", password: 'secret',
+                    name: new NameEntity(givenName: "Given$i", familyName: "Family$i"))
+            user.addEmail(new EmailEntity(value: "user$i@work.example.com", type: Email.Type.WORK, primary: true))
+            user.addEmail(new EmailEntity(value: "user$i@home.example.com", type: Email.Type.HOME))
+            user.addPhoneNumber(new PhoneNumberEntity(value: "0123 $i", type: PhoneNumber.Type.WORK))
+            user.addRole(new RoleEntity(value: 'USER'))
+            user.addExtensionFieldValue(new ExtensionFieldValueEntity(extensionField: field, value: "department$i"))
+            user.addExtensionFieldValue(new ExtensionFieldValueEntity(extensionField: size,
+                    typedValue: new BigDecimal("$i.50")))
+            em.persist(user)
+            group.addMember(user)
+        }
+
+        em.persist(group)
+    }
+}
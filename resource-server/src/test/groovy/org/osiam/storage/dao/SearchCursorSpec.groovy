@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao
+
+import spock.lang.Specification
+
+class SearchCursorSpec extends Specification {
+
+    def 'a cursor can be encoded and decoded again'() {
+        given:
+        def cursor = new SearchCursor('meta.created', true, lastSortValue, 4711L)
+
+        when:
+        def decoded = SearchCursor.decode(cursor.encode())
+
+        then:
+        decoded == cursor
+        decoded.sortBy == 'meta.created'
+        decoded.descending
+        decoded.lastSortValue == lastSortValue
+        decoded.lastInternalId == 4711L
+
+        where:
+        lastSortValue << ['marissa', new Date(1388530800000L), true, null]
+    }
+
+    def 'an encoded cursor is url safe'() {
+        given:
+        def cursor = new SearchCursor('userName', false, '??>>~~ünïcödé', Long.MAX_VALUE)
+
+        expect:
+        cursor.encode() ==~ /[A-Za-z0-9_-]+/
+    }
+
+    def 'decoding an invalid cursor raises an IllegalArgumentException'() {
+        when:
+        SearchCursor.decode(token)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        token << ['not a cursor', 'AQ', 'AAAA', new SearchCursor('', false, 'x', 1L).encode() + 'AA']
+    }
+
+    def 'a cursor is only compatible with the sort field and order it was created for'() {
+        given:
+        def cursor = new SearchCursor('userName', false, 'marissa', 1L)
+
+        expect:
+        cursor.isCompatibleWith('userName', false)
+        !cursor.isCompatibleWith('userName', true)
+        !cursor.isCompatibleWith('', false)
+    }
+
+    def 'sort values of unsupported types can not be encoded'() {
+        when:
+        new SearchCursor('userName', false, 42, 1L).encode()
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
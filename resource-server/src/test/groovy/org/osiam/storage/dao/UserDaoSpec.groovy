@@ -79,4 +79,22 @@ class UserDaoSpec extends Specification {
         1 * resourceDao.delete(IRRELEVANT)
     }
 
+    def 'searching users with a cursor calls resourceDao.searchWithCursor()'() {
+        when:
+        userDao.searchWithCursor(IRRELEVANT, 'userName', 'ascending', 10, '', TotalResults.NONE, ['meta'])
+
+        then:
+        1 * resourceDao.searchWithCursor(UserEntity, IRRELEVANT, 10, '', 'userName', 'ascending', TotalResults.NONE,
+                ['meta'], _)
+    }
+
+    def 'searching users calls resourceDao.search() with the requested kind of total results'() {
+        when:
+        userDao.search(IRRELEVANT, 'userName', 'ascending', 10, 0, TotalResults.ESTIMATED, ['meta'])
+
+        then:
+        1 * resourceDao.search(UserEntity, IRRELEVANT, 10, 0, 'userName', 'ascending', TotalResults.ESTIMATED,
+                ['meta'], _)
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.helper
+
+import java.sql.Connection
+
+import org.apache.tomcat.jdbc.pool.DataSource
+import org.apache.tomcat.jdbc.pool.PoolExhaustedException
+
+import spock.lang.Specification
+
+class MonitoredDataSourceSpec extends Specification {
+
+    DataSource pool = Mock()
+    MonitoredDataSource dataSource = new MonitoredDataSource(pool)
+
+    def 'getting a connection borrows it from the pool and counts the acquisition'() {
+        given:
+        Connection connection = Mock()
+
+        when:
+        def result = dataSource.getConnection()
+
+        then:
+        1 * pool.getConnection() >> connection
+        result == connection
+        dataSource.acquisitions == 1
+        dataSource.timeouts == 0
+    }
+
+    def 'an exhausted pool is counted as timeout and the exception is rethrown'() {
+        given:
+        pool.getConnection() >> { throw new PoolExhaustedException('timeout') }
+
+        when:
+        dataSource.getConnection()
+
+        then:
+        thrown(PoolExhaustedException)
+        dataSource.acquisitions == 1
+        dataSource.timeouts == 1
+    }
+
+    def 'the pool state is read from the underlying pool'() {
+        given:
+        pool.getActive() >> 3
+        pool.getIdle() >> 2
+        pool.getSize() >> 5
+        pool.getMaxActive() >> 30
+        pool.getWaitCount() >> 1
+
+        expect:
+        dataSource.activeConnections == 3
+        dataSource.idleConnections == 2
+        dataSource.poolSize == 5
+        dataSource.maxPoolSize == 30
+        dataSource.waitingThreads == 1
+    }
+
+    def 'resetting the statistics sets all counters to zero'() {
+        given:
+        pool.getConnection() >> { throw new PoolExhaustedException('timeout') }
+        try {
+            dataSource.getConnection()
+        } catch (PoolExhaustedException ignored) {
+        }
+
+        when:
+        dataSource.resetStatistics()
+
+        then:
+        dataSource.acquisitions == 0
+        dataSource.timeouts == 0
+        dataSource.averageWaitTimeMillis == 0
+        dataSource.maxWaitTimeMillis == 0
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer
+
+import java.util.zip.GZIPOutputStream
+
+import org.osiam.resources.helper.JsonInputValidator
+import org.osiam.resources.scim.Constants
+import org.osiam.resources.scim.User
+import org.springframework.web.bind.annotation.RequestMethod
+
+import spock.lang.Specification
+
+class UserRecordReaderSpec extends Specification {
+
+    def 'users are read from an array of SCIM JSON objects'() {
+        given:
+        UserRecordReader reader = new JsonUserRecordReader(new StringReader(
+                '[{"userName": "user1"}, {"userName": "user2", "emails": [{"value": "user2@example.com"}]}]'))
+
+        expect:
+        reader.next().get('userName').textValue() == 'user1'
+        reader.next().get('emails').get(0).get('value').textValue() == 'user2@example.com'
+        reader.next() == null
+        reader.recordNumber == 2
+    }
+
+    def 'users are read from newline delimited SCIM JSON'() {
+        given:
+        UserRecordReader reader = new JsonUserRecordReader(new StringReader('{"userName": "user1"}\n'
+                + '{"userName": "user2"}\n'))
+
+        expect:
+        readAll(reader)*.get('userName')*.textValue() == ['user1', 'user2']
+    }
+
+    def 'a record that is not a JSON object is rejected with its number'() {
+        given:
+        UserRecordReader reader = new JsonUserRecordReader(new StringReader('[{"userName": "user1"}, "user2"]'))
+        reader.next()
+
+        when:
+        reader.next()
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message.contains('Record 2')
+    }
+
+    def 'the columns of a CSV file are mapped to the attributes of a SCIM user'() {
+        given:
+        UserRecordReader reader = new CsvUserRecordReader(new StringReader(
+                'userName,password,active,name.givenName,emails.work,emails.home,roles\r\n'
+                + 'user1,secret,true,"Given, ""Junior""",user1@work.example.com,,admin\r\n'))
+
+        when:
+        User user = new JsonInputValidator().validateJsonUser(reader.next().toString(), RequestMethod.POST)
+
+        then:
+        user.schemas == [Constants.USER_CORE_SCHEMA] as Set
+        user.userName == 'user1'
+        user.password == 'secret'
+        user.active
+        user.name.givenName == 'Given, "Junior"'
+        user.emails*.value == ['user1@work.example.com']
+        user.emails*.type*.value == ['work']
+        user.roles*.value == ['admin']
+        reader.next() == null
+    }
+
+    def 'quoted CSV fields may contain line breaks and empty lines are skipped'() {
+        given:
+        UserRecordReader reader = new CsvUserRecordReader(new StringReader(
+                'userName,displayName\n\nuser1,"first\nsecond"\n\nuser2,\n'))
+
+        expect:
+        readAll(reader)*.toString() == [
+            '{"schemas":["' + Constants.USER_CORE_SCHEMA + '"],"userName":"user1","displayName":"first\\nsecond"}',
+            '{"schemas":["' + Constants.USER_CORE_SCHEMA + '"],"userName":"user2"}'
+        ]
+    }
+
+    def 'an unsupported CSV column is rejected'() {
+        when:
+        new CsvUserRecordReader(new StringReader('userName,addresses.work\n'))
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message.contains('addresses.work')
+    }
+
+    def 'a CSV record with a wrong number of fields is rejected with its number'() {
+        given:
+        UserRecordReader reader = new CsvUserRecordReader(new StringReader('userName,displayName\nuser1,User\nuser2\n'))
+        reader.next()
+
+        when:
+        reader.next()
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message.startsWith('Record 2 has 1 fields')
+    }
+
+    def 'the format of a file is chosen by its name and gzip is decompressed'() {
+        given:
+        File file = File.createTempFile('users', '.csv.gz')
+        file.deleteOnExit()
+        new GZIPOutputStream(new FileOutputStream(file)).withWriter('UTF-8') { it << 'userName\nuser1\n' }
+
+        when:
+        UserRecordReader reader = UserRecordReader.open(file)
+
+        then:
+        reader instanceof CsvUserRecordReader
+        reader.next().get('userName').textValue() == 'user1'
+
+        cleanup:
+        reader?.close()
+    }
+
+    private List readAll(UserRecordReader reader) {
+        List records = []
+        def record
+        while ((record = reader.next()) != null) {
+            records << record
+        }
+        records
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.importer
+
+import org.osiam.resources.scim.Email
+import org.osiam.resources.scim.ExtensionFieldType
+import org.osiam.storage.entities.AddressEntity
+import org.osiam.storage.entities.EmailEntity
+import org.osiam.storage.entities.ExtensionFieldEntity
+import org.osiam.storage.entities.ExtensionFieldValueEntity
+import org.osiam.storage.entities.NameEntity
+import org.osiam.storage.entities.RoleEntity
+import org.osiam.storage.entities.UserEntity
+
+import spock.lang.Specification
+
+class UserRowsSpec extends Specification {
+
+    UserRows rows = new UserRows()
+    UUID id = UUID.randomUUID()
+
+    def 'a user is written into the rows of its tables with the ids of the block'() {
+        given:
+        UserEntity user = new UserEntity(id: id, userName: 'user1', password: 'hash', active: true,
+                externalId: 'external', name: new NameEntity(givenName: 'Given', familyName: 'Family'))
+        user.addEmail(new EmailEntity(value: 'user1@example.com', type: Email.Type.WORK, primary: true))
+        user.addRole(new RoleEntity(value: 'USER'))
+        user.addOrUpdateExtensionValue(new ExtensionFieldValueEntity(value: 'department',
+                extensionField: new ExtensionFieldEntity(internalId: 7, name: 'department',
+                        type: ExtensionFieldType.STRING)))
+
+        when:
+        rows.add(user, new IdBlock([1, 2, 3, 4, 5, 6] as long[]))
+
+        then:
+        UserRows.countIds(user) == 6
+        table('scim_meta').startsWith('2,')
+        table('scim_meta').endsWith(',,"User",\n')
+        table('scim_id') == "1,\"external\",\"$id\",2\n"
+        table('scim_name') == '3,"Family",,"Given",,,\n'
+        table('scim_user') == '1,true,,,,"hash",,,,,"user1",,3\n'
+        table('scim_email') == '4,true,"user1@example.com","work",1\n'
+        table('scim_roles') == '5,false,"USER",,1\n'
+        table('scim_extension_field_value') == '6,"department",,,,7,1\n'
+        table('scim_address') == ''
+    }
+
+    def 'quotes are escaped and empty strings are told apart from null'() {
+        given:
+        UserEntity user = new UserEntity(id: id, userName: 'say "hello"', password: 'hash', displayName: '')
+        user.addAddress(new AddressEntity(formatted: 'line 1\nline 2'))
+
+        when:
+        rows.add(user, new IdBlock([1, 2, 3] as long[]))
+
+        then:
+        UserRows.countIds(user) == 3
+        table('scim_user') == '1,false,"",,,"hash",,,,,"say ""hello""",,\n'
+        table('scim_address') == '3,false,,"line 1\nline 2",,,,,,1\n'
+    }
+
+    def 'typed extension values are written into the column of their type'() {
+        given:
+        UserEntity user = new UserEntity(id: id, userName: 'user1', password: 'hash')
+        user.addOrUpdateExtensionValue(new ExtensionFieldValueEntity(
+                extensionField: new ExtensionFieldEntity(internalId: 7, name: 'size', type: ExtensionFieldType.DECIMAL),
+                typedValue: new BigDecimal('1.78')))
+        user.addOrUpdateExtensionValue(new ExtensionFieldValueEntity(
+                extensionField: new ExtensionFieldEntity(internalId: 8, name: 'newsletter',
+                        type: ExtensionFieldType.BOOLEAN),
+                typedValue: true))
+
+        when:
+        rows.add(user, new IdBlock([1, 2, 3, 4] as long[]))
+
+        then:
+        table('scim_extension_field_value').readLines()*.substring(1) as Set == [',,1.78,,,7,1', ',,,true,,8,1'] as Set
+    }
+
+    def 'a block of ids can not be used for more ids than it contains'() {
+        given:
+        UserEntity user = new UserEntity(id: id, userName: 'user1', password: 'hash',
+                name: new NameEntity(givenName: 'Given'))
+
+        when:
+        rows.add(user, new IdBlock([1, 2] as long[]))
+
+        then:
+        thrown(NoSuchElementException)
+    }
+
+    private String table(String name) {
+        rows.tables.find { it.table == name }.toString()
+    }
+}
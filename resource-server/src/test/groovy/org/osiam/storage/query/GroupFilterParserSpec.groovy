@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.query
+
+import javax.persistence.EntityManager
+import javax.persistence.criteria.CriteriaBuilder
+import javax.persistence.criteria.CriteriaQuery
+import javax.persistence.criteria.Path
+import javax.persistence.criteria.Predicate
+import javax.persistence.criteria.Root
+import javax.persistence.criteria.SetJoin
+import javax.persistence.criteria.Subquery
+
+import spock.lang.Specification
+
+class GroupFilterParserSpec extends Specification {
+
+    EntityManager entityManager = Mock()
+    CriteriaBuilder cb = Mock()
+    CriteriaQuery query = Mock()
+    Root root = Mock()
+    Subquery subquery = Mock()
+    Root correlatedRoot = Mock()
+    SetJoin join = Mock()
+    Path path = Mock()
+
+    GroupFilterParser filterParser = new GroupFilterParser(entityManager: entityManager)
+
+    def setup() {
+        entityManager.getCriteriaBuilder() >> cb
+        subquery.correlate(root) >> correlatedRoot
+        subquery.select(_) >> subquery
+        correlatedRoot.getJoins() >> ([] as Set)
+        correlatedRoot.join(_, _) >> join
+        join.get(_) >> path
+    }
+
+    def 'a filter on a single-valued attribute is applied to the root'() {
+        given:
+        Predicate predicate = Mock()
+
+        when:
+        def result = filterParser.createPredicate('displayName eq "marketing"', query, root)
+
+        then:
+        1 * root.get(_) >> path
+        1 * cb.equal(path, 'marketing') >> predicate
+        0 * query.subquery(_)
+        result == predicate
+    }
+
+    def 'a filter on members is applied in an EXISTS subquery correlated with the root'() {
+        given:
+        Predicate predicate = Mock()
+        Predicate exists = Mock()
+
+        when:
+        def result = filterParser.createPredicate('members eq "a-member-id"', query, root)
+
+        then:
+        1 * query.subquery(Long) >> subquery
+        0 * root.join(_, _)
+        1 * cb.equal(path, 'a-member-id') >> predicate
+        1 * subquery.where(predicate) >> subquery
+        1 * cb.exists(subquery) >> exists
+        result == exists
+    }
+
+    def 'every expression on members gets its own EXISTS subquery'() {
+        given:
+        Predicate exists = Mock()
+        Predicate conjunction = Mock()
+
+        when:
+        def result = filterParser.createPredicate('members eq "a-member-id" and members eq "another-member-id"',
+                query, root)
+
+        then:
+        2 * query.subquery(Long) >> subquery
+        2 * cb.exists(subquery) >> exists
+        1 * cb.and(exists, exists) >> conjunction
+        result == conjunction
+    }
+
+    def 'a negated filter on members negates the EXISTS subquery'() {
+        given:
+        Predicate exists = Mock()
+        Predicate notExists = Mock()
+
+        when:
+        def result = filterParser.createPredicate('not(members eq "a-member-id")', query, root)
+
+        then:
+        1 * query.subquery(Long) >> subquery
+        1 * cb.exists(subquery) >> exists
+        1 * cb.not(exists) >> notExists
+        result == notExists
+    }
+
+    def 'filters of the same shape are parsed once and use their own values'() {
+        when:
+        filterParser.createPredicate('displayName eq "marketing" and externalId eq "1"', query, root)
+        filterParser.createPredicate('displayName eq "sales \\"north\\"" and externalId eq "2"', query, root)
+
+        then:
+        _ * root.get(_) >> path
+        1 * cb.equal(path, 'marketing')
+        1 * cb.equal(path, '1')
+        1 * cb.equal(path, 'sales "north"')
+        1 * cb.equal(path, '2')
+        cachedFilterShapes() == 1
+    }
+
+    def 'filters of a different shape are parsed again'() {
+        when:
+        filterParser.createPredicate('displayName eq "marketing"', query, root)
+        filterParser.createPredicate('displayName co "marketing"', query, root)
+        filterParser.createPredicate('(displayName eq "marketing")', query, root)
+
+        then:
+        _ * root.get(_) >> path
+        cachedFilterShapes() == 3
+    }
+
+    def 'a filter with an invalid syntax is rejected and not cached'() {
+        when:
+        filterParser.createPredicate('displayName eq "marketing" and', query, root)
+
+        then:
+        thrown(IllegalArgumentException)
+        cachedFilterShapes() == 0
+    }
+
+    private long cachedFilterShapes() {
+        def field = FilterParser.getDeclaredField('parseTrees')
+        field.accessible = true
+        field.get(filterParser).size()
+    }
+}
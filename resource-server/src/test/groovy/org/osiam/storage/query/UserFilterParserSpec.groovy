@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.query
+
+import javax.persistence.EntityManager
+import javax.persistence.criteria.CriteriaBuilder
+import javax.persistence.criteria.CriteriaQuery
+import javax.persistence.criteria.Path
+import javax.persistence.criteria.Predicate
+import javax.persistence.criteria.Root
+import javax.persistence.criteria.SetJoin
+import javax.persistence.criteria.Subquery
+
+import org.osiam.resources.scim.ExtensionFieldType
+import org.osiam.storage.dao.ExtensionDao
+import org.osiam.storage.entities.ExtensionEntity
+import org.osiam.storage.entities.ExtensionFieldEntity
+
+import spock.lang.Specification
+
+class UserFilterParserSpec extends Specification {
+
+    EntityManager entityManager = Mock()
+    CriteriaBuilder cb = Mock()
+    ExtensionDao extensionDao = Mock()
+    CriteriaQuery query = Mock()
+    Root root = Mock()
+    Subquery subquery = Mock()
+    Root correlatedRoot = Mock()
+    SetJoin join = Mock()
+    Path path = Mock()
+
+    UserFilterParser filterParser = new UserFilterParser(entityManager: entityManager, extensionDao: extensionDao)
+
+    def setup() {
+        entityManager.getCriteriaBuilder() >> cb
+        subquery.correlate(root) >> correlatedRoot
+        subquery.select(_) >> subquery
+        correlatedRoot.getJoins() >> ([] as Set)
+        correlatedRoot.join(_, _) >> join
+        join.get(_) >> path
+        path.get(_) >> path
+    }
+
+    def 'a filter on a single-valued attribute is applied to the root'() {
+        given:
+        Predicate predicate = Mock()
+
+        when:
+        def result = filterParser.createPredicate('userName eq "marissa"', query, root)
+
+        then:
+        1 * root.get(_) >> path
+        1 * cb.equal(path, 'marissa') >> predicate
+        0 * query.subquery(_)
+        result == predicate
+    }
+
+    def 'a filter on a multi-valued attribute is applied in an EXISTS subquery correlated with the root'() {
+        given:
+        Predicate predicate = Mock()
+        Predicate exists = Mock()
+
+        when:
+        def result = filterParser.createPredicate('emails.value eq "marissa@example.com"', query, root)
+
+        then:
+        1 * query.subquery(Long) >> subquery
+        0 * root.join(_, _)
+        1 * cb.equal(path, 'marissa@example.com') >> predicate
+        1 * subquery.where(predicate) >> subquery
+        1 * cb.exists(subquery) >> exists
+        result == exists
+    }
+
+    def 'a filter on an extension field is applied in an EXISTS subquery restricted to the field'() {
+        given:
+        ExtensionFieldEntity field = Mock()
+        field.getName() >> 'gender'
+        field.getType() >> ExtensionFieldType.STRING
+        field.getInternalId() >> 42
+        field.isConstrainedValid(_) >> true
+        ExtensionEntity extension = Mock()
+        extensionDao.getExtensionByUrn('urn:org.osiam:extension', true) >> extension
+        extensionDao.getExtensionField(extension, 'gender', true) >> field
+
+        Predicate valuePredicate = Mock()
+        Predicate fieldPredicate = Mock()
+        Predicate predicate = Mock()
+        Predicate exists = Mock()
+
+        when:
+        def result = filterParser.createPredicate('urn:org.osiam:extension.gender eq "male"', query, root)
+
+        then:
+        1 * query.subquery(Long) >> subquery
+        1 * cb.equal(path, 'male') >> valuePredicate
+        1 * cb.equal(path, 42) >> fieldPredicate
+        1 * cb.and(fieldPredicate, valuePredicate) >> predicate
+        1 * subquery.where(predicate) >> subquery
+        1 * cb.exists(subquery) >> exists
+        result == exists
+    }
+
+    def 'a filter on a numeric extension field compares the number and not its string representation'() {
+        given:
+        ExtensionFieldEntity field = Mock()
+        field.getName() >> 'size'
+        field.getType() >> ExtensionFieldType.DECIMAL
+        field.getInternalId() >> 42
+        field.isConstrainedValid(_) >> true
+        ExtensionEntity extension = Mock()
+        extensionDao.getExtensionByUrn('urn:org.osiam:extension', true) >> extension
+        extensionDao.getExtensionField(extension, 'size', true) >> field
+
+        Predicate valuePredicate = Mock()
+
+        when:
+        filterParser.createPredicate('urn:org.osiam:extension.size gt "1.5"', query, root)
+
+        then:
+        1 * query.subquery(Long) >> subquery
+        1 * cb.greaterThan(path, new BigDecimal('1.5')) >> valuePredicate
+        1 * cb.and(_, valuePredicate)
+    }
+
+    def 'a filter combining single- and multi-valued attributes only uses a subquery for the multi-valued one'() {
+        given:
+        Predicate predicate = Mock()
+        Predicate exists = Mock()
+        Predicate disjunction = Mock()
+
+        when:
+        def result = filterParser.createPredicate('userName eq "marissa" or emails.type eq "work"', query, root)
+
+        then:
+        1 * root.get(_) >> path
+        1 * cb.equal(path, 'marissa') >> predicate
+        1 * query.subquery(Long) >> subquery
+        1 * cb.exists(subquery) >> exists
+        1 * cb.or(predicate, exists) >> disjunction
+        result == disjunction
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.resources.provisioning;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.osiam.resources.helper.PropertyFilterMixIn;
+import org.osiam.resources.scim.Constants;
+import org.osiam.resources.scim.Email;
+import org.osiam.resources.scim.Meta;
+import org.osiam.resources.scim.Name;
+import org.osiam.resources.scim.SCIMSearchResult;
+import org.osiam.resources.scim.User;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Compares the time needed to write a page of users with requested attributes. The previous AttributesRemovalHelper
+ * wrote the resources and schemas with a new mapper per request, read them back into trees, built the search result
+ * as a string and read it back into a {@link SCIMSearchResult}, which was written again to the response. Now the
+ * {@link PagedSearchResult} filters the resources while it is written to the response. Both are checked to write the
+ * same JSON before they are measured:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.osiam.resources.provisioning.PagedSearchResultSerializationBenchmark
+ * </pre>
+ */
+public final class PagedSearchResultSerializationBenchmark {
+
+    private static final int USERS_PER_PAGE = 100;
+    private static final int PAGES_PER_RUN = 200;
+    private static final int WARMUP_RUNS = 10;
+    private static final int MEASURED_RUNS = 20;
+
+    private static final String[][] SCENARIOS = {
+            {},
+            { "userName" },
+            { "userName", "emails", "value" },
+            { "meta", "created" }
+    };
+
+    /**
+     * Writes the responses like the message converter of Spring MVC, with one mapper for all requests.
+     */
+    private static final ObjectMapper RESPONSE_MAPPER = new ObjectMapper();
+
+    private PagedSearchResultSerializationBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        PagedSearchResult<User> page = PagedSearchResult.withStartIndex(createUsers(), 1000000L, USERS_PER_PAGE, 1,
+                Constants.USER_CORE_SCHEMA);
+
+        System.out.println(String.format(Locale.ENGLISH, "%-25s %18s %18s", "attributes", "previous (us)",
+                "streaming (us)"));
+        for (String[] attributes : SCENARIOS) {
+            if (!RESPONSE_MAPPER.readTree(writePrevious(page, attributes))
+                    .equals(RESPONSE_MAPPER.readTree(writeStreaming(page, attributes)))) {
+                throw new IllegalStateException("Different JSON for " + Arrays.toString(attributes));
+            }
+
+            double previous = measure(page, attributes, true);
+            double streaming = measure(page, attributes, false);
+            System.out.println(String.format(Locale.ENGLISH, "%-25s %18.1f %18.1f", Arrays.toString(attributes),
+                    previous, streaming));
+        }
+    }
+
+    private static List<User> createUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS_PER_PAGE; i++) {
+            Email email = new Email.Builder().setValue("user" + i + "@example.com").setType(Email.Type.WORK)
+                    .setPrimary(true).build();
+            users.add(new User.Builder("user" + i)
+                    .setId(String.valueOf(i))
+                    .setName(new Name.Builder().setGivenName("Given" + i).setFamilyName("Family" + i).build())
+                    .setEmails(Collections.singletonList(email))
+                    .setMeta(new Meta.Builder(new Date(), new Date()).setResourceType("User").build())
+                    .setSchemas(Collections.singleton(Constants.USER_CORE_SCHEMA))
+                    .build());
+        }
+        return users;
+    }
+
+    /**
+     * @return the median time in microseconds to write one page
+     */
+    private static double measure(PagedSearchResult<User> page, String[] attributes, boolean previous)
+            throws IOException {
+        List<Long> durations = new ArrayList<>();
+
+        for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            for (int j = 0; j < PAGES_PER_RUN; j++) {
+                if (previous) {
+                    writePrevious(page, attributes);
+                } else {
+                    writeStreaming(page, attributes);
+                }
+            }
+            if (i >= WARMUP_RUNS) {
+                durations.add(System.nanoTime() - start);
+            }
+        }
+
+        Collections.sort(durations);
+        return durations.get(durations.size() / 2) / (PAGES_PER_RUN * 1000.0);
+    }
+
+    private static byte[] writeStreaming(PagedSearchResult<User> page, String[] attributes) throws IOException {
+        Set<String> requestedAttributes = new HashSet<>(Arrays.asList(attributes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RESPONSE_MAPPER.writeValue(out, page.withAttributes(requestedAttributes));
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the page like the controllers did with the AttributesRemovalHelper.
+     */
+    @SuppressWarnings("unchecked")
+    private static byte[] writePrevious(PagedSearchResult<User> page, String[] attributes) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectWriter writer = mapper.writer();
+        if (attributes.length != 0) {
+            mapper.addMixInAnnotations(Object.class, PropertyFilterMixIn.class);
+            writer = mapper.writer(new SimpleFilterProvider().addFilter(PropertyFilterMixIn.FILTER_ID,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(attributes)));
+        }
+
+        JsonNode resourcesNode = mapper.readTree(writer.writeValueAsString(page.getResources()));
+        JsonNode schemasNode = mapper.readTree(writer.writeValueAsString(page.getSchemas()));
+
+        ObjectNode rootNode = mapper.createObjectNode();
+        rootNode.put("totalResults", page.getTotalResults());
+        rootNode.put("itemsPerPage", page.getItemsPerPage());
+        rootNode.put("startIndex", page.getStartIndex());
+        rootNode.put("schemas", schemasNode);
+        rootNode.put("Resources", resourcesNode);
+
+        SCIMSearchResult<Object> result = mapper.readValue(rootNode.toString(), SCIMSearchResult.class);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RESPONSE_MAPPER.writeValue(out, PagedSearchResult.withStartIndex(result.getResources(),
+                page.getTotalResults(), page.getItemsPerPage(), page.getStartIndex(), Constants.USER_CORE_SCHEMA));
+        return out.toByteArray();
+    }
+}
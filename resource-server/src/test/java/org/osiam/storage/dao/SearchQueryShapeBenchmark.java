@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the query shape used by {@link ResourceDao} before filters were applied to the resource root directly
+ * (the filter in an <code>internal_id IN (subquery)</code>, multi-valued attributes joined inside) with the flat
+ * query using EXISTS subqueries for multi-valued attributes. The SQL equals the one generated by Hibernate, reduced
+ * to the internal ids of a page sorted by userName.
+ * <p>
+ * The benchmark needs a PostgreSQL database created with init_ddl.sql and init_data.sql. If a number of users is
+ * given, that many users, each with a work email, every tenth with a home email and an extension value, are
+ * generated first:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.osiam.storage.dao.SearchQueryShapeBenchmark \
+ *     -Dexec.args="jdbc:postgresql://localhost:5432/osiam_benchmark postgres password 1000000"
+ * </pre>
+ */
+public final class SearchQueryShapeBenchmark {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    private static final long FIRST_INTERNAL_ID = 100000000L;
+    static final long EXTENSION_FIELD_INTERNAL_ID = FIRST_INTERNAL_ID + 1;
+
+    private static final String PAGE = "SELECT u.internal_id FROM scim_user u "
+            + "JOIN scim_id i ON u.internal_id = i.internal_id WHERE %s ORDER BY u.username ASC LIMIT 20";
+    private static final String COUNT = "SELECT count(*) FROM scim_user u "
+            + "JOIN scim_id i ON u.internal_id = i.internal_id WHERE %s";
+    private static final String IN_SUBQUERY = "u.internal_id IN (SELECT u2.internal_id FROM scim_user u2 "
+            + "JOIN scim_id i2 ON u2.internal_id = i2.internal_id %s WHERE %s)";
+
+    private static final String[][] SCENARIOS = {
+            { "active eq \"true\"",
+                    String.format(IN_SUBQUERY, "", "u2.active = true"),
+                    "u.active = true" },
+            { "emails.type eq \"home\"",
+                    String.format(IN_SUBQUERY, "LEFT JOIN scim_email e ON u2.internal_id = e.user_internal_id",
+                            "e.type = 'home'"),
+                    "EXISTS (SELECT u.internal_id FROM scim_email e "
+                            + "WHERE u.internal_id = e.user_internal_id AND e.type = 'home')" },
+            { "emails.value eq \"user500000@work.example.com\"",
+                    String.format(IN_SUBQUERY, "LEFT JOIN scim_email e ON u2.internal_id = e.user_internal_id",
+                            "e.value = 'user500000@work.example.com'"),
+                    "EXISTS (SELECT u.internal_id FROM scim_email e "
+                            + "WHERE u.internal_id = e.user_internal_id AND e.value = 'user500000@work.example.com')" },
+            { "urn:org.osiam:benchmark.department eq \"department7\"",
+                    String.format(IN_SUBQUERY, "LEFT JOIN scim_extension_field_value v "
+                            + "ON u2.internal_id = v.user_internal_id AND v.extension_field_internal_id = "
+                            + EXTENSION_FIELD_INTERNAL_ID, "v.value = 'department7'"),
+                    "EXISTS (SELECT u.internal_id FROM scim_extension_field_value v "
+                            + "WHERE u.internal_id = v.user_internal_id AND v.extension_field_internal_id = "
+                            + EXTENSION_FIELD_INTERNAL_ID + " AND v.value = 'department7')" },
+            { "userName sw \"user1\" and emails.type eq \"work\"",
+                    String.format(IN_SUBQUERY, "LEFT JOIN scim_email e ON u2.internal_id = e.user_internal_id",
+                            "u2.username LIKE 'user1%' AND e.type = 'work'"),
+                    "u.username LIKE 'user1%' AND EXISTS (SELECT u.internal_id FROM scim_email e "
+                            + "WHERE u.internal_id = e.user_internal_id AND e.type = 'work')" }
+    };
+
+    private static final String[] GENERATE_USERS = {
+            "INSERT INTO scim_meta (id, created, lastmodified, resourcetype) "
+                    + "SELECT " + FIRST_INTERNAL_ID + " + n, now() - n * interval '1 second', now(), 'User' "
+                    + "FROM generate_series(1, ?) n",
+            "INSERT INTO scim_id (internal_id, id, meta_id) "
+                    + "SELECT " + FIRST_INTERNAL_ID + " + n, md5(n::text)::uuid::text, " + FIRST_INTERNAL_ID + " + n "
+                    + "FROM generate_series(1, ?) n",
+            "INSERT INTO scim_user (internal_id, username, password, active) "
+                    + "SELECT " + FIRST_INTERNAL_ID + " + n, 'user' || n, md5(n::text), n % 2 = 0 "
+                    + "FROM generate_series(1, ?) n",
+            "INSERT INTO scim_email (multi_value_id, is_primary, value, type, user_internal_id) "
+                    + "SELECT " + FIRST_INTERNAL_ID + " + 2 * n, true, 'user' || n || '@work.example.com', 'work', "
+                    + FIRST_INTERNAL_ID + " + n FROM generate_series(1, ?) n",
+            "INSERT INTO scim_email (multi_value_id, is_primary, value, type, user_internal_id) "
+                    + "SELECT " + FIRST_INTERNAL_ID + " + 2 * n + 1, false, 'user' || n || '@home.example.com', "
+                    + "'home', " + FIRST_INTERNAL_ID + " + n FROM generate_series(10, ?, 10) n",
+            "INSERT INTO scim_extension_field_value (internal_id, value, extension_field_internal_id, "
+                    + "user_internal_id) SELECT " + FIRST_INTERNAL_ID + " + n, 'department' || n % 100, "
+                    + EXTENSION_FIELD_INTERNAL_ID + ", " + FIRST_INTERNAL_ID + " + n "
+                    + "FROM generate_series(10, ?, 10) n"
+    };
+
+    private SearchQueryShapeBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 3) {
+            System.err.println("Usage: SearchQueryShapeBenchmark <jdbc url> <user> <password> [users to generate]");
+            System.exit(1);
+        }
+
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            if (args.length > 3) {
+                generateUsers(connection, Integer.parseInt(args[3]));
+            }
+
+            System.out.println(String.format(Locale.ENGLISH, "%-55s %-6s %12s %12s", "filter", "query",
+                    "IN (ms)", "flat (ms)"));
+            for (String[] scenario : SCENARIOS) {
+                for (String query : Arrays.asList(PAGE, COUNT)) {
+                    double before = measure(connection, String.format(query, scenario[1]));
+                    double after = measure(connection, String.format(query, scenario[2]));
+                    System.out.println(String.format(Locale.ENGLISH, "%-55s %-6s %12.1f %12.1f", scenario[0],
+                            query.equals(PAGE) ? "page" : "count", before, after));
+                }
+            }
+        }
+    }
+
+    static void generateUsers(Connection connection, int users) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO scim_extension (internal_id, urn) VALUES (" + FIRST_INTERNAL_ID
+                    + ", 'urn:org.osiam:benchmark')");
+            statement.executeUpdate("INSERT INTO scim_extension_field (internal_id, name, is_required, type, "
+                    + "extension_internal_id) VALUES (" + EXTENSION_FIELD_INTERNAL_ID + ", 'department', false, "
+                    + "'STRING', " + FIRST_INTERNAL_ID + ")");
+        }
+
+        for (String sql : GENERATE_USERS) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setInt(1, users);
+                statement.executeUpdate();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE");
+        }
+    }
+
+    /**
+     * @return the median execution time in milliseconds
+     */
+    private static double measure(Connection connection, String sql) throws SQLException {
+        List<Long> durations = new ArrayList<>();
+
+        for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(sql)) {
+                while (resultSet.next()) { // NOSONAR - the rows are only read to measure the query
+                }
+            }
+            if (i >= WARMUP_RUNS) {
+                durations.add(System.nanoTime() - start);
+            }
+        }
+
+        Collections.sort(durations);
+        return durations.get(durations.size() / 2) / 1000000.0;
+    }
+}
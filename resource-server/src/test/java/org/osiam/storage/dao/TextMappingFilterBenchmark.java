@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.jpa.boot.spi.TypeContributorList;
+import org.hibernate.metamodel.spi.TypeContributions;
+import org.hibernate.metamodel.spi.TypeContributor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.StringClobType;
+import org.osiam.storage.entities.EmailEntity;
+import org.osiam.storage.entities.ExtensionFieldValueEntity;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * Compares equality filters on emails and extension fields before and after the unbounded strings were mapped as
+ * text instead of character large objects. Before, the values were bound and read as character streams and there
+ * was no index on the extension field and value. The benchmark drops this index for the first run and creates it
+ * again for the second, which also filters on the indexed prefix of the value like the resource server does. Each
+ * query loads a page of 20 values, like a search of the resource server.
+ * <p>
+ * The benchmark needs a PostgreSQL database created with init_ddl.sql and init_data.sql. If a number of users is
+ * given, they are generated like for the {@link SearchQueryShapeBenchmark} first:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.osiam.storage.dao.TextMappingFilterBenchmark \
+ *     -Dexec.args="jdbc:postgresql://localhost:5432/osiam_benchmark postgres password 1000000"
+ * </pre>
+ */
+public final class TextMappingFilterBenchmark {
+
+    private static final int QUERIES_PER_RUN = 100;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String EXTENSION_VALUE_INDEX = "scim_extension_field_value_value_prefix_idx";
+
+    private static final String EMAIL_FILTER = "SELECT e FROM EmailEntity e WHERE e.value = :value";
+    private static final String EXTENSION_FILTER = "SELECT v FROM ExtensionFieldValueEntity v "
+            + "WHERE v.extensionField.internalId = :field AND v.value = :value";
+    private static final String EXTENSION_PREFIX_FILTER = EXTENSION_FILTER + " AND substring(v.value, 1, "
+            + ExtensionFieldValueEntity.VALUE_PREFIX_LENGTH + ") = :prefix";
+
+    private TextMappingFilterBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 3) {
+            System.err.println("Usage: TextMappingFilterBenchmark <jdbc url> <user> <password> [users to generate]");
+            System.exit(1);
+        }
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(args[0], args[1], args[2], true);
+        try {
+            if (args.length > 3) {
+                SearchQueryShapeBenchmark.generateUsers(dataSource.getConnection(), Integer.parseInt(args[3]));
+            }
+
+            execute(dataSource, "DROP INDEX IF EXISTS " + EXTENSION_VALUE_INDEX);
+            double[] before = measure(createEntityManagerFactory(dataSource, true), false);
+
+            execute(dataSource, "CREATE INDEX " + EXTENSION_VALUE_INDEX + " ON scim_extension_field_value "
+                    + "USING btree (extension_field_internal_id, substring(value, 1, "
+                    + ExtensionFieldValueEntity.VALUE_PREFIX_LENGTH + "))");
+            execute(dataSource, "ANALYZE scim_extension_field_value");
+            double[] after = measure(createEntityManagerFactory(dataSource, false), true);
+
+            System.out.println(String.format(Locale.ENGLISH, "%-45s %12s %12s", "filter", "lob (ms)",
+                    "text (ms)"));
+            System.out.println(String.format(Locale.ENGLISH, "%-45s %12.2f %12.2f",
+                    "emails.value eq \"user<n>@work.example.com\"", before[0], after[0]));
+            System.out.println(String.format(Locale.ENGLISH, "%-45s %12.2f %12.2f",
+                    "urn:org.osiam:benchmark.department eq \"department<n>\"", before[1], after[1]));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static void execute(SingleConnectionDataSource dataSource, String sql) throws SQLException {
+        try (Statement statement = dataSource.getConnection().createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static EntityManagerFactory createEntityManagerFactory(SingleConnectionDataSource dataSource,
+            boolean lob) {
+        HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        vendorAdapter.setDatabasePlatform("org.hibernate.dialect.PostgreSQLDialect");
+
+        Map<String, Object> properties = new HashMap<>();
+        if (lob) {
+            properties.put("hibernate.type_contributors", new ClobMapping());
+        }
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("org.osiam.storage.entities");
+        factory.setJpaVendorAdapter(vendorAdapter);
+        factory.setJpaPropertyMap(properties);
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    /**
+     * @return the median time of an email and an extension filter in milliseconds
+     */
+    private static double[] measure(EntityManagerFactory entityManagerFactory, boolean prefix) {
+        List<Long> emailDurations = new ArrayList<>();
+        List<Long> extensionDurations = new ArrayList<>();
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+                long start = System.nanoTime();
+                for (int j = 0; j < QUERIES_PER_RUN; j++) {
+                    em.createQuery(EMAIL_FILTER, EmailEntity.class)
+                            .setParameter("value", "user" + (j + 1) + "@work.example.com")
+                            .setMaxResults(PAGE_SIZE).getResultList();
+                    em.clear();
+                }
+                long emailDuration = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int j = 0; j < QUERIES_PER_RUN; j++) {
+                    String value = "department" + j % 10 * 10;
+                    TypedQuery<ExtensionFieldValueEntity> query = em.createQuery(
+                            prefix ? EXTENSION_PREFIX_FILTER : EXTENSION_FILTER, ExtensionFieldValueEntity.class)
+                            .setParameter("field", SearchQueryShapeBenchmark.EXTENSION_FIELD_INTERNAL_ID)
+                            .setParameter("value", value);
+                    if (prefix) {
+                        query.setParameter("prefix", ExtensionFieldValueEntity.valuePrefix(value));
+                    }
+                    query.setMaxResults(PAGE_SIZE).getResultList();
+                    em.clear();
+                }
+                long extensionDuration = System.nanoTime() - start;
+
+                if (i >= WARMUP_RUNS) {
+                    emailDurations.add(emailDuration);
+                    extensionDurations.add(extensionDuration);
+                }
+            }
+        } finally {
+            em.close();
+            entityManagerFactory.close();
+        }
+
+        return new double[] { median(emailDurations), median(extensionDurations) };
+    }
+
+    private static double median(List<Long> durations) {
+        Collections.sort(durations);
+        return durations.get(durations.size() / 2) / (QUERIES_PER_RUN * 1000000.0);
+    }
+
+    /**
+     * Maps the unbounded strings like before, as character large objects.
+     */
+    private static final class ClobMapping implements TypeContributorList, TypeContributor {
+
+        @Override
+        public List<TypeContributor> getTypeContributors() {
+            return Collections.<TypeContributor> singletonList(this);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void contribute(TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+            typeContributions.contributeType(new StringClobType(), new String[] { "text" });
+        }
+    }
+}
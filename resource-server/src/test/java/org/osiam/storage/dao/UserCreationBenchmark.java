@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2013 tarent AG
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ * CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.osiam.storage.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.id.SequenceGenerator;
+import org.hibernate.jpa.AvailableSettings;
+import org.hibernate.jpa.spi.IdentifierGeneratorStrategyProvider;
+import org.osiam.resources.scim.Email;
+import org.osiam.resources.scim.PhoneNumber;
+import org.osiam.storage.entities.EmailEntity;
+import org.osiam.storage.entities.NameEntity;
+import org.osiam.storage.entities.PhoneNumberEntity;
+import org.osiam.storage.entities.RoleEntity;
+import org.osiam.storage.entities.UserEntity;
+import org.osiam.storage.helper.PooledSequenceGenerator;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * Compares the throughput of creating users one per transaction, like POST /Users does, before and after the ids were
+ * allocated in blocks by the {@link PooledSequenceGenerator} and the inserts were sorted into JDBC batches. Before,
+ * every entity called the sequence and the inserts of a user were batched in the order they were persisted. Each user
+ * has a name, two emails, a phone number and a role, so it needs six ids.
+ * <p>
+ * The benchmark needs a PostgreSQL database created with init_ddl.sql or migrated with from_0_17_to_0_18.sql. The
+ * created users are not removed:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.osiam.storage.dao.UserCreationBenchmark \
+ *     -Dexec.args="jdbc:postgresql://localhost:5432/osiam_benchmark postgres password"
+ * </pre>
+ */
+public final class UserCreationBenchmark {
+
+    private static final int USERS_PER_RUN = 500;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    private static final String RUN_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    private static int userCount;
+
+    private UserCreationBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: UserCreationBenchmark <jdbc url> <user> <password>");
+            System.exit(1);
+        }
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(args[0], args[1], args[2], true);
+        try {
+            double before = measure(createEntityManagerFactory(dataSource, false));
+            double after = measure(createEntityManagerFactory(dataSource, true));
+
+            System.out.println(String.format(Locale.ENGLISH, "%-20s %18s %18s", "", "before (users/s)",
+                    "after (users/s)"));
+            System.out.println(String.format(Locale.ENGLISH, "%-20s %18.1f %18.1f", "POST /Users", before, after));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static EntityManagerFactory createEntityManagerFactory(SingleConnectionDataSource dataSource,
+            boolean pooled) {
+        HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        vendorAdapter.setDatabasePlatform("org.hibernate.dialect.PostgreSQLDialect");
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.jdbc.batch_size", "50");
+        properties.put("hibernate.order_inserts", String.valueOf(pooled));
+        properties.put("hibernate.order_updates", String.valueOf(pooled));
+        if (!pooled) {
+            properties.put(AvailableSettings.IDENTIFIER_GENERATOR_STRATEGY_PROVIDER,
+                    SequencePerId.class.getName());
+        }
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("org.osiam.storage.entities");
+        factory.setJpaVendorAdapter(vendorAdapter);
+        factory.setJpaPropertyMap(properties);
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    /**
+     * @return the median number of users created per second
+     */
+    private static double measure(EntityManagerFactory entityManagerFactory) {
+        List<Long> durations = new ArrayList<>();
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+                long start = System.nanoTime();
+                for (int j = 0; j < USERS_PER_RUN; j++) {
+                    em.getTransaction().begin();
+                    em.persist(createUser());
+                    em.getTransaction().commit();
+                    em.clear();
+                }
+                if (i >= WARMUP_RUNS) {
+                    durations.add(System.nanoTime() - start);
+                }
+            }
+        } finally {
+            em.close();
+            entityManagerFactory.close();
+        }
+
+        Collections.sort(durations);
+        return USERS_PER_RUN / (durations.get(durations.size() / 2) / 1000000000.0);
+    }
+
+    private static UserEntity createUser() {
+        int i = userCount++;
+        String userName = "benchmark-" + RUN_ID + "-" + i;
+
+        UserEntity user = new UserEntity();
+        user.setId(UUID.randomUUID());
+        user.setUserName(userName);
+        user.setPassword("secret");
+
+        NameEntity name = new NameEntity();
+        name.setGivenName("Given" + i);
+        name.setFamilyName("Family" + i);
+        user.setName(name);
+
+        EmailEntity workEmail = new EmailEntity();
+        workEmail.setValue(userName + "@work.example.com");
+        workEmail.setType(Email.Type.WORK);
+        workEmail.setPrimary(true);
+        user.addEmail(workEmail);
+
+        EmailEntity homeEmail = new EmailEntity();
+        homeEmail.setValue(userName + "@home.example.com");
+        homeEmail.setType(Email.Type.HOME);
+        user.addEmail(homeEmail);
+
+        PhoneNumberEntity phoneNumber = new PhoneNumberEntity();
+        phoneNumber.setValue("0123 " + i);
+        phoneNumber.setType(PhoneNumber.Type.WORK);
+        user.addPhoneNumber(phoneNumber);
+
+        RoleEntity role = new RoleEntity();
+        role.setValue("USER");
+        user.addRole(role);
+
+        return user;
+    }
+
+    /**
+     * Maps the ids of all entities to the previous generator, which called the sequence for every id.
+     */
+    public static final class SequencePerId implements IdentifierGeneratorStrategyProvider {
+
+        @Override
+        public Map<String, Class<?>> getStrategies() {
+            Map<String, Class<?>> strategies = new HashMap<>();
+            strategies.put(PooledSequenceGenerator.STRATEGY, SequenceGenerator.class);
+            return strategies;
+        }
+    }
+}